@@ -0,0 +1,36 @@
+package com.spaghetticodegang.trylater.config;
+
+import com.spaghetticodegang.trylater.image.ImageRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for the startup reconciliation of the reference counts of images.
+ * The counts are maintained whenever a user or a recommendation starts or stops using an image,
+ * so recalculating them from the image paths of all users and recommendations is only needed
+ * after the column has been added to an existing database or if explicitly configured.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class ImageRefCountConfig {
+
+    private final ImageRepository imageRepository;
+
+    /**
+     * Recalculates the reference counts on startup if configured or if images in use are counted as unused.
+     *
+     * @param reconcileOnStartup whether to always recalculate the counts on startup
+     * @return the startup runner
+     */
+    @Bean
+    public CommandLineRunner reconcileImageRefCounts(@Value("${image.ref-count.reconcile-on-startup}") boolean reconcileOnStartup) {
+        return args -> {
+            if (reconcileOnStartup || imageRepository.existsUncountedReferences()) {
+                imageRepository.reconcileRefCounts();
+            }
+        };
+    }
+}
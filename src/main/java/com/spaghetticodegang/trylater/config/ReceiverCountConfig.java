@@ -0,0 +1,36 @@
+package com.spaghetticodegang.trylater.config;
+
+import com.spaghetticodegang.trylater.recommendation.RecommendationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for the startup reconciliation of the receiver counts of recommendations.
+ * The counts are maintained together with every assignment insert and delete, so recalculating them
+ * with a correlated update over the whole table is only needed after the column has been added
+ * to an existing database or if explicitly configured.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class ReceiverCountConfig {
+
+    private final RecommendationRepository recommendationRepository;
+
+    /**
+     * Recalculates the receiver counts on startup if configured or if assigned recommendations are counted as orphans.
+     *
+     * @param reconcileOnStartup whether to always recalculate the counts on startup
+     * @return the startup runner
+     */
+    @Bean
+    public CommandLineRunner reconcileReceiverCounts(@Value("${recommendation.receiver-count.reconcile-on-startup}") boolean reconcileOnStartup) {
+        return args -> {
+            if (reconcileOnStartup || recommendationRepository.existsUncountedAssignments()) {
+                recommendationRepository.reconcileReceiverCounts();
+            }
+        };
+    }
+}
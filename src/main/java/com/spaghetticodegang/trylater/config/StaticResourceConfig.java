@@ -1,20 +1,40 @@
 package com.spaghetticodegang.trylater.config;
 
+import com.spaghetticodegang.trylater.image.ImageService;
+import com.spaghetticodegang.trylater.image.ImageSizeResourceResolver;
+import com.spaghetticodegang.trylater.image.storage.ImageStorage;
+import com.spaghetticodegang.trylater.image.storage.ImageStorageResourceResolver;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.time.Duration;
+
 @Configuration
+@RequiredArgsConstructor
 public class StaticResourceConfig implements WebMvcConfigurer {
 
-    @Value("${image.upload.dir}")
-    private String uploadDir;
+    private final ObjectProvider<ImageService> imageService;
+    private final ObjectProvider<ImageStorage> imageStorage;
+
+    @Value("${image.serving.max-age}")
+    private Duration maxAge;
 
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         registry
                 .addResourceHandler("/api/images/**")
-                .addResourceLocations("file:" + uploadDir + "/");
+                // file names are derived from the content, so a file never changes and its name is a strong ETag
+                .setCacheControl(CacheControl.maxAge(maxAge).cachePrivate().immutable())
+                .setEtagGenerator(Resource::getFilename)
+                // resolved paths depend on the size parameter, so they must not be cached by path
+                .resourceChain(false)
+                .addResolver(new ImageSizeResourceResolver(imageService))
+                .addResolver(new ImageStorageResourceResolver(imageStorage));
     }
 }
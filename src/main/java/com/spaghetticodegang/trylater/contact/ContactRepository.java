@@ -1,12 +1,16 @@
 package com.spaghetticodegang.trylater.contact;
 
 import com.spaghetticodegang.trylater.contact.enums.ContactStatus;
+import com.spaghetticodegang.trylater.user.User;
 import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository interface for accessing and managing contact entities in the database.
@@ -29,6 +33,20 @@ public interface ContactRepository extends JpaRepository<Contact, Long> {
             """)
     boolean existsByUserIds(Long userId1, Long userId2);
 
+    /**
+     * Finds the IDs of all users that have a contact relationship with the given user,
+     * regardless of which user was the requester or receiver.
+     *
+     * @param userId the ID of the user
+     * @return a list of user IDs or an empty list
+     */
+    @Query("""
+            SELECT CASE WHEN c.requester.id = :userId THEN c.receiver.id ELSE c.requester.id END
+            FROM Contact c
+            WHERE c.requester.id = :userId OR c.receiver.id = :userId
+            """)
+    List<Long> findContactUserIdsByUserId(Long userId);
+
     /**
      * Finds all contacts for a given requesterId or receiverId.
      * Filters the contacts according to the given status.
@@ -72,6 +90,51 @@ public interface ContactRepository extends JpaRepository<Contact, Long> {
      */
     List<Contact> findByBlockedByIdAndContactStatus(Long blockedById, ContactStatus contactStatus);
 
+    /**
+     * Finds a contact by its ID and fetches requester and receiver.
+     *
+     * @param contactId the ID of the contact
+     * @return an {@link Optional} of the {@link Contact} entity
+     */
+    @Query("""
+            SELECT c FROM Contact c JOIN FETCH c.requester JOIN FETCH c.receiver WHERE c.id = :contactId
+            """)
+    Optional<Contact> findWithUsersById(Long contactId);
+
+    /**
+     * Accepts a contact request if the given user is its receiver and its current status is one of the allowed statuses.
+     *
+     * @param contactId   the ID of the contact
+     * @param receiverId  the ID of the receiver
+     * @param acceptDate  the acceptance date
+     * @param allowedFrom the statuses the contact may currently have
+     * @return the number of updated contacts, zero if the guard did not match
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            UPDATE Contact c
+            SET c.contactStatus = com.spaghetticodegang.trylater.contact.enums.ContactStatus.ACCEPTED, c.acceptDate = :acceptDate
+            WHERE c.id = :contactId AND c.receiver.id = :receiverId AND c.contactStatus IN :allowedFrom
+            """)
+    int acceptContact(Long contactId, Long receiverId, LocalDateTime acceptDate, Collection<ContactStatus> allowedFrom);
+
+    /**
+     * Blocks a contact if the given user is part of it and its current status is one of the allowed statuses.
+     *
+     * @param contactId   the ID of the contact
+     * @param blockedBy   the user who blocks the contact
+     * @param allowedFrom the statuses the contact may currently have
+     * @return the number of updated contacts, zero if the guard did not match
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            UPDATE Contact c
+            SET c.contactStatus = com.spaghetticodegang.trylater.contact.enums.ContactStatus.BLOCKED, c.blockedBy = :blockedBy
+            WHERE c.id = :contactId AND (c.requester = :blockedBy OR c.receiver = :blockedBy)
+                AND c.contactStatus IN :allowedFrom
+            """)
+    int blockContact(Long contactId, User blockedBy, Collection<ContactStatus> allowedFrom);
+
     /**
      * IN case of a user is deleted, all his contacts will be deleted
      *
@@ -5,18 +5,23 @@ import com.spaghetticodegang.trylater.contact.dto.ContactResponseDto;
 import com.spaghetticodegang.trylater.contact.dto.ContactStatusRequestDto;
 import com.spaghetticodegang.trylater.contact.enums.ContactRole;
 import com.spaghetticodegang.trylater.contact.enums.ContactStatus;
+import com.spaghetticodegang.trylater.notification.event.ContactRequestedEvent;
 import com.spaghetticodegang.trylater.shared.exception.ContactNotFoundException;
 import com.spaghetticodegang.trylater.shared.exception.ValidationException;
 import com.spaghetticodegang.trylater.shared.util.MessageUtil;
 import com.spaghetticodegang.trylater.user.User;
 import com.spaghetticodegang.trylater.user.UserService;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -26,8 +31,12 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ContactService {
 
+    private static final Set<ContactStatus> ACCEPTABLE_STATUSES = Set.of(ContactStatus.PENDING);
+    private static final Set<ContactStatus> BLOCKABLE_STATUSES = Set.of(ContactStatus.PENDING, ContactStatus.ACCEPTED);
+
     private final ContactRepository contactRepository;
     private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
     private final MessageUtil messageUtil;
 
     /**
@@ -42,6 +51,17 @@ public class ContactService {
         return contactRepository.existsByUserIds(userId1, userId2);
     }
 
+    /**
+     * Returns the IDs of all users that have a contact relationship with the given user,
+     * regardless of which user was the requester or receiver.
+     *
+     * @param userId the ID of the user
+     * @return a set of user IDs or an empty set
+     */
+    public Set<Long> getContactUserIds(Long userId) {
+        return new HashSet<>(contactRepository.findContactUserIdsByUserId(userId));
+    }
+
     /**
      * Finds a contact by their unique ID.
      *
@@ -127,6 +147,7 @@ public class ContactService {
      * @throws ValidationException if the target is the same as the requester
      *                             or if a contact already exists between the users
      */
+    @Transactional
     public ContactResponseDto createContact(User me, ContactRequestDto request) {
         final Long targetUserId = request.getTargetUserId();
 
@@ -149,46 +170,69 @@ public class ContactService {
                 .build();
 
         contactRepository.save(contact);
+        eventPublisher.publishEvent(new ContactRequestedEvent(targetUserId, contact.getId()));
         return createContactResponseDto(me, contact);
     }
 
     /**
      * Performs validation and updates the contact's status, including setting the acceptance date if applicable.
+     * Each transition is a single guarded update, so concurrent requests cannot overwrite each other.
+     * Repeating a transition that has already been applied by the same user has no effect.
      *
      * @param me                      the currently authenticated user
      * @param contactId               the ID of the contact whose status is to be updated
      * @param contactStatusRequestDto the DTO containing the new contact status
      * @return a response DTO representing the updated contact
-     * @throws ValidationException if the status change is invalid
+     * @throws ValidationException     if the status change is invalid
+     * @throws ContactNotFoundException if the contact does not exist
      */
+    @Transactional
     public ContactResponseDto updateContactStatus(User me, Long contactId, ContactStatusRequestDto contactStatusRequestDto) {
         final ContactStatus contactStatus = contactStatusRequestDto.getContactStatus();
-        final Contact contact = findContactById(contactId);
-
-        if (!Objects.equals(contact.getRequester().getId(), me.getId()) && !Objects.equals(contact.getReceiver().getId(), me.getId())) {
-            throw new ValidationException(Map.of("contact", messageUtil.get("contact.error.user.not.found")));
-        }
 
         if (contactStatus == ContactStatus.PENDING) {
             throw new ValidationException(Map.of("contactStatus", messageUtil.get("contact.error.status.revert.to.pending")));
         }
 
-        if (contact.getRequester().getId().equals(me.getId()) && contactStatus == ContactStatus.ACCEPTED) {
-            throw new ValidationException(Map.of("contactStatus", messageUtil.get("contact.error.self.update.status")));
-        }
+        final int updated = contactStatus == ContactStatus.ACCEPTED
+                ? contactRepository.acceptContact(contactId, me.getId(), LocalDateTime.now(), ACCEPTABLE_STATUSES)
+                : contactRepository.blockContact(contactId, me, BLOCKABLE_STATUSES);
 
-        if (contactStatus == ContactStatus.ACCEPTED) {
-            contact.setAcceptDate(LocalDateTime.now());
+        if (updated == 0) {
+            validateRejectedStatusChange(me, contactId, contactStatus);
         }
 
-        if (contactStatus == ContactStatus.BLOCKED) {
-            contact.setBlockedBy(me);
+        final Contact contact = contactRepository.findWithUsersById(contactId)
+                .orElseThrow(() -> new ContactNotFoundException("contact.error.not.found"));
+        return createContactResponseDto(me, contact);
+    }
+
+    /**
+     * Determines why a guarded status update did not change the contact.
+     * Returns normally if the contact already is in the requested state because of the same user.
+     *
+     * @param me            the currently authenticated user
+     * @param contactId     the ID of the contact
+     * @param contactStatus the requested contact status
+     * @throws ValidationException     if the status change is invalid
+     * @throws ContactNotFoundException if the contact does not exist
+     */
+    private void validateRejectedStatusChange(User me, Long contactId, ContactStatus contactStatus) {
+        final Contact contact = findContactById(contactId);
+
+        if (!Objects.equals(contact.getRequester().getId(), me.getId()) && !Objects.equals(contact.getReceiver().getId(), me.getId())) {
+            throw new ValidationException(Map.of("contact", messageUtil.get("contact.error.user.not.found")));
         }
 
-        contact.setContactStatus(contactStatus);
-        contactRepository.save(contact);
+        if (contactStatus == ContactStatus.ACCEPTED && contact.getRequester().getId().equals(me.getId())) {
+            throw new ValidationException(Map.of("contactStatus", messageUtil.get("contact.error.self.update.status")));
+        }
 
-        return createContactResponseDto(me, contact);
+        final boolean alreadyApplied = contact.getContactStatus() == contactStatus
+                && (contactStatus != ContactStatus.BLOCKED || Objects.equals(contact.getBlockedBy().getId(), me.getId()));
+        if (!alreadyApplied) {
+            throw new ValidationException(Map.of("contactStatus", messageUtil.get("contact.error.status.transition.invalid")));
+        }
     }
 
     /**
@@ -0,0 +1,305 @@
+package com.spaghetticodegang.trylater.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spaghetticodegang.trylater.shared.util.MessageUtil;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.Part;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Filter that makes POST requests with an {@code Idempotency-Key} header safe to retry.
+ * The first request with a key is executed and its response is stored for the configured time to live.
+ * Retries with the same key and the same request are answered with the stored response without reaching the controllers,
+ * concurrent retries wait for the first request to finish. Keys are scoped to the authenticated user and the path.
+ * Responses with a server error are not stored, so the request can be retried.
+ * If the store or the share of the user is full, new keys are rejected with 503 (SERVICE UNAVAILABLE) and a {@code Retry-After} header
+ * instead of running the request without protection.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+    private final List<String> paths;
+    private final Duration waitTimeout;
+    private final Duration retryAfter;
+    private final ObjectMapper objectMapper;
+    private final MessageUtil messageUtil;
+
+    public IdempotencyFilter(@Value("${idempotency.paths}") List<String> paths,
+                             @Value("${idempotency.ttl}") Duration ttl,
+                             @Value("${idempotency.max-entries}") int maxEntries,
+                             @Value("${idempotency.max-entries-per-user}") int maxEntriesPerUser,
+                             @Value("${idempotency.wait-timeout}") Duration waitTimeout,
+                             @Value("${idempotency.retry-after}") Duration retryAfter,
+                             ObjectMapper objectMapper,
+                             MessageUtil messageUtil) {
+        this.store = new IdempotencyStore(ttl, maxEntries, maxEntriesPerUser, Clock.systemUTC());
+        this.paths = paths;
+        this.waitTimeout = waitTimeout;
+        this.retryAfter = retryAfter;
+        this.objectMapper = objectMapper;
+        this.messageUtil = messageUtil;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null
+                || !paths.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+
+        final String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER).trim();
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, "idempotency.key.invalid");
+            return;
+        }
+
+        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        final HttpServletRequest cachedRequest = isMultipart(request) ? request : new CachedBodyRequest(request);
+        final byte[] fingerprint = fingerprint(cachedRequest);
+        final String key = authentication.getName() + " " + request.getRequestURI() + " " + idempotencyKey;
+
+        while (true) {
+            final IdempotencyStore.Claim claim = store.claim(authentication.getName(), key, fingerprint);
+            if (claim == null) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter.toSeconds()));
+                writeError(response, HttpStatus.SERVICE_UNAVAILABLE, "idempotency.store.full");
+                return;
+            }
+
+            if (claim.owner()) {
+                execute(cachedRequest, response, filterChain, key, claim.entry());
+                return;
+            }
+
+            if (!claim.entry().matches(fingerprint)) {
+                writeError(response, HttpStatus.UNPROCESSABLE_ENTITY, "idempotency.key.reused");
+                return;
+            }
+
+            final IdempotentResponse storedResponse;
+            try {
+                storedResponse = claim.entry().getResponse().get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                writeError(response, HttpStatus.CONFLICT, "idempotency.request.in.progress");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                writeError(response, HttpStatus.CONFLICT, "idempotency.request.in.progress");
+                return;
+            } catch (ExecutionException e) {
+                throw new ServletException(e.getCause());
+            }
+
+            if (storedResponse != null) {
+                replay(response, storedResponse);
+                return;
+            }
+            // the first request failed and released the key, so try to claim it again
+        }
+    }
+
+    /**
+     * Executes the request and stores its response unless it failed with a server error.
+     *
+     * @param request     the request with a readable body
+     * @param response    the servlet response
+     * @param filterChain the remaining filter chain
+     * @param key         the scoped idempotency key
+     * @param entry       the store entry owned by this request
+     */
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain, String key, IdempotencyStore.Entry entry)
+            throws ServletException, IOException {
+        final ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(request, responseWrapper);
+            if (responseWrapper.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+                store.complete(entry, new IdempotentResponse(
+                        responseWrapper.getStatus(),
+                        responseWrapper.getContentType(),
+                        responseWrapper.getHeader(HttpHeaders.LOCATION),
+                        responseWrapper.getContentAsByteArray()));
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                store.abandon(key, entry);
+            }
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * Writes a stored response.
+     *
+     * @param response       the servlet response
+     * @param storedResponse the response of the first request
+     */
+    private void replay(HttpServletResponse response, IdempotentResponse storedResponse) throws IOException {
+        response.setStatus(storedResponse.status());
+        if (storedResponse.contentType() != null) {
+            response.setContentType(storedResponse.contentType());
+        }
+        if (storedResponse.location() != null) {
+            response.setHeader(HttpHeaders.LOCATION, storedResponse.location());
+        }
+        response.setHeader(IDEMPOTENT_REPLAYED_HEADER, "true");
+        response.setContentLength(storedResponse.body().length);
+        response.getOutputStream().write(storedResponse.body());
+    }
+
+    /**
+     * Writes an error response in the format of the global exception handler.
+     *
+     * @param response   the servlet response
+     * @param status     the HTTP status
+     * @param messageKey the key of the error message
+     */
+    private void writeError(HttpServletResponse response, HttpStatus status, String messageKey) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), Map.of("message", messageUtil.get(messageKey)));
+    }
+
+    /**
+     * Hashes the method, path and body of a request. Multipart bodies are hashed part by part.
+     *
+     * @param request the request with a readable body
+     * @return the SHA-256 hash of the request
+     */
+    private byte[] fingerprint(HttpServletRequest request) throws IOException, ServletException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        digest.update((request.getMethod() + " " + request.getRequestURI() + "\n").getBytes(StandardCharsets.UTF_8));
+        if (request instanceof CachedBodyRequest cachedBodyRequest) {
+            digest.update(cachedBodyRequest.body);
+            return digest.digest();
+        }
+
+        for (Part part : request.getParts()) {
+            digest.update((part.getName() + "\n" + part.getSubmittedFileName() + "\n").getBytes(StandardCharsets.UTF_8));
+            try (InputStream inputStream = part.getInputStream()) {
+                final byte[] buffer = new byte[8192];
+                int read;
+                while ((read = inputStream.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Checks whether the request has a multipart body, which is parsed by the servlet container.
+     *
+     * @param request the request
+     * @return TRUE or FALSE
+     */
+    private boolean isMultipart(HttpServletRequest request) {
+        return request.getContentType() != null && request.getContentType().toLowerCase().startsWith("multipart/");
+    }
+
+    /**
+     * Request wrapper that reads the body once, so it can be hashed and read again by the controllers.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            final ByteArrayInputStream inputStream = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return inputStream.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return inputStream.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return inputStream.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            final String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encoding)));
+        }
+    }
+}
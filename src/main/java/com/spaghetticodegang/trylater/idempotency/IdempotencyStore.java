@@ -0,0 +1,172 @@
+package com.spaghetticodegang.trylater.idempotency;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory store of the responses for idempotency keys.
+ * A key is claimed by the first request, concurrent requests with the same key wait for its response.
+ * Entries expire after the configured time to live. The number of entries is bounded in total and per user,
+ * so a single user cannot fill the store and take the protection away from everyone else.
+ */
+class IdempotencyStore {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Integer> entriesPerUser = new ConcurrentHashMap<>();
+    private final Duration ttl;
+    private final int maxEntries;
+    private final int maxEntriesPerUser;
+    private final Clock clock;
+
+    IdempotencyStore(Duration ttl, int maxEntries, int maxEntriesPerUser, Clock clock) {
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+        this.maxEntriesPerUser = maxEntriesPerUser;
+        this.clock = clock;
+    }
+
+    /**
+     * Claims the given key for a request with the given fingerprint.
+     * Keys claimed earlier can always be claimed again, so retries are answered even if the store is full.
+     *
+     * @param user        the name of the authenticated user
+     * @param key         the scoped idempotency key
+     * @param fingerprint the hash of the request
+     * @return the claim of a new entry owned by the caller or of the existing entry of an earlier request;
+     * {@code null} if the store or the share of the user is full and the request has to be rejected
+     */
+    Claim claim(String user, String key, byte[] fingerprint) {
+        final Instant now = clock.instant();
+        final Entry current = entries.get(key);
+        if (current != null && !current.isExpired(now)) {
+            return new Claim(current, false);
+        }
+        if (isFull(user)) {
+            purgeExpired(now);
+            if (isFull(user)) {
+                return null;
+            }
+        }
+
+        final Entry entry = new Entry(user, fingerprint, now.plus(ttl));
+        final Entry existing = entries.compute(key, (k, previous) -> {
+            if (previous != null && !previous.isExpired(now)) {
+                return previous;
+            }
+            if (previous != null) {
+                release(previous);
+            }
+            entriesPerUser.merge(user, 1, Integer::sum);
+            return entry;
+        });
+        return new Claim(existing, existing == entry);
+    }
+
+    /**
+     * Stores the response of an owned entry and releases waiting requests.
+     *
+     * @param entry    the entry owned by the caller
+     * @param response the response to replay
+     */
+    void complete(Entry entry, IdempotentResponse response) {
+        entry.response.complete(response);
+    }
+
+    /**
+     * Removes an owned entry whose request failed, so the key can be used again.
+     * Waiting requests are released without a response.
+     *
+     * @param key   the scoped idempotency key
+     * @param entry the entry owned by the caller
+     */
+    void abandon(String key, Entry entry) {
+        if (entries.remove(key, entry)) {
+            release(entry);
+        }
+        entry.response.complete(null);
+    }
+
+    /**
+     * Returns the number of stored entries.
+     *
+     * @return the number of entries including expired ones not purged yet
+     */
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Checks whether the store or the share of a user is full.
+     *
+     * @param user the name of the user
+     * @return TRUE or FALSE
+     */
+    private boolean isFull(String user) {
+        return entries.size() >= maxEntries || entriesPerUser.getOrDefault(user, 0) >= maxEntriesPerUser;
+    }
+
+    /**
+     * Removes all expired entries.
+     *
+     * @param now the current time
+     */
+    private void purgeExpired(Instant now) {
+        entries.forEach((key, entry) -> {
+            if (entry.isExpired(now) && entries.remove(key, entry)) {
+                release(entry);
+            }
+        });
+    }
+
+    /**
+     * Removes a removed entry from the count of its user.
+     *
+     * @param entry the removed entry
+     */
+    private void release(Entry entry) {
+        entriesPerUser.computeIfPresent(entry.user, (user, count) -> count > 1 ? count - 1 : null);
+    }
+
+    /**
+     * Result of claiming an idempotency key.
+     *
+     * @param entry the entry of the key
+     * @param owner whether the caller created the entry and has to execute the request
+     */
+    record Claim(Entry entry, boolean owner) {
+    }
+
+    /**
+     * State of a single idempotency key.
+     */
+    static final class Entry {
+
+        private final String user;
+        private final byte[] fingerprint;
+        private final Instant expiresAt;
+        private final CompletableFuture<IdempotentResponse> response = new CompletableFuture<>();
+
+        private Entry(String user, byte[] fingerprint, Instant expiresAt) {
+            this.user = user;
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean matches(byte[] otherFingerprint) {
+            return Arrays.equals(fingerprint, otherFingerprint);
+        }
+
+        CompletableFuture<IdempotentResponse> getResponse() {
+            return response;
+        }
+
+        private boolean isExpired(Instant now) {
+            return response.isDone() && now.isAfter(expiresAt);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.spaghetticodegang.trylater.idempotency;
+
+/**
+ * Compact copy of a response that is replayed for retries with the same idempotency key.
+ *
+ * @param status      the HTTP status code
+ * @param contentType the content type or {@code null}
+ * @param location    the location header or {@code null}
+ * @param body        the serialized response body
+ */
+record IdempotentResponse(int status, String contentType, String location, byte[] body) {
+}
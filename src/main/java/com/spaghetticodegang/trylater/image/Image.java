@@ -2,9 +2,15 @@ package com.spaghetticodegang.trylater.image;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
 
 /**
  * JPA entity representing an image.
+ * Images are stored under the SHA-256 digest of their content, so identical uploads share one file.
  */
 @Getter
 @Setter
@@ -12,9 +18,44 @@ import lombok.*;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "images")
+@Table(name = "images", indexes = {
+        @Index(name = "idx_images_ref_count", columnList = "ref_count")
+})
 public class Image {
 
     @Id
     String imgPath;
+
+    /**
+     * The number of users and recommendations using the image. The file is removed once it drops to zero.
+     * Only changed by atomic updates, so saving a stale entity never resets it.
+     */
+    @ColumnDefault("0")
+    @Column(name = "ref_count", nullable = false, updatable = false)
+    int refCount;
+
+    /**
+     * The time of the last upload of the image content. Unreferenced images are kept for a grace period after it.
+     * Only changed by atomic updates, like the reference count.
+     */
+    @Column(name = "uploaded_at", updatable = false)
+    LocalDateTime uploadedAt;
+
+    /**
+     * The BlurHash of the image, shown by clients as placeholder while the image is loading.
+     * {@code null} if the format cannot be decoded.
+     */
+    @Column(name = "blur_hash", length = 32)
+    String blurHash;
+
+    /**
+     * The paths of the scaled copies of the image per size, filled in the background after the upload.
+     */
+    @Builder.Default
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "image_derivatives", joinColumns = @JoinColumn(name = "img_path"))
+    @MapKeyEnumerated(EnumType.STRING)
+    @MapKeyColumn(name = "image_size")
+    @Column(name = "derivative_path", nullable = false)
+    Map<ImageSize, String> derivatives = new EnumMap<>(ImageSize.class);
 }
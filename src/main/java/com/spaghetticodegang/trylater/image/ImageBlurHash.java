@@ -0,0 +1,147 @@
+package com.spaghetticodegang.trylater.image;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Encodes images as BlurHash, a string of 28 characters from which clients render a blurred placeholder
+ * while the image itself is loading. See <a href="https://blurha.sh">blurha.sh</a> for the format and the decoders.
+ * The image is described by 4 x 3 cosine components, enough for the rough colors and their layout.
+ */
+final class ImageBlurHash {
+
+    /**
+     * The longest side an image is reduced to before encoding; the components are not more detailed than that.
+     */
+    static final int SOURCE_SIZE = 64;
+
+    private static final int COMPONENTS_X = 4;
+    private static final int COMPONENTS_Y = 3;
+    private static final String BASE83 = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+    private ImageBlurHash() {
+    }
+
+    /**
+     * Encodes an image as BlurHash.
+     *
+     * @param image the image, ideally already reduced to {@link #SOURCE_SIZE}
+     * @return the BlurHash
+     */
+    static String encode(BufferedImage image) {
+        final int width = image.getWidth();
+        final int height = image.getHeight();
+        final int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+        final double[][] linear = new double[pixels.length][];
+        for (int i = 0; i < pixels.length; i++) {
+            linear[i] = new double[]{toLinear(pixels[i] >> 16 & 0xFF), toLinear(pixels[i] >> 8 & 0xFF), toLinear(pixels[i] & 0xFF)};
+        }
+
+        final double[][] factors = new double[COMPONENTS_X * COMPONENTS_Y][];
+        for (int j = 0; j < COMPONENTS_Y; j++) {
+            for (int i = 0; i < COMPONENTS_X; i++) {
+                factors[j * COMPONENTS_X + i] = getFactor(linear, width, height, i, j);
+            }
+        }
+
+        double maximum = 0;
+        for (int k = 1; k < factors.length; k++) {
+            for (double value : factors[k]) {
+                maximum = Math.max(maximum, Math.abs(value));
+            }
+        }
+        final int quantisedMaximum = (int) Math.max(0, Math.min(82, Math.floor(maximum * 166 - 0.5)));
+        final double maximumValue = (quantisedMaximum + 1) / 166.0;
+
+        final StringBuilder hash = new StringBuilder();
+        appendBase83(hash, (COMPONENTS_X - 1) + (COMPONENTS_Y - 1) * 9, 1);
+        appendBase83(hash, quantisedMaximum, 1);
+        appendBase83(hash, toSrgb(factors[0][0]) << 16 | toSrgb(factors[0][1]) << 8 | toSrgb(factors[0][2]), 4);
+        for (int k = 1; k < factors.length; k++) {
+            appendBase83(hash, quantise(factors[k][0], maximumValue) * 19 * 19
+                    + quantise(factors[k][1], maximumValue) * 19
+                    + quantise(factors[k][2], maximumValue), 2);
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Computes the weight of one cosine component for each color channel.
+     *
+     * @param linear the pixels as linear RGB
+     * @param width  the image width
+     * @param height the image height
+     * @param i      the horizontal frequency
+     * @param j      the vertical frequency
+     * @return the red, green and blue weight
+     */
+    private static double[] getFactor(double[][] linear, int width, int height, int i, int j) {
+        final double normalisation = i == 0 && j == 0 ? 1 : 2;
+        final double[] factor = new double[3];
+        for (int y = 0; y < height; y++) {
+            final double basisY = Math.cos(Math.PI * j * y / height);
+            for (int x = 0; x < width; x++) {
+                final double basis = normalisation * Math.cos(Math.PI * i * x / width) * basisY;
+                final double[] pixel = linear[y * width + x];
+                factor[0] += basis * pixel[0];
+                factor[1] += basis * pixel[1];
+                factor[2] += basis * pixel[2];
+            }
+        }
+        final double scale = 1.0 / (width * height);
+        factor[0] *= scale;
+        factor[1] *= scale;
+        factor[2] *= scale;
+        return factor;
+    }
+
+    /**
+     * Quantises an AC component to 19 levels.
+     *
+     * @param value        the component weight
+     * @param maximumValue the largest absolute weight
+     * @return the level from 0 to 18
+     */
+    private static int quantise(double value, double maximumValue) {
+        final double normalised = value / maximumValue;
+        final double curved = Math.copySign(Math.sqrt(Math.abs(normalised)), normalised);
+        return (int) Math.max(0, Math.min(18, Math.floor(curved * 9 + 9.5)));
+    }
+
+    /**
+     * Converts an sRGB channel to linear light.
+     *
+     * @param value the channel from 0 to 255
+     * @return the linear value from 0 to 1
+     */
+    private static double toLinear(int value) {
+        final double normalised = value / 255.0;
+        return normalised <= 0.04045 ? normalised / 12.92 : Math.pow((normalised + 0.055) / 1.055, 2.4);
+    }
+
+    /**
+     * Converts linear light to an sRGB channel.
+     *
+     * @param value the linear value
+     * @return the channel from 0 to 255
+     */
+    private static int toSrgb(double value) {
+        final double clamped = Math.max(0, Math.min(1, value));
+        return clamped <= 0.0031308
+                ? (int) (clamped * 12.92 * 255 + 0.5)
+                : (int) ((1.055 * Math.pow(clamped, 1 / 2.4) - 0.055) * 255 + 0.5);
+    }
+
+    /**
+     * Appends a number in base 83 with a fixed number of digits.
+     *
+     * @param hash   the hash to append to
+     * @param value  the number
+     * @param length the number of digits
+     */
+    private static void appendBase83(StringBuilder hash, int value, int length) {
+        for (int i = 1; i <= length; i++) {
+            final int digit = (value / (int) Math.pow(83, length - i)) % 83;
+            hash.append(BASE83.charAt(digit));
+        }
+    }
+}
@@ -1,15 +1,22 @@
 package com.spaghetticodegang.trylater.image;
 
 
+import com.spaghetticodegang.trylater.image.dto.ImageGarbageCollectionReportDto;
+import com.spaghetticodegang.trylater.image.dto.ImageServingStatsDto;
 import com.spaghetticodegang.trylater.image.dto.ImageUploadRequestDto;
 import com.spaghetticodegang.trylater.image.dto.ImageUploadResponseDto;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.http.ResponseEntity;
 
+import java.nio.file.Path;
+
 /**
  * REST controller providing endpoints for managing image handling.
  * This controller exposes API endpoints for uploading, uploading with scaling,
@@ -41,21 +48,69 @@ public class ImageController {
     }
 
     /**
-     * Handles the deletion of an image based on its unique ID.
-     * This endpoint accepts the image ID as a query parameter named "imgPath"
-     * and delegates the deletion process to the {@link ImageService#deleteImageByImgPath(String)} method.
-     * If the image is successfully deleted, it returns a {@link ResponseEntity}
-     * with an HTTP status code 204 (NO_CONTENT). If the image with the given ID
-     * is not found, it returns a {@link ResponseEntity} with an HTTP status code 404 (NOT_FOUND).
+     * Handles a request for a scaled copy of an image.
+     * The copy fits into the given width and height while keeping the aspect ratio of the original;
+     * if only one of them is given, the image is scaled by that side.
+     *
+     * @param id     The path of the original image.
+     * @param width  The maximum width in pixels.
+     * @param height The maximum height in pixels.
+     * @param format The format of the copy, {@code jpeg} (default) or {@code png}.
+     * @return A {@link ResponseEntity} containing the scaled image with HTTP status code 200 (OK).
+     */
+    @GetMapping("/{id}/resize")
+    public ResponseEntity<Resource> resizeImage(@PathVariable("id") String id,
+                                                @RequestParam(name = "width", required = false) Integer width,
+                                                @RequestParam(name = "height", required = false) Integer height,
+                                                @RequestParam(name = "format", required = false) String format) {
+        ImageFormat imageFormat = imageService.getImageFormat(format);
+        Path path = imageService.resizeImage(id, width, height, imageFormat);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(imageFormat.getContentType()))
+                .body(new FileSystemResource(path));
+    }
+
+    /**
+     * Returns the statistics of the static image delivery under {@code /api/images/}.
+     * Only available to administrators.
+     *
+     * @return the number of requests, the bytes served and the share answered from the client's cache
+     */
+    @GetMapping("/serving-stats")
+    public ResponseEntity<ImageServingStatsDto> getImageServingStats() {
+        return ResponseEntity.ok(imageService.getImageServingStats());
+    }
+
+    /**
+     * Returns the report of the last removal of unused images.
+     * Only available to administrators.
+     *
+     * @return the report including the reclaimed bytes, or 204 (NO CONTENT) if there has been no run yet
+     */
+    @GetMapping("/garbage-collection")
+    public ResponseEntity<ImageGarbageCollectionReportDto> getLastGarbageCollection() {
+        ImageGarbageCollectionReportDto report = imageService.getLastGarbageCollection();
+        if (report == null) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(report);
+    }
+
+    /**
+     * Handles the deletion of an uploaded image that is not in use, e.g. when a client discards a draft.
+     * Images used by any user or recommendation are never deleted through this endpoint;
+     * they are released when the profile picture is changed or the recommendation is deleted.
+     * Images uploaded within the grace period are kept as well and removed by the garbage collection if they stay unused.
+     * Delegates to the {@link ImageService#deleteUnreferencedImage(String)} method.
      *
-     * @param id The unique identifier of the image to be deleted, provided as a query parameter named "imgPath".
+     * @param id The path of the image to be deleted.
      * Must not be {@code null} or empty.
      * @return A {@link ResponseEntity} with HTTP status code 204 (NO_CONTENT) if the image was
-     * successfully deleted, or 404 (NOT_FOUND) if the image with the given ID does not exist.
+     * deleted, or 404 (NOT_FOUND) if there is no unused image past its grace period with the given path.
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteImage(@PathVariable("id") String id) {
-        boolean isDeleted = imageService.deleteImageByImgPath(id);
+        boolean isDeleted = imageService.deleteUnreferencedImage(id);
 
         if (!isDeleted) {
             return ResponseEntity.notFound().build();
@@ -0,0 +1,135 @@
+package com.spaghetticodegang.trylater.image;
+
+import com.spaghetticodegang.trylater.image.storage.ImageStorage;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service layer for creating the scaled copies of uploaded images.
+ * Opaque images are encoded as JPEG, images with transparency as PNG.
+ * Decoding and scaling need a lot of memory, so the work runs on a small fixed pool with a bounded queue
+ * and each image is only decoded once it fits into the {@link ImageMemoryBudget}.
+ * Images without derivatives, e.g. because the queue was full or the format cannot be decoded, are served in their original size.
+ */
+@Service
+public class ImageDerivativeService {
+
+    private final ImageRepository imageRepository;
+    private final ImageStorage imageStorage;
+    private final ImageMemoryBudget imageMemoryBudget;
+    private final ThreadPoolExecutor executor;
+
+    public ImageDerivativeService(ImageRepository imageRepository,
+                                  ImageStorage imageStorage,
+                                  ImageMemoryBudget imageMemoryBudget,
+                                  @Value("${image.derivatives.threads}") int threads,
+                                  @Value("${image.derivatives.queue-capacity}") int queueCapacity) {
+        this.imageRepository = imageRepository;
+        this.imageStorage = imageStorage;
+        this.imageMemoryBudget = imageMemoryBudget;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity));
+    }
+
+    /**
+     * Creates the derivatives of an uploaded image in the background.
+     * If the queue is full, the image keeps being served in its original size.
+     *
+     * @param imgPath the path of the uploaded image
+     */
+    public void submit(String imgPath) {
+        try {
+            executor.execute(() -> createDerivatives(imgPath));
+        } catch (RejectedExecutionException e) {
+            // the original is served until the image is uploaded again
+        }
+    }
+
+    /**
+     * Stops the derivative pool when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Scales an image to all {@link ImageSize}s, stores the copies in the {@link ImageStorage} and records them on the image.
+     * Copies of an image that has been deleted in the meantime are removed again.
+     *
+     * @param imgPath the path of the uploaded image
+     */
+    void createDerivatives(String imgPath) {
+        final Map<ImageSize, String> derivatives = new EnumMap<>(ImageSize.class);
+        try {
+            final boolean decoded;
+            try (InputStream inputStream = imageStorage.open(imgPath)) {
+                decoded = imageMemoryBudget.process(inputStream, original -> {
+                    final ImageFormat format = original.getColorModel().hasAlpha() ? ImageFormat.PNG : ImageFormat.JPEG;
+                    for (ImageSize size : ImageSize.values()) {
+                        final String derivativePath = getDerivativePath(imgPath, size, format);
+                        final Path temporary = Files.createTempFile("derivative-", ".tmp");
+                        try {
+                            ImageScaler.write(ImageScaler.scale(original, size.getMaxDimension(), size.getMaxDimension()), format, temporary);
+                            imageStorage.store(derivativePath, temporary);
+                        } finally {
+                            Files.deleteIfExists(temporary);
+                        }
+                        derivatives.put(size, derivativePath);
+                    }
+                });
+            }
+            if (!decoded) {
+                return;
+            }
+        } catch (IOException | RuntimeException e) {
+            deleteFiles(derivatives);
+            return;
+        }
+
+        if (!imageRepository.insertDerivativesIfPresent(imgPath, derivatives)) {
+            deleteFiles(derivatives);
+        }
+    }
+
+    /**
+     * Deletes the derivative files of an image.
+     *
+     * @param derivatives the derivative paths per size
+     */
+    void deleteFiles(Map<ImageSize, String> derivatives) {
+        derivatives.values().forEach(derivativePath -> {
+            try {
+                imageStorage.delete(derivativePath);
+            } catch (IOException e) {
+                // an undeleted derivative is no longer referenced and only takes up space
+            }
+        });
+    }
+
+    /**
+     * Returns the path of a derivative, the path of the original with the size as suffix.
+     *
+     * @param imgPath  the path of the original
+     * @param size     the derivative size
+     * @param format   the format of the derivative
+     * @return the derivative path
+     */
+    private static String getDerivativePath(String imgPath, ImageSize size, ImageFormat format) {
+        final int dotIndex = imgPath.lastIndexOf('.');
+        final String baseName = dotIndex > 0 ? imgPath.substring(0, dotIndex) : imgPath;
+        return baseName + "_" + size.name().toLowerCase(Locale.ROOT) + "." + format.getFileExtension();
+    }
+}
@@ -0,0 +1,17 @@
+package com.spaghetticodegang.trylater.image;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Enum representing the formats scaled images are encoded in.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ImageFormat {
+    JPEG("jpg", "image/jpeg"),
+    PNG("png", "image/png");
+
+    private final String fileExtension;
+    private final String contentType;
+}
@@ -0,0 +1,225 @@
+package com.spaghetticodegang.trylater.image;
+
+import com.spaghetticodegang.trylater.image.deletion.ImageFileDeletionService;
+import com.spaghetticodegang.trylater.image.dto.ImageGarbageCollectionReportDto;
+import com.spaghetticodegang.trylater.image.storage.ImageStorage;
+import com.spaghetticodegang.trylater.recommendation.RecommendationRepository;
+import com.spaghetticodegang.trylater.user.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+/**
+ * Periodically removes uploaded images that are used by neither a user nor a recommendation.
+ * Uploads are stored before they are referenced, so images of abandoned drafts are only removed after a grace period.
+ * A run first marks all image paths in use, reading users and recommendations in batches,
+ * and then sweeps the images uploaded before the grace period in batches, pausing between batches to limit the load.
+ * The images of a batch are checked again right before deletion and only deleted if their reference count and upload time
+ * are unchanged, so images referenced or uploaded again during a run are kept.
+ * The deletion of the files is requested from the {@link ImageFileDeletionService} in the same transaction as the deletion of the entry,
+ * so the files are only removed once the entry is gone for good.
+ */
+@Service
+public class ImageGarbageCollector {
+
+    private final ImageRepository imageRepository;
+    private final UserRepository userRepository;
+    private final RecommendationRepository recommendationRepository;
+    private final ImageFileDeletionService imageFileDeletionService;
+    private final ImageStorage imageStorage;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration gracePeriod;
+    private final int batchSize;
+    private final Duration batchPause;
+    private volatile ImageGarbageCollectionReportDto lastReport;
+
+    public ImageGarbageCollector(ImageRepository imageRepository,
+                                 UserRepository userRepository,
+                                 RecommendationRepository recommendationRepository,
+                                 ImageFileDeletionService imageFileDeletionService,
+                                 ImageStorage imageStorage,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${image.gc.enabled}") boolean enabled,
+                                 @Value("${image.gc.grace-period}") Duration gracePeriod,
+                                 @Value("${image.gc.batch-size}") int batchSize,
+                                 @Value("${image.gc.batch-pause}") Duration batchPause) {
+        this.imageRepository = imageRepository;
+        this.userRepository = userRepository;
+        this.recommendationRepository = recommendationRepository;
+        this.imageFileDeletionService = imageFileDeletionService;
+        this.imageStorage = imageStorage;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.gracePeriod = gracePeriod;
+        this.batchSize = batchSize;
+        this.batchPause = batchPause;
+    }
+
+    /**
+     * Runs the garbage collection periodically if it is enabled.
+     */
+    @Scheduled(fixedDelayString = "${image.gc.interval}", initialDelayString = "${image.gc.initial-delay}")
+    public void collectPeriodically() {
+        if (enabled) {
+            collect();
+        }
+    }
+
+    /**
+     * Deletes the images that are not in use and were uploaded before the grace period,
+     * together with their files, derivatives and cached variants.
+     *
+     * @return the report of the run, including the number of reclaimed bytes
+     */
+    public ImageGarbageCollectionReportDto collect() {
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final LocalDateTime uploadedBefore = startedAt.minus(gracePeriod);
+        final Set<String> referenced = new HashSet<>();
+        markAll(userRepository::findImgPathsAfter, referenced);
+        markAll(recommendationRepository::findImgPathsAfter, referenced);
+
+        long scannedImages = 0;
+        long deletedImages = 0;
+        long reclaimedBytes = 0;
+        String lastImgPath = "";
+        List<Image> images;
+        do {
+            images = imageRepository.findUploadedBeforeAfter(lastImgPath, uploadedBefore, Limit.of(batchSize));
+            if (images.isEmpty()) {
+                break;
+            }
+            scannedImages += images.size();
+            lastImgPath = images.getLast().getImgPath();
+
+            final List<Image> unmarked = images.stream()
+                    .filter(image -> !referenced.contains(image.getImgPath()))
+                    .toList();
+            final Set<String> stillReferenced = findReferenced(unmarked);
+            for (Image image : unmarked) {
+                if (stillReferenced.contains(image.getImgPath())) {
+                    continue;
+                }
+                final Long bytes = transactionTemplate.execute(status -> deleteImage(image, uploadedBefore));
+                if (bytes != null) {
+                    deletedImages++;
+                    reclaimedBytes += bytes;
+                }
+            }
+        } while (images.size() == batchSize && pause());
+
+        lastReport = ImageGarbageCollectionReportDto.builder()
+                .startedAt(startedAt)
+                .finishedAt(LocalDateTime.now())
+                .referencedImages(referenced.size())
+                .scannedImages(scannedImages)
+                .deletedImages(deletedImages)
+                .reclaimedBytes(reclaimedBytes)
+                .build();
+        return lastReport;
+    }
+
+    /**
+     * Returns the report of the last garbage collection run.
+     *
+     * @return the report or {@code null} if there has been no run since the start of the application
+     */
+    public ImageGarbageCollectionReportDto getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Adds all image paths returned by a batch query to the set of referenced paths.
+     *
+     * @param findImgPathsAfter the query returning the paths following a path in ascending order
+     * @param referenced        the set of referenced paths
+     */
+    private void markAll(BiFunction<String, Limit, List<String>> findImgPathsAfter, Set<String> referenced) {
+        String lastImgPath = "";
+        List<String> imgPaths;
+        do {
+            imgPaths = findImgPathsAfter.apply(lastImgPath, Limit.of(batchSize));
+            if (imgPaths.isEmpty()) {
+                return;
+            }
+            referenced.addAll(imgPaths);
+            lastImgPath = imgPaths.getLast();
+        } while (imgPaths.size() == batchSize && pause());
+    }
+
+    /**
+     * Checks which of the given images are in use now, covering references added since the mark phase.
+     *
+     * @param images the images to check
+     * @return the paths of the images in use
+     */
+    private Set<String> findReferenced(List<Image> images) {
+        if (images.isEmpty()) {
+            return Set.of();
+        }
+        final List<String> imgPaths = images.stream().map(Image::getImgPath).toList();
+        final Set<String> referenced = new HashSet<>(userRepository.findImgPathsIn(imgPaths));
+        referenced.addAll(recommendationRepository.findImgPathsIn(imgPaths));
+        return referenced;
+    }
+
+    /**
+     * Deletes the entry of an image if it is unchanged and requests the deletion of its file and derivatives.
+     * To be called within a transaction, so the files are only deleted once the entry has been deleted.
+     *
+     * @param image          the image to delete
+     * @param uploadedBefore the end of the grace period
+     * @return the size of the file and derivatives in bytes, {@code null} if the image has changed and was kept
+     */
+    private Long deleteImage(Image image, LocalDateTime uploadedBefore) {
+        if (imageRepository.deleteIfUnchanged(image.getImgPath(), image.getRefCount(), uploadedBefore) == 0) {
+            return null;
+        }
+        final List<String> filePaths = new ArrayList<>(image.getDerivatives().values());
+        filePaths.add(image.getImgPath());
+        final long bytes = filePaths.stream().mapToLong(this::getSize).sum();
+        imageFileDeletionService.requestDeletion(image.getImgPath(), filePaths);
+        return bytes;
+    }
+
+    /**
+     * Returns the size of a stored file.
+     *
+     * @param imgPath the image path
+     * @return the size in bytes, 0 if the file does not exist
+     */
+    private long getSize(String imgPath) {
+        try {
+            return imageStorage.getResource(imgPath).contentLength();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Waits between two batches.
+     *
+     * @return TRUE to continue, FALSE if the thread has been interrupted
+     */
+    private boolean pause() {
+        try {
+            Thread.sleep(batchPause);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.spaghetticodegang.trylater.image;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+/**
+ * Format and pixel dimensions of an image, read from the first bytes of the file without decoding the pixels.
+ * PNG and JPEG headers are read by an {@link ImageReader}; WebP, which has no reader in the JDK, is parsed directly.
+ *
+ * @param type   the detected format
+ * @param width  the width in pixels
+ * @param height the height in pixels
+ */
+public record ImageHeader(ImageType type, int width, int height) {
+
+    /**
+     * Returns the number of pixels of the image.
+     *
+     * @return width times height
+     */
+    public long getPixels() {
+        return (long) width * height;
+    }
+
+    /**
+     * Reads the header of an image from the first bytes of the file.
+     *
+     * @param bytes the first bytes of the file, at least up to the end of the header
+     * @return the header, or {@code null} if the bytes match no accepted format
+     * @throws IOException if the header is malformed or not contained in the given bytes
+     */
+    public static ImageHeader read(byte[] bytes) throws IOException {
+        final ImageType type = ImageType.detect(bytes);
+        if (type == null) {
+            return null;
+        }
+        if (type == ImageType.WEBP) {
+            return readWebp(bytes);
+        }
+
+        final Iterator<ImageReader> readers = ImageIO.getImageReadersByFormatName(type.name());
+        if (!readers.hasNext()) {
+            throw new IOException("No reader for " + type.name());
+        }
+        final ImageReader reader = readers.next();
+        try (ImageInputStream input = new MemoryCacheImageInputStream(new ByteArrayInputStream(bytes))) {
+            reader.setInput(input, true, true);
+            return new ImageHeader(type, reader.getWidth(0), reader.getHeight(0));
+        } catch (RuntimeException e) {
+            throw new IOException("Malformed " + type.name() + " header", e);
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    /**
+     * Reads the canvas size from the first chunk of a WebP file, which is VP8X, VP8L or VP8.
+     *
+     * @param bytes the first bytes of the file
+     * @return the header
+     * @throws IOException if the first chunk is unknown or incomplete
+     */
+    private static ImageHeader readWebp(byte[] bytes) throws IOException {
+        if (bytes.length < 30) {
+            throw new IOException("Incomplete WebP header");
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        final String chunk = new String(bytes, 12, 4, StandardCharsets.US_ASCII);
+        return switch (chunk) {
+            case "VP8X" -> new ImageHeader(ImageType.WEBP, readUInt24(buffer, 24) + 1, readUInt24(buffer, 27) + 1);
+            case "VP8L" -> {
+                if (bytes[20] != 0x2F) {
+                    throw new IOException("Malformed VP8L header");
+                }
+                final int bits = buffer.getInt(21);
+                yield new ImageHeader(ImageType.WEBP, (bits & 0x3FFF) + 1, ((bits >>> 14) & 0x3FFF) + 1);
+            }
+            case "VP8 " -> {
+                if ((bytes[23] & 0xFF) != 0x9D || (bytes[24] & 0xFF) != 0x01 || (bytes[25] & 0xFF) != 0x2A) {
+                    throw new IOException("Malformed VP8 header");
+                }
+                yield new ImageHeader(ImageType.WEBP, buffer.getShort(26) & 0x3FFF, buffer.getShort(28) & 0x3FFF);
+            }
+            default -> throw new IOException("Unknown WebP chunk " + chunk);
+        };
+    }
+
+    /**
+     * Reads an unsigned 24-bit little-endian number.
+     *
+     * @param buffer the little-endian buffer
+     * @param index  the position of the first byte
+     * @return the number
+     */
+    private static int readUInt24(ByteBuffer buffer, int index) {
+        return (buffer.get(index) & 0xFF) | (buffer.get(index + 1) & 0xFF) << 8 | (buffer.get(index + 2) & 0xFF) << 16;
+    }
+}
@@ -0,0 +1,35 @@
+package com.spaghetticodegang.trylater.image;
+
+import jakarta.transaction.Transactional;
+
+import java.util.Map;
+
+/**
+ * Repository fragment for inserting images and their derivatives without overwriting or resurrecting rows changed concurrently.
+ */
+public interface ImageInsertRepository {
+
+    /**
+     * Inserts a new image unless an image with the same path exists already.
+     * Unlike {@code save}, which merges entities with an assigned ID, an existing row is never overwritten,
+     * so the reference count taken by a concurrent upload of the same content is kept.
+     * Must not be called inside a transaction that should continue after a conflict.
+     *
+     * @param image the new image without derivatives
+     * @return {@code true} if the image has been inserted, {@code false} if the path exists already
+     */
+    boolean insertIfAbsent(Image image);
+
+    /**
+     * Records the derivatives of an image if the image still exists.
+     * Unlike {@code save}, which merges a stale entity and would insert an image deleted in the meantime again,
+     * the image row is locked and only the derivative rows are written, so a concurrent deletion waits until they are committed
+     * and removes them together with the image.
+     *
+     * @param imgPath     the path of the image
+     * @param derivatives the derivative paths per size
+     * @return {@code true} if the derivatives have been recorded, {@code false} if the image does not exist
+     */
+    @Transactional
+    boolean insertDerivativesIfPresent(String imgPath, Map<ImageSize, String> derivatives);
+}
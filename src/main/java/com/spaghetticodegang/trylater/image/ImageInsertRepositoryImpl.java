@@ -0,0 +1,58 @@
+package com.spaghetticodegang.trylater.image;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+
+/**
+ * JDBC implementation of {@link ImageInsertRepository}.
+ * The insert relies on the primary key instead of a dialect specific upsert, so it works on H2 and PostgreSQL alike.
+ */
+@RequiredArgsConstructor
+class ImageInsertRepositoryImpl implements ImageInsertRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO images (img_path, ref_count, uploaded_at, blur_hash)
+            VALUES (?, 0, ?, ?)
+            """;
+
+    private static final String LOCK_SQL = """
+            SELECT img_path FROM images WHERE img_path = ? FOR UPDATE
+            """;
+
+    private static final String UPDATE_DERIVATIVE_SQL = """
+            UPDATE image_derivatives SET derivative_path = ? WHERE img_path = ? AND image_size = ?
+            """;
+
+    private static final String INSERT_DERIVATIVE_SQL = """
+            INSERT INTO image_derivatives (img_path, image_size, derivative_path)
+            VALUES (?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean insertIfAbsent(Image image) {
+        try {
+            jdbcTemplate.update(INSERT_SQL, image.getImgPath(), image.getUploadedAt(), image.getBlurHash());
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean insertDerivativesIfPresent(String imgPath, Map<ImageSize, String> derivatives) {
+        if (jdbcTemplate.queryForList(LOCK_SQL, String.class, imgPath).isEmpty()) {
+            return false;
+        }
+        derivatives.forEach((size, derivativePath) -> {
+            if (jdbcTemplate.update(UPDATE_DERIVATIVE_SQL, derivativePath, imgPath, size.name()) == 0) {
+                jdbcTemplate.update(INSERT_DERIVATIVE_SQL, imgPath, size.name(), derivativePath);
+            }
+        });
+        return true;
+    }
+}
@@ -0,0 +1,140 @@
+package com.spaghetticodegang.trylater.image;
+
+import com.spaghetticodegang.trylater.shared.exception.ImageHandleException;
+import com.spaghetticodegang.trylater.shared.util.MessageUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the memory used by decoding and scaling images across all threads.
+ * Before an image is decoded, its decoded size is estimated from the dimensions in its header (4 bytes per pixel)
+ * and reserved from a fixed budget until the processing of the image has finished.
+ * Jobs that do not fit wait in order of arrival for up to the admission timeout and are rejected afterwards;
+ * jobs larger than the whole budget are rejected at once.
+ */
+@Component
+public class ImageMemoryBudget {
+
+    private static final int BYTES_PER_PIXEL = 4;
+    private static final long BYTES_PER_PERMIT = 1024;
+
+    private final Semaphore permits;
+    private final int totalPermits;
+    private final Duration admissionTimeout;
+    private final MessageUtil messageUtil;
+
+    public ImageMemoryBudget(@Value("${image.processing.memory-budget}") DataSize budget,
+                             @Value("${image.processing.admission-timeout}") Duration admissionTimeout,
+                             MessageUtil messageUtil) {
+        this.totalPermits = (int) Math.min(Integer.MAX_VALUE, budget.toBytes() / BYTES_PER_PERMIT);
+        this.permits = new Semaphore(totalPermits, true);
+        this.admissionTimeout = admissionTimeout;
+        this.messageUtil = messageUtil;
+    }
+
+    /**
+     * Processing step run on a decoded image while its memory is reserved.
+     */
+    @FunctionalInterface
+    public interface DecodedImageTask {
+
+        /**
+         * Processes a decoded image.
+         *
+         * @param image the decoded image
+         * @throws IOException if the result cannot be written
+         */
+        void process(BufferedImage image) throws IOException;
+    }
+
+    /**
+     * A reservation of the memory budget, released when closed.
+     */
+    public interface Reservation extends AutoCloseable {
+
+        /**
+         * Returns the reserved memory to the budget.
+         */
+        @Override
+        void close();
+    }
+
+    /**
+     * Decodes an image and runs a task on it while the estimated decoded size is reserved.
+     * The dimensions are read from the header first, so the image is only decoded once it fits into the budget.
+     *
+     * @param input the encoded image, not closed by this method
+     * @param task  the processing step
+     * @return TRUE if the image was decoded and processed, FALSE if its format cannot be decoded
+     * @throws IOException          if the image cannot be read or the task fails
+     * @throws ImageHandleException if the image does not fit into the budget within the admission timeout
+     */
+    public boolean process(InputStream input, DecodedImageTask task) throws IOException {
+        try (ImageInputStream imageInput = ImageIO.createImageInputStream(input)) {
+            if (imageInput == null) {
+                return false;
+            }
+            final Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInput);
+            if (!readers.hasNext()) {
+                return false;
+            }
+            final ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInput, true, true);
+                try (Reservation reservation = reserve(reader.getWidth(0), reader.getHeight(0))) {
+                    task.process(reader.read(0));
+                }
+                return true;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Reserves the estimated decoded size of an image, waiting for up to the admission timeout.
+     *
+     * @param width  the width of the image in pixels
+     * @param height the height of the image in pixels
+     * @return the reservation, to be closed once the decoded image is no longer needed
+     * @throws ImageHandleException if the image is larger than the whole budget or the budget is exhausted until the timeout
+     */
+    public Reservation reserve(int width, int height) {
+        final long estimate = (long) width * height * BYTES_PER_PIXEL;
+        final long needed = Math.max(1, (estimate + BYTES_PER_PERMIT - 1) / BYTES_PER_PERMIT);
+        if (needed > totalPermits) {
+            throw new ImageHandleException(Map.of("image", messageUtil.get("image.processing.too.large")));
+        }
+        try {
+            if (!permits.tryAcquire((int) needed, admissionTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new ImageHandleException(Map.of("image", messageUtil.get("image.processing.busy")));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ImageHandleException(Map.of("image", messageUtil.get("image.processing.busy")));
+        }
+        return () -> permits.release((int) needed);
+    }
+
+    /**
+     * Returns the part of the budget that is currently not reserved.
+     *
+     * @return the available memory in bytes
+     */
+    public long getAvailableBytes() {
+        return permits.availablePermits() * BYTES_PER_PERMIT;
+    }
+}
@@ -1,9 +1,138 @@
 package com.spaghetticodegang.trylater.image;
 
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Repository interface for accessing and managing contact entities in the database.
  */
-public interface ImageRepository extends JpaRepository<Image, String> {
+public interface ImageRepository extends JpaRepository<Image, String>, ImageInsertRepository {
+
+    /**
+     * Atomically increments the reference count of an image.
+     *
+     * @param imgPath the path of the image
+     * @return the number of updated rows, 0 if the image does not exist
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+                UPDATE Image i SET i.refCount = i.refCount + 1 WHERE i.imgPath = :imgPath
+            """)
+    int incrementRefCount(String imgPath);
+
+    /**
+     * Atomically decrements the reference count of an image, never below zero.
+     *
+     * @param imgPath the path of the image
+     * @return the number of updated rows
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+                UPDATE Image i SET i.refCount = i.refCount - 1 WHERE i.imgPath = :imgPath AND i.refCount > 0
+            """)
+    int decrementRefCount(String imgPath);
+
+    /**
+     * Deletes an image if it is no longer referenced and its grace period has ended.
+     * Uploads do not take a reference, so images uploaded within the grace period are kept for their uploaders
+     * and left to the {@link ImageGarbageCollector}.
+     *
+     * @param imgPath    the path of the image
+     * @param graceLimit the end of the grace period, images uploaded after it are kept
+     * @return the number of deleted rows, 0 if the image is still referenced, uploaded recently or does not exist
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+                DELETE FROM Image i
+                WHERE i.imgPath = :imgPath AND i.refCount = 0
+                  AND (i.uploadedAt IS NULL OR i.uploadedAt < :graceLimit)
+            """)
+    int deleteIfUnreferenced(String imgPath, LocalDateTime graceLimit);
+
+    /**
+     * Sets the upload time of an image, restarting its grace period.
+     *
+     * @param imgPath    the path of the image
+     * @param uploadedAt the upload time
+     * @return the number of updated rows, 0 if the image does not exist
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+                UPDATE Image i SET i.uploadedAt = :uploadedAt WHERE i.imgPath = :imgPath
+            """)
+    int updateUploadedAt(String imgPath, LocalDateTime uploadedAt);
+
+    /**
+     * Returns the images following the given path in ascending order that were uploaded before the given time.
+     * Images without upload time are included.
+     *
+     * @param lastImgPath    the last path already processed
+     * @param uploadedBefore the upload time limit
+     * @param limit          the maximum number of images to return
+     * @return a list of images or an empty list
+     */
+    @Query("""
+                SELECT i FROM Image i
+                WHERE i.imgPath > :lastImgPath AND (i.uploadedAt IS NULL OR i.uploadedAt < :uploadedBefore)
+                ORDER BY i.imgPath
+            """)
+    List<Image> findUploadedBeforeAfter(String lastImgPath, LocalDateTime uploadedBefore, Limit limit);
+
+    /**
+     * Deletes an image if neither its reference count nor its upload time has changed since it was read.
+     *
+     * @param imgPath        the path of the image
+     * @param refCount       the reference count read before
+     * @param uploadedBefore the upload time limit
+     * @return the number of deleted rows, 0 if the image has been referenced or uploaded again in the meantime
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+                DELETE FROM Image i
+                WHERE i.imgPath = :imgPath AND i.refCount = :refCount
+                  AND (i.uploadedAt IS NULL OR i.uploadedAt < :uploadedBefore)
+            """)
+    int deleteIfUnchanged(String imgPath, int refCount, LocalDateTime uploadedBefore);
+
+    /**
+     * Checks whether an image is used by a user or a recommendation but has a reference count of zero,
+     * which is the case after the column has been added to an existing database.
+     * Backed by the index on the reference count, so only the images counted as unused are checked.
+     *
+     * @return TRUE or FALSE
+     */
+    @Query("""
+                SELECT COUNT(i) > 0 FROM Image i WHERE i.refCount = 0 AND (
+                    EXISTS (SELECT u FROM User u WHERE u.imgPath = i.imgPath)
+                    OR EXISTS (SELECT r FROM Recommendation r WHERE r.imgPath = i.imgPath)
+                )
+            """)
+    boolean existsUncountedReferences();
+
+    /**
+     * Recalculates the reference count of all images whose count differs from the number of users and recommendations using them,
+     * e.g. after the column has been added to an existing database.
+     *
+     * @return the number of corrected images
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+                UPDATE images i SET ref_count = (SELECT COUNT(*) FROM users u WHERE u.img_path = i.img_path)
+                                              + (SELECT COUNT(*) FROM recommendations r WHERE r.img_path = i.img_path)
+                WHERE i.ref_count <> (SELECT COUNT(*) FROM users u WHERE u.img_path = i.img_path)
+                                   + (SELECT COUNT(*) FROM recommendations r WHERE r.img_path = i.img_path)
+            """, nativeQuery = true)
+    int reconcileRefCounts();
 }
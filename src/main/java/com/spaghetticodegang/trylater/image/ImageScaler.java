@@ -0,0 +1,88 @@
+package com.spaghetticodegang.trylater.image;
+
+import org.imgscalr.Scalr;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Scales and encodes images for the derivatives and the resize endpoint.
+ */
+final class ImageScaler {
+
+    private static final float JPEG_QUALITY = 0.8f;
+
+    private ImageScaler() {
+    }
+
+    /**
+     * Scales an image to fit into the given bounds while keeping its aspect ratio. Images are never scaled up.
+     *
+     * @param image     the image to scale
+     * @param maxWidth  the maximum width
+     * @param maxHeight the maximum height
+     * @return the scaled image, or the image itself if it already fits
+     */
+    static BufferedImage scale(BufferedImage image, int maxWidth, int maxHeight) {
+        if (image.getWidth() <= maxWidth && image.getHeight() <= maxHeight) {
+            return image;
+        }
+        final double factor = Math.min((double) maxWidth / image.getWidth(), (double) maxHeight / image.getHeight());
+        final int width = Math.max(1, (int) Math.round(image.getWidth() * factor));
+        final int height = Math.max(1, (int) Math.round(image.getHeight() * factor));
+        return Scalr.resize(image, Scalr.Method.QUALITY, Scalr.Mode.FIT_EXACT, width, height);
+    }
+
+    /**
+     * Encodes an image into a file.
+     *
+     * @param image  the image to encode
+     * @param format the target format, transparency is dropped for JPEG
+     * @param path   the target file
+     * @throws IOException if the file cannot be written
+     */
+    static void write(BufferedImage image, ImageFormat format, Path path) throws IOException {
+        if (format == ImageFormat.PNG) {
+            ImageIO.write(image, "png", path.toFile());
+            return;
+        }
+
+        final ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        final ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+        try (ImageOutputStream outputStream = ImageIO.createImageOutputStream(path.toFile())) {
+            writer.setOutput(outputStream);
+            writer.write(null, new IIOImage(toRgb(image), null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * Converts an image to plain RGB, which the JPEG encoder requires.
+     *
+     * @param image the image to convert
+     * @return the image itself if it already is plain RGB, otherwise an RGB copy
+     */
+    private static BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return image;
+        }
+        final BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        final Graphics2D graphics = rgb.createGraphics();
+        try {
+            graphics.drawImage(image, 0, 0, null);
+        } finally {
+            graphics.dispose();
+        }
+        return rgb;
+    }
+}
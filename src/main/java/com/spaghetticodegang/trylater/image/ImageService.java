@@ -1,17 +1,37 @@
 package com.spaghetticodegang.trylater.image;
 
 import com.spaghetticodegang.trylater.shared.exception.ImageHandleException;
+import com.spaghetticodegang.trylater.shared.exception.ImageNotFoundException;
+import com.spaghetticodegang.trylater.shared.exception.ValidationException;
 import com.spaghetticodegang.trylater.shared.util.MessageUtil;
+import com.spaghetticodegang.trylater.image.dto.ImageGarbageCollectionReportDto;
+import com.spaghetticodegang.trylater.image.dto.ImageServingStatsDto;
 import com.spaghetticodegang.trylater.image.dto.ImageUploadResponseDto;
+import com.spaghetticodegang.trylater.image.deletion.ImageFileDeletionService;
+import com.spaghetticodegang.trylater.image.storage.ImageStorage;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.*;
 
 /**
@@ -24,10 +44,26 @@ import java.util.*;
 public class ImageService {
 
     private final ImageRepository imageRepository;
+    private final ImageDerivativeService imageDerivativeService;
+    private final ImageVariantCache imageVariantCache;
+    private final ImageMemoryBudget imageMemoryBudget;
+    private final ImageServingMetricsFilter imageServingMetricsFilter;
+    private final ImageGarbageCollector imageGarbageCollector;
+    private final ImageStorage imageStorage;
+    private final ImageFileDeletionService imageFileDeletionService;
     private final MessageUtil messageUtil;
 
-    @Value("${image.upload.dir}")
-    private String uploadDir;
+    @Value("${image.resize.max-dimension}")
+    private int maxResizeDimension;
+
+    @Value("${image.upload.max-pixels}")
+    private long maxPixels;
+
+    @Value("${image.upload.header-limit}")
+    private DataSize headerLimit;
+
+    @Value("${image.gc.grace-period}")
+    private Duration gracePeriod;
 
     /**
      * Creates an {@link ImageUploadResponseDto} from a given {@link Image} entity.
@@ -36,11 +72,12 @@ public class ImageService {
      *
      * @param image The {@link Image} entity representing the uploaded image.
      *              Must not be {@code null}.
-     * @return An {@link ImageUploadResponseDto} containing the image ID and its storage path.
+     * @return An {@link ImageUploadResponseDto} containing the image ID, its storage path and its placeholder.
      */
     public ImageUploadResponseDto createImageUploadResponseDto(Image image) {
         return ImageUploadResponseDto.builder()
                 .imgPath(image.getImgPath())
+                .blurHash(image.getBlurHash())
                 .build();
     }
 
@@ -48,103 +85,324 @@ public class ImageService {
      * Uploads a single image file.
      * This method performs the following steps:
      * <ol>
-     * <li>Validates the provided {@link MultipartFile} to ensure it is not empty
-     * and has a supported image format (png, jpeg, jpg, webp).</li>
-     * <li>Generates a unique filename for the image using UUID and the original file extension.</li>
-     * <li>Creates the necessary directory structure on the server if it doesn't exist.</li>
-     * <li>Transfers the uploaded image file to the designated storage location.</li>
-     * <li>Creates a new {@link Image} entity with the generated filename and saves it
-     * to the database using the {@link ImageRepository}.</li>
-     * <li>Returns an {@link ImageUploadResponseDto} containing the ID and path of the newly uploaded image.</li>
+     * <li>Reads the first bytes of the {@link MultipartFile} and validates the {@link ImageHeader} found in them:
+     * the content must be a png, jpeg or webp image within the pixel budget, whatever the file name says.</li>
+     * <li>Streams the image into a temporary file while computing the SHA-256 digest of its content.</li>
+     * <li>If an image with the same content and type is already stored, discards the temporary file,
+     * restarts the grace period of the existing image and returns it.</li>
+     * <li>Otherwise computes the {@link ImageBlurHash} placeholder from a subsampled decode of the file,
+     * cancels a pending deletion of the files of a previously deleted image with the same content,
+     * moves the file into the {@link ImageStorage} under its content-addressed name (digest and the extension of the detected format)
+     * and inserts a new {@link Image} entity with it using the {@link ImageRepository}. If a concurrent upload of the same content
+     * has inserted it first, that image is kept with its reference count and returned instead.</li>
+     * <li>Starts the creation of the scaled derivatives in the background.</li>
+     * <li>Returns an {@link ImageUploadResponseDto} containing the ID and path of the uploaded image.</li>
      * </ol>
+     * The upload itself does not reference the image; see {@link #addImageReference(String)}.
+     * Images that are not referenced within the grace period are removed by the {@link ImageGarbageCollector}.
      *
      * @param imageFile The {@link MultipartFile} representing the image to be uploaded.
      *                  Must not be {@code null} or empty.
      * @return An {@link ImageUploadResponseDto} with the ID and path of the uploaded image.
-     * @throws ImageHandleException If the provided file is empty, has an unsupported format,
+     * @throws ImageHandleException If the provided file is empty, has an unsupported format or too many pixels,
      *                              or if an {@link IOException} occurs during file handling.
      */
     public ImageUploadResponseDto uploadImage(MultipartFile imageFile) {
-        try {
-            final String imageType = validateImage(imageFile);
-            final String imageName = UUID.randomUUID() + "." + imageType;
-            Path path = Paths.get(uploadDir, imageName);
-            Files.createDirectories(path.getParent());
-            imageFile.transferTo(path);
+        try (InputStream inputStream = imageFile.getInputStream()) {
+            final byte[] headerBytes = inputStream.readNBytes((int) headerLimit.toBytes());
+            final ImageHeader header = validateImage(headerBytes);
+            final String imageType = header.type().getFileExtension();
+            final Path temporary = Files.createTempFile("upload-", ".tmp");
+            try {
+                final MessageDigest digest = createDigest();
+                try (InputStream content = new DigestInputStream(new SequenceInputStream(new ByteArrayInputStream(headerBytes), inputStream), digest)) {
+                    Files.copy(content, temporary, StandardCopyOption.REPLACE_EXISTING);
+                }
+                final String imageName = HexFormat.of().formatHex(digest.digest()) + "." + imageType;
+
+                final LocalDateTime now = LocalDateTime.now();
+                final Optional<Image> existingImage = imageRepository.findById(imageName);
+                if (existingImage.isPresent() && imageRepository.updateUploadedAt(imageName, now) > 0) {
+                    return createImageUploadResponseDto(existingImage.get());
+                }
 
-            final Image image = Image.builder()
-                    .imgPath(imageName)
-                    .build();
+                final Image image = Image.builder()
+                        .imgPath(imageName)
+                        .uploadedAt(now)
+                        .blurHash(createBlurHash(temporary, header))
+                        .build();
 
-            imageRepository.save(image);
+                imageFileDeletionService.cancelDeletion(imageName);
+                imageStorage.store(imageName, temporary);
+                if (!imageRepository.insertIfAbsent(image)) {
+                    imageRepository.updateUploadedAt(imageName, now);
+                    return createImageUploadResponseDto(imageRepository.findById(imageName).orElse(image));
+                }
+                imageDerivativeService.submit(imageName);
 
-            return createImageUploadResponseDto(image);
+                return createImageUploadResponseDto(image);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
         } catch (IOException e) {
             throw new ImageHandleException(Map.of("image", messageUtil.get("image.upload.error") + ": " + e.getMessage()));
         }
     }
 
     /**
-     * Deletes an image file from the file system based on its unique ID.
-     * This method attempts to delete the file located at the path constructed
-     * using the configured upload directory and the provided {@code imgPath}.
+     * Registers a new use of an image, e.g. as profile picture of a user or as image of a recommendation.
+     * Unknown paths are ignored.
+     *
+     * @param imgPath The path of the image.
+     */
+    public void addImageReference(String imgPath) {
+        imageRepository.incrementRefCount(imgPath);
+    }
+
+    /**
+     * Releases one use of an image, e.g. when a user changes the profile picture or a recommendation is deleted,
+     * and deletes the image once it is no longer used.
+     * Only to be called for references taken with {@link #addImageReference(String)}.
+     * The database entry is removed within the surrounding transaction when the reference count drops to zero;
+     * images still used elsewhere or uploaded again within the grace period are kept. The image file, its derivatives and its cached variants are removed
+     * in the background by the {@link ImageFileDeletionService} after the transaction has been committed.
      *
-     * @param imgPath The unique identifier of the image to be deleted.
+     * @param imgPath The unique identifier of the image to be released.
      *                This should match the filename (including extension) of the image file.
-     * @return {@code true} if the image file was successfully deleted;
-     * {@code false} if the file does not exist.
-     * @throws ImageHandleException If an {@link IOException} occurs during the deletion process.
+     * @return {@code true} if the reference was released or the image was deleted;
+     * {@code false} if the image does not exist.
      */
-    public boolean deleteImageByImgPath(String imgPath) {
-        Path filePath = Paths.get(uploadDir, imgPath);
-        if (!Files.exists(filePath)) {
+    @Transactional
+    public boolean releaseImageReference(String imgPath) {
+        if (!imageRepository.existsById(imgPath)) {
             return false;
         }
+        imageRepository.decrementRefCount(imgPath);
+        deleteIfUnreferenced(imgPath);
+        return true;
+    }
+
+    /**
+     * Deletes an uploaded image that is not used by any user or recommendation, e.g. when a client discards a draft.
+     * Uploads do not take a reference and identical uploads share one image, so images in use are never touched
+     * and their reference count is left as it is. Images uploaded within the grace period may belong to another upload
+     * of the same content and are left to the {@link ImageGarbageCollector}.
+     *
+     * @param imgPath The path of the image.
+     * @return {@code true} if the image was deleted; {@code false} if it does not exist, is in use or was uploaded recently.
+     */
+    @Transactional
+    public boolean deleteUnreferencedImage(String imgPath) {
+        return deleteIfUnreferenced(imgPath);
+    }
+
+    /**
+     * Returns a copy of an image scaled to fit into the given bounds, keeping its aspect ratio.
+     * Copies are created from the original on first request and served from the {@link ImageVariantCache} afterwards.
+     * The original is only decoded once it fits into the {@link ImageMemoryBudget}.
+     *
+     * @param imgPath The path of the original image.
+     * @param width   The maximum width, {@code null} to scale by height only.
+     * @param height  The maximum height, {@code null} to scale by width only.
+     * @param format  The format name, {@code jpeg} or {@code png}, or {@code null} for JPEG.
+     * @return The cached file of the scaled copy.
+     * @throws ValidationException    If no or an invalid dimension or an unknown format is requested.
+     * @throws ImageNotFoundException If there is no image with the given path.
+     * @throws ImageHandleException   If the image cannot be scaled, has too many cached copies
+     *                                or does not fit into the memory budget in time.
+     */
+    public Path resizeImage(String imgPath, Integer width, Integer height, ImageFormat format) {
+        if ((width == null && height == null) || !isValidDimension(width) || !isValidDimension(height)) {
+            throw new ValidationException(Map.of("image", messageUtil.get("image.resize.dimension.invalid", maxResizeDimension)));
+        }
+        if (!imageRepository.existsById(imgPath)) {
+            throw new ImageNotFoundException("image.not.found");
+        }
+
+        final int maxWidth = width != null ? width : maxResizeDimension;
+        final int maxHeight = height != null ? height : maxResizeDimension;
+        final String variant = maxWidth + "x" + maxHeight + "." + format.getFileExtension();
+        return imageVariantCache.get(imgPath, variant, target -> {
+            try (InputStream inputStream = imageStorage.open(imgPath)) {
+                final boolean decoded = imageMemoryBudget.process(inputStream,
+                        original -> ImageScaler.write(ImageScaler.scale(original, maxWidth, maxHeight), format, target));
+                if (!decoded) {
+                    throw new ImageHandleException(Map.of("image", messageUtil.get("image.upload.read.error")));
+                }
+            }
+        });
+    }
+
+    /**
+     * Resolves the requested format of a scaled image.
+     *
+     * @param format The format name, case-insensitive, or {@code null} for JPEG.
+     * @return The {@link ImageFormat}.
+     * @throws ValidationException If the format is unknown.
+     */
+    public ImageFormat getImageFormat(String format) {
+        if (format == null) {
+            return ImageFormat.JPEG;
+        }
         try {
-            imageRepository.deleteById(imgPath);
-            return Files.deleteIfExists(filePath);
-        } catch (IOException e) {
-            throw new ImageHandleException(Map.of("image", messageUtil.get("image.delete.error") + e.getMessage()));
+            return ImageFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(Map.of("format", messageUtil.get("image.resize.format.invalid")));
         }
     }
 
     /**
-     * Extracts the file extension (image type) from a given filename.
-     * The method looks for the last occurrence of a dot ('.') in the filename
-     * and returns the substring after it, converted to lowercase.
-     * If no dot is found, an empty string is returned.
+     * Returns the number of served static images, the bytes written for them and the share answered from the client's cache.
      *
-     * @param imageName The filename from which to extract the image type.
-     *                  Should not be {@code null}.
-     * @return The lowercase file extension (e.g., "png", "jpg"), or an empty string if no extension is found.
+     * @return a DTO containing the serving statistics
      */
-    private static String getImageType(String imageName) {
-        int dotIndex = imageName.lastIndexOf(".");
-        if (dotIndex > 0) {
-            return imageName.substring(dotIndex + 1).toLowerCase();
+    public ImageServingStatsDto getImageServingStats() {
+        return imageServingMetricsFilter.getStats();
+    }
+
+    /**
+     * Returns the placeholder of an image, to be copied to the users and recommendations showing it.
+     *
+     * @param imgPath The path of the image, or {@code null}.
+     * @return The BlurHash, or {@code null} if there is no image or it has no placeholder.
+     */
+    public String getBlurHash(String imgPath) {
+        if (imgPath == null) {
+            return null;
         }
-        return "";
+        return imageRepository.findById(imgPath)
+                .map(Image::getBlurHash)
+                .orElse(null);
     }
 
     /**
-     * Validates a given {@link MultipartFile} to ensure it is not null or empty
-     * and that its original filename has a supported image file extension (png, jpeg, jpg, webp).
-     * If the file is invalid, an {@link ImageHandleException} is thrown.
+     * Returns the report of the last run of the {@link ImageGarbageCollector}.
      *
-     * @param imageFile The {@link MultipartFile} to be validated.
-     *                  Must not be {@code null}.
-     * @return The lowercase image type (file extension) if the validation is successful.
-     * @throws ImageHandleException If the file is null or empty, or if its filename
-     *                              does not have a supported image file extension.
+     * @return the report including the reclaimed bytes, or {@code null} if there has been no run yet
      */
-    private String validateImage(MultipartFile imageFile) {
-        final String imageType = getImageType(Objects.requireNonNull(imageFile.getOriginalFilename()));
-        final Set<String> allowedTypesSet = new HashSet<>(Arrays.asList("png", "jpeg", "jpg", "webp"));
+    public ImageGarbageCollectionReportDto getLastGarbageCollection() {
+        return imageGarbageCollector.getLastReport();
+    }
 
-        if (imageType.isEmpty() || !allowedTypesSet.contains(imageType.toLowerCase())) {
+    /**
+     * Resolves the path of an image in the requested size.
+     * Falls back to the original if the size is unknown or the derivatives have not been created (yet).
+     *
+     * @param imgPath The path of the original image.
+     * @param size    The requested {@link ImageSize} name, case-insensitive, or {@code null} for the original.
+     * @return The path of the derivative in the requested size, or {@code imgPath}.
+     */
+    public String getImagePath(String imgPath, String size) {
+        if (size == null) {
+            return imgPath;
+        }
+        final ImageSize imageSize;
+        try {
+            imageSize = ImageSize.valueOf(size.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return imgPath;
+        }
+        return imageRepository.findById(imgPath)
+                .map(image -> image.getDerivatives().get(imageSize))
+                .orElse(imgPath);
+    }
+
+    /**
+     * Deletes the database entry of an image if it is no longer referenced and its grace period has ended,
+     * and requests the deletion of its files.
+     *
+     * @param imgPath The path of the image.
+     * @return {@code true} if the image was deleted
+     */
+    private boolean deleteIfUnreferenced(String imgPath) {
+        final Optional<Image> image = imageRepository.findById(imgPath);
+        if (image.isEmpty() || imageRepository.deleteIfUnreferenced(imgPath, LocalDateTime.now().minus(gracePeriod)) == 0) {
+            return false;
+        }
+        final List<String> filePaths = new ArrayList<>(image.get().getDerivatives().values());
+        filePaths.add(imgPath);
+        imageFileDeletionService.requestDeletion(imgPath, filePaths);
+        return true;
+    }
+
+    /**
+     * Checks whether a requested dimension of a scaled image is absent or within the allowed range.
+     *
+     * @param dimension The requested width or height, or {@code null}.
+     * @return TRUE or FALSE
+     */
+    private boolean isValidDimension(Integer dimension) {
+        return dimension == null || (dimension >= 1 && dimension <= maxResizeDimension);
+    }
+
+    /**
+     * Creates the digest used to name the stored images.
+     *
+     * @return a SHA-256 {@link MessageDigest}
+     */
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+    /**
+     * Validates the header of an uploaded image before anything is written to disk.
+     * The format is detected from the first bytes of the content and the dimensions are read from the header
+     * without decoding the pixels, so images that would need too much memory to decode are rejected up front.
+     *
+     * @param headerBytes The first bytes of the uploaded file.
+     * @return The header with the detected format and the dimensions.
+     * @throws ImageHandleException If the content is no supported image, its header cannot be read
+     *                              or it has more pixels than allowed.
+     */
+    private ImageHeader validateImage(byte[] headerBytes) {
+        final ImageHeader header;
+        try {
+            header = ImageHeader.read(headerBytes);
+        } catch (IOException e) {
+            throw new ImageHandleException(Map.of("image", messageUtil.get("image.upload.read.error")));
+        }
+        if (header == null) {
             throw new ImageHandleException(Map.of("image", messageUtil.get("image.wrong.type")));
         }
+        if (header.width() < 1 || header.height() < 1 || header.getPixels() > maxPixels) {
+            throw new ImageHandleException(Map.of("image", messageUtil.get("image.upload.exceed.max.pixels", maxPixels)));
+        }
+        return header;
+    }
 
-        return imageType;
+    /**
+     * Computes the placeholder of an uploaded image.
+     * The image is decoded with subsampling, so only a raster of about {@link ImageBlurHash#SOURCE_SIZE} pixels per side
+     * is allocated, and the decode is admitted by the {@link ImageMemoryBudget} like any other.
+     *
+     * @param file   The uploaded file.
+     * @param header The header of the uploaded file.
+     * @return The BlurHash, or {@code null} if the image cannot be decoded or the budget is exhausted;
+     * the placeholder is optional and never fails the upload.
+     */
+    private String createBlurHash(Path file, ImageHeader header) {
+        final int step = Math.max(1, Math.max(header.width(), header.height()) / ImageBlurHash.SOURCE_SIZE);
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            final Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            final ImageReader reader = readers.next();
+            try (ImageMemoryBudget.Reservation reservation = imageMemoryBudget.reserve(
+                    (header.width() + step - 1) / step, (header.height() + step - 1) / step)) {
+                reader.setInput(input, true, true);
+                final ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return ImageBlurHash.encode(reader.read(0, param));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,142 @@
+package com.spaghetticodegang.trylater.image;
+
+import com.spaghetticodegang.trylater.image.dto.ImageServingStatsDto;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filter that counts the requests for static images under {@code /api/images/},
+ * the bytes written for them and how many were answered from the client's cache with 304 (Not Modified).
+ */
+@Component
+public class ImageServingMetricsFilter extends OncePerRequestFilter {
+
+    static final String IMAGES_PATH = "/api/images/";
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder partialContent = new LongAdder();
+    private final LongAdder bytesServed = new LongAdder();
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !request.getRequestURI().substring(request.getContextPath().length()).startsWith(IMAGES_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+
+        final CountingResponse countingResponse = new CountingResponse(response);
+        try {
+            filterChain.doFilter(request, countingResponse);
+        } finally {
+            requests.increment();
+            bytesServed.add(countingResponse.getBytesWritten());
+            if (response.getStatus() == HttpServletResponse.SC_NOT_MODIFIED) {
+                notModified.increment();
+            } else if (response.getStatus() == HttpServletResponse.SC_PARTIAL_CONTENT) {
+                partialContent.increment();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of image requests, the bytes written for them and the share answered with 304 (Not Modified).
+     *
+     * @return a DTO containing the serving statistics
+     */
+    public ImageServingStatsDto getStats() {
+        final long requestCount = requests.sum();
+        final long notModifiedCount = notModified.sum();
+        return ImageServingStatsDto.builder()
+                .requests(requestCount)
+                .notModified(notModifiedCount)
+                .partialContent(partialContent.sum())
+                .bytesServed(bytesServed.sum())
+                .notModifiedRate(requestCount == 0 ? 0 : (double) notModifiedCount / requestCount)
+                .build();
+    }
+
+    /**
+     * Response that counts the bytes written to its output stream.
+     */
+    private static class CountingResponse extends HttpServletResponseWrapper {
+
+        private CountingOutputStream outputStream;
+
+        CountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new CountingOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+
+        long getBytesWritten() {
+            return outputStream != null ? outputStream.bytesWritten : 0;
+        }
+    }
+
+    /**
+     * Output stream that counts the bytes written to the wrapped stream.
+     */
+    private static class CountingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+        private long bytesWritten;
+
+        CountingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            bytesWritten++;
+        }
+
+        @Override
+        public void write(@NonNull byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            bytesWritten += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
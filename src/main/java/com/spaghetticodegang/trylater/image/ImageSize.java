@@ -0,0 +1,18 @@
+package com.spaghetticodegang.trylater.image;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Enum representing the derivative sizes created for every uploaded image.
+ * The maximum dimension applies to the longer side, images are never scaled up.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ImageSize {
+    THUMB(160),
+    MEDIUM(640),
+    LARGE(2048);
+
+    private final int maxDimension;
+}
@@ -0,0 +1,138 @@
+package com.spaghetticodegang.trylater.image;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.resource.AbstractResourceResolver;
+import org.springframework.web.servlet.resource.HttpResource;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.util.List;
+
+/**
+ * Resolves an image to its derivative in the size given by the {@code size} request parameter,
+ * e.g. {@code /api/images/abc.png?size=thumb}. Without the parameter the original is served.
+ * If a size is requested but its derivative does not exist (yet), the original is served with {@code Cache-Control: no-cache},
+ * so clients do not keep it as the derivative for the lifetime of the immutable cache headers.
+ * The {@link ImageService} is looked up on first use, so the resource configuration does not depend on the service layer.
+ */
+@RequiredArgsConstructor
+public class ImageSizeResourceResolver extends AbstractResourceResolver {
+
+    public static final String SIZE_PARAMETER = "size";
+
+    private final ObjectProvider<ImageService> imageService;
+
+    @Override
+    protected Resource resolveResourceInternal(@Nullable HttpServletRequest request, String requestPath,
+                                               List<? extends Resource> locations, ResourceResolverChain chain) {
+        final String size = request != null ? request.getParameter(SIZE_PARAMETER) : null;
+        if (size != null) {
+            final String imagePath = imageService.getObject().getImagePath(requestPath, size);
+            if (!imagePath.equals(requestPath)) {
+                final Resource derivative = chain.resolveResource(request, imagePath, locations);
+                if (derivative != null) {
+                    return derivative;
+                }
+            }
+            final Resource original = chain.resolveResource(request, requestPath, locations);
+            return original != null ? new RevalidatedResource(original) : null;
+        }
+        return chain.resolveResource(request, requestPath, locations);
+    }
+
+    @Override
+    protected String resolveUrlPathInternal(String resourceUrlPath, List<? extends Resource> locations, ResourceResolverChain chain) {
+        return chain.resolveUrlPath(resourceUrlPath, locations);
+    }
+
+    /**
+     * Serves a resource like the wrapped one, but overrides the configured cache headers so clients revalidate it.
+     */
+    @RequiredArgsConstructor
+    private static class RevalidatedResource extends AbstractResource implements HttpResource {
+
+        private final Resource resource;
+
+        @Override
+        public HttpHeaders getResponseHeaders() {
+            final HttpHeaders headers = new HttpHeaders();
+            if (resource instanceof HttpResource httpResource) {
+                headers.putAll(httpResource.getResponseHeaders());
+            }
+            headers.setCacheControl(CacheControl.noCache());
+            return headers;
+        }
+
+        @Override
+        public boolean exists() {
+            return resource.exists();
+        }
+
+        @Override
+        public boolean isReadable() {
+            return resource.isReadable();
+        }
+
+        @Override
+        public boolean isFile() {
+            return resource.isFile();
+        }
+
+        @Override
+        public URL getURL() throws IOException {
+            return resource.getURL();
+        }
+
+        @Override
+        public URI getURI() throws IOException {
+            return resource.getURI();
+        }
+
+        @Override
+        public File getFile() throws IOException {
+            return resource.getFile();
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            return resource.contentLength();
+        }
+
+        @Override
+        public long lastModified() throws IOException {
+            return resource.lastModified();
+        }
+
+        @Override
+        public Resource createRelative(String relativePath) throws IOException {
+            return resource.createRelative(relativePath);
+        }
+
+        @Override
+        @Nullable
+        public String getFilename() {
+            return resource.getFilename();
+        }
+
+        @Override
+        public String getDescription() {
+            return resource.getDescription();
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return resource.getInputStream();
+        }
+    }
+}
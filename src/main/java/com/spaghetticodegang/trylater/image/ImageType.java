@@ -0,0 +1,59 @@
+package com.spaghetticodegang.trylater.image;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+
+/**
+ * The formats accepted for uploaded images, recognized by the signature at the start of the file.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ImageType {
+
+    PNG("png", new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'}),
+    JPEG("jpg", new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF}),
+    WEBP("webp", new byte[]{'R', 'I', 'F', 'F', 0, 0, 0, 0, 'W', 'E', 'B', 'P'});
+
+    /**
+     * Positions of the WebP signature holding the file size instead of fixed bytes.
+     */
+    private static final int RIFF_SIZE_START = 4;
+    private static final int RIFF_SIZE_END = 8;
+
+    private final String fileExtension;
+    private final byte[] signature;
+
+    /**
+     * Detects the format of an image from its first bytes.
+     *
+     * @param header the first bytes of the file
+     * @return the detected format, or {@code null} if the bytes match no accepted format
+     */
+    public static ImageType detect(byte[] header) {
+        return Arrays.stream(values())
+                .filter(type -> type.matches(header))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Checks whether the given bytes start with the signature of this format.
+     *
+     * @param header the first bytes of the file
+     * @return TRUE or FALSE
+     */
+    private boolean matches(byte[] header) {
+        if (header.length < signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            final boolean isSizeField = this == WEBP && i >= RIFF_SIZE_START && i < RIFF_SIZE_END;
+            if (!isSizeField && header[i] != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,306 @@
+package com.spaghetticodegang.trylater.image;
+
+import com.spaghetticodegang.trylater.shared.exception.ImageHandleException;
+import com.spaghetticodegang.trylater.shared.util.MessageUtil;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Disk cache for resized variants of uploaded images.
+ * The cache is bounded by the total size of its files and evicts the least recently used variants first,
+ * the index is kept in memory and rebuilt from the cache directory on startup.
+ * Concurrent requests for the same variant wait for a single resize,
+ * and the number of variants per image is limited so arbitrary sizes cannot flush the cache.
+ */
+@Component
+public class ImageVariantCache {
+
+    private static final char VARIANT_SEPARATOR = '@';
+
+    private final Path cacheDir;
+    private final long maxBytes;
+    private final int maxVariantsPerImage;
+    private final MessageUtil messageUtil;
+    private final LinkedHashMap<String, Long> sizesByKey = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Set<String>> keysByImageKey = new HashMap<>();
+    private final Map<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+    private long usedBytes;
+
+    public ImageVariantCache(@Value("${image.resize.cache-dir}") String cacheDir,
+                             @Value("${image.resize.cache.max-size}") DataSize maxSize,
+                             @Value("${image.resize.max-variants-per-image}") int maxVariantsPerImage,
+                             MessageUtil messageUtil) {
+        this.cacheDir = Paths.get(cacheDir);
+        this.maxBytes = maxSize.toBytes();
+        this.maxVariantsPerImage = maxVariantsPerImage;
+        this.messageUtil = messageUtil;
+    }
+
+    /**
+     * Writes a variant of an image into the cache.
+     */
+    @FunctionalInterface
+    public interface VariantWriter {
+
+        /**
+         * Writes the variant.
+         *
+         * @param target the file to write to
+         * @throws IOException if the variant cannot be written
+         */
+        void write(Path target) throws IOException;
+    }
+
+    /**
+     * Indexes the variants left in the cache directory by a previous run, oldest first,
+     * and removes unfinished files and variants beyond the size limit.
+     *
+     * @throws IOException if the cache directory cannot be read
+     */
+    @PostConstruct
+    public void initialize() throws IOException {
+        Files.createDirectories(cacheDir);
+        final List<Path> files;
+        try (Stream<Path> stream = Files.list(cacheDir)) {
+            files = stream.sorted(Comparator.comparingLong(ImageVariantCache::lastModified)).toList();
+        }
+        for (Path file : files) {
+            final String fileName = file.getFileName().toString();
+            final int separatorIndex = fileName.lastIndexOf(VARIANT_SEPARATOR);
+            if (separatorIndex <= 0 || fileName.endsWith(".tmp")) {
+                Files.deleteIfExists(file);
+                continue;
+            }
+            synchronized (this) {
+                add(fileName, Files.size(file));
+            }
+        }
+    }
+
+    /**
+     * Returns a cached variant of an image and creates it first if it is not cached yet.
+     *
+     * @param imgPath the path of the original image
+     * @param variant the name of the variant, unique per image and usable as file name
+     * @param writer  creates the variant if it is not cached
+     * @return the cached file of the variant
+     * @throws ImageHandleException if the image already has the maximum number of variants or the variant cannot be created
+     */
+    public Path get(String imgPath, String variant, VariantWriter writer) {
+        final String imageKey = getImageKey(imgPath);
+        final String key = imageKey + VARIANT_SEPARATOR + variant;
+        final CompletableFuture<Path> future = new CompletableFuture<>();
+        final CompletableFuture<Path> running;
+
+        synchronized (this) {
+            if (sizesByKey.get(key) != null) {
+                return cacheDir.resolve(key);
+            }
+            running = inFlight.get(key);
+            if (running == null) {
+                final Set<String> keys = keysByImageKey.computeIfAbsent(imageKey, path -> new HashSet<>());
+                if (keys.size() >= maxVariantsPerImage) {
+                    throw new ImageHandleException(Map.of("image", messageUtil.get("image.resize.variants.exceeded")));
+                }
+                keys.add(key);
+                inFlight.put(key, future);
+            }
+        }
+
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException runtimeException ? runtimeException : e;
+            }
+        }
+
+        try {
+            final Path target = create(key, writer);
+            future.complete(target);
+            return target;
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                removeFromImage(key);
+            }
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key);
+        }
+    }
+
+    /**
+     * Removes all cached variants of an image, e.g. after the image has been deleted.
+     *
+     * @param imgPath the path of the original image
+     */
+    public void evict(String imgPath) {
+        final Set<String> keys;
+        synchronized (this) {
+            keys = keysByImageKey.remove(getImageKey(imgPath));
+            if (keys == null) {
+                return;
+            }
+            keys.forEach(key -> {
+                final Long size = sizesByKey.remove(key);
+                if (size != null) {
+                    usedBytes -= size;
+                }
+            });
+        }
+        keys.forEach(this::deleteFile);
+    }
+
+    /**
+     * Returns the total size of the cached variants.
+     *
+     * @return the size in bytes
+     */
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * Writes a variant into a temporary file, moves it into place and adds it to the index,
+     * evicting the least recently used variants if the cache grows beyond its size limit.
+     *
+     * @param key    the cache key, also the file name of the variant
+     * @param writer creates the variant
+     * @return the cached file
+     */
+    private Path create(String key, VariantWriter writer) {
+        final Path target = cacheDir.resolve(key);
+        final List<String> evicted;
+        try {
+            final Path temporary = cacheDir.resolve(key + ".tmp");
+            try {
+                writer.write(temporary);
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+
+            final long size = Files.size(target);
+            synchronized (this) {
+                sizesByKey.put(key, size);
+                usedBytes += size;
+                evicted = evictLeastRecentlyUsed(key);
+            }
+        } catch (IOException e) {
+            throw new ImageHandleException(Map.of("image", messageUtil.get("image.resize.error")));
+        }
+        evicted.forEach(this::deleteFile);
+        return target;
+    }
+
+    /**
+     * Removes the least recently used variants from the index until the cache fits its size limit.
+     * The variant just created is kept even if it alone exceeds the limit.
+     *
+     * @param currentKey the key of the variant just created
+     * @return the keys of the removed variants, whose files still have to be deleted
+     */
+    private List<String> evictLeastRecentlyUsed(String currentKey) {
+        final List<String> evicted = new ArrayList<>();
+        final Iterator<Map.Entry<String, Long>> iterator = sizesByKey.entrySet().iterator();
+        while (usedBytes > maxBytes && iterator.hasNext()) {
+            final Map.Entry<String, Long> eldest = iterator.next();
+            if (eldest.getKey().equals(currentKey)) {
+                continue;
+            }
+            iterator.remove();
+            usedBytes -= eldest.getValue();
+            evicted.add(eldest.getKey());
+            removeFromImage(eldest.getKey());
+        }
+        return evicted;
+    }
+
+    /**
+     * Adds a variant found on disk to the index.
+     *
+     * @param key  the cache key
+     * @param size the size of the file
+     */
+    private void add(String key, long size) {
+        sizesByKey.put(key, size);
+        keysByImageKey.computeIfAbsent(key.substring(0, key.lastIndexOf(VARIANT_SEPARATOR)), path -> new HashSet<>()).add(key);
+        usedBytes += size;
+        evictLeastRecentlyUsed(key).forEach(this::deleteFile);
+    }
+
+    /**
+     * Removes a variant from the variants of its image.
+     *
+     * @param key the cache key
+     */
+    private void removeFromImage(String key) {
+        final String imageKey = key.substring(0, key.lastIndexOf(VARIANT_SEPARATOR));
+        final Set<String> keys = keysByImageKey.get(imageKey);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                keysByImageKey.remove(imageKey);
+            }
+        }
+    }
+
+    /**
+     * Returns the image part of the cache keys of an image, its path made usable as file name.
+     *
+     * @param imgPath the path of the original image
+     * @return the image key
+     */
+    private static String getImageKey(String imgPath) {
+        return imgPath.replace('/', '_').replace(VARIANT_SEPARATOR, '_');
+    }
+
+    /**
+     * Deletes the file of a variant.
+     *
+     * @param key the cache key
+     */
+    private void deleteFile(String key) {
+        try {
+            Files.deleteIfExists(cacheDir.resolve(key));
+        } catch (IOException e) {
+            // the file is indexed and evicted again on the next startup
+        }
+    }
+
+    /**
+     * Returns the modification time of a file for ordering the index on startup.
+     *
+     * @param file the file
+     * @return the modification time in milliseconds, 0 if it cannot be read
+     */
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
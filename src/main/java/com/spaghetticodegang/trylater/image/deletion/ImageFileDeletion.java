@@ -0,0 +1,48 @@
+package com.spaghetticodegang.trylater.image.deletion;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * JPA entity representing a file of a deleted image that still has to be removed from the image storage.
+ * Entries are stored in the transaction deleting the image and removed once the file has been deleted,
+ * so a rollback keeps the file and a failed deletion is retried.
+ */
+@Getter
+@Setter
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "image_file_deletions", indexes = {
+        @Index(name = "idx_image_file_deletions_next_attempt_at", columnList = "nextAttemptAt")
+})
+public class ImageFileDeletion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * The path of the deleted image the file belongs to.
+     */
+    @Column(nullable = false)
+    private String imgPath;
+
+    /**
+     * The path of the file to delete, the original or one of its derivatives.
+     */
+    @Column(nullable = false)
+    private String filePath;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,59 @@
+package com.spaghetticodegang.trylater.image.deletion;
+
+import jakarta.persistence.LockModeType;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for accessing and managing image file deletion entities in the database.
+ */
+public interface ImageFileDeletionRepository extends JpaRepository<ImageFileDeletion, Long> {
+
+    /**
+     * Finds the file deletions that are due, oldest first.
+     *
+     * @param now   the current time
+     * @param limit the maximum number of deletions to return
+     * @return a list of file deletions or an empty list
+     */
+    @Query("""
+                SELECT d FROM ImageFileDeletion d WHERE d.nextAttemptAt <= :now ORDER BY d.id
+            """)
+    List<ImageFileDeletion> findDue(LocalDateTime now, Limit limit);
+
+    /**
+     * Finds a file deletion if it is still due and locks it until the end of the transaction.
+     * Waits for a concurrent cancellation or deletion of the same entry, in which case nothing is found.
+     *
+     * @param id  the ID of the file deletion
+     * @param now the current time
+     * @return the file deletion or an empty optional
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+                SELECT d FROM ImageFileDeletion d WHERE d.id = :id AND d.nextAttemptAt <= :now
+            """)
+    Optional<ImageFileDeletion> findDueForUpdateById(Long id, LocalDateTime now);
+
+    /**
+     * Deletes the pending file deletions of an image.
+     * Waits until the files of an entry currently being processed have been deleted.
+     *
+     * @param imgPath the path of the image
+     * @return the number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+                DELETE FROM ImageFileDeletion d WHERE d.imgPath = :imgPath
+            """)
+    int deleteAllByImgPath(String imgPath);
+}
@@ -0,0 +1,9 @@
+package com.spaghetticodegang.trylater.image.deletion;
+
+/**
+ * Published when file deletions have been stored for a deleted image.
+ *
+ * @param imgPath the path of the deleted image
+ */
+public record ImageFileDeletionRequestedEvent(String imgPath) {
+}
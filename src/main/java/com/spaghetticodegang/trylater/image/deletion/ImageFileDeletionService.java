@@ -0,0 +1,116 @@
+package com.spaghetticodegang.trylater.image.deletion;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Service layer for removing the files of deleted images in the background.
+ * The files to delete are stored together with the deletion of the image and removed once that transaction has been committed,
+ * so requests do not wait for the image storage and a rollback keeps the files.
+ * Pending deletions are processed periodically, which also retries failed deletions and picks up deletions interrupted by a restart.
+ */
+@Service
+public class ImageFileDeletionService {
+
+    private final ImageFileDeletionRepository imageFileDeletionRepository;
+    private final ImageFileDeletionWorker imageFileDeletionWorker;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ImageFileDeletionService(ImageFileDeletionRepository imageFileDeletionRepository,
+                                    ImageFileDeletionWorker imageFileDeletionWorker,
+                                    ApplicationEventPublisher eventPublisher) {
+        this.imageFileDeletionRepository = imageFileDeletionRepository;
+        this.imageFileDeletionWorker = imageFileDeletionWorker;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Stores the deletion of the given files of a deleted image.
+     * The files are deleted after the surrounding transaction has been committed.
+     *
+     * @param imgPath   the path of the deleted image
+     * @param filePaths the paths of the original and its derivatives
+     */
+    @Transactional
+    public void requestDeletion(String imgPath, Collection<String> filePaths) {
+        final LocalDateTime now = LocalDateTime.now();
+        imageFileDeletionRepository.saveAll(filePaths.stream()
+                .map(filePath -> ImageFileDeletion.builder()
+                        .imgPath(imgPath)
+                        .filePath(filePath)
+                        .attempts(0)
+                        .nextAttemptAt(now)
+                        .createdAt(now)
+                        .build())
+                .toList());
+        eventPublisher.publishEvent(new ImageFileDeletionRequestedEvent(imgPath));
+    }
+
+    /**
+     * Cancels the pending deletion of the files of an image, e.g. before an image with the same content is stored again.
+     * If the files are being deleted at the moment, waits until that is finished, so the files stored afterward are kept.
+     *
+     * @param imgPath the path of the image
+     */
+    @Transactional
+    public void cancelDeletion(String imgPath) {
+        imageFileDeletionRepository.deleteAllByImgPath(imgPath);
+    }
+
+    /**
+     * Starts deleting the files once the transaction requesting it has been committed.
+     *
+     * @param event the event containing the path of the deleted image
+     */
+    @TransactionalEventListener
+    public void onImageFileDeletionRequested(ImageFileDeletionRequestedEvent event) {
+        submit();
+    }
+
+    /**
+     * Processes all due deletions, including retries of failed ones.
+     */
+    @Scheduled(fixedDelayString = "${image.deletion.retry-interval}")
+    public void processPendingDeletions() {
+        submit();
+    }
+
+    /**
+     * Deletes the due files on a background thread unless this node is already doing so.
+     */
+    void submit() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                boolean pending = true;
+                while (pending) {
+                    pending = imageFileDeletionWorker.deleteNextBatch();
+                }
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    /**
+     * Stops the background deletions when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,103 @@
+package com.spaghetticodegang.trylater.image.deletion;
+
+import com.spaghetticodegang.trylater.image.ImageRepository;
+import com.spaghetticodegang.trylater.image.ImageVariantCache;
+import com.spaghetticodegang.trylater.image.storage.ImageStorage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Deletes the files of deleted images batch by batch.
+ * Every file is deleted in its own transaction holding a lock on its entry, so two nodes do not process the same entry
+ * and {@link ImageFileDeletionService#cancelDeletion(String)} waits for a running deletion before the files are stored again.
+ * Failed deletions are retried with an exponentially growing delay.
+ */
+@Component
+public class ImageFileDeletionWorker {
+
+    private final ImageFileDeletionRepository imageFileDeletionRepository;
+    private final ImageRepository imageRepository;
+    private final ImageStorage imageStorage;
+    private final ImageVariantCache imageVariantCache;
+    private final int batchSize;
+    private final Duration retryDelay;
+    private final Duration maxRetryDelay;
+    private final TransactionTemplate transactionTemplate;
+
+    public ImageFileDeletionWorker(ImageFileDeletionRepository imageFileDeletionRepository,
+                                   ImageRepository imageRepository,
+                                   ImageStorage imageStorage,
+                                   ImageVariantCache imageVariantCache,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${image.deletion.batch-size}") int batchSize,
+                                   @Value("${image.deletion.retry-delay}") Duration retryDelay,
+                                   @Value("${image.deletion.max-retry-delay}") Duration maxRetryDelay) {
+        this.imageFileDeletionRepository = imageFileDeletionRepository;
+        this.imageRepository = imageRepository;
+        this.imageStorage = imageStorage;
+        this.imageVariantCache = imageVariantCache;
+        this.batchSize = batchSize;
+        this.retryDelay = retryDelay;
+        this.maxRetryDelay = maxRetryDelay;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Deletes the files of the next batch of due deletions.
+     * Files of images uploaded again in the meantime are kept, since the new upload uses the same paths.
+     *
+     * @return {@code true} if the batch was full and more deletions may be due
+     */
+    public boolean deleteNextBatch() {
+        final List<ImageFileDeletion> deletions = imageFileDeletionRepository.findDue(LocalDateTime.now(), Limit.of(batchSize));
+        deletions.forEach(deletion -> transactionTemplate.executeWithoutResult(status -> delete(deletion.getId())));
+        return deletions.size() == batchSize;
+    }
+
+    /**
+     * Deletes the file of a due deletion and removes the entry, or schedules a retry if the file could not be deleted.
+     * To be called within a transaction; entries cancelled or processed by another node in the meantime are skipped.
+     *
+     * @param id the ID of the file deletion
+     */
+    private void delete(Long id) {
+        final LocalDateTime now = LocalDateTime.now();
+        final Optional<ImageFileDeletion> due = imageFileDeletionRepository.findDueForUpdateById(id, now);
+        if (due.isEmpty()) {
+            return;
+        }
+        final ImageFileDeletion deletion = due.get();
+        if (!imageRepository.existsById(deletion.getImgPath())) {
+            try {
+                imageStorage.delete(deletion.getFilePath());
+                imageVariantCache.evict(deletion.getFilePath());
+            } catch (IOException e) {
+                deletion.setAttempts(deletion.getAttempts() + 1);
+                deletion.setNextAttemptAt(now.plus(getRetryDelay(deletion.getAttempts())));
+                imageFileDeletionRepository.save(deletion);
+                return;
+            }
+        }
+        imageFileDeletionRepository.delete(deletion);
+    }
+
+    /**
+     * Returns the delay before the next attempt, doubling with every failed attempt up to the maximum.
+     *
+     * @param attempts the number of failed attempts
+     * @return the delay
+     */
+    Duration getRetryDelay(int attempts) {
+        final Duration delay = retryDelay.multipliedBy(1L << Math.min(attempts - 1, 30));
+        return delay.compareTo(maxRetryDelay) > 0 ? maxRetryDelay : delay;
+    }
+}
@@ -0,0 +1,20 @@
+package com.spaghetticodegang.trylater.image.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Builder
+public class ImageGarbageCollectionReportDto {
+
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long referencedImages;
+    private long scannedImages;
+    private long deletedImages;
+    private long reclaimedBytes;
+}
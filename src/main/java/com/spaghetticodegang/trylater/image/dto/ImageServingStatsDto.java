@@ -0,0 +1,17 @@
+package com.spaghetticodegang.trylater.image.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+public class ImageServingStatsDto {
+
+    private long requests;
+    private long notModified;
+    private long partialContent;
+    private long bytesServed;
+    private double notModifiedRate;
+}
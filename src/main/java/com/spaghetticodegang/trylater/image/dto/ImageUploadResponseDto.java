@@ -11,5 +11,6 @@ import lombok.Setter;
 public class ImageUploadResponseDto {
 
     private String imgPath;
+    private String blurHash;
 
 }
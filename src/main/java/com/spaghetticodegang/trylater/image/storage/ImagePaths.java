@@ -0,0 +1,38 @@
+package com.spaghetticodegang.trylater.image.storage;
+
+import java.util.regex.Pattern;
+
+/**
+ * Validation of image paths, which must be plain file names so they cannot address anything outside the storage.
+ */
+final class ImagePaths {
+
+    private static final Pattern IMAGE_PATH = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]{0,254}");
+
+    private ImagePaths() {
+    }
+
+    /**
+     * Checks whether a string is a valid image path.
+     *
+     * @param imgPath the image path
+     * @return TRUE or FALSE
+     */
+    static boolean isValid(String imgPath) {
+        return imgPath != null && IMAGE_PATH.matcher(imgPath).matches();
+    }
+
+    /**
+     * Ensures that a string is a valid image path.
+     *
+     * @param imgPath the image path
+     * @return the image path
+     * @throws IllegalArgumentException if the image path is invalid
+     */
+    static String requireValid(String imgPath) {
+        if (!isValid(imgPath)) {
+            throw new IllegalArgumentException("Invalid image path: " + imgPath);
+        }
+        return imgPath;
+    }
+}
@@ -0,0 +1,61 @@
+package com.spaghetticodegang.trylater.image.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * Storage for the files of uploaded images and their derivatives.
+ * Files are addressed by their image path, a plain file name such as {@code <digest>.png}.
+ * Implementations are selected by the active profile.
+ */
+public interface ImageStorage {
+
+    /**
+     * Moves a local file into the storage, replacing a stored file with the same path.
+     * The local file no longer exists afterwards.
+     *
+     * @param imgPath the image path to store the file under
+     * @param file    the local file
+     * @throws IOException if the file cannot be stored
+     */
+    void store(String imgPath, Path file) throws IOException;
+
+    /**
+     * Checks whether a file is stored under the given path.
+     *
+     * @param imgPath the image path
+     * @return TRUE or FALSE, FALSE for paths that are not a plain file name
+     * @throws IOException if the storage cannot be reached
+     */
+    boolean exists(String imgPath) throws IOException;
+
+    /**
+     * Opens a stored file for reading.
+     *
+     * @param imgPath the image path
+     * @return a stream of the file content, to be closed by the caller
+     * @throws java.nio.file.NoSuchFileException if no file is stored under the path
+     * @throws IOException                       if the file cannot be read
+     */
+    InputStream open(String imgPath) throws IOException;
+
+    /**
+     * Returns a stored file as {@link Resource} for serving it over HTTP.
+     * The resource is resolved lazily, so it may not exist.
+     *
+     * @param imgPath the image path
+     * @return the resource
+     */
+    Resource getResource(String imgPath);
+
+    /**
+     * Deletes a stored file if it exists.
+     *
+     * @param imgPath the image path
+     * @throws IOException if the file cannot be deleted
+     */
+    void delete(String imgPath) throws IOException;
+}
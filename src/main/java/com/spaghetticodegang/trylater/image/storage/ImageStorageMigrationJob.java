@@ -0,0 +1,81 @@
+package com.spaghetticodegang.trylater.image.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Moves images stored flat in the upload directory, as before the {@link ImageStorage} was introduced, into the storage.
+ * With the local storage this sorts them into the sharded layout, with the S3 storage it uploads them.
+ * Files that cannot be moved stay in place and are retried on the next run.
+ */
+@Component
+public class ImageStorageMigrationJob {
+
+    private final ImageStorage imageStorage;
+    private final Path uploadDir;
+    private final boolean migrateOnStartup;
+
+    public ImageStorageMigrationJob(ImageStorage imageStorage,
+                                    @Value("${image.upload.dir}") String uploadDir,
+                                    @Value("${image.storage.migrate-on-startup}") boolean migrateOnStartup) {
+        this.imageStorage = imageStorage;
+        this.uploadDir = Paths.get(uploadDir);
+        this.migrateOnStartup = migrateOnStartup;
+    }
+
+    /**
+     * Migrates the flat images on startup if configured.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (migrateOnStartup) {
+            migrate();
+        }
+    }
+
+    /**
+     * Moves all image files directly in the upload directory into the storage.
+     * Directories, e.g. the shards of the local storage, and unfinished temporary files are skipped.
+     *
+     * @return the number of migrated files
+     */
+    public int migrate() {
+        if (!Files.isDirectory(uploadDir)) {
+            return 0;
+        }
+        int migrated = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(uploadDir, this::isFlatImage)) {
+            for (Path file : files) {
+                try {
+                    imageStorage.store(file.getFileName().toString(), file);
+                    migrated++;
+                } catch (IOException e) {
+                    // the file stays in place and is retried on the next run
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return migrated;
+    }
+
+    /**
+     * Checks whether a directory entry is an image file that has not been migrated yet.
+     *
+     * @param file the directory entry
+     * @return TRUE or FALSE
+     */
+    private boolean isFlatImage(Path file) {
+        final String fileName = file.getFileName().toString();
+        return Files.isRegularFile(file) && ImagePaths.isValid(fileName) && !fileName.endsWith(".tmp");
+    }
+}
@@ -0,0 +1,39 @@
+package com.spaghetticodegang.trylater.image.storage;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.resource.AbstractResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import java.util.List;
+
+/**
+ * Resolves the requested image from the {@link ImageStorage}, the last resolver of the image resource chain.
+ * Paths that are not a plain image file name are not resolved.
+ * The storage is looked up on first use, so the resource configuration does not depend on the service layer.
+ */
+@RequiredArgsConstructor
+public class ImageStorageResourceResolver extends AbstractResourceResolver {
+
+    private final ObjectProvider<ImageStorage> imageStorage;
+
+    @Override
+    @Nullable
+    protected Resource resolveResourceInternal(@Nullable HttpServletRequest request, String requestPath,
+                                               List<? extends Resource> locations, ResourceResolverChain chain) {
+        if (!ImagePaths.isValid(requestPath)) {
+            return null;
+        }
+        final Resource resource = imageStorage.getObject().getResource(requestPath);
+        return resource.exists() ? resource : null;
+    }
+
+    @Override
+    @Nullable
+    protected String resolveUrlPathInternal(String resourceUrlPath, List<? extends Resource> locations, ResourceResolverChain chain) {
+        return ImagePaths.isValid(resourceUrlPath) ? resourceUrlPath : null;
+    }
+}
@@ -0,0 +1,100 @@
+package com.spaghetticodegang.trylater.image.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Image storage in the local upload directory.
+ * Files are spread over two levels of 256 subdirectories each, taken from the SHA-256 digest of the image path
+ * (e.g. {@code 3f/a0/<imgPath>}), so no directory grows beyond a few thousand entries even with millions of images.
+ */
+@Component
+@Profile("!s3")
+public class LocalImageStorage implements ImageStorage {
+
+    private final Path rootDir;
+
+    public LocalImageStorage(@Value("${image.upload.dir}") String rootDir) {
+        this.rootDir = Paths.get(rootDir);
+    }
+
+    @Override
+    public void store(String imgPath, Path file) throws IOException {
+        final Path target = resolve(imgPath);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(file, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // the file is on another file system, copy it next to the target first so readers never see a partial file
+            final Path temporary = Files.createTempFile(target.getParent(), "store-", ".tmp");
+            try {
+                Files.copy(file, temporary, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Files.delete(file);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        }
+    }
+
+    @Override
+    public boolean exists(String imgPath) {
+        return ImagePaths.isValid(imgPath) && Files.exists(resolve(imgPath));
+    }
+
+    @Override
+    public InputStream open(String imgPath) throws IOException {
+        return Files.newInputStream(resolve(imgPath));
+    }
+
+    @Override
+    public Resource getResource(String imgPath) {
+        return new FileSystemResource(resolve(imgPath));
+    }
+
+    @Override
+    public void delete(String imgPath) throws IOException {
+        Files.deleteIfExists(resolve(imgPath));
+    }
+
+    /**
+     * Returns the location of an image in the sharded directory layout.
+     *
+     * @param imgPath the image path
+     * @return the file path below the upload directory
+     * @throws IllegalArgumentException if the image path is invalid
+     */
+    Path resolve(String imgPath) {
+        final String shard = HexFormat.of().formatHex(sha256(ImagePaths.requireValid(imgPath)), 0, 2);
+        return rootDir.resolve(shard.substring(0, 2)).resolve(shard.substring(2, 4)).resolve(imgPath);
+    }
+
+    /**
+     * Computes the SHA-256 digest of an image path.
+     *
+     * @param imgPath the image path
+     * @return the digest
+     */
+    private static byte[] sha256(String imgPath) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(imgPath.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+}
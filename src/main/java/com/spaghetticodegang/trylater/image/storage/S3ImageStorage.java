@@ -0,0 +1,233 @@
+package com.spaghetticodegang.trylater.image.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Image storage in a bucket of an S3-compatible object store, e.g. AWS S3 or MinIO.
+ * Objects are addressed path-style ({@code <endpoint>/<bucket>/<imgPath>}) and requests are signed with Signature Version 4.
+ * Activated by the {@code s3} profile.
+ */
+@Component
+@Profile("s3")
+public class S3ImageStorage implements ImageStorage {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+    private final URI bucketUri;
+    private final S3RequestSigner signer;
+
+    public S3ImageStorage(@Value("${image.storage.s3.endpoint}") String endpoint,
+                          @Value("${image.storage.s3.bucket}") String bucket,
+                          @Value("${image.storage.s3.region}") String region,
+                          @Value("${image.storage.s3.access-key}") String accessKey,
+                          @Value("${image.storage.s3.secret-key}") String secretKey) {
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(REQUEST_TIMEOUT)
+                .build();
+        this.bucketUri = URI.create((endpoint.endsWith("/") ? endpoint : endpoint + "/") + bucket + "/");
+        this.signer = new S3RequestSigner(accessKey, secretKey, region);
+    }
+
+    @Override
+    public void store(String imgPath, Path file) throws IOException {
+        final HttpResponse<Void> response = send("PUT", imgPath, file, HttpResponse.BodyHandlers.discarding());
+        requireSuccess(response, imgPath);
+        Files.delete(file);
+    }
+
+    @Override
+    public boolean exists(String imgPath) throws IOException {
+        if (!ImagePaths.isValid(imgPath)) {
+            return false;
+        }
+        final HttpResponse<Void> response = send("HEAD", imgPath, null, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 404) {
+            return false;
+        }
+        requireSuccess(response, imgPath);
+        return true;
+    }
+
+    @Override
+    public InputStream open(String imgPath) throws IOException {
+        final HttpResponse<InputStream> response = send("GET", imgPath, null, HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() / 100 != 2) {
+            response.body().close();
+        }
+        if (response.statusCode() == 404) {
+            throw new NoSuchFileException(imgPath);
+        }
+        requireSuccess(response, imgPath);
+        return response.body();
+    }
+
+    @Override
+    public Resource getResource(String imgPath) {
+        return new S3ObjectResource(ImagePaths.requireValid(imgPath));
+    }
+
+    @Override
+    public void delete(String imgPath) throws IOException {
+        final HttpResponse<Void> response = send("DELETE", imgPath, null, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 404) {
+            requireSuccess(response, imgPath);
+        }
+    }
+
+    /**
+     * Sends a signed request for an object.
+     *
+     * @param method          the HTTP method
+     * @param imgPath         the image path, the object key
+     * @param body            the file to upload, {@code null} for requests without body
+     * @param responseHandler the handler of the response body
+     * @return the response
+     * @throws IOException if the request fails or is interrupted
+     */
+    private <T> HttpResponse<T> send(String method, String imgPath, Path body, HttpResponse.BodyHandler<T> responseHandler) throws IOException {
+        final URI uri = bucketUri.resolve(ImagePaths.requireValid(imgPath));
+        final String payloadHash = body != null ? S3RequestSigner.sha256Hex(body) : S3RequestSigner.EMPTY_PAYLOAD_HASH;
+        final String amzDate = S3RequestSigner.formatAmzDate(Instant.now());
+
+        final SortedMap<String, String> signedHeaders = new TreeMap<>();
+        signedHeaders.put("host", getHost(uri));
+        signedHeaders.put(S3RequestSigner.CONTENT_SHA256_HEADER, payloadHash);
+        signedHeaders.put(S3RequestSigner.AMZ_DATE_HEADER, amzDate);
+
+        final HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(REQUEST_TIMEOUT)
+                .method(method, body != null ? HttpRequest.BodyPublishers.ofFile(body) : HttpRequest.BodyPublishers.noBody())
+                .header(S3RequestSigner.CONTENT_SHA256_HEADER, payloadHash)
+                .header(S3RequestSigner.AMZ_DATE_HEADER, amzDate)
+                .header(HttpHeaders.AUTHORIZATION, signer.authorization(method, uri, signedHeaders))
+                .build();
+        try {
+            return httpClient.send(request, responseHandler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while requesting " + imgPath);
+        }
+    }
+
+    /**
+     * Returns the value of the {@code Host} header the HTTP client sends for a URI.
+     *
+     * @param uri the request URI
+     * @return the host, with the port if it is not the default port of the scheme
+     */
+    private static String getHost(URI uri) {
+        final int port = uri.getPort();
+        final boolean defaultPort = port == -1
+                || ("http".equals(uri.getScheme()) && port == 80)
+                || ("https".equals(uri.getScheme()) && port == 443);
+        return defaultPort ? uri.getHost() : uri.getHost() + ":" + port;
+    }
+
+    /**
+     * Ensures that a response reports success.
+     *
+     * @param response the response
+     * @param imgPath  the requested image path
+     * @throws IOException if the status code is not 2xx
+     */
+    private static void requireSuccess(HttpResponse<?> response, String imgPath) throws IOException {
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Object store answered " + response.statusCode() + " for " + response.request().method() + " " + imgPath);
+        }
+    }
+
+    /**
+     * An object served over HTTP. Its metadata is requested once with HEAD, the content is streamed with GET.
+     */
+    private class S3ObjectResource extends AbstractResource {
+
+        private final String imgPath;
+        private HttpResponse<Void> head;
+
+        S3ObjectResource(String imgPath) {
+            this.imgPath = imgPath;
+        }
+
+        @Override
+        public boolean exists() {
+            try {
+                return head().statusCode() / 100 == 2;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            return head().headers().firstValueAsLong(HttpHeaders.CONTENT_LENGTH)
+                    .orElseThrow(() -> new FileNotFoundException(getDescription() + " has no content length"));
+        }
+
+        @Override
+        public long lastModified() throws IOException {
+            final String lastModified = head().headers().firstValue(HttpHeaders.LAST_MODIFIED)
+                    .orElseThrow(() -> new FileNotFoundException(getDescription() + " has no modification date"));
+            try {
+                return ZonedDateTime.parse(lastModified, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            } catch (DateTimeParseException e) {
+                throw new IOException(getDescription() + " has an invalid modification date", e);
+            }
+        }
+
+        @Override
+        @NonNull
+        public InputStream getInputStream() throws IOException {
+            return open(imgPath);
+        }
+
+        @Override
+        public String getFilename() {
+            return imgPath;
+        }
+
+        @Override
+        @NonNull
+        public String getDescription() {
+            return "S3 object [" + imgPath + "]";
+        }
+
+        /**
+         * Requests the metadata of the object on first use.
+         *
+         * @return the HEAD response
+         * @throws IOException if the request fails
+         */
+        private HttpResponse<Void> head() throws IOException {
+            if (head == null) {
+                head = send("HEAD", imgPath, null, HttpResponse.BodyHandlers.discarding());
+            }
+            return head;
+        }
+    }
+}
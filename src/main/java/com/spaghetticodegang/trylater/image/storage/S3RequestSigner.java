@@ -0,0 +1,166 @@
+package com.spaghetticodegang.trylater.image.storage;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.SortedMap;
+import java.util.stream.Collectors;
+
+/**
+ * Signs requests to an S3-compatible object store with AWS Signature Version 4.
+ */
+final class S3RequestSigner {
+
+    static final String EMPTY_PAYLOAD_HASH = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+    static final String AMZ_DATE_HEADER = "x-amz-date";
+    static final String CONTENT_SHA256_HEADER = "x-amz-content-sha256";
+
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+    private static final String SERVICE = "s3";
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    private final String accessKey;
+    private final String secretKey;
+    private final String region;
+
+    S3RequestSigner(String accessKey, String secretKey, String region) {
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.region = region;
+    }
+
+    /**
+     * Computes the {@code Authorization} header of a request.
+     *
+     * @param method  the HTTP method
+     * @param uri     the request URI, path and query already encoded
+     * @param headers the signed headers with lower-case names, including {@code host}, {@code x-amz-date}
+     *                and {@code x-amz-content-sha256}
+     * @return the header value
+     */
+    String authorization(String method, URI uri, SortedMap<String, String> headers) {
+        final String amzDate = headers.get(AMZ_DATE_HEADER);
+        final String scope = amzDate.substring(0, 8) + "/" + region + "/" + SERVICE + "/aws4_request";
+        final String signedHeaders = String.join(";", headers.keySet());
+        final String canonicalRequest = String.join("\n",
+                method,
+                uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath(),
+                canonicalQuery(uri.getRawQuery()),
+                headers.entrySet().stream()
+                        .map(header -> header.getKey() + ":" + header.getValue().trim() + "\n")
+                        .collect(Collectors.joining()),
+                signedHeaders,
+                headers.get(CONTENT_SHA256_HEADER));
+        final String stringToSign = String.join("\n",
+                ALGORITHM,
+                amzDate,
+                scope,
+                sha256Hex(canonicalRequest.getBytes(StandardCharsets.UTF_8)));
+
+        byte[] signingKey = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), amzDate.substring(0, 8));
+        signingKey = hmac(signingKey, region);
+        signingKey = hmac(signingKey, SERVICE);
+        signingKey = hmac(signingKey, "aws4_request");
+        final String signature = HexFormat.of().formatHex(hmac(signingKey, stringToSign));
+
+        return ALGORITHM + " Credential=" + accessKey + "/" + scope + ", SignedHeaders=" + signedHeaders + ", Signature=" + signature;
+    }
+
+    /**
+     * Formats a point in time as value of the {@code x-amz-date} header.
+     *
+     * @param instant the point in time
+     * @return the formatted date, e.g. {@code 20130524T000000Z}
+     */
+    static String formatAmzDate(Instant instant) {
+        return AMZ_DATE.format(instant);
+    }
+
+    /**
+     * Computes the hex-encoded SHA-256 digest of a file, the payload hash of an upload.
+     *
+     * @param file the file
+     * @return the digest
+     * @throws IOException if the file cannot be read
+     */
+    static String sha256Hex(Path file) throws IOException {
+        final MessageDigest digest = createDigest();
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Computes the hex-encoded SHA-256 digest of some bytes.
+     *
+     * @param bytes the bytes
+     * @return the digest
+     */
+    static String sha256Hex(byte[] bytes) {
+        return HexFormat.of().formatHex(createDigest().digest(bytes));
+    }
+
+    /**
+     * Sorts the parameters of a query string by name as required for the canonical request.
+     *
+     * @param rawQuery the encoded query string, may be {@code null}
+     * @return the canonical query string
+     */
+    private static String canonicalQuery(String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return "";
+        }
+        return Arrays.stream(rawQuery.split("&"))
+                .map(parameter -> parameter.contains("=") ? parameter : parameter + "=")
+                .sorted()
+                .collect(Collectors.joining("&"));
+    }
+
+    /**
+     * Computes an HMAC-SHA256.
+     *
+     * @param key  the key
+     * @param data the data, UTF-8 encoded
+     * @return the MAC
+     */
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            final Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not supported", e);
+        }
+    }
+
+    /**
+     * Creates a SHA-256 digest.
+     *
+     * @return the digest
+     */
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+}
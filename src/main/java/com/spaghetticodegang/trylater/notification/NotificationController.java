@@ -0,0 +1,33 @@
+package com.spaghetticodegang.trylater.notification;
+
+import com.spaghetticodegang.trylater.user.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * REST controller providing the server-sent events stream for push notifications.
+ */
+@RestController
+@RequestMapping("/api/notification")
+@RequiredArgsConstructor
+public class NotificationController {
+
+    private final NotificationService notificationService;
+
+    /**
+     * Opens a server-sent events stream for the currently authenticated user.
+     * The stream emits "recommendation" and "contact" events and periodic heartbeat comments.
+     *
+     * @param me the currently authenticated user
+     * @return the {@link SseEmitter} of the new connection
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@AuthenticationPrincipal User me) {
+        return notificationService.subscribe(me);
+    }
+}
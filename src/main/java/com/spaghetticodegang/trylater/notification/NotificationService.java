@@ -0,0 +1,150 @@
+package com.spaghetticodegang.trylater.notification;
+
+import com.spaghetticodegang.trylater.notification.event.ContactRequestedEvent;
+import com.spaghetticodegang.trylater.notification.event.RecommendationReceivedEvent;
+import com.spaghetticodegang.trylater.user.User;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Service layer for pushing notifications to connected clients via server-sent events.
+ * Keeps a registry of open connections per user. Events are published after the
+ * transaction that created the recommendation assignment or contact request has been committed.
+ */
+@Service
+public class NotificationService {
+
+    private final Map<Long, Deque<NotificationConnection>> connections = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${notification.sse.timeout}")
+    private Duration timeout;
+
+    @Value("${notification.sse.buffer-size}")
+    private int bufferSize;
+
+    @Value("${notification.sse.max-connections-per-user}")
+    private int maxConnectionsPerUser;
+
+    /**
+     * Opens a new server-sent events connection for the given user.
+     * If the user exceeds the maximum number of connections, the oldest connection is closed.
+     *
+     * @param me the currently authenticated user
+     * @return the {@link SseEmitter} of the new connection
+     */
+    public SseEmitter subscribe(User me) {
+        final Long userId = me.getId();
+        final SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        final NotificationConnection connection = new NotificationConnection(emitter, bufferSize, executor);
+
+        emitter.onCompletion(() -> unregister(userId, connection));
+        emitter.onTimeout(() -> unregister(userId, connection));
+        emitter.onError(error -> unregister(userId, connection));
+
+        connections.compute(userId, (id, userConnections) -> {
+            final Deque<NotificationConnection> result = userConnections != null ? userConnections : new ConcurrentLinkedDeque<>();
+            result.addLast(connection);
+            while (result.size() > maxConnectionsPerUser) {
+                result.pollFirst().close();
+            }
+            return result;
+        });
+
+        connection.offer(SseEmitter.event().comment("connected"));
+        return emitter;
+    }
+
+    /**
+     * Sends an event to all open connections of the given user.
+     * Does nothing if the user is not connected.
+     *
+     * @param userId    the ID of the user to notify
+     * @param eventName the name of the event
+     * @param data      the payload of the event, serialized as JSON
+     */
+    public void publish(Long userId, String eventName, Object data) {
+        final Deque<NotificationConnection> userConnections = connections.get(userId);
+        if (userConnections == null) {
+            return;
+        }
+        userConnections.forEach(connection -> {
+            if (!connection.offer(SseEmitter.event().name(eventName).data(data, MediaType.APPLICATION_JSON))) {
+                unregister(userId, connection);
+            }
+        });
+    }
+
+    /**
+     * Returns the number of currently open connections.
+     *
+     * @return the number of open connections over all users
+     */
+    public int getConnectionCount() {
+        return connections.values().stream().mapToInt(Deque::size).sum();
+    }
+
+    /**
+     * Sends a heartbeat comment to all open connections, so idle connections are kept alive
+     * by proxies and broken connections are detected.
+     */
+    @Scheduled(fixedRateString = "${notification.sse.heartbeat-interval}")
+    public void sendHeartbeat() {
+        connections.forEach((userId, userConnections) -> userConnections.forEach(connection -> {
+            if (!connection.offer(SseEmitter.event().comment("heartbeat"))) {
+                unregister(userId, connection);
+            }
+        }));
+    }
+
+    /**
+     * Notifies the receiver about a new recommendation after the assignment has been committed.
+     *
+     * @param event the event describing the received recommendation
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecommendationReceived(RecommendationReceivedEvent event) {
+        publish(event.receiverId(), "recommendation", Map.of("recommendationId", event.recommendationId()));
+    }
+
+    /**
+     * Notifies the receiver about a new contact request after it has been committed.
+     *
+     * @param event the event describing the contact request
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContactRequested(ContactRequestedEvent event) {
+        publish(event.receiverId(), "contact", Map.of("contactId", event.contactId()));
+    }
+
+    /**
+     * Closes all open connections when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        connections.values().forEach(userConnections -> userConnections.forEach(NotificationConnection::close));
+        connections.clear();
+        executor.shutdownNow();
+    }
+
+    private void unregister(Long userId, NotificationConnection connection) {
+        connection.close();
+        connections.computeIfPresent(userId, (id, userConnections) -> {
+            userConnections.remove(connection);
+            return userConnections.isEmpty() ? null : userConnections;
+        });
+    }
+}
@@ -0,0 +1,9 @@
+package com.spaghetticodegang.trylater.notification.event;
+
+/**
+ * Published when a contact request has been sent to a user.
+ *
+ * @param receiverId the ID of the user who received the contact request
+ * @param contactId  the ID of the requested contact
+ */
+public record ContactRequestedEvent(Long receiverId, Long contactId) {}
@@ -0,0 +1,9 @@
+package com.spaghetticodegang.trylater.notification.event;
+
+/**
+ * Published when a recommendation has been assigned to a receiver.
+ *
+ * @param receiverId       the ID of the user who received the recommendation
+ * @param recommendationId the ID of the received recommendation
+ */
+public record RecommendationReceivedEvent(Long receiverId, Long recommendationId) {}
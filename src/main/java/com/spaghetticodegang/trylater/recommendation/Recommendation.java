@@ -7,6 +7,7 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -21,7 +22,7 @@ import java.util.List;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "recommendations")
+@Table(name = "recommendations", indexes = @Index(name = "idx_recommendations_receiver_count", columnList = "receiver_count"))
 public class Recommendation {
 
     @Id
@@ -36,6 +37,11 @@ public class Recommendation {
 
     private String imgPath;
 
+    /**
+     * The placeholder of the image, copied from the image when the recommendation is created.
+     */
+    private String imgBlurHash;
+
     private String url;
 
     @Min(1)
@@ -62,4 +68,12 @@ public class Recommendation {
     )
     private List<Tag> tags = new ArrayList<>();
 
+    /**
+     * Number of assignments of this recommendation. Maintained by atomic updates
+     * together with every assignment insert and delete, a value of zero marks an orphan.
+     */
+    @ColumnDefault("0")
+    @Column(name = "receiver_count", nullable = false)
+    private int receiverCount;
+
 }
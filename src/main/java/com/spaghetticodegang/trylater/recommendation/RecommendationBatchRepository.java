@@ -0,0 +1,17 @@
+package com.spaghetticodegang.trylater.recommendation;
+
+import java.util.List;
+
+/**
+ * Repository fragment for inserting many recommendations with JDBC batch statements.
+ */
+public interface RecommendationBatchRepository {
+
+    /**
+     * Inserts the given new recommendations together with their tags and sets their generated IDs.
+     * The creator, category and tags of the recommendations have to be persisted already.
+     *
+     * @param recommendations the new recommendations
+     */
+    void insertAll(List<Recommendation> recommendations);
+}
@@ -0,0 +1,77 @@
+package com.spaghetticodegang.trylater.recommendation;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * JDBC implementation of {@link RecommendationBatchRepository}.
+ * Recommendations use identity IDs, which Hibernate cannot insert in batches.
+ */
+@RequiredArgsConstructor
+class RecommendationBatchRepositoryImpl implements RecommendationBatchRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO recommendations (title, description, img_path, img_blur_hash, url, rating, creator_id, creation_date, category_id,
+                                         receiver_count)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String INSERT_TAG_SQL = """
+            INSERT INTO recommendation_tags (recommendation_id, tag_id) VALUES (?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<Recommendation> recommendations) {
+        if (recommendations.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL, new String[]{"id"})) {
+                for (Recommendation recommendation : recommendations) {
+                    statement.setString(1, recommendation.getTitle());
+                    statement.setString(2, recommendation.getDescription());
+                    statement.setString(3, recommendation.getImgPath());
+                    statement.setString(4, recommendation.getImgBlurHash());
+                    statement.setString(5, recommendation.getUrl());
+                    statement.setInt(6, recommendation.getRating());
+                    if (recommendation.getCreator() != null) {
+                        statement.setLong(7, recommendation.getCreator().getId());
+                    } else {
+                        statement.setNull(7, Types.BIGINT);
+                    }
+                    statement.setTimestamp(8, Timestamp.valueOf(recommendation.getCreationDate()));
+                    statement.setLong(9, recommendation.getCategory().getId());
+                    statement.setInt(10, recommendation.getReceiverCount());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+
+                try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                    for (Recommendation recommendation : recommendations) {
+                        generatedKeys.next();
+                        recommendation.setId(generatedKeys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+
+        final List<Object[]> tagRows = recommendations.stream()
+                .flatMap(recommendation -> recommendation.getTags().stream()
+                        .map(tag -> new Object[]{recommendation.getId(), tag.getId()}))
+                .toList();
+        if (!tagRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TAG_SQL, tagRows);
+        }
+    }
+}
@@ -1,17 +1,32 @@
 package com.spaghetticodegang.trylater.recommendation;
 
 import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentStatus;
+import com.spaghetticodegang.trylater.recommendation.assignment.dto.RecommendationAssignmentBulkStatusRequestDto;
+import com.spaghetticodegang.trylater.recommendation.assignment.dto.RecommendationAssignmentBulkStatusResultDto;
 import com.spaghetticodegang.trylater.recommendation.assignment.dto.RecommendationAssignmentStatusRequestDto;
+import com.spaghetticodegang.trylater.recommendation.category.CategoryType;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationFacetResponseDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationFanOutResponseDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationForwardRequestDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationFragmentCacheStatsDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationImportRequestDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationImportResponseDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationNormalizedListResponseDto;
 import com.spaghetticodegang.trylater.recommendation.dto.RecommendationRequestDto;
 import com.spaghetticodegang.trylater.recommendation.dto.RecommendationResponseDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationSearchResponseDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationSyncResponseDto;
 import com.spaghetticodegang.trylater.user.User;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
 import java.util.List;
 
 /**
@@ -26,17 +41,84 @@ public class RecommendationController {
 
     /**
      * Handles a new recommendation request by delegating to the service layer.
+     * Recommendations with many receivers are delivered in the background and answered with 202 (ACCEPTED).
      *
      * @param me      the currently authenticated user (requester)
      * @param request the recommendation request data including receiver user IDs
-     * @return the created recommendation as a response DTO
+     * @return the created recommendation as a response DTO, or the pending fan-out for many receivers
      */
     @PostMapping
-    public ResponseEntity<RecommendationResponseDto> createRecommendation(@AuthenticationPrincipal User me, @RequestBody @Valid RecommendationRequestDto request) {
+    public ResponseEntity<?> createRecommendation(@AuthenticationPrincipal User me, @RequestBody @Valid RecommendationRequestDto request) {
+        if (recommendationService.isFanOutRequired(request)) {
+            RecommendationFanOutResponseDto recommendationFanOutResponseDto = recommendationService.createRecommendationWithFanOut(me, request);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/recommendation/fan-out/" + recommendationFanOutResponseDto.getId()))
+                    .body(recommendationFanOutResponseDto);
+        }
         RecommendationResponseDto recommendationResponseDto = recommendationService.createRecommendation(me, request);
         return ResponseEntity.status(HttpStatus.CREATED).body(recommendationResponseDto);
     }
 
+    /**
+     * Handles a request to forward a received recommendation to contacts by delegating to the service layer.
+     * Requests with many receivers are delivered in the background.
+     *
+     * @param me               the currently authenticated user (requester)
+     * @param recommendationId the ID of the recommendation to forward
+     * @param request          the forward request containing the receiver IDs
+     * @return the IDs of the new receivers, or the pending fan-out for many receivers
+     */
+    @PostMapping("/{id}/forward")
+    public ResponseEntity<?> forwardRecommendation(@AuthenticationPrincipal User me, @PathVariable("id") Long recommendationId, @RequestBody @Valid RecommendationForwardRequestDto request) {
+        if (recommendationService.isFanOutRequired(request)) {
+            RecommendationFanOutResponseDto recommendationFanOutResponseDto = recommendationService.forwardRecommendationWithFanOut(me, recommendationId, request);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/recommendation/fan-out/" + recommendationFanOutResponseDto.getId()))
+                    .body(recommendationFanOutResponseDto);
+        }
+        return ResponseEntity.ok(recommendationService.forwardRecommendation(me, recommendationId, request));
+    }
+
+    /**
+     * Handles a request for the delivery progress of a recommendation with many receivers by delegating to the service layer.
+     *
+     * @param me       the currently authenticated user (requester)
+     * @param fanOutId the ID of the fan-out
+     * @return the status and progress of the fan-out
+     */
+    @GetMapping("/fan-out/{id}")
+    public ResponseEntity<RecommendationFanOutResponseDto> getRecommendationFanOut(@AuthenticationPrincipal User me, @PathVariable("id") Long fanOutId) {
+        return ResponseEntity.ok(recommendationService.getRecommendationFanOut(me, fanOutId));
+    }
+
+    /**
+     * Handles the upload of a CSV or JSON file with many recommendations by delegating to the service layer.
+     * The file is imported in the background.
+     *
+     * @param me      the currently authenticated user (requester)
+     * @param request the request containing the file and optionally its format
+     * @return the running import with the location of its progress
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<RecommendationImportResponseDto> importRecommendations(@AuthenticationPrincipal User me, @Valid @ModelAttribute RecommendationImportRequestDto request) {
+        RecommendationImportResponseDto recommendationImportResponseDto = recommendationService.importRecommendations(me, request);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/recommendation/import/" + recommendationImportResponseDto.getId()))
+                .body(recommendationImportResponseDto);
+    }
+
+    /**
+     * Handles a request for the progress of a recommendation import by delegating to the service layer.
+     *
+     * @param me       the currently authenticated user (requester)
+     * @param importId the ID of the import
+     * @return the status, progress and row errors of the import
+     */
+    @GetMapping("/import/{id}")
+    public ResponseEntity<RecommendationImportResponseDto> getRecommendationImport(@AuthenticationPrincipal User me, @PathVariable("id") Long importId) {
+        return ResponseEntity.ok(recommendationService.getRecommendationImport(me, importId));
+    }
+
     /**
      * Handles a recommendation assignment status update request by delegating to the service layer.
      *
@@ -51,16 +133,106 @@ public class RecommendationController {
         return ResponseEntity.ok(recommendationResponseDto);
     }
 
+    /**
+     * Handles a bulk recommendation assignment status update request by delegating to the service layer.
+     *
+     * @param me      the currently authenticated user (requester)
+     * @param request the recommendation IDs and the new recommendation assignment status
+     * @return one compact result per recommendation ID
+     */
+    @PatchMapping
+    public ResponseEntity<List<RecommendationAssignmentBulkStatusResultDto>> updateRecommendationAssignmentStatuses(@AuthenticationPrincipal User me, @RequestBody @Valid RecommendationAssignmentBulkStatusRequestDto request) {
+        return ResponseEntity.ok(recommendationService.updateRecommendationAssignmentStatuses(me, request));
+    }
+
     /**
      * Handles request to get all assigned recommendations by delegating to the service layer.
      *
      * @param me                             the currently authenticated user (requester)
      * @param recommendationAssignmentStatus the status of the assignment
+     * @param shape                          the response shape, only {@code embedded} is handled here
      * @return a list of all the assigned recommendation with that specified status
      */
     @GetMapping
-    public ResponseEntity<List<RecommendationResponseDto>> getAllRecommendations(@AuthenticationPrincipal User me, @RequestParam(name = "status", required = false) RecommendationAssignmentStatus recommendationAssignmentStatus) {
-        return ResponseEntity.ok(recommendationService.getAllRecommendationsByUserAndRecommendationStatus(me, recommendationAssignmentStatus));
+    public ResponseEntity<StreamingResponseBody> getAllRecommendations(@AuthenticationPrincipal User me, @RequestParam(name = "status", required = false) RecommendationAssignmentStatus recommendationAssignmentStatus, @RequestParam(name = "shape", required = false) String shape) {
+        recommendationService.validateListShape(shape);
+
+        final List<byte[]> fragments = recommendationService.getAllRecommendationFragmentsByUserAndRecommendationStatus(me, recommendationAssignmentStatus);
+        final StreamingResponseBody body = outputStream -> {
+            outputStream.write('[');
+            for (int i = 0; i < fragments.size(); i++) {
+                if (i > 0) {
+                    outputStream.write(',');
+                }
+                outputStream.write(fragments.get(i));
+            }
+            outputStream.write(']');
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Handles request to get all assigned recommendations in the normalized shape by delegating to the service layer.
+     * Creators and tag groups are side-loaded once instead of being embedded in every recommendation.
+     *
+     * @param me                             the currently authenticated user (requester)
+     * @param recommendationAssignmentStatus the status of the assignment
+     * @return the assigned recommendations with that specified status and their creators and tag groups
+     */
+    @GetMapping(params = "shape=normalized")
+    public ResponseEntity<RecommendationNormalizedListResponseDto> getAllRecommendationsNormalized(@AuthenticationPrincipal User me, @RequestParam(name = "status", required = false) RecommendationAssignmentStatus recommendationAssignmentStatus) {
+        return ResponseEntity.ok(recommendationService.getNormalizedRecommendationsByUserAndRecommendationStatus(me, recommendationAssignmentStatus));
+    }
+
+    /**
+     * Handles request to get the statistics of the recommendation fragment cache by delegating to the service layer.
+     * Only available to administrators.
+     *
+     * @return the hit rate and memory usage of the cache
+     */
+    @GetMapping("/fragment-cache")
+    public ResponseEntity<RecommendationFragmentCacheStatsDto> getRecommendationFragmentCacheStats() {
+        return ResponseEntity.ok(recommendationService.getRecommendationFragmentCacheStats());
+    }
+
+    /**
+     * Handles a delta sync request by delegating to the service layer.
+     *
+     * @param me        the currently authenticated user (requester)
+     * @param watermark the opaque watermark returned by the previous sync, omitted for a full sync
+     * @return the changed and deleted recommendations since the watermark and a new watermark
+     */
+    @GetMapping("/sync")
+    public ResponseEntity<RecommendationSyncResponseDto> syncRecommendations(@AuthenticationPrincipal User me, @RequestParam(name = "watermark", required = false) String watermark) {
+        return ResponseEntity.ok(recommendationService.syncRecommendations(me, watermark));
+    }
+
+    /**
+     * Handles a faceted filter request over the assigned recommendations by delegating to the service layer.
+     *
+     * @param me                             the currently authenticated user (requester)
+     * @param categoryType                   the category filter
+     * @param tagIds                         the tag filter, all tags have to match
+     * @param recommendationAssignmentStatus the status filter
+     * @return the facet counts and the IDs of the matching recommendations
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<RecommendationFacetResponseDto> getRecommendationFacets(@AuthenticationPrincipal User me, @RequestParam(name = "category", required = false) CategoryType categoryType, @RequestParam(name = "tagIds", required = false) List<Long> tagIds, @RequestParam(name = "status", required = false) RecommendationAssignmentStatus recommendationAssignmentStatus) {
+        return ResponseEntity.ok(recommendationService.getRecommendationFacets(me, categoryType, tagIds, recommendationAssignmentStatus));
+    }
+
+    /**
+     * Handles a full-text search request over the assigned recommendations by delegating to the service layer.
+     *
+     * @param me    the currently authenticated user (requester)
+     * @param query the search query
+     * @param page  the zero-based page number
+     * @param size  the page size
+     * @return the ranked search results of the requested page
+     */
+    @GetMapping("/search")
+    public ResponseEntity<RecommendationSearchResponseDto> searchRecommendations(@AuthenticationPrincipal User me, @RequestParam(name = "q") String query, @RequestParam(name = "page", defaultValue = "0") int page, @RequestParam(name = "size", defaultValue = "20") int size) {
+        return ResponseEntity.ok(recommendationService.searchRecommendations(me, query, page, size));
     }
 
     /**
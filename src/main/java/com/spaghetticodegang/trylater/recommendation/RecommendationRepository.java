@@ -1,15 +1,22 @@
 package com.spaghetticodegang.trylater.recommendation;
 
+import jakarta.persistence.LockModeType;
 import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Repository interface for accessing and managing recommendation entities in the database.
  */
-public interface RecommendationRepository extends JpaRepository<Recommendation, Long> {
+public interface RecommendationRepository extends JpaRepository<Recommendation, Long>, RecommendationBatchRepository {
 
     /**
      * In case of a user is deleted, updates the creator to null
@@ -22,4 +29,218 @@ public interface RecommendationRepository extends JpaRepository<Recommendation,
                 UPDATE Recommendation r SET r.creator = null WHERE r.creator.id = :userId
             """)
     void updateCreatorToNull(Long userId);
-}
\ No newline at end of file
+
+    /**
+     * Finds all recommendations and fetches their tags.
+     *
+     * @return a list of all {@link Recommendation} entities or an empty list
+     */
+    @Query("""
+                SELECT DISTINCT r FROM Recommendation r LEFT JOIN FETCH r.tags
+            """)
+    List<Recommendation> findAllWithTags();
+
+    /**
+     * Finds a recommendation by its ID and fetches everything needed to build its response DTO
+     * (creator, category, tags and their tag groups) in a single query.
+     *
+     * @param recommendationId the ID of the recommendation
+     * @return an {@link Optional} of the {@link Recommendation} entity
+     */
+    @Query("""
+                SELECT DISTINCT r FROM Recommendation r
+                LEFT JOIN FETCH r.creator JOIN FETCH r.category
+                LEFT JOIN FETCH r.tags t LEFT JOIN FETCH t.tagGroup
+                WHERE r.id = :recommendationId
+            """)
+    Optional<Recommendation> findWithDetailsById(Long recommendationId);
+
+    /**
+     * Finds the given recommendations and fetches everything needed to display them.
+     *
+     * @param recommendationIds the recommendation IDs
+     * @return a list of {@link Recommendation} entities or an empty list
+     */
+    @Query("""
+                SELECT DISTINCT r FROM Recommendation r
+                LEFT JOIN FETCH r.creator JOIN FETCH r.category
+                LEFT JOIN FETCH r.tags t LEFT JOIN FETCH t.tagGroup
+                WHERE r.id IN :recommendationIds
+            """)
+    List<Recommendation> findAllWithDetailsByIds(Collection<Long> recommendationIds);
+
+    /**
+     * Returns the IDs of the recommendations following the given ID in ascending order.
+     *
+     * @param lastId the last ID already processed
+     * @param limit  the maximum number of IDs to return
+     * @return a list of recommendation IDs or an empty list
+     */
+    @Query("""
+                SELECT r.id FROM Recommendation r WHERE r.id > :lastId ORDER BY r.id
+            """)
+    List<Long> findIdsAfter(Long lastId, Limit limit);
+
+    /**
+     * Atomically increments the receiver count of a recommendation.
+     *
+     * @param recommendationId the ID of the recommendation
+     * @return the number of updated rows
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+                UPDATE Recommendation r SET r.receiverCount = r.receiverCount + 1 WHERE r.id = :recommendationId
+            """)
+    int incrementReceiverCount(Long recommendationId);
+
+    /**
+     * Atomically adds the given number of receivers to the receiver count of a recommendation.
+     *
+     * @param recommendationId the ID of the recommendation
+     * @param receivers        the number of new receivers
+     * @return the number of updated rows
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+                UPDATE Recommendation r SET r.receiverCount = r.receiverCount + :receivers WHERE r.id = :recommendationId
+            """)
+    int addToReceiverCount(Long recommendationId, int receivers);
+
+    /**
+     * Atomically adds the given number of receivers to the receiver counts of several recommendations.
+     *
+     * @param recommendationIds the IDs of the recommendations
+     * @param receivers         the number of new receivers per recommendation
+     * @return the number of updated rows
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+                UPDATE Recommendation r SET r.receiverCount = r.receiverCount + :receivers WHERE r.id IN :recommendationIds
+            """)
+    int addToReceiverCounts(Collection<Long> recommendationIds, int receivers);
+
+    /**
+     * Atomically decrements the receiver count of a recommendation.
+     *
+     * @param recommendationId the ID of the recommendation
+     * @return the number of updated rows
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+                UPDATE Recommendation r SET r.receiverCount = r.receiverCount - 1 WHERE r.id = :recommendationId AND r.receiverCount > 0
+            """)
+    int decrementReceiverCount(Long recommendationId);
+
+    /**
+     * Atomically decrements the receiver count of all recommendations assigned to the given user.
+     *
+     * @param userId the ID of the receiver
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+                UPDATE Recommendation r SET r.receiverCount = r.receiverCount - 1
+                WHERE r.receiverCount > 0 AND r.id IN (SELECT a.recommendation.id FROM RecommendationAssignment a WHERE a.receiver.id = :userId)
+            """)
+    void decrementReceiverCountsByReceiverId(Long userId);
+
+    /**
+     * Reads the receiver count of a recommendation.
+     *
+     * @param recommendationId the ID of the recommendation
+     * @return an {@link Optional} of the receiver count, empty if the recommendation does not exist
+     */
+    @Query("""
+                SELECT r.receiverCount FROM Recommendation r WHERE r.id = :recommendationId
+            """)
+    Optional<Integer> findReceiverCountById(Long recommendationId);
+
+    /**
+     * Finds those of the given recommendations that have no receivers and locks them until the end of the transaction,
+     * so they cannot be assigned again before they are deleted.
+     * Recommendations whose fan-out is still pending are not orphaned yet.
+     *
+     * @param recommendationIds the IDs of the recommendations to check
+     * @return a list of orphaned {@link Recommendation} entities or an empty list
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+                SELECT r FROM Recommendation r WHERE r.id IN :recommendationIds AND r.receiverCount = 0 AND NOT EXISTS (
+                    SELECT f FROM RecommendationFanOut f
+                    WHERE f.recommendationId = r.id AND f.status = com.spaghetticodegang.trylater.recommendation.fanout.RecommendationFanOutStatus.PENDING
+                )
+            """)
+    List<Recommendation> findOrphansByIdIn(Collection<Long> recommendationIds);
+
+    /**
+     * Deletes the given recommendations if they still have no receivers and no pending fan-out.
+     * Hibernate removes their rows of the {@code recommendation_tags} join table as part of the bulk delete.
+     *
+     * @param recommendationIds the IDs of the orphaned recommendations
+     * @return the number of deleted recommendations
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+                DELETE FROM Recommendation r WHERE r.id IN :recommendationIds AND r.receiverCount = 0 AND NOT EXISTS (
+                    SELECT f FROM RecommendationFanOut f
+                    WHERE f.recommendationId = r.id AND f.status = com.spaghetticodegang.trylater.recommendation.fanout.RecommendationFanOutStatus.PENDING
+                )
+            """)
+    int deleteOrphansByIdIn(Collection<Long> recommendationIds);
+
+    /**
+     * Checks whether a recommendation has assignments but a receiver count of zero,
+     * which is the case after the column has been added to an existing database.
+     * Backed by the index on the receiver count, so only the few recommendations counted as orphans are checked.
+     *
+     * @return TRUE or FALSE
+     */
+    @Query("""
+                SELECT COUNT(r) > 0 FROM Recommendation r WHERE r.receiverCount = 0 AND EXISTS (
+                    SELECT a FROM RecommendationAssignment a WHERE a.recommendation = r
+                )
+            """)
+    boolean existsUncountedAssignments();
+
+    /**
+     * Recalculates the receiver count of all recommendations whose count differs from their number of assignments,
+     * e.g. after the column has been added to an existing database.
+     *
+     * @return the number of corrected recommendations
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+                UPDATE recommendations r SET receiver_count = (SELECT COUNT(*) FROM recommendation_assignments a WHERE a.recommendation_id = r.id)
+                WHERE r.receiver_count <> (SELECT COUNT(*) FROM recommendation_assignments a WHERE a.recommendation_id = r.id)
+            """, nativeQuery = true)
+    int reconcileReceiverCounts();
+
+    /**
+     * Returns the distinct image paths used by recommendations following the given path in ascending order.
+     *
+     * @param lastImgPath the last path already processed
+     * @param limit       the maximum number of paths to return
+     * @return a list of image paths or an empty list
+     */
+    @Query("""
+                SELECT DISTINCT r.imgPath FROM Recommendation r WHERE r.imgPath > :lastImgPath ORDER BY r.imgPath
+            """)
+    List<String> findImgPathsAfter(String lastImgPath, Limit limit);
+
+    /**
+     * Returns those of the given image paths that are used by recommendations.
+     *
+     * @param imgPaths the image paths to check
+     * @return the used image paths
+     */
+    @Query("""
+                SELECT DISTINCT r.imgPath FROM Recommendation r WHERE r.imgPath IN :imgPaths
+            """)
+    List<String> findImgPathsIn(Collection<String> imgPaths);
+}
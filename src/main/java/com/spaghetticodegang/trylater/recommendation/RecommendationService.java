@@ -5,11 +5,33 @@ import com.spaghetticodegang.trylater.image.ImageService;
 import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignment;
 import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentService;
 import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentStatus;
+import com.spaghetticodegang.trylater.recommendation.assignment.change.RecommendationAssignmentChange;
+import com.spaghetticodegang.trylater.recommendation.assignment.dto.RecommendationAssignmentBulkStatusRequestDto;
+import com.spaghetticodegang.trylater.recommendation.assignment.dto.RecommendationAssignmentBulkStatusResultDto;
 import com.spaghetticodegang.trylater.recommendation.assignment.dto.RecommendationAssignmentStatusRequestDto;
+import com.spaghetticodegang.trylater.recommendation.bulkimport.RecommendationImportService;
 import com.spaghetticodegang.trylater.recommendation.category.Category;
 import com.spaghetticodegang.trylater.recommendation.category.CategoryRepository;
+import com.spaghetticodegang.trylater.recommendation.category.CategoryType;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationFacetResponseDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationFanOutResponseDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationForwardRequestDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationForwardResponseDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationFragmentCacheStatsDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationImportRequestDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationImportResponseDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationNormalizedListResponseDto;
 import com.spaghetticodegang.trylater.recommendation.dto.RecommendationRequestDto;
 import com.spaghetticodegang.trylater.recommendation.dto.RecommendationResponseDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationSearchResponseDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationSyncItemDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationSyncResponseDto;
+import com.spaghetticodegang.trylater.recommendation.facet.RecommendationFacetService;
+import com.spaghetticodegang.trylater.recommendation.fanout.RecommendationFanOutService;
+import com.spaghetticodegang.trylater.recommendation.fragment.RecommendationFragmentCache;
+import com.spaghetticodegang.trylater.recommendation.inbox.InboxService;
+import com.spaghetticodegang.trylater.recommendation.search.RecommendationSearchHits;
+import com.spaghetticodegang.trylater.recommendation.search.RecommendationSearchIndex;
 import com.spaghetticodegang.trylater.recommendation.tag.Tag;
 import com.spaghetticodegang.trylater.recommendation.tag.TagService;
 import com.spaghetticodegang.trylater.shared.exception.RecommendationNotFoundException;
@@ -17,14 +39,20 @@ import com.spaghetticodegang.trylater.shared.exception.ValidationException;
 import com.spaghetticodegang.trylater.shared.util.MessageUtil;
 import com.spaghetticodegang.trylater.user.User;
 import com.spaghetticodegang.trylater.user.UserService;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Map;
-import java.util.Objects;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service layer for handling business logic related to recommendations.
@@ -33,6 +61,10 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class RecommendationService {
 
+    private static final int SYNC_PAGE_SIZE = 500;
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final Set<String> LIST_SHAPES = Set.of("embedded", "normalized");
+
     private final RecommendationRepository recommendationRepository;
     private final CategoryRepository categoryRepository;
     private final RecommendationAssignmentService recommendationAssignmentService;
@@ -40,8 +72,17 @@ public class RecommendationService {
     private final UserService userService;
     private final ContactService contactService;
     private final ImageService imageService;
+    private final RecommendationSearchIndex recommendationSearchIndex;
+    private final RecommendationFacetService recommendationFacetService;
+    private final RecommendationFanOutService recommendationFanOutService;
+    private final RecommendationFragmentCache recommendationFragmentCache;
+    private final InboxService inboxService;
+    private final RecommendationImportService recommendationImportService;
     private final MessageUtil messageUtil;
 
+    @Value("${recommendation.sync.safety-window}")
+    private Duration syncSafetyWindow;
+
     /**
      * Creates a new recommendation and sent it to a list of contacts.
      * Performs validation to prevent invalid categories.
@@ -51,9 +92,9 @@ public class RecommendationService {
      * @return a response DTO representing the newly created recommendation
      * @throws ValidationException if the category is not found
      */
+    @Transactional
     public RecommendationResponseDto createRecommendation(User me, RecommendationRequestDto request) {
-        final Category category = categoryRepository.findByCategoryType(request.getCategory())
-                .orElseThrow(() -> new ValidationException(Map.of("category", messageUtil.get("recommendation.category.not.found"))));
+        final Category category = getCategory(request);
 
         final List<Tag> tags = request.getTagIds().stream()
                 .map(id -> validateTagsBelongToCategory(category, id))
@@ -63,10 +104,165 @@ public class RecommendationService {
                 .map(id -> validateReceiver(me, id))
                 .toList();
 
+        final Recommendation recommendation = saveRecommendation(me, request, category, tags);
+
+        receivers.forEach(receiver -> {
+            recommendationAssignmentService.createRecommendationAssignment(recommendation, receiver);
+        });
+
+        return createRecommendationResponseDto(recommendation);
+    }
+
+    /**
+     * Checks whether a recommendation request has so many receivers that it is delivered in the background.
+     *
+     * @param request the recommendation request containing the receiver IDs
+     * @return TRUE or FALSE
+     */
+    public boolean isFanOutRequired(RecommendationRequestDto request) {
+        return recommendationFanOutService.isFanOutRequired(request.getReceiverIds().size());
+    }
+
+    /**
+     * Creates a new recommendation and delivers it to a large list of contacts in the background.
+     * The recommendation is committed immediately, the assignments are created by a fan-out afterwards.
+     *
+     * @param me      the authenticated user
+     * @param request the recommendation request containing the receiver IDs
+     * @return a response DTO representing the pending fan-out
+     * @throws ValidationException if the category is not found or a receiver is not a valid contact
+     */
+    @Transactional
+    public RecommendationFanOutResponseDto createRecommendationWithFanOut(User me, RecommendationRequestDto request) {
+        final Category category = getCategory(request);
+
+        final List<Tag> tags = request.getTagIds().stream()
+                .map(id -> validateTagsBelongToCategory(category, id))
+                .toList();
+
+        final Set<Long> contactUserIds = contactService.getContactUserIds(me.getId());
+        final List<Long> receiverIds = request.getReceiverIds().stream()
+                .distinct()
+                .map(id -> validateReceiverId(me, contactUserIds, id))
+                .toList();
+
+        final Recommendation recommendation = saveRecommendation(me, request, category, tags);
+
+        return recommendationFanOutService.createFanOut(me, recommendation, receiverIds);
+    }
+
+    /**
+     * Checks whether a forward request has so many receivers that it is delivered in the background.
+     *
+     * @param request the forward request containing the receiver IDs
+     * @return TRUE or FALSE
+     */
+    public boolean isFanOutRequired(RecommendationForwardRequestDto request) {
+        return recommendationFanOutService.isFanOutRequired(request.getReceiverIds().size());
+    }
+
+    /**
+     * Forwards a recommendation the currently authenticated user has received to a list of contacts.
+     * The receivers get assignments of the existing recommendation, nothing of the recommendation is copied.
+     * Receivers who already have the recommendation are skipped.
+     *
+     * @param me               the currently authenticated user
+     * @param recommendationId the ID of the recommendation to forward
+     * @param request          the forward request containing the receiver IDs
+     * @return a response DTO containing the IDs of the new receivers
+     * @throws RecommendationNotFoundException if the user has no assignment of the recommendation
+     * @throws ValidationException             if a receiver is not a valid contact
+     */
+    @Transactional
+    public RecommendationForwardResponseDto forwardRecommendation(User me, Long recommendationId, RecommendationForwardRequestDto request) {
+        final Recommendation recommendation = getForwardableRecommendation(me, recommendationId);
+        final List<Long> receiverIds = validateForwardReceiverIds(me, request);
+
+        return RecommendationForwardResponseDto.builder()
+                .recommendationId(recommendationId)
+                .receiverIds(recommendationAssignmentService.createRecommendationAssignments(recommendation, receiverIds))
+                .build();
+    }
+
+    /**
+     * Forwards a recommendation the currently authenticated user has received to a large list of contacts in the background.
+     *
+     * @param me               the currently authenticated user
+     * @param recommendationId the ID of the recommendation to forward
+     * @param request          the forward request containing the receiver IDs
+     * @return a response DTO representing the pending fan-out
+     * @throws RecommendationNotFoundException if the user has no assignment of the recommendation
+     * @throws ValidationException             if a receiver is not a valid contact
+     */
+    @Transactional
+    public RecommendationFanOutResponseDto forwardRecommendationWithFanOut(User me, Long recommendationId, RecommendationForwardRequestDto request) {
+        final Recommendation recommendation = getForwardableRecommendation(me, recommendationId);
+        final List<Long> receiverIds = validateForwardReceiverIds(me, request);
+
+        return recommendationFanOutService.createFanOut(me, recommendation, receiverIds);
+    }
+
+    /**
+     * Returns the progress of a fan-out started by the currently authenticated user.
+     *
+     * @param me       the currently authenticated user
+     * @param fanOutId the ID of the fan-out
+     * @return a response DTO representing the fan-out
+     */
+    public RecommendationFanOutResponseDto getRecommendationFanOut(User me, Long fanOutId) {
+        return recommendationFanOutService.getFanOut(me, fanOutId);
+    }
+
+    /**
+     * Starts the import of many recommendations of the currently authenticated user from an uploaded file.
+     * The recommendations are only assigned to the user, the file is processed in the background.
+     *
+     * @param me      the currently authenticated user
+     * @param request the request containing the file and optionally its format
+     * @return a response DTO representing the running import
+     */
+    public RecommendationImportResponseDto importRecommendations(User me, RecommendationImportRequestDto request) {
+        return recommendationImportService.startImport(me, request);
+    }
+
+    /**
+     * Returns the progress of an import started by the currently authenticated user.
+     *
+     * @param me       the currently authenticated user
+     * @param importId the ID of the import
+     * @return a response DTO representing the import
+     */
+    public RecommendationImportResponseDto getRecommendationImport(User me, Long importId) {
+        return recommendationImportService.getImport(me, importId);
+    }
+
+    /**
+     * Finds the category of a recommendation request.
+     *
+     * @param request the recommendation request
+     * @return the category entity
+     * @throws ValidationException if the category is not found
+     */
+    private Category getCategory(RecommendationRequestDto request) {
+        return categoryRepository.findByCategoryType(request.getCategory())
+                .orElseThrow(() -> new ValidationException(Map.of("category", messageUtil.get("recommendation.category.not.found"))));
+    }
+
+    /**
+     * Saves a new recommendation, registers the use of its image and adds it to the search index.
+     *
+     * @param me       the creator of the recommendation
+     * @param request  the recommendation request
+     * @param category the validated category
+     * @param tags     the validated tags
+     * @return the saved recommendation entity
+     */
+    private Recommendation saveRecommendation(User me, RecommendationRequestDto request, Category category, List<Tag> tags) {
         final Recommendation recommendation = Recommendation.builder()
                 .title(request.getTitle())
                 .description(request.getDescription())
                 .imgPath(request.getImgPath())
+                .imgBlurHash(imageService.getBlurHash(request.getImgPath()))
                 .url(request.getUrl())
                 .rating(request.getRating())
                 .creator(me)
@@ -76,12 +272,11 @@ public class RecommendationService {
                 .build();
 
         recommendationRepository.save(recommendation);
-
-        receivers.forEach(receiver -> {
-            recommendationAssignmentService.createRecommendationAssignment(recommendation, receiver);
-        });
-
-        return createRecommendationResponseDto(recommendation);
+        if (recommendation.getImgPath() != null) {
+            imageService.addImageReference(recommendation.getImgPath());
+        }
+        recommendationSearchIndex.index(recommendation);
+        return recommendation;
     }
 
     /**
@@ -96,6 +291,7 @@ public class RecommendationService {
                 .title(recommendation.getTitle())
                 .description(recommendation.getDescription())
                 .imgPath(recommendation.getImgPath())
+                .imgBlurHash(recommendation.getImgBlurHash())
                 .url(recommendation.getUrl())
                 .rating(recommendation.getRating())
                 .creator(userService.createUserResponseDto(recommendation.getCreator()))
@@ -114,13 +310,26 @@ public class RecommendationService {
      * @return a response DTO representing the recommendation
      * @throws RecommendationNotFoundException if there is no recommendation with requested ID
      */
+    @Transactional
     public RecommendationResponseDto updateRecommendationAssignmentStatus(User me, Long recommendationId, RecommendationAssignmentStatusRequestDto request) {
         recommendationAssignmentService.updateRecommendationAssignmentStatus(me, recommendationId, request);
-        Recommendation recommendation = getRecommendationById(recommendationId);
+        Recommendation recommendation = recommendationRepository.findWithDetailsById(recommendationId)
+                .orElseThrow(() -> new RecommendationNotFoundException("recommendation.not.found"));
 
         return createRecommendationResponseDto(recommendation);
     }
 
+    /**
+     * Updates the status of several {@link RecommendationAssignment}s of the currently authenticated user at once.
+     *
+     * @param me      the currently authenticated {@link User}
+     * @param request the {@link RecommendationAssignmentBulkStatusRequestDto} containing the recommendation IDs and the new status
+     * @return a compact result per recommendation ID
+     */
+    public List<RecommendationAssignmentBulkStatusResultDto> updateRecommendationAssignmentStatuses(User me, RecommendationAssignmentBulkStatusRequestDto request) {
+        return recommendationAssignmentService.updateRecommendationAssignmentStatuses(me, request);
+    }
+
     /**
      * Validates that a tag with the given ID belongs to the specified category.
      * The category defines the valid TagGroups, and each Tag must belong to a TagGroup of this category.
@@ -137,6 +346,39 @@ public class RecommendationService {
         return tagService.getTagById(tagId);
     }
 
+    /**
+     * Finds a recommendation the given user may forward, i.e. one the user has an assignment of.
+     *
+     * @param me               the user who forwards the recommendation
+     * @param recommendationId the ID of the recommendation
+     * @return the recommendation entity
+     * @throws RecommendationNotFoundException if the user has no assignment of the recommendation
+     */
+    private Recommendation getForwardableRecommendation(User me, Long recommendationId) {
+        if (recommendationAssignmentService.getRecommendationAssignmentByUserIdAndRecommendationId(me.getId(), recommendationId) == null) {
+            throw new RecommendationNotFoundException("recommendation.not.found");
+        }
+        return getRecommendationById(recommendationId);
+    }
+
+    /**
+     * Validates the receivers of a forward request against the contacts of the sender.
+     * The sender is removed, since the sender already has the recommendation.
+     *
+     * @param me      the user who forwards the recommendation
+     * @param request the forward request containing the receiver IDs
+     * @return the distinct receiver IDs in request order
+     * @throws ValidationException if a receiver is not a valid contact
+     */
+    private List<Long> validateForwardReceiverIds(User me, RecommendationForwardRequestDto request) {
+        final Set<Long> contactUserIds = contactService.getContactUserIds(me.getId());
+        return request.getReceiverIds().stream()
+                .distinct()
+                .filter(id -> !Objects.equals(id, me.getId()))
+                .map(id -> validateReceiverId(me, contactUserIds, id))
+                .toList();
+    }
+
     /**
      * Validates that the receiver is a valid contact of the sender.
      *
@@ -152,6 +394,22 @@ public class RecommendationService {
         return userService.findUserById(receiverId);
     }
 
+    /**
+     * Validates that the receiver is a valid contact of the sender without loading the receiver.
+     *
+     * @param sender         the user who sends the recommendation
+     * @param contactUserIds the IDs of all contacts of the sender
+     * @param receiverId     the ID of the receiver
+     * @return the validated receiver ID
+     * @throws ValidationException if the receiver is not a valid contact
+     */
+    private Long validateReceiverId(User sender, Set<Long> contactUserIds, Long receiverId) {
+        if (!(contactUserIds.contains(receiverId) || Objects.equals(receiverId, sender.getId()))) {
+            throw new ValidationException(Map.of("receiver", messageUtil.get("recommendation.receiver.not.valid")));
+        }
+        return receiverId;
+    }
+
     /**
      * Finds a recommendation by its unique ID
      *
@@ -165,35 +423,245 @@ public class RecommendationService {
     }
 
     /**
-     * Lists all assigned recommendation with a specific status for a given user.
+     * Lists all assigned recommendations with a specific status for a given user as serialized JSON fragments.
+     * The recommendations are read from the denormalized inbox of the user.
      *
      * @param me                             the currently authenticated user
      * @param recommendationAssignmentStatus status of the assigment
-     * @return a list of response DTOs representing the recommendations
+     * @return one serialized response DTO per recommendation
      */
-    public List<RecommendationResponseDto> getAllRecommendationsByUserAndRecommendationStatus(User me, RecommendationAssignmentStatus recommendationAssignmentStatus) {
-        List<Recommendation> recommendations = recommendationAssignmentService.getAllRecommendationsByUserAndAssignmentStatus(me, recommendationAssignmentStatus);
+    public List<byte[]> getAllRecommendationFragmentsByUserAndRecommendationStatus(User me, RecommendationAssignmentStatus recommendationAssignmentStatus) {
+        return inboxService.getInbox(me.getId(), recommendationAssignmentStatus);
+    }
 
-        return recommendations.stream()
-                .map(this::createRecommendationResponseDto)
-                .collect(Collectors.toList());
+    /**
+     * Validates the requested shape of a list response.
+     *
+     * @param shape the requested shape, {@code null} for the default embedded shape
+     * @throws ValidationException if the shape is unknown
+     */
+    public void validateListShape(String shape) {
+        if (shape != null && !LIST_SHAPES.contains(shape)) {
+            throw new ValidationException(Map.of("shape", messageUtil.get("recommendation.list.shape.invalid")));
+        }
+    }
+
+    /**
+     * Lists all assigned recommendations with a specific status for a given user in the normalized list shape,
+     * in which every creator and tag group is contained only once.
+     *
+     * @param me                             the currently authenticated user
+     * @param recommendationAssignmentStatus status of the assigment
+     * @return a response DTO containing the items and the side-loaded users and tag groups
+     */
+    public RecommendationNormalizedListResponseDto getNormalizedRecommendationsByUserAndRecommendationStatus(User me, RecommendationAssignmentStatus recommendationAssignmentStatus) {
+        return inboxService.getNormalizedInbox(me.getId(), recommendationAssignmentStatus);
+    }
+
+    /**
+     * Returns the hit rate and memory usage of the recommendation fragment cache.
+     *
+     * @return a DTO containing the cache statistics
+     */
+    public RecommendationFragmentCacheStatsDto getRecommendationFragmentCacheStats() {
+        return recommendationFragmentCache.getStats();
+    }
+
+    /**
+     * Filters the assigned recommendations of a user by category, tags and status
+     * and counts them per category, tag and status.
+     *
+     * @param me           the currently authenticated user
+     * @param categoryType the category filter or {@code null}
+     * @param tagIds       the tag filter, all tags have to match; {@code null} for no tag filter
+     * @param status       the assignment status filter or {@code null}
+     * @return a response DTO containing the facet counts and the matching recommendation IDs
+     */
+    public RecommendationFacetResponseDto getRecommendationFacets(User me, CategoryType categoryType, List<Long> tagIds, RecommendationAssignmentStatus status) {
+        return recommendationFacetService.getFacets(me.getId(), categoryType, tagIds != null ? tagIds : List.of(), status);
     }
 
     /**
      * Deletes a recommendation assignment from given user and recommendation ID.
-     * Deletes a recommendation at all if there is no recommendation assignment for that recommendation.
+     * Deletes a recommendation at all if its receiver count dropped to zero and no fan-out is still delivering it,
+     * e.g. when an early receiver of a background fan-out removes the assignment.
      *
      * @param me               the user that assignment should be deleted
      * @param recommendationId the recommendation ID that assignment should be deleted
      */
+    @Transactional
     public void deleteRecommendationAssignment(User me, Long recommendationId) {
         recommendationAssignmentService.deleteRecommendationAssignmentByRecommendationId(me.getId(), recommendationId);
-        if (!recommendationAssignmentService.existsRecommendationInRecommendationAssignment(recommendationId)) {
-            String imagePath = getRecommendationById(recommendationId).getImgPath();
-            if (imagePath != null) {
-                imageService.deleteImageByImgPath(imagePath);
+        recommendationRepository.findOrphansByIdIn(List.of(recommendationId)).forEach(orphan -> {
+            if (orphan.getImgPath() != null) {
+                imageService.releaseImageReference(orphan.getImgPath());
             }
-            recommendationRepository.deleteById(recommendationId);
+            recommendationRepository.deleteOrphansByIdIn(List.of(recommendationId));
+            recommendationSearchIndex.remove(recommendationId);
+            recommendationFragmentCache.evict(recommendationId);
+        });
+    }
+
+    /**
+     * Searches the assigned recommendations of a user by title, description and tag names.
+     * The results are ranked by relevance.
+     *
+     * @param me    the currently authenticated user
+     * @param query the search query
+     * @param page  the zero-based page number
+     * @param size  the page size
+     * @return a response DTO containing the requested page of results and the total number of results
+     * @throws ValidationException if the query is empty or the page is invalid
+     */
+    public RecommendationSearchResponseDto searchRecommendations(User me, String query, int page, int size) {
+        if (query == null || query.isBlank()) {
+            throw new ValidationException(Map.of("q", messageUtil.get("recommendation.search.query.empty")));
+        }
+
+        if (page < 0 || size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+            throw new ValidationException(Map.of("page", messageUtil.get("recommendation.search.page.invalid")));
         }
+
+        final RecommendationSearchHits hits = recommendationSearchIndex.search(me.getId(), query.trim(), page, size);
+        final Map<Long, Recommendation> recommendationsById = recommendationRepository.findAllById(hits.recommendationIds()).stream()
+                .collect(Collectors.toMap(Recommendation::getId, Function.identity()));
+
+        final List<RecommendationResponseDto> results = hits.recommendationIds().stream()
+                .map(recommendationsById::get)
+                .filter(Objects::nonNull)
+                .map(this::createRecommendationResponseDto)
+                .toList();
+
+        return RecommendationSearchResponseDto.builder()
+                .results(results)
+                .totalResults(hits.totalHits())
+                .page(page)
+                .size(size)
+                .build();
+    }
+
+    /**
+     * Returns the changes of the assigned recommendations of a user since the given watermark.
+     * Without a watermark all currently assigned recommendations are returned (full sync).
+     * Recommendations whose assignment no longer exists are returned as tombstones.
+     * <p>
+     * Change sequences are issued when a change is inserted, not when its transaction commits, so a change with a
+     * lower sequence can become visible after a sync has already passed it. The watermark therefore also holds the
+     * time of the read, and every delta sync returns again the recommendations with changes up to the watermark that
+     * were recorded within the safety window before that time. The response always carries the current state of a
+     * recommendation, so clients apply such repeated entries like any other.
+     *
+     * @param me        the currently authenticated user
+     * @param watermark the opaque watermark of the last sync or {@code null} for a full sync
+     * @return a response DTO containing the changed and deleted recommendations and the new watermark
+     * @throws ValidationException if the watermark is invalid
+     */
+    public RecommendationSyncResponseDto syncRecommendations(User me, String watermark) {
+        final LocalDateTime readAt = LocalDateTime.now();
+        if (watermark == null || watermark.isBlank()) {
+            final Long currentSequence = recommendationAssignmentService.getCurrentChangeSequence();
+            final List<RecommendationSyncItemDto> changed = recommendationAssignmentService.getAllRecommendationAssignmentsByUserId(me.getId()).stream()
+                    .map(this::createRecommendationSyncItemDto)
+                    .toList();
+
+            return RecommendationSyncResponseDto.builder()
+                    .changed(changed)
+                    .deletedRecommendationIds(List.of())
+                    .watermark(encodeWatermark(currentSequence, readAt))
+                    .hasMore(false)
+                    .build();
+        }
+
+        final SyncWatermark previous = decodeWatermark(watermark);
+        final LocalDateTime previousReadAt = previous.readAt() != null ? previous.readAt() : readAt;
+        final List<Long> unsettledRecommendationIds = recommendationAssignmentService.getRecommendationIdsChangedUpTo(
+                me.getId(), previous.sequence(), previousReadAt.minus(syncSafetyWindow));
+        final List<RecommendationAssignmentChange> changes = recommendationAssignmentService.getChangesSince(me.getId(), previous.sequence(), SYNC_PAGE_SIZE + 1);
+        final boolean hasMore = changes.size() > SYNC_PAGE_SIZE;
+        final List<RecommendationAssignmentChange> page = hasMore ? changes.subList(0, SYNC_PAGE_SIZE) : changes;
+
+        final List<Long> changedRecommendationIds = Stream.concat(
+                        unsettledRecommendationIds.stream(),
+                        page.stream().map(RecommendationAssignmentChange::getRecommendationId))
+                .distinct()
+                .toList();
+
+        final List<RecommendationAssignment> assignments = changedRecommendationIds.isEmpty()
+                ? List.of()
+                : recommendationAssignmentService.getRecommendationAssignmentsByUserIdAndRecommendationIds(me.getId(), changedRecommendationIds);
+
+        final Set<Long> existingRecommendationIds = assignments.stream()
+                .map(assignment -> assignment.getRecommendation().getId())
+                .collect(Collectors.toSet());
+
+        final List<Long> deletedRecommendationIds = changedRecommendationIds.stream()
+                .filter(id -> !existingRecommendationIds.contains(id))
+                .toList();
+
+        return RecommendationSyncResponseDto.builder()
+                .changed(assignments.stream().map(this::createRecommendationSyncItemDto).toList())
+                .deletedRecommendationIds(deletedRecommendationIds)
+                .watermark(encodeWatermark(page.isEmpty() ? previous.sequence() : page.getLast().getId(), readAt))
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Creates a sync item DTO from a {@link RecommendationAssignment} entity.
+     *
+     * @param recommendationAssignment the assignment including its recommendation
+     * @return a sync item DTO representing the recommendation and its assignment status
+     */
+    private RecommendationSyncItemDto createRecommendationSyncItemDto(RecommendationAssignment recommendationAssignment) {
+        return RecommendationSyncItemDto.builder()
+                .recommendation(createRecommendationResponseDto(recommendationAssignment.getRecommendation()))
+                .recommendationAssignmentStatus(recommendationAssignment.getRecommendationAssignmentStatus())
+                .build();
+    }
+
+    /**
+     * Encodes a change sequence and the time it was read at as an opaque watermark.
+     *
+     * @param sequence the change sequence
+     * @param readAt   the time the changes up to the sequence were read
+     * @return the watermark
+     */
+    private String encodeWatermark(Long sequence, LocalDateTime readAt) {
+        final String value = sequence + ":" + readAt.toEpochSecond(ZoneOffset.UTC);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes an opaque watermark into a change sequence and the time it was read at.
+     * Watermarks issued before the read time was added only contain the sequence.
+     *
+     * @param watermark the watermark provided by the client
+     * @return the decoded watermark, without read time for old watermarks
+     * @throws ValidationException if the watermark is invalid
+     */
+    private SyncWatermark decodeWatermark(String watermark) {
+        try {
+            final String[] parts = new String(Base64.getUrlDecoder().decode(watermark), StandardCharsets.UTF_8).split(":", -1);
+            if (parts.length > 2) {
+                throw new IllegalArgumentException();
+            }
+            final long sequence = Long.parseLong(parts[0]);
+            if (sequence < 0) {
+                throw new IllegalArgumentException();
+            }
+            final LocalDateTime readAt = parts.length == 2 ? LocalDateTime.ofEpochSecond(Long.parseLong(parts[1]), 0, ZoneOffset.UTC) : null;
+            return new SyncWatermark(sequence, readAt);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new ValidationException(Map.of("watermark", messageUtil.get("recommendation.sync.watermark.invalid")));
+        }
+    }
+
+    /**
+     * The position of a client in the change log.
+     *
+     * @param sequence the last change sequence already known by the client
+     * @param readAt   the time the changes up to the sequence were read, {@code null} if unknown
+     */
+    private record SyncWatermark(Long sequence, LocalDateTime readAt) {
     }
-}
\ No newline at end of file
+}
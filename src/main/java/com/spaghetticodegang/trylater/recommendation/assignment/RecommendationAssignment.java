@@ -16,7 +16,9 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "recommendation_assignments")
+@Table(name = "recommendation_assignments", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_recommendation_assignments_recommendation_receiver", columnNames = {"recommendation_id", "receiver_id"})
+})
 public class RecommendationAssignment {
 
     @Id
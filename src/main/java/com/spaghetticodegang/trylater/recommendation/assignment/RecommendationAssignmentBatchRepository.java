@@ -0,0 +1,32 @@
+package com.spaghetticodegang.trylater.recommendation.assignment;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Repository fragment for inserting many recommendation assignments with JDBC batch statements.
+ */
+public interface RecommendationAssignmentBatchRepository {
+
+    /**
+     * Inserts one assignment of the given recommendation per receiver.
+     *
+     * @param recommendationId the ID of the recommendation
+     * @param receiverIds      the IDs of the receivers
+     * @param status           the status of the new assignments
+     * @param sentAt           the sending date
+     * @param acceptedAt       the acceptance date or {@code null}
+     */
+    void insertAll(Long recommendationId, Collection<Long> receiverIds, RecommendationAssignmentStatus status, LocalDateTime sentAt, LocalDateTime acceptedAt);
+
+    /**
+     * Inserts one assignment to the given receiver per recommendation.
+     *
+     * @param receiverId        the ID of the receiver
+     * @param recommendationIds the IDs of the recommendations
+     * @param status            the status of the new assignments
+     * @param sentAt            the sending date
+     * @param acceptedAt        the acceptance date or {@code null}
+     */
+    void insertAllForReceiver(Long receiverId, Collection<Long> recommendationIds, RecommendationAssignmentStatus status, LocalDateTime sentAt, LocalDateTime acceptedAt);
+}
@@ -0,0 +1,45 @@
+package com.spaghetticodegang.trylater.recommendation.assignment;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JDBC implementation of {@link RecommendationAssignmentBatchRepository}.
+ * Assignments use identity IDs, which Hibernate cannot insert in batches.
+ */
+@RequiredArgsConstructor
+class RecommendationAssignmentBatchRepositoryImpl implements RecommendationAssignmentBatchRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO recommendation_assignments (recommendation_id, receiver_id, recommendation_assignment_status, sent_at, accepted_at)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(Long recommendationId, Collection<Long> receiverIds, RecommendationAssignmentStatus status, LocalDateTime sentAt, LocalDateTime acceptedAt) {
+        if (receiverIds.isEmpty()) {
+            return;
+        }
+        final List<Object[]> rows = receiverIds.stream()
+                .map(receiverId -> new Object[]{recommendationId, receiverId, status.name(), sentAt, acceptedAt})
+                .toList();
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    @Override
+    public void insertAllForReceiver(Long receiverId, Collection<Long> recommendationIds, RecommendationAssignmentStatus status, LocalDateTime sentAt, LocalDateTime acceptedAt) {
+        if (recommendationIds.isEmpty()) {
+            return;
+        }
+        final List<Object[]> rows = recommendationIds.stream()
+                .map(recommendationId -> new Object[]{recommendationId, receiverId, status.name(), sentAt, acceptedAt})
+                .toList();
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+}
@@ -1,18 +1,23 @@
 package com.spaghetticodegang.trylater.recommendation.assignment;
 
 import com.spaghetticodegang.trylater.recommendation.Recommendation;
+import jakarta.persistence.LockModeType;
 import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 
 /**
  * Repository interface for accessing and managing recommendation assignment  entities in the database.
  */
-public interface RecommendationAssignmentRepository extends JpaRepository<RecommendationAssignment, Long> {
+public interface RecommendationAssignmentRepository extends JpaRepository<RecommendationAssignment, Long>, RecommendationAssignmentBatchRepository {
 
     /**
      * Finds all assigned recommendations for a given user with a specific status.
@@ -38,6 +43,73 @@ public interface RecommendationAssignmentRepository extends JpaRepository<Recomm
             """)
     RecommendationAssignment findRecommendationAssignmentByUserIdAndRecommendationId(Long userId, Long recommendationId);
 
+    /**
+     * Accepts the recommendation assignment of the given receiver if its current status is one of the allowed statuses.
+     *
+     * @param userId           the ID of the receiver
+     * @param recommendationId the ID of the recommendation
+     * @param acceptedAt       the acceptance date
+     * @param allowedFrom      the statuses the assignment may currently have
+     * @return the number of updated assignments, zero if there is no matching assignment in an allowed status
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            UPDATE RecommendationAssignment r
+            SET r.recommendationAssignmentStatus = com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentStatus.ACCEPTED,
+                r.acceptedAt = :acceptedAt
+            WHERE r.receiver.id = :userId AND r.recommendation.id = :recommendationId
+                AND r.recommendationAssignmentStatus IN :allowedFrom
+            """)
+    int acceptRecommendationAssignment(Long userId, Long recommendationId, LocalDateTime acceptedAt, Collection<RecommendationAssignmentStatus> allowedFrom);
+
+    /**
+     * Accepts the recommendation assignments of the given receiver for the given recommendation IDs
+     * whose current status is one of the allowed statuses.
+     *
+     * @param userId            the ID of the receiver
+     * @param recommendationIds the IDs of the recommendations
+     * @param acceptedAt        the acceptance date
+     * @param allowedFrom       the statuses the assignments may currently have
+     * @return the number of updated assignments
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            UPDATE RecommendationAssignment r
+            SET r.recommendationAssignmentStatus = com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentStatus.ACCEPTED,
+                r.acceptedAt = :acceptedAt
+            WHERE r.receiver.id = :userId AND r.recommendation.id IN :recommendationIds
+                AND r.recommendationAssignmentStatus IN :allowedFrom
+            """)
+    int acceptRecommendationAssignments(Long userId, Collection<Long> recommendationIds, LocalDateTime acceptedAt, Collection<RecommendationAssignmentStatus> allowedFrom);
+
+    /**
+     * Finds the recommendation assignments for the given user ID and recommendation IDs
+     * and locks them until the end of the transaction.
+     *
+     * @param userId            the given user ID
+     * @param recommendationIds the given recommendation IDs
+     * @return a list of {@link RecommendationAssignment} entities or an empty list
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            SELECT r FROM RecommendationAssignment r WHERE r.receiver.id = :userId AND r.recommendation.id IN :recommendationIds
+            """)
+    List<RecommendationAssignment> findAllForUpdateByUserIdAndRecommendationIds(Long userId, Collection<Long> recommendationIds);
+
+    /**
+     * Finds the IDs of the given users that exist and have not received the given recommendation yet.
+     *
+     * @param recommendationId the ID of the recommendation
+     * @param receiverIds      the IDs of the receivers
+     * @return a list of receiver IDs or an empty list
+     */
+    @Query("""
+            SELECT u.id FROM User u
+            WHERE u.id IN :receiverIds
+                AND NOT EXISTS (SELECT a FROM RecommendationAssignment a WHERE a.receiver = u AND a.recommendation.id = :recommendationId)
+            """)
+    List<Long> findUnassignedReceiverIds(Long recommendationId, Collection<Long> receiverIds);
+
     /**
      * Finds all recommendation assignments for the given user ID.
      *
@@ -49,6 +121,92 @@ public interface RecommendationAssignmentRepository extends JpaRepository<Recomm
             """)
     List<RecommendationAssignment> findAllRecommendationAssignmentByUserId(Long userId);
 
+    /**
+     * Finds the IDs of all recommendations assigned to the given user ID.
+     *
+     * @param userId the given user ID
+     * @return a list of recommendation IDs or an empty list
+     */
+    @Query("""
+            SELECT r.recommendation.id FROM RecommendationAssignment r WHERE r.receiver.id = :userId
+            """)
+    List<Long> findRecommendationIdsByUserId(Long userId);
+
+    /**
+     * Finds all recommendation assignments for the given user ID and fetches their recommendations.
+     *
+     * @param userId the given user ID
+     * @return a list of {@link RecommendationAssignment} entities or an empty list
+     */
+    @Query("""
+            SELECT r FROM RecommendationAssignment r JOIN FETCH r.recommendation WHERE r.receiver.id = :userId
+            """)
+    List<RecommendationAssignment> findAllWithRecommendationByUserId(Long userId);
+
+    /**
+     * Finds all recommendation assignments of the given recommendations.
+     *
+     * @param recommendationIds the recommendation IDs
+     * @return a list of {@link RecommendationAssignment} entities or an empty list
+     */
+    @Query("""
+            SELECT r FROM RecommendationAssignment r WHERE r.recommendation.id IN :recommendationIds
+            """)
+    List<RecommendationAssignment> findAllByRecommendationIds(Collection<Long> recommendationIds);
+
+    /**
+     * Finds all recommendation assignments for the given user ID in order of creation
+     * and fetches their recommendations including category and tags.
+     *
+     * @param userId the given user ID
+     * @return a list of {@link RecommendationAssignment} entities or an empty list
+     */
+    @Query("""
+            SELECT DISTINCT r FROM RecommendationAssignment r
+            JOIN FETCH r.recommendation rec JOIN FETCH rec.category LEFT JOIN FETCH rec.tags
+            WHERE r.receiver.id = :userId ORDER BY r.id
+            """)
+    List<RecommendationAssignment> findAllWithRecommendationAndTagsByUserId(Long userId);
+
+    /**
+     * Finds the recommendation assignment for the given user ID and recommendation ID
+     * and fetches its recommendation including category and tags.
+     *
+     * @param userId           the given user ID
+     * @param recommendationId the given recommendation ID
+     * @return an {@link Optional} of the {@link RecommendationAssignment} entity
+     */
+    @Query("""
+            SELECT DISTINCT r FROM RecommendationAssignment r
+            JOIN FETCH r.recommendation rec JOIN FETCH rec.category LEFT JOIN FETCH rec.tags
+            WHERE r.receiver.id = :userId AND rec.id = :recommendationId
+            """)
+    Optional<RecommendationAssignment> findWithRecommendationAndTagsByUserIdAndRecommendationId(Long userId, Long recommendationId);
+
+    /**
+     * Finds the recommendation assignments for the given user ID and recommendation IDs and fetches their recommendations.
+     *
+     * @param userId            the given user ID
+     * @param recommendationIds the given recommendation IDs
+     * @return a list of {@link RecommendationAssignment} entities or an empty list
+     */
+    @Query("""
+            SELECT r FROM RecommendationAssignment r JOIN FETCH r.recommendation
+            WHERE r.receiver.id = :userId AND r.recommendation.id IN :recommendationIds
+            """)
+    List<RecommendationAssignment> findAllWithRecommendationByUserIdAndRecommendationIds(Long userId, List<Long> recommendationIds);
+
+    /**
+     * Finds all assignments of recommendations created by the given user that were received by other users.
+     *
+     * @param creatorId the ID of the creator
+     * @return a list of {@link RecommendationAssignment} entities or an empty list
+     */
+    @Query("""
+            SELECT r FROM RecommendationAssignment r WHERE r.recommendation.creator.id = :creatorId AND r.receiver.id <> :creatorId
+            """)
+    List<RecommendationAssignment> findAllReceivedFromCreatorId(Long creatorId);
+
 
     /**
      * Checks if a recommendation assignment for a given recommendation ID exists.
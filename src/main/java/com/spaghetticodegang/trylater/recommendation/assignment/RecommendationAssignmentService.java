@@ -1,18 +1,36 @@
 package com.spaghetticodegang.trylater.recommendation.assignment;
 
+import com.spaghetticodegang.trylater.notification.event.RecommendationReceivedEvent;
 import com.spaghetticodegang.trylater.recommendation.Recommendation;
+import com.spaghetticodegang.trylater.recommendation.RecommendationRepository;
+import com.spaghetticodegang.trylater.recommendation.assignment.change.RecommendationAssignmentChange;
+import com.spaghetticodegang.trylater.recommendation.assignment.change.RecommendationAssignmentChangeRepository;
+import com.spaghetticodegang.trylater.recommendation.assignment.change.RecommendationAssignmentChangedEvent;
+import com.spaghetticodegang.trylater.recommendation.assignment.change.RecommendationAssignmentChangeType;
+import com.spaghetticodegang.trylater.recommendation.assignment.dto.RecommendationAssignmentBulkStatusRequestDto;
+import com.spaghetticodegang.trylater.recommendation.assignment.dto.RecommendationAssignmentBulkStatusResult;
+import com.spaghetticodegang.trylater.recommendation.assignment.dto.RecommendationAssignmentBulkStatusResultDto;
 import com.spaghetticodegang.trylater.recommendation.assignment.dto.RecommendationAssignmentStatusRequestDto;
+import com.spaghetticodegang.trylater.recommendation.inbox.InboxService;
 import com.spaghetticodegang.trylater.shared.exception.RecommendationAssignmentNotFoundException;
 import com.spaghetticodegang.trylater.shared.exception.ValidationException;
 import com.spaghetticodegang.trylater.shared.util.MessageUtil;
 import com.spaghetticodegang.trylater.user.User;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service layer for handling recommendation assignment business logic.
@@ -21,16 +39,24 @@ import java.util.Objects;
 @RequiredArgsConstructor
 public class RecommendationAssignmentService {
 
+    private static final Set<RecommendationAssignmentStatus> ACCEPTABLE_STATUSES = Set.of(RecommendationAssignmentStatus.SENT);
+
     private final RecommendationAssignmentRepository recommendationAssignmentRepository;
+    private final RecommendationAssignmentChangeRepository recommendationAssignmentChangeRepository;
+    private final RecommendationRepository recommendationRepository;
+    private final InboxService inboxService;
     private final MessageUtil messageUtil;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Creates and saves a new {@link RecommendationAssignment} entity,
      * indicating that the recommendation was sent to a receiver.
+     * Receivers other than the creator are notified once the transaction has been committed.
      *
      * @param recommendation the recommendation that was sent
      * @param receiver       the user who receives the recommendation
      */
+    @Transactional
     public void createRecommendationAssignment(Recommendation recommendation, User receiver) {
         RecommendationAssignment recommendationAssignment = RecommendationAssignment.builder()
                 .recommendation(recommendation)
@@ -41,34 +67,176 @@ public class RecommendationAssignmentService {
                 .build();
 
         recommendationAssignmentRepository.save(recommendationAssignment);
+        recommendationRepository.incrementReceiverCount(recommendation.getId());
+        recordChange(receiver.getId(), recommendation.getId(), RecommendationAssignmentChangeType.CREATED);
+        inboxService.addEntries(recommendation, Map.of(receiver.getId(), recommendationAssignment.getRecommendationAssignmentStatus()));
+
+        if (recommendationAssignment.getRecommendationAssignmentStatus() == RecommendationAssignmentStatus.SENT) {
+            eventPublisher.publishEvent(new RecommendationReceivedEvent(receiver.getId(), recommendation.getId()));
+        }
+    }
+
+    /**
+     * Creates the assignments of a recommendation for many receivers with batch inserts.
+     * Receivers that no longer exist or already received the recommendation are skipped.
+     * Receivers other than the creator are notified once the transaction has been committed.
+     *
+     * @param recommendation the recommendation that was sent
+     * @param receiverIds    the IDs of the receivers
+     * @return the IDs of the receivers an assignment was created for
+     */
+    @Transactional
+    public List<Long> createRecommendationAssignments(Recommendation recommendation, Collection<Long> receiverIds) {
+        if (receiverIds.isEmpty()) {
+            return List.of();
+        }
+
+        final Long recommendationId = recommendation.getId();
+        final List<Long> newReceiverIds = recommendationAssignmentRepository.findUnassignedReceiverIds(recommendationId, receiverIds);
+        if (newReceiverIds.isEmpty()) {
+            return List.of();
+        }
+
+        final Long creatorId = recommendation.getCreator() != null ? recommendation.getCreator().getId() : null;
+        final List<Long> sentReceiverIds = newReceiverIds.stream()
+                .filter(receiverId -> !receiverId.equals(creatorId))
+                .toList();
+        final LocalDateTime now = LocalDateTime.now();
+
+        recommendationAssignmentRepository.insertAll(recommendationId, sentReceiverIds, RecommendationAssignmentStatus.SENT, now, null);
+        if (sentReceiverIds.size() < newReceiverIds.size()) {
+            recommendationAssignmentRepository.insertAll(recommendationId, List.of(creatorId), RecommendationAssignmentStatus.ACCEPTED, now, now);
+        }
+        recommendationRepository.addToReceiverCount(recommendationId, newReceiverIds.size());
+        inboxService.addEntries(recommendation, newReceiverIds.stream()
+                .collect(Collectors.toMap(Function.identity(), receiverId -> receiverId.equals(creatorId)
+                        ? RecommendationAssignmentStatus.ACCEPTED
+                        : RecommendationAssignmentStatus.SENT)));
+        recordChanges(newReceiverIds.stream()
+                .map(receiverId -> createChange(receiverId, recommendationId, RecommendationAssignmentChangeType.CREATED, now))
+                .toList());
+
+        sentReceiverIds.forEach(receiverId -> eventPublisher.publishEvent(new RecommendationReceivedEvent(receiverId, recommendationId)));
+        return newReceiverIds;
+    }
+
+    /**
+     * Creates the accepted assignments of many new recommendations for their creator with batch inserts.
+     * The changes are appended to the change log, but no events are published for them,
+     * so the caller has to drop the cached read models of the creator after the transaction has been committed.
+     *
+     * @param creator         the creator of the recommendations
+     * @param recommendations the saved recommendations including category and tags
+     */
+    @Transactional
+    public void createCreatorRecommendationAssignments(User creator, List<Recommendation> recommendations) {
+        if (recommendations.isEmpty()) {
+            return;
+        }
+
+        final List<Long> recommendationIds = recommendations.stream()
+                .map(Recommendation::getId)
+                .toList();
+        final LocalDateTime now = LocalDateTime.now();
+
+        recommendationAssignmentRepository.insertAllForReceiver(creator.getId(), recommendationIds, RecommendationAssignmentStatus.ACCEPTED, now, now);
+        recommendationRepository.addToReceiverCounts(recommendationIds, 1);
+        inboxService.addEntries(creator.getId(), recommendations, RecommendationAssignmentStatus.ACCEPTED);
+        recommendationAssignmentChangeRepository.insertAll(recommendationIds.stream()
+                .map(recommendationId -> createChange(creator.getId(), recommendationId, RecommendationAssignmentChangeType.CREATED, now))
+                .toList());
     }
 
     /**
      * Performs validation and updates the recommendation assignment's status, including setting the acceptance date if applicable.
+     * The transition is a single guarded update, so concurrent requests cannot apply it twice.
+     * Accepting an already accepted assignment again has no effect.
      *
      * @param me                                       the currently authenticated user
      * @param recommendationId                         the ID of the recommendation whose assignment status is to be updated
      * @param recommendationAssignmentStatusRequestDto the DTO containing the new recommendation assignment status
-     * @throws ValidationException if the status change is invalid
+     * @throws ValidationException                       if the status change is invalid
+     * @throws RecommendationAssignmentNotFoundException if the user has no assignment for the recommendation
      */
+    @Transactional
     public void updateRecommendationAssignmentStatus(User me, Long recommendationId, RecommendationAssignmentStatusRequestDto recommendationAssignmentStatusRequestDto) {
         final RecommendationAssignmentStatus recommendationAssignmentStatus = recommendationAssignmentStatusRequestDto.getRecommendationAssignmentStatus();
-        final RecommendationAssignment recommendationAssignment = getRecommendationAssignmentByUserIdAndRecommendationId(me.getId(), recommendationId);
 
-        if (!Objects.equals(recommendationAssignment.getReceiver().getId(), me.getId())) {
-            throw new ValidationException(Map.of("recommendationAssignment", messageUtil.get("recommendation.assignment.error.user.not.allowed")));
+        if (recommendationAssignmentStatus == RecommendationAssignmentStatus.SENT) {
+            throw new ValidationException(Map.of("recommendationAssignmentStatus", messageUtil.get("recommendation.assignment.error.status.revert.to.sent")));
         }
 
-        if (recommendationAssignmentStatus == RecommendationAssignmentStatus.SENT) {
+        final int updated = recommendationAssignmentRepository.acceptRecommendationAssignment(me.getId(), recommendationId, LocalDateTime.now(), ACCEPTABLE_STATUSES);
+        if (updated == 0) {
+            if (getRecommendationAssignmentByUserIdAndRecommendationId(me.getId(), recommendationId) == null) {
+                throw new RecommendationAssignmentNotFoundException("recommendation.assignment.error.not.found");
+            }
+            return;
+        }
+
+        recordChange(me.getId(), recommendationId, RecommendationAssignmentChangeType.UPDATED);
+        inboxService.updateStatus(me.getId(), List.of(recommendationId), RecommendationAssignmentStatus.ACCEPTED);
+    }
+
+    /**
+     * Updates the status of several recommendation assignments of the given user at once.
+     * The assignments are checked with a single locking query and updated with a single guarded update.
+     * Recommendations without an assignment of the user are reported as not found,
+     * assignments already in the requested status are left unchanged.
+     *
+     * @param me      the currently authenticated user
+     * @param request the DTO containing the recommendation IDs and the new recommendation assignment status
+     * @return one result per distinct recommendation ID in the order of the request
+     * @throws ValidationException if the status change is invalid
+     */
+    @Transactional
+    public List<RecommendationAssignmentBulkStatusResultDto> updateRecommendationAssignmentStatuses(User me, RecommendationAssignmentBulkStatusRequestDto request) {
+        if (request.getRecommendationAssignmentStatus() == RecommendationAssignmentStatus.SENT) {
             throw new ValidationException(Map.of("recommendationAssignmentStatus", messageUtil.get("recommendation.assignment.error.status.revert.to.sent")));
         }
 
-        if (recommendationAssignmentStatus == RecommendationAssignmentStatus.ACCEPTED) {
-            recommendationAssignment.setAcceptedAt(LocalDateTime.now());
+        final List<Long> recommendationIds = request.getRecommendationIds().stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+
+        final Map<Long, RecommendationAssignmentStatus> currentStatuses = recommendationIds.isEmpty()
+                ? Map.of()
+                : recommendationAssignmentRepository.findAllForUpdateByUserIdAndRecommendationIds(me.getId(), recommendationIds).stream()
+                .collect(Collectors.toMap(assignment -> assignment.getRecommendation().getId(), RecommendationAssignment::getRecommendationAssignmentStatus));
+
+        final Map<Long, RecommendationAssignmentBulkStatusResult> results = new LinkedHashMap<>();
+        recommendationIds.forEach(id -> {
+            final RecommendationAssignmentStatus currentStatus = currentStatuses.get(id);
+            if (currentStatus == null) {
+                results.put(id, RecommendationAssignmentBulkStatusResult.NOT_FOUND);
+            } else if (ACCEPTABLE_STATUSES.contains(currentStatus)) {
+                results.put(id, RecommendationAssignmentBulkStatusResult.UPDATED);
+            } else {
+                results.put(id, RecommendationAssignmentBulkStatusResult.UNCHANGED);
+            }
+        });
+
+        final List<Long> acceptableIds = results.entrySet().stream()
+                .filter(entry -> entry.getValue() == RecommendationAssignmentBulkStatusResult.UPDATED)
+                .map(Map.Entry::getKey)
+                .toList();
+
+        if (!acceptableIds.isEmpty()) {
+            final LocalDateTime now = LocalDateTime.now();
+            recommendationAssignmentRepository.acceptRecommendationAssignments(me.getId(), acceptableIds, now, ACCEPTABLE_STATUSES);
+            inboxService.updateStatus(me.getId(), acceptableIds, RecommendationAssignmentStatus.ACCEPTED);
+            recordChanges(acceptableIds.stream()
+                    .map(recommendationId -> createChange(me.getId(), recommendationId, RecommendationAssignmentChangeType.UPDATED, now))
+                    .toList());
         }
 
-        recommendationAssignment.setRecommendationAssignmentStatus(recommendationAssignmentStatus);
-        recommendationAssignmentRepository.save(recommendationAssignment);
+        return results.entrySet().stream()
+                .map(entry -> RecommendationAssignmentBulkStatusResultDto.builder()
+                        .recommendationId(entry.getKey())
+                        .result(entry.getValue())
+                        .build())
+                .toList();
     }
 
     /**
@@ -102,12 +270,16 @@ public class RecommendationAssignmentService {
      * @param recommendationId the recommendation ID
      * @throws RecommendationAssignmentNotFoundException if there is no assignment for the given user and recommendation.
      */
+    @Transactional
     public void deleteRecommendationAssignmentByRecommendationId(Long userId, Long recommendationId) {
         RecommendationAssignment recommendationAssignment = getRecommendationAssignmentByUserIdAndRecommendationId(userId, recommendationId);
         if (recommendationAssignment == null) {
             throw new RecommendationAssignmentNotFoundException("recommendation.assignment.error.not.found");
         }
         recommendationAssignmentRepository.deleteById(recommendationAssignment.getId());
+        recommendationRepository.decrementReceiverCount(recommendationId);
+        recordChange(userId, recommendationId, RecommendationAssignmentChangeType.DELETED);
+        inboxService.removeEntry(userId, recommendationId);
     }
 
     /**
@@ -130,4 +302,116 @@ public class RecommendationAssignmentService {
     public boolean existsRecommendationInRecommendationAssignment(Long recommendationId) {
         return recommendationAssignmentRepository.existsRecommendationAssignmentByRecommendationId(recommendationId);
     }
+
+    /**
+     * Returns the changes of the given user's assignments after the given change sequence.
+     *
+     * @param userId   the user ID
+     * @param sequence the last change sequence already known by the client
+     * @param limit    the maximum number of changes to return
+     * @return a list of {@link RecommendationAssignmentChange} entities ordered by sequence
+     */
+    public List<RecommendationAssignmentChange> getChangesSince(Long userId, Long sequence, int limit) {
+        return recommendationAssignmentChangeRepository.findByReceiverIdAndIdGreaterThanOrderByIdAsc(userId, sequence, Limit.of(limit));
+    }
+
+    /**
+     * Returns the recommendations of the given user with changes up to the given change sequence recorded since the given time.
+     *
+     * @param userId    the user ID
+     * @param sequence  the last change sequence already known by the client
+     * @param changedAt the earliest recording time to consider
+     * @return a list of recommendation IDs or an empty list
+     */
+    public List<Long> getRecommendationIdsChangedUpTo(Long userId, Long sequence, LocalDateTime changedAt) {
+        return recommendationAssignmentChangeRepository.findRecommendationIdsChangedUpTo(userId, sequence, changedAt);
+    }
+
+    /**
+     * Returns the highest change sequence issued so far.
+     *
+     * @return the current change sequence
+     */
+    public Long getCurrentChangeSequence() {
+        return recommendationAssignmentChangeRepository.findCurrentSequence();
+    }
+
+    /**
+     * Returns the IDs of all recommendations assigned to the given user.
+     *
+     * @param userId the user ID
+     * @return a list of recommendation IDs or an empty list
+     */
+    public List<Long> getRecommendationIdsByUserId(Long userId) {
+        return recommendationAssignmentRepository.findRecommendationIdsByUserId(userId);
+    }
+
+    /**
+     * Returns all assignments of the given user including their recommendations.
+     *
+     * @param userId the user ID
+     * @return a list of {@link RecommendationAssignment} entities or an empty list
+     */
+    public List<RecommendationAssignment> getAllRecommendationAssignmentsByUserId(Long userId) {
+        return recommendationAssignmentRepository.findAllWithRecommendationByUserId(userId);
+    }
+
+    /**
+     * Returns the assignments of the given user for the given recommendation IDs including their recommendations.
+     *
+     * @param userId            the user ID
+     * @param recommendationIds the recommendation IDs
+     * @return a list of {@link RecommendationAssignment} entities or an empty list
+     */
+    public List<RecommendationAssignment> getRecommendationAssignmentsByUserIdAndRecommendationIds(Long userId, List<Long> recommendationIds) {
+        return recommendationAssignmentRepository.findAllWithRecommendationByUserIdAndRecommendationIds(userId, recommendationIds);
+    }
+
+    /**
+     * Appends the given changes to the change log with a single batch insert
+     * and publishes a {@link RecommendationAssignmentChangedEvent} for each of them.
+     *
+     * @param changes the changes to record
+     */
+    private void recordChanges(List<RecommendationAssignmentChange> changes) {
+        recommendationAssignmentChangeRepository.insertAll(changes);
+        changes.forEach(change -> eventPublisher.publishEvent(
+                new RecommendationAssignmentChangedEvent(change.getReceiverId(), change.getRecommendationId(), change.getChangeType())));
+    }
+
+    /**
+     * Creates a change log entry that has not been saved yet.
+     *
+     * @param receiverId       the ID of the receiver whose assignment changed
+     * @param recommendationId the ID of the recommendation of the assignment
+     * @param changeType       the kind of change
+     * @param changedAt        the date of the change
+     * @return the {@link RecommendationAssignmentChange} entity
+     */
+    private RecommendationAssignmentChange createChange(Long receiverId, Long recommendationId, RecommendationAssignmentChangeType changeType, LocalDateTime changedAt) {
+        return RecommendationAssignmentChange.builder()
+                .receiverId(receiverId)
+                .recommendationId(recommendationId)
+                .changeType(changeType)
+                .changedAt(changedAt)
+                .build();
+    }
+
+    /**
+     * Appends an entry to the change log used by the delta sync and publishes a
+     * {@link RecommendationAssignmentChangedEvent} for in-memory read models.
+     *
+     * @param receiverId       the ID of the receiver whose assignment changed
+     * @param recommendationId the ID of the recommendation of the assignment
+     * @param changeType       the kind of change
+     */
+    private void recordChange(Long receiverId, Long recommendationId, RecommendationAssignmentChangeType changeType) {
+        recommendationAssignmentChangeRepository.save(RecommendationAssignmentChange.builder()
+                .receiverId(receiverId)
+                .recommendationId(recommendationId)
+                .changeType(changeType)
+                .changedAt(LocalDateTime.now())
+                .build());
+        eventPublisher.publishEvent(new RecommendationAssignmentChangedEvent(receiverId, recommendationId, changeType));
+    }
 }
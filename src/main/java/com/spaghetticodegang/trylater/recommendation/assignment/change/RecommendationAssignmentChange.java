@@ -0,0 +1,41 @@
+package com.spaghetticodegang.trylater.recommendation.assignment.change;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * JPA entity representing a single change of a recommendation assignment.
+ * The generated ID is used as change sequence for the delta sync. It is issued on insert, not on commit,
+ * so changes of concurrent transactions may become visible out of sequence order.
+ * Receiver and recommendation are stored as plain IDs, so deletions remain visible as tombstones.
+ */
+@Getter
+@Setter
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "recommendation_assignment_changes", indexes = {
+        @Index(name = "idx_recommendation_assignment_changes_receiver_seq", columnList = "receiver_id, id")
+})
+public class RecommendationAssignmentChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "receiver_id", nullable = false)
+    private Long receiverId;
+
+    @Column(nullable = false)
+    private Long recommendationId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RecommendationAssignmentChangeType changeType;
+
+    @Column(nullable = false)
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,16 @@
+package com.spaghetticodegang.trylater.recommendation.assignment.change;
+
+import java.util.List;
+
+/**
+ * Repository fragment for appending many entries to the change log with JDBC batch statements.
+ */
+public interface RecommendationAssignmentChangeBatchRepository {
+
+    /**
+     * Inserts the given changes in list order, so their change sequences follow that order.
+     *
+     * @param changes the changes to insert
+     */
+    void insertAll(List<RecommendationAssignmentChange> changes);
+}
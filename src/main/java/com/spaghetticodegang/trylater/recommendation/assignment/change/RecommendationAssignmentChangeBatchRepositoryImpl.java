@@ -0,0 +1,32 @@
+package com.spaghetticodegang.trylater.recommendation.assignment.change;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * JDBC implementation of {@link RecommendationAssignmentChangeBatchRepository}.
+ * Changes use identity IDs, which Hibernate cannot insert in batches.
+ */
+@RequiredArgsConstructor
+class RecommendationAssignmentChangeBatchRepositoryImpl implements RecommendationAssignmentChangeBatchRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO recommendation_assignment_changes (receiver_id, recommendation_id, change_type, changed_at)
+            VALUES (?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<RecommendationAssignmentChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        final List<Object[]> rows = changes.stream()
+                .map(change -> new Object[]{change.getReceiverId(), change.getRecommendationId(), change.getChangeType().name(), change.getChangedAt()})
+                .toList();
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+}
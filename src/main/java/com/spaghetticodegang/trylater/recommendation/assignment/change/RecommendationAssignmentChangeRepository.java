@@ -0,0 +1,65 @@
+package com.spaghetticodegang.trylater.recommendation.assignment.change;
+
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for accessing and managing recommendation assignment changes in the database.
+ */
+public interface RecommendationAssignmentChangeRepository extends JpaRepository<RecommendationAssignmentChange, Long>, RecommendationAssignmentChangeBatchRepository {
+
+    /**
+     * Finds the changes of a receiver after the given change sequence, ordered by sequence.
+     * Backed by the (receiver_id, id) index.
+     *
+     * @param receiverId the ID of the receiver
+     * @param id         the last change sequence already known by the client
+     * @param limit      the maximum number of changes to return
+     * @return a list of {@link RecommendationAssignmentChange} entities or an empty list
+     */
+    List<RecommendationAssignmentChange> findByReceiverIdAndIdGreaterThanOrderByIdAsc(Long receiverId, Long id, Limit limit);
+
+    /**
+     * Returns the recommendations of a receiver with changes up to the given change sequence that were recorded
+     * since the given time. Such changes may have been committed after a sync that already passed their sequence,
+     * because the sequence is issued on insert and not on commit.
+     *
+     * @param receiverId the ID of the receiver
+     * @param id         the last change sequence already known by the client
+     * @param changedAt  the earliest recording time to consider
+     * @return a list of recommendation IDs or an empty list
+     */
+    @Query("""
+            SELECT DISTINCT c.recommendationId FROM RecommendationAssignmentChange c
+            WHERE c.receiverId = :receiverId AND c.id <= :id AND c.changedAt >= :changedAt
+            """)
+    List<Long> findRecommendationIdsChangedUpTo(Long receiverId, Long id, LocalDateTime changedAt);
+
+    /**
+     * Returns the highest change sequence that has been issued so far.
+     *
+     * @return the current change sequence or 0 if no change exists
+     */
+    @Query("""
+            SELECT COALESCE(MAX(c.id), 0) FROM RecommendationAssignmentChange c
+            """)
+    Long findCurrentSequence();
+
+    /**
+     * In case of a user is deleted, removes the change history of that user.
+     *
+     * @param receiverId the ID of the deleted user
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            DELETE FROM RecommendationAssignmentChange c WHERE c.receiverId = :receiverId
+            """)
+    void deleteChangesByReceiverId(Long receiverId);
+}
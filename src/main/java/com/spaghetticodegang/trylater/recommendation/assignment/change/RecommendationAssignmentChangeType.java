@@ -0,0 +1,7 @@
+package com.spaghetticodegang.trylater.recommendation.assignment.change;
+
+public enum RecommendationAssignmentChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,11 @@
+package com.spaghetticodegang.trylater.recommendation.assignment.change;
+
+/**
+ * Application event published whenever a recommendation assignment has been created, updated or deleted.
+ *
+ * @param receiverId       the ID of the receiver of the assignment
+ * @param recommendationId the ID of the recommendation of the assignment
+ * @param changeType       the type of the change
+ */
+public record RecommendationAssignmentChangedEvent(Long receiverId, Long recommendationId, RecommendationAssignmentChangeType changeType) {
+}
@@ -0,0 +1,22 @@
+package com.spaghetticodegang.trylater.recommendation.assignment.dto;
+
+import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class RecommendationAssignmentBulkStatusRequestDto {
+
+    @NotEmpty(message = "{recommendation.assignment.bulk.ids.not.empty}")
+    @Size(max = 200, message = "{recommendation.assignment.bulk.ids.max.size}")
+    private List<Long> recommendationIds;
+
+    @NotNull(message = "{recommendation.assignment.status.not.null}")
+    private RecommendationAssignmentStatus recommendationAssignmentStatus;
+}
@@ -0,0 +1,10 @@
+package com.spaghetticodegang.trylater.recommendation.assignment.dto;
+
+/**
+ * Outcome of a status update for a single recommendation within a bulk request.
+ */
+public enum RecommendationAssignmentBulkStatusResult {
+    UPDATED,
+    UNCHANGED,
+    NOT_FOUND
+}
@@ -0,0 +1,14 @@
+package com.spaghetticodegang.trylater.recommendation.assignment.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+public class RecommendationAssignmentBulkStatusResultDto {
+
+    private Long recommendationId;
+    private RecommendationAssignmentBulkStatusResult result;
+}
@@ -0,0 +1,144 @@
+package com.spaghetticodegang.trylater.recommendation.bulkimport;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads an import file in CSV format (RFC 4180). The first row is a header naming the columns
+ * {@code title}, {@code description}, {@code url}, {@code rating}, {@code category} and {@code tags};
+ * multiple tags are separated by {@code |}.
+ */
+class CsvRecommendationImportReader implements RecommendationImportReader {
+
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+    private static final String TAG_SEPARATOR = "\\|";
+
+    private final Reader reader;
+    private Map<String, Integer> columnIndexes;
+    private int rowNumber;
+
+    CsvRecommendationImportReader(InputStream inputStream) {
+        this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public RecommendationImportRow next() throws IOException {
+        if (columnIndexes == null) {
+            readHeader();
+        }
+
+        List<String> fields;
+        do {
+            fields = readRecord();
+            if (fields == null) {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.getFirst().isBlank());
+
+        rowNumber++;
+        final String tags = field(fields, "tags");
+        return new RecommendationImportRow(
+                rowNumber,
+                field(fields, "title"),
+                field(fields, "description"),
+                field(fields, "url"),
+                field(fields, "rating"),
+                field(fields, "category"),
+                tags == null ? List.of() : Arrays.stream(tags.split(TAG_SEPARATOR))
+                        .map(String::trim)
+                        .filter(tag -> !tag.isEmpty())
+                        .toList());
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Reads the header row and maps the column names to their positions.
+     *
+     * @throws IOException if the file is empty
+     */
+    private void readHeader() throws IOException {
+        final List<String> header = readRecord();
+        if (header == null) {
+            throw new IOException("CSV header missing");
+        }
+        columnIndexes = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columnIndexes.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+    }
+
+    /**
+     * Returns a field of the current record by its column name.
+     *
+     * @param fields the fields of the record
+     * @param column the column name
+     * @return the trimmed field or {@code null} if the column is missing or empty
+     */
+    private String field(List<String> fields, String column) {
+        final Integer index = columnIndexes.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        final String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Reads the fields of the next record, which may span several lines inside quoted fields.
+     *
+     * @return the fields or {@code null} at the end of the file
+     * @throws IOException if a quoted field is not terminated
+     */
+    private List<String> readRecord() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+
+        final List<String> fields = new ArrayList<>();
+        final StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field in row " + (rowNumber + 1));
+                }
+                if (c == QUOTE) {
+                    c = reader.read();
+                    if (c != QUOTE) {
+                        quoted = false;
+                        continue;
+                    }
+                }
+                field.append((char) c);
+            } else if (c == QUOTE && field.isEmpty()) {
+                quoted = true;
+            } else if (c == SEPARATOR) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
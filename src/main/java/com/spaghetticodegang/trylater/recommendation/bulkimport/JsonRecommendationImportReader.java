@@ -0,0 +1,95 @@
+package com.spaghetticodegang.trylater.recommendation.bulkimport;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads an import file in JSON format, an array of objects with the fields
+ * {@code title}, {@code description}, {@code url}, {@code rating}, {@code category} and {@code tags}.
+ * The array is parsed element by element with a streaming parser.
+ */
+class JsonRecommendationImportReader implements RecommendationImportReader {
+
+    private final JsonParser parser;
+    private int rowNumber;
+
+    JsonRecommendationImportReader(ObjectMapper objectMapper, InputStream inputStream) throws IOException {
+        this.parser = objectMapper.createParser(inputStream);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new IOException("JSON array expected");
+        }
+    }
+
+    @Override
+    public RecommendationImportRow next() throws IOException {
+        final JsonToken token = parser.nextToken();
+        if (token == null || token == JsonToken.END_ARRAY) {
+            return null;
+        }
+
+        rowNumber++;
+        final JsonNode node = parser.readValueAsTree();
+        if (!node.isObject()) {
+            return new RecommendationImportRow(rowNumber, null, null, null, null, null, List.of());
+        }
+        return new RecommendationImportRow(
+                rowNumber,
+                text(node, "title"),
+                text(node, "description"),
+                text(node, "url"),
+                text(node, "rating"),
+                text(node, "category"),
+                tags(node.get("tags")));
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    /**
+     * Returns a field of an object as text.
+     *
+     * @param node  the object
+     * @param field the field name
+     * @return the text or {@code null} if the field is missing, null or blank
+     */
+    private String text(JsonNode node, String field) {
+        final JsonNode value = node.get(field);
+        if (value == null || value.isNull() || value.isContainerNode()) {
+            return null;
+        }
+        final String text = value.asText().trim();
+        return text.isEmpty() ? null : text;
+    }
+
+    /**
+     * Returns the tag names of an object, given as array or as single string.
+     *
+     * @param tags the tags field
+     * @return the tag names or an empty list
+     */
+    private List<String> tags(JsonNode tags) {
+        final List<String> tagNames = new ArrayList<>();
+        if (tags == null || tags.isNull()) {
+            return tagNames;
+        }
+        if (tags.isArray()) {
+            tags.forEach(tag -> {
+                if (tag.isValueNode() && !tag.asText().isBlank()) {
+                    tagNames.add(tag.asText().trim());
+                }
+            });
+        } else if (tags.isValueNode() && !tags.asText().isBlank()) {
+            tagNames.add(tags.asText().trim());
+        }
+        return tagNames;
+    }
+}
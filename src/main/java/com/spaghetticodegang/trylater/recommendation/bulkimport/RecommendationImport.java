@@ -0,0 +1,60 @@
+package com.spaghetticodegang.trylater.recommendation.bulkimport;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JPA entity representing the import of recommendations from an uploaded file.
+ * The file is processed in the background, the entity reports the progress and the rows that failed.
+ */
+@Getter
+@Setter
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "recommendation_imports", indexes = @Index(name = "idx_recommendation_imports_status", columnList = "status"))
+public class RecommendationImport {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long creatorId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RecommendationImportFormat format;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RecommendationImportStatus status;
+
+    @Column(nullable = false)
+    private int processedRows;
+
+    @Column(nullable = false)
+    private int importedRows;
+
+    @Column(nullable = false)
+    private int failedRows;
+
+    /**
+     * The first failed rows, at most {@link RecommendationImportService#MAX_REPORTED_ERRORS}.
+     */
+    @Builder.Default
+    @ElementCollection
+    @CollectionTable(name = "recommendation_import_errors", joinColumns = @JoinColumn(name = "import_id"))
+    @OrderColumn(name = "error_order")
+    private List<RecommendationImportError> errors = new ArrayList<>();
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,27 @@
+package com.spaghetticodegang.trylater.recommendation.bulkimport;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A row of an import file that could not be imported.
+ */
+@Getter
+@Setter
+@Builder
+@Embeddable
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecommendationImportError {
+
+    @Column(nullable = false)
+    private int rowNumber;
+
+    @Column(nullable = false)
+    private String message;
+}
@@ -0,0 +1,9 @@
+package com.spaghetticodegang.trylater.recommendation.bulkimport;
+
+/**
+ * Enum representing the file formats of a recommendation import.
+ */
+public enum RecommendationImportFormat {
+    CSV,
+    JSON
+}
@@ -0,0 +1,18 @@
+package com.spaghetticodegang.trylater.recommendation.bulkimport;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Reads the rows of an import file one by one, so the file is never loaded into memory as a whole.
+ */
+interface RecommendationImportReader extends Closeable {
+
+    /**
+     * Reads the next row.
+     *
+     * @return the next row or {@code null} at the end of the file
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    RecommendationImportRow next() throws IOException;
+}
@@ -0,0 +1,33 @@
+package com.spaghetticodegang.trylater.recommendation.bulkimport;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for accessing and managing recommendation import entities in the database.
+ */
+public interface RecommendationImportRepository extends JpaRepository<RecommendationImport, Long> {
+
+    /**
+     * Finds an import of the given creator.
+     *
+     * @param importId  the ID of the import
+     * @param creatorId the ID of the creator
+     * @return an {@link Optional} of the {@link RecommendationImport} entity
+     */
+    Optional<RecommendationImport> findByIdAndCreatorId(Long importId, Long creatorId);
+
+    /**
+     * Finds all imports with the given status.
+     *
+     * @param status the status of the imports
+     * @return a list of {@link RecommendationImport} entities or an empty list
+     */
+    @Query("""
+            SELECT i FROM RecommendationImport i WHERE i.status = :status
+            """)
+    List<RecommendationImport> findAllByStatus(RecommendationImportStatus status);
+}
@@ -0,0 +1,17 @@
+package com.spaghetticodegang.trylater.recommendation.bulkimport;
+
+import java.util.List;
+
+/**
+ * A raw row of an import file, before validation.
+ *
+ * @param rowNumber   the 1-based number of the row, not counting a header row
+ * @param title       the title
+ * @param description the description or {@code null}
+ * @param url         the URL or {@code null}
+ * @param rating      the rating as text
+ * @param category    the category type as text
+ * @param tags        the tag names
+ */
+record RecommendationImportRow(int rowNumber, String title, String description, String url, String rating, String category, List<String> tags) {
+}
@@ -0,0 +1,289 @@
+package com.spaghetticodegang.trylater.recommendation.bulkimport;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spaghetticodegang.trylater.recommendation.Recommendation;
+import com.spaghetticodegang.trylater.recommendation.category.CategoryRepository;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationImportErrorDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationImportRequestDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationImportResponseDto;
+import com.spaghetticodegang.trylater.recommendation.facet.RecommendationFacetService;
+import com.spaghetticodegang.trylater.recommendation.tag.TagRepository;
+import com.spaghetticodegang.trylater.shared.exception.RecommendationNotFoundException;
+import com.spaghetticodegang.trylater.shared.exception.ValidationException;
+import com.spaghetticodegang.trylater.shared.util.MessageUtil;
+import com.spaghetticodegang.trylater.user.User;
+import jakarta.annotation.PreDestroy;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Service layer for importing many recommendations of a user from an uploaded CSV or JSON file.
+ * The file is read row by row on a background thread, validated against the categories and tags
+ * loaded once per import and written in batches by the {@link RecommendationImportWorker}.
+ * The uploaded file is kept on the local disk of the node that received it until the import has finished,
+ * imports interrupted by a restart are therefore marked as failed on startup.
+ */
+@Service
+public class RecommendationImportService {
+
+    static final int MAX_REPORTED_ERRORS = 500;
+
+    private final RecommendationImportRepository recommendationImportRepository;
+    private final RecommendationImportWorker recommendationImportWorker;
+    private final CategoryRepository categoryRepository;
+    private final TagRepository tagRepository;
+    private final RecommendationFacetService recommendationFacetService;
+    private final ObjectMapper objectMapper;
+    private final MessageUtil messageUtil;
+    private final int batchSize;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public RecommendationImportService(RecommendationImportRepository recommendationImportRepository,
+                                       RecommendationImportWorker recommendationImportWorker,
+                                       CategoryRepository categoryRepository,
+                                       TagRepository tagRepository,
+                                       RecommendationFacetService recommendationFacetService,
+                                       ObjectMapper objectMapper,
+                                       MessageUtil messageUtil,
+                                       @Value("${recommendation.import.batch-size}") int batchSize) {
+        this.recommendationImportRepository = recommendationImportRepository;
+        this.recommendationImportWorker = recommendationImportWorker;
+        this.categoryRepository = categoryRepository;
+        this.tagRepository = tagRepository;
+        this.recommendationFacetService = recommendationFacetService;
+        this.objectMapper = objectMapper;
+        this.messageUtil = messageUtil;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Stores the uploaded file and starts its import in the background.
+     *
+     * @param me      the currently authenticated user, the creator of the imported recommendations
+     * @param request the request containing the file and optionally its format
+     * @return a response DTO representing the running import
+     * @throws ValidationException if the format is unknown or the file cannot be stored
+     */
+    public RecommendationImportResponseDto startImport(User me, RecommendationImportRequestDto request) {
+        final RecommendationImportFormat format = getFormat(request.getFormat(), request.getFile().getOriginalFilename());
+
+        final Path file;
+        try {
+            file = Files.createTempFile("recommendation-import-", "." + format.name().toLowerCase(Locale.ROOT));
+            request.getFile().transferTo(file);
+        } catch (IOException e) {
+            throw new ValidationException(Map.of("file", messageUtil.get("recommendation.import.upload.error")));
+        }
+
+        final RecommendationImport recommendationImport = recommendationImportRepository.save(RecommendationImport.builder()
+                .creatorId(me.getId())
+                .format(format)
+                .status(RecommendationImportStatus.RUNNING)
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        executor.execute(() -> runImport(recommendationImport.getId(), me, format, file));
+        return createRecommendationImportResponseDto(recommendationImport);
+    }
+
+    /**
+     * Returns the progress of an import started by the given user.
+     *
+     * @param me       the currently authenticated user
+     * @param importId the ID of the import
+     * @return a response DTO representing the import
+     * @throws RecommendationNotFoundException if the user has not started an import with the given ID
+     */
+    @Transactional
+    public RecommendationImportResponseDto getImport(User me, Long importId) {
+        return recommendationImportRepository.findByIdAndCreatorId(importId, me.getId())
+                .map(this::createRecommendationImportResponseDto)
+                .orElseThrow(() -> new RecommendationNotFoundException("recommendation.import.not.found"));
+    }
+
+    /**
+     * Resolves the format of an import file from the requested format or else from the file name.
+     *
+     * @param format   the format name or {@code null}
+     * @param fileName the original file name or {@code null}
+     * @return the import format, CSV if neither format nor a JSON file name are given
+     * @throws ValidationException if the format is unknown
+     */
+    public RecommendationImportFormat getFormat(String format, String fileName) {
+        if (format == null) {
+            return fileName != null && fileName.toLowerCase(Locale.ROOT).endsWith(".json")
+                    ? RecommendationImportFormat.JSON
+                    : RecommendationImportFormat.CSV;
+        }
+        try {
+            return RecommendationImportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(Map.of("format", messageUtil.get("recommendation.import.format.invalid")));
+        }
+    }
+
+    /**
+     * Marks the imports that were still running when the application stopped as failed,
+     * their files have not survived the restart.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void failInterruptedImports() {
+        recommendationImportRepository.findAllByStatus(RecommendationImportStatus.RUNNING).forEach(recommendationImport -> {
+            recommendationImport.setStatus(RecommendationImportStatus.FAILED);
+            recommendationImport.setCompletedAt(LocalDateTime.now());
+        });
+    }
+
+    /**
+     * Stops the running imports when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Reads, validates and writes an import file batch by batch and deletes the file afterwards.
+     * Invalid rows are reported and skipped, an unreadable file or a failed batch fails the import;
+     * the batches written before are kept.
+     *
+     * @param importId the ID of the import
+     * @param creator  the creator of the recommendations
+     * @param format   the format of the file
+     * @param file     the uploaded file
+     */
+    void runImport(Long importId, User creator, RecommendationImportFormat format, Path file) {
+        final LocalDateTime creationDate = LocalDateTime.now();
+        final List<Recommendation> recommendations = new ArrayList<>();
+        final List<RecommendationImportError> errors = new ArrayList<>();
+        int rowNumber = 0;
+        int batchRows = 0;
+
+        try (InputStream inputStream = Files.newInputStream(file);
+             RecommendationImportReader reader = createReader(format, inputStream)) {
+            final RecommendationImportValidator validator = new RecommendationImportValidator(
+                    categoryRepository.findAll(), tagRepository.findAllWithTagGroupAndCategory(), messageUtil);
+            RecommendationImportRow row;
+            while ((row = reader.next()) != null) {
+                rowNumber = row.rowNumber();
+                batchRows++;
+                try {
+                    recommendations.add(validator.validate(row, creator, creationDate));
+                } catch (ValidationException e) {
+                    errors.add(createError(row.rowNumber(), String.join(" ", e.getErrors().values())));
+                }
+
+                if (batchRows == batchSize) {
+                    writeBatch(importId, creator, recommendations, batchRows, errors);
+                    batchRows = 0;
+                    if (Thread.currentThread().isInterrupted()) {
+                        return;
+                    }
+                }
+            }
+            writeBatch(importId, creator, recommendations, batchRows, errors);
+            recommendationImportWorker.finish(importId, RecommendationImportStatus.COMPLETED);
+        } catch (IOException e) {
+            recommendationImportWorker.fail(importId, createError(rowNumber + 1, messageUtil.get("recommendation.import.file.invalid")));
+        } catch (RuntimeException e) {
+            recommendationImportWorker.fail(importId, createError(rowNumber + 1, messageUtil.get("recommendation.import.failed")));
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // the temporary file is removed by the operating system eventually
+            }
+        }
+    }
+
+    /**
+     * Writes a batch and drops the cached facet index of the creator once the batch has been committed.
+     * The given lists are cleared for the next batch.
+     *
+     * @param importId        the ID of the import
+     * @param creator         the creator of the recommendations
+     * @param recommendations the validated recommendations of the batch
+     * @param processedRows   the number of rows read for the batch
+     * @param errors          the rows of the batch that failed validation
+     */
+    private void writeBatch(Long importId, User creator, List<Recommendation> recommendations, int processedRows, List<RecommendationImportError> errors) {
+        if (processedRows == 0) {
+            return;
+        }
+        recommendationImportWorker.writeBatch(importId, creator, List.copyOf(recommendations), processedRows, List.copyOf(errors));
+        if (!recommendations.isEmpty()) {
+            recommendationFacetService.evict(creator.getId());
+        }
+        recommendations.clear();
+        errors.clear();
+    }
+
+    /**
+     * Creates a reader for an import file.
+     *
+     * @param format      the format of the file
+     * @param inputStream the content of the file
+     * @return the reader
+     * @throws IOException if the file does not start like a file of the given format
+     */
+    private RecommendationImportReader createReader(RecommendationImportFormat format, InputStream inputStream) throws IOException {
+        return format == RecommendationImportFormat.JSON
+                ? new JsonRecommendationImportReader(objectMapper, inputStream)
+                : new CsvRecommendationImportReader(inputStream);
+    }
+
+    /**
+     * Creates the error of a row that could not be imported.
+     *
+     * @param rowNumber the number of the row
+     * @param message   the error message
+     * @return the {@link RecommendationImportError}
+     */
+    private RecommendationImportError createError(int rowNumber, String message) {
+        return RecommendationImportError.builder()
+                .rowNumber(rowNumber)
+                .message(message)
+                .build();
+    }
+
+    /**
+     * Creates a response DTO from a {@link RecommendationImport} entity.
+     *
+     * @param recommendationImport the import entity
+     * @return a response DTO representing the import
+     */
+    private RecommendationImportResponseDto createRecommendationImportResponseDto(RecommendationImport recommendationImport) {
+        return RecommendationImportResponseDto.builder()
+                .id(recommendationImport.getId())
+                .format(recommendationImport.getFormat())
+                .status(recommendationImport.getStatus())
+                .processedRows(recommendationImport.getProcessedRows())
+                .importedRows(recommendationImport.getImportedRows())
+                .failedRows(recommendationImport.getFailedRows())
+                .errors(recommendationImport.getErrors().stream()
+                        .map(error -> RecommendationImportErrorDto.builder()
+                                .rowNumber(error.getRowNumber())
+                                .message(error.getMessage())
+                                .build())
+                        .toList())
+                .createdAt(recommendationImport.getCreatedAt())
+                .completedAt(recommendationImport.getCompletedAt())
+                .build();
+    }
+}
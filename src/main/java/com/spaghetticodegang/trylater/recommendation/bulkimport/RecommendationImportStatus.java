@@ -0,0 +1,10 @@
+package com.spaghetticodegang.trylater.recommendation.bulkimport;
+
+/**
+ * Enum representing the progress of a recommendation import.
+ */
+public enum RecommendationImportStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,195 @@
+package com.spaghetticodegang.trylater.recommendation.bulkimport;
+
+import com.spaghetticodegang.trylater.recommendation.Recommendation;
+import com.spaghetticodegang.trylater.recommendation.category.Category;
+import com.spaghetticodegang.trylater.recommendation.category.CategoryType;
+import com.spaghetticodegang.trylater.recommendation.tag.Tag;
+import com.spaghetticodegang.trylater.shared.exception.ValidationException;
+import com.spaghetticodegang.trylater.shared.util.MessageUtil;
+import com.spaghetticodegang.trylater.user.User;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Validates the rows of an import against the categories and tags loaded once per import,
+ * so a row costs no database access.
+ */
+class RecommendationImportValidator {
+
+    private static final int MAX_TITLE_LENGTH = 255;
+    private static final int MAX_DESCRIPTION_LENGTH = 2000;
+    private static final int MAX_URL_LENGTH = 255;
+    private static final int MIN_RATING = 1;
+    private static final int MAX_RATING = 3;
+
+    private final Map<CategoryType, Category> categories = new EnumMap<>(CategoryType.class);
+    private final Map<CategoryType, Map<String, Tag>> tagsByCategory = new EnumMap<>(CategoryType.class);
+    private final MessageUtil messageUtil;
+
+    /**
+     * Creates a validator for the given categories and tags.
+     * Tag names are matched case-insensitively; if a category has several tags with the same name, the first one wins.
+     *
+     * @param categories  all categories
+     * @param tags        all tags including their tag groups and categories
+     * @param messageUtil the message util to resolve the error messages
+     */
+    RecommendationImportValidator(List<Category> categories, List<Tag> tags, MessageUtil messageUtil) {
+        this.messageUtil = messageUtil;
+        categories.forEach(category -> this.categories.put(category.getCategoryType(), category));
+        tags.forEach(tag -> tagsByCategory
+                .computeIfAbsent(tag.getTagGroup().getCategory().getCategoryType(), key -> new HashMap<>())
+                .putIfAbsent(normalize(tag.getTagName()), tag));
+    }
+
+    /**
+     * Validates a row and creates the recommendation it describes.
+     *
+     * @param row          the row to validate
+     * @param creator      the creator of the recommendation
+     * @param creationDate the creation date of the recommendation
+     * @return the new recommendation, not saved yet
+     * @throws ValidationException if the row is invalid
+     */
+    Recommendation validate(RecommendationImportRow row, User creator, LocalDateTime creationDate) {
+        if (row.title() == null) {
+            throw invalid("title", "recommendation.title.notblank");
+        }
+        if (row.title().length() > MAX_TITLE_LENGTH) {
+            throw invalid("title", "recommendation.import.title.max.value");
+        }
+        if (row.description() != null && row.description().length() > MAX_DESCRIPTION_LENGTH) {
+            throw invalid("description", "recommendation.description.max.value");
+        }
+        if (row.url() != null && !isValidUrl(row.url())) {
+            throw invalid("url", "recommendation.url.invalid");
+        }
+
+        final Category category = getCategory(row.category());
+        final List<Tag> tags = row.tags().stream()
+                .map(tagName -> getTag(category, tagName))
+                .distinct()
+                .toList();
+
+        return Recommendation.builder()
+                .title(row.title())
+                .description(row.description())
+                .url(row.url())
+                .rating(getRating(row.rating()))
+                .creator(creator)
+                .creationDate(creationDate)
+                .category(category)
+                .tags(tags)
+                .build();
+    }
+
+    /**
+     * Parses the rating of a row.
+     *
+     * @param rating the rating as text
+     * @return the rating
+     * @throws ValidationException if the rating is missing, not a number or out of range
+     */
+    private int getRating(String rating) {
+        if (rating == null) {
+            throw invalid("rating", "recommendation.rating.notblank");
+        }
+        final int value;
+        try {
+            value = Integer.parseInt(rating);
+        } catch (NumberFormatException e) {
+            throw invalid("rating", "recommendation.import.rating.invalid");
+        }
+        if (value < MIN_RATING) {
+            throw invalid("rating", "recommendation.rating.min.value");
+        }
+        if (value > MAX_RATING) {
+            throw invalid("rating", "recommendation.rating.max.value");
+        }
+        return value;
+    }
+
+    /**
+     * Finds the category of a row.
+     *
+     * @param categoryType the category type as text
+     * @return the category entity
+     * @throws ValidationException if the category is missing or unknown
+     */
+    private Category getCategory(String categoryType) {
+        if (categoryType == null) {
+            throw invalid("category", "recommendation.category.not.null");
+        }
+        try {
+            final Category category = categories.get(CategoryType.valueOf(categoryType.toUpperCase(Locale.ROOT)));
+            if (category != null) {
+                return category;
+            }
+        } catch (IllegalArgumentException e) {
+            // unknown category types are reported below
+        }
+        throw invalid("category", "recommendation.category.not.found");
+    }
+
+    /**
+     * Finds a tag of the given category by its name.
+     *
+     * @param category the category of the row
+     * @param tagName  the tag name
+     * @return the tag entity
+     * @throws ValidationException if the category has no tag with the given name
+     */
+    private Tag getTag(Category category, String tagName) {
+        final Tag tag = tagsByCategory.getOrDefault(category.getCategoryType(), Map.of()).get(normalize(tagName));
+        if (tag == null) {
+            throw invalid("tags", "recommendation.tags.invalid.for.category");
+        }
+        return tag;
+    }
+
+    /**
+     * Checks whether a URL is an absolute HTTP or HTTPS URL that fits into the database column.
+     *
+     * @param url the URL to check
+     * @return TRUE or FALSE
+     */
+    private boolean isValidUrl(String url) {
+        if (url.length() > MAX_URL_LENGTH) {
+            return false;
+        }
+        try {
+            final URI uri = new URI(url);
+            return ("http".equalsIgnoreCase(uri.getScheme()) || "https".equalsIgnoreCase(uri.getScheme())) && uri.getHost() != null;
+        } catch (URISyntaxException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates the exception for an invalid field of a row.
+     *
+     * @param field      the name of the invalid field
+     * @param messageKey the key of the error message
+     * @return the exception
+     */
+    private ValidationException invalid(String field, String messageKey) {
+        return new ValidationException(Map.of(field, messageUtil.get(messageKey)));
+    }
+
+    /**
+     * Normalizes a tag name for case-insensitive matching.
+     *
+     * @param tagName the tag name
+     * @return the normalized tag name
+     */
+    private static String normalize(String tagName) {
+        return tagName.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,86 @@
+package com.spaghetticodegang.trylater.recommendation.bulkimport;
+
+import com.spaghetticodegang.trylater.recommendation.Recommendation;
+import com.spaghetticodegang.trylater.recommendation.RecommendationRepository;
+import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentService;
+import com.spaghetticodegang.trylater.recommendation.search.RecommendationSearchIndex;
+import com.spaghetticodegang.trylater.user.User;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Writes the validated rows of a recommendation import batch by batch.
+ * Each batch is inserted together with the progress of the import in its own transaction,
+ * so the reported progress always matches the imported recommendations.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecommendationImportWorker {
+
+    private final RecommendationImportRepository recommendationImportRepository;
+    private final RecommendationRepository recommendationRepository;
+    private final RecommendationAssignmentService recommendationAssignmentService;
+    private final RecommendationSearchIndex recommendationSearchIndex;
+
+    /**
+     * Inserts a batch of recommendations for their creator and adds the batch to the progress of the import.
+     * Only the first {@link RecommendationImportService#MAX_REPORTED_ERRORS} errors of an import are kept.
+     *
+     * @param importId        the ID of the import
+     * @param creator         the creator of the recommendations
+     * @param recommendations the validated recommendations of the batch
+     * @param processedRows   the number of rows read for the batch
+     * @param errors          the rows of the batch that failed validation
+     */
+    @Transactional
+    public void writeBatch(Long importId, User creator, List<Recommendation> recommendations, int processedRows, List<RecommendationImportError> errors) {
+        recommendationRepository.insertAll(recommendations);
+        recommendationAssignmentService.createCreatorRecommendationAssignments(creator, recommendations);
+        recommendationSearchIndex.indexAll(recommendations);
+
+        recommendationImportRepository.findById(importId).ifPresent(recommendationImport -> {
+            recommendationImport.setProcessedRows(recommendationImport.getProcessedRows() + processedRows);
+            recommendationImport.setImportedRows(recommendationImport.getImportedRows() + recommendations.size());
+            recommendationImport.setFailedRows(recommendationImport.getFailedRows() + errors.size());
+            errors.stream()
+                    .limit(Math.max(0, RecommendationImportService.MAX_REPORTED_ERRORS - recommendationImport.getErrors().size()))
+                    .forEach(recommendationImport.getErrors()::add);
+        });
+    }
+
+    /**
+     * Marks an import as finished.
+     *
+     * @param importId the ID of the import
+     * @param status   the final status
+     */
+    @Transactional
+    public void finish(Long importId, RecommendationImportStatus status) {
+        recommendationImportRepository.findById(importId).ifPresent(recommendationImport -> {
+            recommendationImport.setStatus(status);
+            recommendationImport.setCompletedAt(LocalDateTime.now());
+        });
+    }
+
+    /**
+     * Marks an import as failed because its file could not be read to the end.
+     * The batches written before the failure are kept.
+     *
+     * @param importId the ID of the import
+     * @param error    the error describing the unreadable row
+     */
+    @Transactional
+    public void fail(Long importId, RecommendationImportError error) {
+        recommendationImportRepository.findById(importId).ifPresent(recommendationImport -> {
+            if (recommendationImport.getErrors().size() < RecommendationImportService.MAX_REPORTED_ERRORS) {
+                recommendationImport.getErrors().add(error);
+            }
+            recommendationImport.setStatus(RecommendationImportStatus.FAILED);
+            recommendationImport.setCompletedAt(LocalDateTime.now());
+        });
+    }
+}
@@ -0,0 +1,23 @@
+package com.spaghetticodegang.trylater.recommendation.dto;
+
+import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentStatus;
+import com.spaghetticodegang.trylater.recommendation.category.CategoryType;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@Builder
+public class RecommendationFacetResponseDto {
+
+    private Map<CategoryType, Integer> categories;
+    private Map<Long, Integer> tags;
+    private Map<RecommendationAssignmentStatus, Integer> statuses;
+    private int totalCount;
+    private List<Long> recommendationIds;
+
+}
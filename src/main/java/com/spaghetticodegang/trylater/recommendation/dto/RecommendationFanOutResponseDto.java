@@ -0,0 +1,22 @@
+package com.spaghetticodegang.trylater.recommendation.dto;
+
+import com.spaghetticodegang.trylater.recommendation.fanout.RecommendationFanOutStatus;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Builder
+public class RecommendationFanOutResponseDto {
+
+    private Long id;
+    private Long recommendationId;
+    private RecommendationFanOutStatus status;
+    private int totalReceivers;
+    private int deliveredReceivers;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+}
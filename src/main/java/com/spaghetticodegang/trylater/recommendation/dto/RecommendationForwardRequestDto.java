@@ -0,0 +1,15 @@
+package com.spaghetticodegang.trylater.recommendation.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class RecommendationForwardRequestDto {
+
+    @NotEmpty(message = "{recommendation.receiver.not.empty}")
+    private List<Long> receiverIds;
+}
@@ -0,0 +1,16 @@
+package com.spaghetticodegang.trylater.recommendation.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+public class RecommendationForwardResponseDto {
+
+    private Long recommendationId;
+    private List<Long> receiverIds;
+}
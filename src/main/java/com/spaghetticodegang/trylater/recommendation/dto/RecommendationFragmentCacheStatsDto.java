@@ -0,0 +1,18 @@
+package com.spaghetticodegang.trylater.recommendation.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+public class RecommendationFragmentCacheStatsDto {
+
+    private int entries;
+    private long usedBytes;
+    private long maxBytes;
+    private long hits;
+    private long misses;
+    private double hitRate;
+}
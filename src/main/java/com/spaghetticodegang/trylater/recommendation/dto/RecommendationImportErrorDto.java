@@ -0,0 +1,14 @@
+package com.spaghetticodegang.trylater.recommendation.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+public class RecommendationImportErrorDto {
+
+    private int rowNumber;
+    private String message;
+}
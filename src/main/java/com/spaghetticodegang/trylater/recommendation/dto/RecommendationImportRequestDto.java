@@ -0,0 +1,17 @@
+package com.spaghetticodegang.trylater.recommendation.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.web.multipart.MultipartFile;
+
+@Getter
+@Setter
+@Builder
+public class RecommendationImportRequestDto {
+    @NotNull(message = "{recommendation.import.no.file}")
+    private MultipartFile file;
+
+    private String format;
+}
@@ -0,0 +1,26 @@
+package com.spaghetticodegang.trylater.recommendation.dto;
+
+import com.spaghetticodegang.trylater.recommendation.bulkimport.RecommendationImportFormat;
+import com.spaghetticodegang.trylater.recommendation.bulkimport.RecommendationImportStatus;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+public class RecommendationImportResponseDto {
+
+    private Long id;
+    private RecommendationImportFormat format;
+    private RecommendationImportStatus status;
+    private int processedRows;
+    private int importedRows;
+    private int failedRows;
+    private List<RecommendationImportErrorDto> errors;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,28 @@
+package com.spaghetticodegang.trylater.recommendation.dto;
+
+import com.spaghetticodegang.trylater.recommendation.category.CategoryType;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+public class RecommendationListItemDto {
+
+    private Long id;
+    private String title;
+    private String description;
+    private String imgPath;
+    private String imgBlurHash;
+    private String url;
+    private int rating;
+    private Long creatorId;
+    private LocalDateTime creationDate;
+    private CategoryType category;
+    private List<Long> tagIds;
+
+}
@@ -0,0 +1,21 @@
+package com.spaghetticodegang.trylater.recommendation.dto;
+
+import com.spaghetticodegang.trylater.recommendation.tag.dto.TagGroupResponseDto;
+import com.spaghetticodegang.trylater.user.dto.UserResponseDto;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@Builder
+public class RecommendationNormalizedListResponseDto {
+
+    private List<RecommendationListItemDto> items;
+    private Map<Long, UserResponseDto> users;
+    private Map<Long, TagGroupResponseDto> tagGroups;
+
+}
@@ -19,6 +19,7 @@ public class RecommendationResponseDto {
     private String title;
     private String description;
     private String imgPath;
+    private String imgBlurHash;
     private String url;
     private int rating;
     private UserResponseDto creator;
@@ -0,0 +1,19 @@
+package com.spaghetticodegang.trylater.recommendation.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+public class RecommendationSearchResponseDto {
+
+    private List<RecommendationResponseDto> results;
+    private long totalResults;
+    private int page;
+    private int size;
+
+}
@@ -0,0 +1,16 @@
+package com.spaghetticodegang.trylater.recommendation.dto;
+
+import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentStatus;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+public class RecommendationSyncItemDto {
+
+    private RecommendationResponseDto recommendation;
+    private RecommendationAssignmentStatus recommendationAssignmentStatus;
+
+}
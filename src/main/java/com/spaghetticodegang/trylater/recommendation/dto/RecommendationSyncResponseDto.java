@@ -0,0 +1,19 @@
+package com.spaghetticodegang.trylater.recommendation.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+public class RecommendationSyncResponseDto {
+
+    private List<RecommendationSyncItemDto> changed;
+    private List<Long> deletedRecommendationIds;
+    private String watermark;
+    private boolean hasMore;
+
+}
@@ -0,0 +1,150 @@
+package com.spaghetticodegang.trylater.recommendation.facet;
+
+import com.spaghetticodegang.trylater.recommendation.Recommendation;
+import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignment;
+import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentRepository;
+import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentStatus;
+import com.spaghetticodegang.trylater.recommendation.assignment.change.RecommendationAssignmentChangedEvent;
+import com.spaghetticodegang.trylater.recommendation.category.CategoryType;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationFacetResponseDto;
+import com.spaghetticodegang.trylater.recommendation.tag.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.lang.ref.SoftReference;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Service layer for faceted filtering of the assigned recommendations of a user.
+ * Facet indexes are built per user on first access and kept in an LRU cache of soft references,
+ * so the garbage collector can drop them when memory gets tight. Cached indexes are updated
+ * incrementally after every committed assignment change.
+ */
+@Service
+public class RecommendationFacetService {
+
+    private static final int GENERATION_STRIPES = 64;
+
+    private final RecommendationAssignmentRepository recommendationAssignmentRepository;
+    private final Map<Long, SoftReference<UserFacetIndex>> cache;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public RecommendationFacetService(RecommendationAssignmentRepository recommendationAssignmentRepository,
+                                      @Value("${recommendation.facet.cache.max-users}") int maxCachedUsers) {
+        this.recommendationAssignmentRepository = recommendationAssignmentRepository;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, SoftReference<UserFacetIndex>> eldest) {
+                return size() > maxCachedUsers;
+            }
+        });
+    }
+
+    /**
+     * Filters the assigned recommendations of a user and counts them per category, tag and status.
+     *
+     * @param userId       the ID of the user
+     * @param categoryType the category filter or {@code null}
+     * @param tagIds       the tag filter, all tags have to match
+     * @param status       the status filter or {@code null}
+     * @return a response DTO containing the facet counts and the matching recommendation IDs
+     */
+    public RecommendationFacetResponseDto getFacets(Long userId, CategoryType categoryType, Collection<Long> tagIds, RecommendationAssignmentStatus status) {
+        final UserFacetResult result = getIndex(userId).query(categoryType, tagIds, status);
+
+        return RecommendationFacetResponseDto.builder()
+                .categories(result.categoryCounts())
+                .tags(result.tagCounts())
+                .statuses(result.statusCounts())
+                .totalCount(result.recommendationIds().size())
+                .recommendationIds(result.recommendationIds())
+                .build();
+    }
+
+    /**
+     * Applies a committed assignment change to the cached index of the receiver.
+     * Nothing happens if the receiver has no cached index; it is built from the database on next access.
+     *
+     * @param event the event describing the changed assignment
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecommendationAssignmentChanged(RecommendationAssignmentChangedEvent event) {
+        final Long userId = event.receiverId();
+        final UserFacetIndex index;
+        synchronized (cache) {
+            generations.incrementAndGet(stripe(userId));
+            index = getCachedIndex(userId);
+        }
+        if (index == null) {
+            return;
+        }
+
+        recommendationAssignmentRepository.findWithRecommendationAndTagsByUserIdAndRecommendationId(userId, event.recommendationId())
+                .ifPresentOrElse(assignment -> put(index, assignment), () -> index.remove(event.recommendationId()));
+
+        if (index.needsCompaction()) {
+            evict(userId);
+        }
+    }
+
+    /**
+     * Drops the cached index of a user, e.g. after bulk changes of the user's assignments.
+     *
+     * @param userId the ID of the user
+     */
+    public void evict(Long userId) {
+        synchronized (cache) {
+            generations.incrementAndGet(stripe(userId));
+            cache.remove(userId);
+        }
+    }
+
+    private UserFacetIndex getIndex(Long userId) {
+        final long generation;
+        synchronized (cache) {
+            final UserFacetIndex cached = getCachedIndex(userId);
+            if (cached != null) {
+                return cached;
+            }
+            generation = generations.get(stripe(userId));
+        }
+
+        final UserFacetIndex index = new UserFacetIndex();
+        recommendationAssignmentRepository.findAllWithRecommendationAndTagsByUserId(userId)
+                .forEach(assignment -> put(index, assignment));
+
+        synchronized (cache) {
+            // only cache the index if no change for this user was missed while it was built
+            if (generations.get(stripe(userId)) == generation) {
+                cache.put(userId, new SoftReference<>(index));
+            }
+        }
+        return index;
+    }
+
+    private UserFacetIndex getCachedIndex(Long userId) {
+        final SoftReference<UserFacetIndex> reference = cache.get(userId);
+        final UserFacetIndex index = reference != null ? reference.get() : null;
+        if (reference != null && index == null) {
+            cache.remove(userId);
+        }
+        return index;
+    }
+
+    private void put(UserFacetIndex index, RecommendationAssignment assignment) {
+        final Recommendation recommendation = assignment.getRecommendation();
+        index.put(recommendation.getId(),
+                recommendation.getCategory().getCategoryType(),
+                recommendation.getTags().stream().map(Tag::getId).toList(),
+                assignment.getRecommendationAssignmentStatus());
+    }
+
+    private int stripe(Long userId) {
+        return (int) Math.floorMod(userId, (long) GENERATION_STRIPES);
+    }
+}
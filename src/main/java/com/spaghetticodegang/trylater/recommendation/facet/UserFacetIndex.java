@@ -0,0 +1,124 @@
+package com.spaghetticodegang.trylater.recommendation.facet;
+
+import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentStatus;
+import com.spaghetticodegang.trylater.recommendation.category.CategoryType;
+
+import java.util.*;
+
+/**
+ * Facet index over the assignments of a single user.
+ * Every assignment gets a dense ordinal; categories, tags and statuses are stored as bitsets over these ordinals,
+ * so filtering and counting are bitwise operations. Ordinals of removed assignments are not reused,
+ * {@link #needsCompaction()} tells when the index should be rebuilt.
+ */
+class UserFacetIndex {
+
+    private final List<Long> recommendationIdByOrdinal = new ArrayList<>();
+    private final Map<Long, Integer> ordinalByRecommendationId = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private final Map<CategoryType, BitSet> categories = new EnumMap<>(CategoryType.class);
+    private final Map<Long, BitSet> tags = new HashMap<>();
+    private final Map<RecommendationAssignmentStatus, BitSet> statuses = new EnumMap<>(RecommendationAssignmentStatus.class);
+
+    /**
+     * Adds an assignment to the index or replaces its previous entry.
+     *
+     * @param recommendationId the ID of the assigned recommendation
+     * @param categoryType     the category of the recommendation
+     * @param tagIds           the tag IDs of the recommendation
+     * @param status           the status of the assignment
+     */
+    synchronized void put(Long recommendationId, CategoryType categoryType, Collection<Long> tagIds, RecommendationAssignmentStatus status) {
+        remove(recommendationId);
+
+        final int ordinal = recommendationIdByOrdinal.size();
+        recommendationIdByOrdinal.add(recommendationId);
+        ordinalByRecommendationId.put(recommendationId, ordinal);
+        live.set(ordinal);
+        categories.computeIfAbsent(categoryType, key -> new BitSet()).set(ordinal);
+        tagIds.forEach(tagId -> tags.computeIfAbsent(tagId, key -> new BitSet()).set(ordinal));
+        statuses.computeIfAbsent(status, key -> new BitSet()).set(ordinal);
+    }
+
+    /**
+     * Removes an assignment from the index.
+     *
+     * @param recommendationId the ID of the assigned recommendation
+     */
+    synchronized void remove(Long recommendationId) {
+        final Integer ordinal = ordinalByRecommendationId.remove(recommendationId);
+        if (ordinal == null) {
+            return;
+        }
+        live.clear(ordinal);
+        categories.values().forEach(bits -> bits.clear(ordinal));
+        tags.values().forEach(bits -> bits.clear(ordinal));
+        statuses.values().forEach(bits -> bits.clear(ordinal));
+        tags.values().removeIf(BitSet::isEmpty);
+    }
+
+    /**
+     * Returns whether more than half of the ordinals belong to removed assignments.
+     *
+     * @return {@code true} if the index should be rebuilt
+     */
+    synchronized boolean needsCompaction() {
+        return recommendationIdByOrdinal.size() > 64 && live.cardinality() * 2 < recommendationIdByOrdinal.size();
+    }
+
+    /**
+     * Filters the assignments and counts the facets.
+     * Category and status counts ignore their own filter, so clients can show the alternatives;
+     * tag counts are taken from the filtered assignments because tag filters are combined.
+     *
+     * @param categoryType the category filter or {@code null}
+     * @param tagIds       the tag filter, all tags have to match
+     * @param status       the status filter or {@code null}
+     * @return the counts and the matching recommendation IDs, newest assignment first
+     */
+    synchronized UserFacetResult query(CategoryType categoryType, Collection<Long> tagIds, RecommendationAssignmentStatus status) {
+        final BitSet tagFilter = (BitSet) live.clone();
+        tagIds.forEach(tagId -> tagFilter.and(tags.getOrDefault(tagId, new BitSet())));
+
+        final BitSet categoryFilter = filter(categories, categoryType);
+        final BitSet statusFilter = filter(statuses, status);
+
+        final BitSet withoutCategory = (BitSet) tagFilter.clone();
+        withoutCategory.and(statusFilter);
+        final BitSet withoutStatus = (BitSet) tagFilter.clone();
+        withoutStatus.and(categoryFilter);
+        final BitSet result = (BitSet) withoutCategory.clone();
+        result.and(categoryFilter);
+
+        final Map<CategoryType, Integer> categoryCounts = count(categories, withoutCategory);
+        final Map<RecommendationAssignmentStatus, Integer> statusCounts = count(statuses, withoutStatus);
+        final Map<Long, Integer> tagCounts = count(tags, result);
+
+        final List<Long> recommendationIds = new ArrayList<>(result.cardinality());
+        for (int ordinal = result.previousSetBit(result.length() - 1); ordinal >= 0; ordinal = result.previousSetBit(ordinal - 1)) {
+            recommendationIds.add(recommendationIdByOrdinal.get(ordinal));
+        }
+
+        return new UserFacetResult(categoryCounts, tagCounts, statusCounts, recommendationIds);
+    }
+
+    private <K> BitSet filter(Map<K, BitSet> facet, K value) {
+        if (value == null) {
+            return live;
+        }
+        return facet.getOrDefault(value, new BitSet());
+    }
+
+    private <K> Map<K, Integer> count(Map<K, BitSet> facet, BitSet base) {
+        final Map<K, Integer> counts = new HashMap<>();
+        facet.forEach((key, bits) -> {
+            final BitSet intersection = (BitSet) bits.clone();
+            intersection.and(base);
+            final int count = intersection.cardinality();
+            if (count > 0) {
+                counts.put(key, count);
+            }
+        });
+        return counts;
+    }
+}
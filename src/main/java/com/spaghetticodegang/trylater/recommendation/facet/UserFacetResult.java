@@ -0,0 +1,21 @@
+package com.spaghetticodegang.trylater.recommendation.facet;
+
+import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentStatus;
+import com.spaghetticodegang.trylater.recommendation.category.CategoryType;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a facet query over the assignments of a user.
+ *
+ * @param categoryCounts    the number of matching assignments per category
+ * @param tagCounts         the number of matching assignments per tag ID
+ * @param statusCounts      the number of matching assignments per status
+ * @param recommendationIds the IDs of the matching recommendations
+ */
+record UserFacetResult(Map<CategoryType, Integer> categoryCounts,
+                       Map<Long, Integer> tagCounts,
+                       Map<RecommendationAssignmentStatus, Integer> statusCounts,
+                       List<Long> recommendationIds) {
+}
@@ -0,0 +1,60 @@
+package com.spaghetticodegang.trylater.recommendation.fanout;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JPA entity representing the background delivery of a recommendation to a large number of receivers.
+ * The receivers are stored in request order, {@code deliveredReceivers} is the cursor into that list.
+ * Cursor and created assignments are committed together, so each receiver is delivered exactly once.
+ */
+@Getter
+@Setter
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "recommendation_fan_outs", indexes = {
+        @Index(name = "idx_recommendation_fan_outs_status", columnList = "status")
+})
+public class RecommendationFanOut {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long recommendationId;
+
+    /**
+     * The ID of the user who started the fan-out, the creator of the recommendation or a user forwarding it.
+     */
+    @Column(nullable = false)
+    private Long creatorId;
+
+    @Builder.Default
+    @ElementCollection
+    @CollectionTable(name = "recommendation_fan_out_receivers", joinColumns = @JoinColumn(name = "fan_out_id"))
+    @OrderColumn(name = "receiver_order")
+    @Column(name = "receiver_id", nullable = false)
+    private List<Long> receiverIds = new ArrayList<>();
+
+    @Column(nullable = false)
+    private int totalReceivers;
+
+    @Column(nullable = false)
+    private int deliveredReceivers;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RecommendationFanOutStatus status;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,9 @@
+package com.spaghetticodegang.trylater.recommendation.fanout;
+
+/**
+ * Published when a new recommendation fan-out has been stored.
+ *
+ * @param fanOutId the ID of the fan-out
+ */
+public record RecommendationFanOutCreatedEvent(Long fanOutId) {
+}
@@ -0,0 +1,62 @@
+package com.spaghetticodegang.trylater.recommendation.fanout;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for accessing and managing recommendation fan-out entities in the database.
+ */
+public interface RecommendationFanOutRepository extends JpaRepository<RecommendationFanOut, Long> {
+
+    /**
+     * Finds a fan-out by its ID and locks it until the end of the transaction.
+     *
+     * @param fanOutId the ID of the fan-out
+     * @return an {@link Optional} of the {@link RecommendationFanOut} entity
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            SELECT f FROM RecommendationFanOut f WHERE f.id = :fanOutId
+            """)
+    Optional<RecommendationFanOut> findForUpdateById(Long fanOutId);
+
+    /**
+     * Finds the receiver IDs of a fan-out starting at the given position.
+     *
+     * @param fanOutId the ID of the fan-out
+     * @param offset   the position of the first receiver to return
+     * @param limit    the maximum number of receiver IDs to return
+     * @return a list of receiver IDs in request order or an empty list
+     */
+    @Query("""
+            SELECT r FROM RecommendationFanOut f JOIN f.receiverIds r
+            WHERE f.id = :fanOutId AND INDEX(r) >= :offset ORDER BY INDEX(r)
+            """)
+    List<Long> findReceiverIds(Long fanOutId, int offset, Limit limit);
+
+    /**
+     * Finds the IDs of all fan-outs with the given status.
+     *
+     * @param status the fan-out status
+     * @return a list of fan-out IDs in order of creation or an empty list
+     */
+    @Query("""
+            SELECT f.id FROM RecommendationFanOut f WHERE f.status = :status ORDER BY f.id
+            """)
+    List<Long> findIdsByStatus(RecommendationFanOutStatus status);
+
+    /**
+     * Finds a fan-out by its ID and the ID of the user who started it.
+     *
+     * @param fanOutId  the ID of the fan-out
+     * @param creatorId the ID of the creator
+     * @return an {@link Optional} of the {@link RecommendationFanOut} entity
+     */
+    Optional<RecommendationFanOut> findByIdAndCreatorId(Long fanOutId, Long creatorId);
+}
@@ -0,0 +1,164 @@
+package com.spaghetticodegang.trylater.recommendation.fanout;
+
+import com.spaghetticodegang.trylater.recommendation.Recommendation;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationFanOutResponseDto;
+import com.spaghetticodegang.trylater.shared.exception.RecommendationNotFoundException;
+import com.spaghetticodegang.trylater.user.User;
+import jakarta.annotation.PreDestroy;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Service layer for delivering recommendations with many receivers in the background.
+ * A fan-out is stored together with its recommendation and started once that transaction has been committed.
+ * Pending fan-outs are resumed periodically, which also picks up fan-outs interrupted by a restart.
+ */
+@Service
+public class RecommendationFanOutService {
+
+    private final RecommendationFanOutRepository recommendationFanOutRepository;
+    private final RecommendationFanOutWorker recommendationFanOutWorker;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int threshold;
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public RecommendationFanOutService(RecommendationFanOutRepository recommendationFanOutRepository,
+                                       RecommendationFanOutWorker recommendationFanOutWorker,
+                                       ApplicationEventPublisher eventPublisher,
+                                       @Value("${recommendation.fan-out.threshold}") int threshold) {
+        this.recommendationFanOutRepository = recommendationFanOutRepository;
+        this.recommendationFanOutWorker = recommendationFanOutWorker;
+        this.eventPublisher = eventPublisher;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Checks whether a recommendation with the given number of receivers is delivered in the background.
+     *
+     * @param receiverCount the number of receivers
+     * @return TRUE or FALSE
+     */
+    public boolean isFanOutRequired(int receiverCount) {
+        return receiverCount > threshold;
+    }
+
+    /**
+     * Stores a new fan-out for the given recommendation and receivers.
+     * Delivery starts after the surrounding transaction has been committed.
+     *
+     * @param sender         the user who sends the recommendation, its creator or a user forwarding it
+     * @param recommendation the recommendation to deliver
+     * @param receiverIds    the IDs of the receivers in delivery order
+     * @return a response DTO representing the pending fan-out
+     */
+    @Transactional
+    public RecommendationFanOutResponseDto createFanOut(User sender, Recommendation recommendation, List<Long> receiverIds) {
+        final RecommendationFanOut fanOut = RecommendationFanOut.builder()
+                .recommendationId(recommendation.getId())
+                .creatorId(sender.getId())
+                .receiverIds(new ArrayList<>(receiverIds))
+                .totalReceivers(receiverIds.size())
+                .deliveredReceivers(0)
+                .status(RecommendationFanOutStatus.PENDING)
+                .createdAt(LocalDateTime.now())
+                .build();
+
+        recommendationFanOutRepository.save(fanOut);
+        eventPublisher.publishEvent(new RecommendationFanOutCreatedEvent(fanOut.getId()));
+
+        return createRecommendationFanOutResponseDto(fanOut);
+    }
+
+    /**
+     * Returns the progress of a fan-out started by the given user.
+     *
+     * @param me       the currently authenticated user
+     * @param fanOutId the ID of the fan-out
+     * @return a response DTO representing the fan-out
+     * @throws RecommendationNotFoundException if the user has not started a fan-out with the given ID
+     */
+    public RecommendationFanOutResponseDto getFanOut(User me, Long fanOutId) {
+        return recommendationFanOutRepository.findByIdAndCreatorId(fanOutId, me.getId())
+                .map(this::createRecommendationFanOutResponseDto)
+                .orElseThrow(() -> new RecommendationNotFoundException("recommendation.fan.out.not.found"));
+    }
+
+    /**
+     * Starts the delivery of a fan-out once its transaction has been committed.
+     *
+     * @param event the event containing the ID of the new fan-out
+     */
+    @TransactionalEventListener
+    public void onRecommendationFanOutCreated(RecommendationFanOutCreatedEvent event) {
+        submit(event.fanOutId());
+    }
+
+    /**
+     * Resumes all pending fan-outs that are not delivered by this node at the moment.
+     */
+    @Scheduled(fixedDelayString = "${recommendation.fan-out.resume-interval}")
+    public void resumePendingFanOuts() {
+        recommendationFanOutRepository.findIdsByStatus(RecommendationFanOutStatus.PENDING).forEach(this::submit);
+    }
+
+    /**
+     * Delivers the given fan-out on a background thread unless it is already being delivered by this node.
+     * A failed delivery stays pending and is retried by {@link #resumePendingFanOuts()}.
+     *
+     * @param fanOutId the ID of the fan-out
+     */
+    void submit(Long fanOutId) {
+        if (!running.add(fanOutId)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                boolean pending = true;
+                while (pending) {
+                    pending = recommendationFanOutWorker.deliverNextBatch(fanOutId);
+                }
+            } finally {
+                running.remove(fanOutId);
+            }
+        });
+    }
+
+    /**
+     * Stops the background deliveries when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Creates a response DTO from a {@link RecommendationFanOut} entity.
+     *
+     * @param fanOut the fan-out entity
+     * @return a response DTO representing the fan-out
+     */
+    private RecommendationFanOutResponseDto createRecommendationFanOutResponseDto(RecommendationFanOut fanOut) {
+        return RecommendationFanOutResponseDto.builder()
+                .id(fanOut.getId())
+                .recommendationId(fanOut.getRecommendationId())
+                .status(fanOut.getStatus())
+                .totalReceivers(fanOut.getTotalReceivers())
+                .deliveredReceivers(fanOut.getDeliveredReceivers())
+                .createdAt(fanOut.getCreatedAt())
+                .completedAt(fanOut.getCompletedAt())
+                .build();
+    }
+}
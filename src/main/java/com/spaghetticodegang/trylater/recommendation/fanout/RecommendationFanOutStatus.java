@@ -0,0 +1,10 @@
+package com.spaghetticodegang.trylater.recommendation.fanout;
+
+/**
+ * Enum representing the status of a recommendation fan-out.
+ */
+public enum RecommendationFanOutStatus {
+    PENDING,
+    COMPLETED,
+    CANCELLED
+}
@@ -0,0 +1,80 @@
+package com.spaghetticodegang.trylater.recommendation.fanout;
+
+import com.spaghetticodegang.trylater.recommendation.Recommendation;
+import com.spaghetticodegang.trylater.recommendation.RecommendationRepository;
+import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentService;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Delivers a recommendation fan-out batch by batch.
+ * Each batch runs in its own transaction while holding a lock on the fan-out,
+ * so concurrent workers and restarts never deliver a receiver twice.
+ */
+@Component
+public class RecommendationFanOutWorker {
+
+    private final RecommendationFanOutRepository recommendationFanOutRepository;
+    private final RecommendationRepository recommendationRepository;
+    private final RecommendationAssignmentService recommendationAssignmentService;
+    private final int batchSize;
+
+    public RecommendationFanOutWorker(RecommendationFanOutRepository recommendationFanOutRepository,
+                                      RecommendationRepository recommendationRepository,
+                                      RecommendationAssignmentService recommendationAssignmentService,
+                                      @Value("${recommendation.fan-out.batch-size}") int batchSize) {
+        this.recommendationFanOutRepository = recommendationFanOutRepository;
+        this.recommendationRepository = recommendationRepository;
+        this.recommendationAssignmentService = recommendationAssignmentService;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Creates the assignments for the next batch of receivers and advances the cursor of the fan-out.
+     * The fan-out is cancelled if its recommendation has been deleted in the meantime.
+     *
+     * @param fanOutId the ID of the fan-out
+     * @return {@code true} if there are receivers left to deliver
+     */
+    @Transactional
+    public boolean deliverNextBatch(Long fanOutId) {
+        final RecommendationFanOut fanOut = recommendationFanOutRepository.findForUpdateById(fanOutId).orElse(null);
+        if (fanOut == null || fanOut.getStatus() != RecommendationFanOutStatus.PENDING) {
+            return false;
+        }
+
+        final Optional<Recommendation> recommendation = recommendationRepository.findById(fanOut.getRecommendationId());
+        if (recommendation.isEmpty()) {
+            finish(fanOut, RecommendationFanOutStatus.CANCELLED);
+            return false;
+        }
+
+        final List<Long> receiverIds = recommendationFanOutRepository.findReceiverIds(fanOutId, fanOut.getDeliveredReceivers(), Limit.of(batchSize));
+        recommendationAssignmentService.createRecommendationAssignments(recommendation.get(), receiverIds);
+        fanOut.setDeliveredReceivers(fanOut.getDeliveredReceivers() + receiverIds.size());
+
+        if (receiverIds.isEmpty() || fanOut.getDeliveredReceivers() >= fanOut.getTotalReceivers()) {
+            finish(fanOut, RecommendationFanOutStatus.COMPLETED);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Marks the fan-out as finished and drops its receiver list.
+     *
+     * @param fanOut the fan-out
+     * @param status the final status
+     */
+    private void finish(RecommendationFanOut fanOut, RecommendationFanOutStatus status) {
+        fanOut.setStatus(status);
+        fanOut.setCompletedAt(LocalDateTime.now());
+        fanOut.getReceiverIds().clear();
+    }
+}
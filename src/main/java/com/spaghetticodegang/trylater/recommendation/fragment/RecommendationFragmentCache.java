@@ -0,0 +1,259 @@
+package com.spaghetticodegang.trylater.recommendation.fragment;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationFragmentCacheStatsDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Size-bounded cache of recommendations serialized as JSON response fragments.
+ * The content of a recommendation does not change after its creation, only the profile of its creator does,
+ * so fragments are evicted when a recommendation is deleted or its creator changes the profile.
+ * The least recently used fragments are evicted once the cached fragments exceed the configured size.
+ */
+@Component
+public class RecommendationFragmentCache {
+
+    private final Map<Long, Fragment> fragments = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, Set<Long>> recommendationIdsByCreatorId = new HashMap<>();
+    private final Map<Long, Long> evictionsByRecommendationId = new HashMap<>();
+    private final Map<Long, Long> evictionsByCreatorId = new HashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final ObjectMapper objectMapper;
+    private final long maxBytes;
+    private long usedBytes;
+    private long generation;
+    private int pendingReads;
+
+    public RecommendationFragmentCache(ObjectMapper objectMapper, @Value("${recommendation.fragment-cache.max-size}") DataSize maxSize) {
+        this.objectMapper = objectMapper;
+        this.maxBytes = maxSize.toBytes();
+    }
+
+    /**
+     * Returns the JSON fragment of the given recommendation, serializing and caching it on a miss.
+     *
+     * @param recommendationId the ID of the recommendation
+     * @param creatorId        the ID of the creator or {@code null}
+     * @param dtoFactory       creates the response DTO to serialize on a miss
+     * @return the serialized response DTO
+     */
+    public byte[] getOrCreate(Long recommendationId, Long creatorId, Supplier<?> dtoFactory) {
+        final long readGeneration;
+        synchronized (this) {
+            final Fragment fragment = fragments.get(recommendationId);
+            if (fragment != null) {
+                hits.increment();
+                return fragment.json();
+            }
+            readGeneration = generation;
+            pendingReads++;
+        }
+
+        misses.increment();
+        try {
+            final byte[] json = serialize(dtoFactory.get());
+            put(recommendationId, creatorId, json, readGeneration);
+            return json;
+        } finally {
+            finishRead();
+        }
+    }
+
+    /**
+     * Evicts the fragment of a recommendation.
+     *
+     * @param recommendationId the ID of the recommendation
+     */
+    public void evict(Long recommendationId) {
+        afterCommit(() -> evictNow(recommendationId));
+    }
+
+    /**
+     * Evicts the fragments of all recommendations created by the given user.
+     *
+     * @param creatorId the ID of the creator
+     */
+    public void evictByCreatorId(Long creatorId) {
+        afterCommit(() -> evictNowByCreatorId(creatorId));
+    }
+
+    /**
+     * Returns the hit rate and memory usage of the cache.
+     *
+     * @return a DTO containing the cache statistics
+     */
+    public synchronized RecommendationFragmentCacheStatsDto getStats() {
+        final long hitCount = hits.sum();
+        final long missCount = misses.sum();
+        final long requests = hitCount + missCount;
+        return RecommendationFragmentCacheStatsDto.builder()
+                .entries(fragments.size())
+                .usedBytes(usedBytes)
+                .maxBytes(maxBytes)
+                .hits(hitCount)
+                .misses(missCount)
+                .hitRate(requests == 0 ? 0 : (double) hitCount / requests)
+                .build();
+    }
+
+    /**
+     * Runs an eviction immediately and, inside a transaction, once more after the commit,
+     * so fragments read from the database before the commit are not kept.
+     *
+     * @param eviction the eviction to run
+     */
+    private void afterCommit(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * Evicts the fragment of a recommendation.
+     *
+     * @param recommendationId the ID of the recommendation
+     */
+    private synchronized void evictNow(Long recommendationId) {
+        generation++;
+        if (pendingReads > 0) {
+            evictionsByRecommendationId.put(recommendationId, generation);
+        }
+        remove(recommendationId);
+    }
+
+    /**
+     * Evicts the fragments of all recommendations created by the given user.
+     *
+     * @param creatorId the ID of the creator
+     */
+    private synchronized void evictNowByCreatorId(Long creatorId) {
+        generation++;
+        if (pendingReads > 0) {
+            evictionsByCreatorId.put(creatorId, generation);
+        }
+        final Set<Long> recommendationIds = recommendationIdsByCreatorId.remove(creatorId);
+        if (recommendationIds != null) {
+            new HashSet<>(recommendationIds).forEach(this::remove);
+        }
+    }
+
+    /**
+     * Caches a fragment unless the recommendation or the fragments of its creator were evicted since the recommendation was read,
+     * which could mean the fragment already contains outdated data. Evictions of other recommendations do not affect it.
+     *
+     * @param recommendationId the ID of the recommendation
+     * @param creatorId        the ID of the creator or {@code null}
+     * @param json             the serialized response DTO
+     * @param readGeneration   the eviction generation before the recommendation was serialized
+     */
+    private synchronized void put(Long recommendationId, Long creatorId, byte[] json, long readGeneration) {
+        if (json.length > maxBytes
+                || evictionsByRecommendationId.getOrDefault(recommendationId, 0L) > readGeneration
+                || (creatorId != null && evictionsByCreatorId.getOrDefault(creatorId, 0L) > readGeneration)) {
+            return;
+        }
+
+        remove(recommendationId);
+        fragments.put(recommendationId, new Fragment(creatorId, json));
+        usedBytes += json.length;
+        if (creatorId != null) {
+            recommendationIdsByCreatorId.computeIfAbsent(creatorId, id -> new HashSet<>()).add(recommendationId);
+        }
+
+        final Iterator<Map.Entry<Long, Fragment>> eldest = fragments.entrySet().iterator();
+        while (usedBytes > maxBytes && eldest.hasNext()) {
+            final Map.Entry<Long, Fragment> entry = eldest.next();
+            eldest.remove();
+            unlink(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Ends a read started on a miss. The recorded evictions are only needed while reads are pending,
+     * so they are dropped once the last one has ended.
+     */
+    private synchronized void finishRead() {
+        pendingReads--;
+        if (pendingReads == 0) {
+            evictionsByRecommendationId.clear();
+            evictionsByCreatorId.clear();
+        }
+    }
+
+    /**
+     * Removes a fragment and updates the creator index and memory usage.
+     *
+     * @param recommendationId the ID of the recommendation
+     */
+    private void remove(Long recommendationId) {
+        final Fragment fragment = fragments.remove(recommendationId);
+        if (fragment != null) {
+            unlink(recommendationId, fragment);
+        }
+    }
+
+    /**
+     * Updates the creator index and memory usage for a removed fragment.
+     *
+     * @param recommendationId the ID of the recommendation
+     * @param fragment         the removed fragment
+     */
+    private void unlink(Long recommendationId, Fragment fragment) {
+        usedBytes -= fragment.json().length;
+        if (fragment.creatorId() == null) {
+            return;
+        }
+        final Set<Long> recommendationIds = recommendationIdsByCreatorId.get(fragment.creatorId());
+        if (recommendationIds != null) {
+            recommendationIds.remove(recommendationId);
+            if (recommendationIds.isEmpty()) {
+                recommendationIdsByCreatorId.remove(fragment.creatorId());
+            }
+        }
+    }
+
+    /**
+     * Serializes a response DTO with the application's JSON settings.
+     *
+     * @param dto the response DTO
+     * @return the JSON bytes
+     */
+    private byte[] serialize(Object dto) {
+        try {
+            return objectMapper.writeValueAsBytes(dto);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A cached JSON fragment.
+     *
+     * @param creatorId the ID of the creator or {@code null}
+     * @param json      the serialized response DTO
+     */
+    private record Fragment(Long creatorId, byte[] json) {
+    }
+}
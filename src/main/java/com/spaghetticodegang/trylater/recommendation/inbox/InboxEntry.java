@@ -0,0 +1,83 @@
+package com.spaghetticodegang.trylater.recommendation.inbox;
+
+import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentStatus;
+import com.spaghetticodegang.trylater.recommendation.category.CategoryType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * JPA entity representing a recommendation in the inbox of a receiver.
+ * The entry is a denormalized copy of an assignment with all display fields of its recommendation and creator,
+ * so the inbox of a user is read from this table alone. It is maintained by the write paths of
+ * recommendations, assignments and user profiles and can be regenerated by the {@link InboxRebuildJob}.
+ */
+@Getter
+@Setter
+@Entity
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "inbox_entries", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_inbox_entries_receiver_recommendation", columnNames = {"receiver_id", "recommendation_id"})
+}, indexes = {
+        @Index(name = "idx_inbox_entries_receiver_status", columnList = "receiver_id, recommendation_assignment_status, recommendation_id"),
+        @Index(name = "idx_inbox_entries_creator", columnList = "creator_id"),
+        @Index(name = "idx_inbox_entries_recommendation", columnList = "recommendation_id")
+})
+public class InboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "receiver_id", nullable = false)
+    private Long receiverId;
+
+    @Column(name = "recommendation_id", nullable = false)
+    private Long recommendationId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "recommendation_assignment_status", nullable = false)
+    private RecommendationAssignmentStatus recommendationAssignmentStatus;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    private String imgPath;
+
+    private String imgBlurHash;
+
+    private String url;
+
+    @Column(nullable = false)
+    private int rating;
+
+    @Column(nullable = false)
+    private LocalDateTime creationDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CategoryType categoryType;
+
+    @Column(name = "creator_id")
+    private Long creatorId;
+
+    private String creatorUserName;
+
+    private String creatorDisplayName;
+
+    private String creatorImgPath;
+
+    private String creatorImgBlurHash;
+
+    /**
+     * The tag groups of the recommendation, pre-rendered as JSON array.
+     */
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String tagGroups;
+}
@@ -0,0 +1,16 @@
+package com.spaghetticodegang.trylater.recommendation.inbox;
+
+import java.util.List;
+
+/**
+ * Repository fragment for inserting many inbox entries with JDBC batch statements.
+ */
+public interface InboxEntryBatchRepository {
+
+    /**
+     * Inserts the given inbox entries.
+     *
+     * @param entries the entries to insert, their IDs are ignored
+     */
+    void insertAll(List<InboxEntry> entries);
+}
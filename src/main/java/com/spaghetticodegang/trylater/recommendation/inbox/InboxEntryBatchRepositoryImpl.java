@@ -0,0 +1,51 @@
+package com.spaghetticodegang.trylater.recommendation.inbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * JDBC implementation of {@link InboxEntryBatchRepository}.
+ * Inbox entries use identity IDs, which Hibernate cannot insert in batches.
+ */
+@RequiredArgsConstructor
+class InboxEntryBatchRepositoryImpl implements InboxEntryBatchRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO inbox_entries (receiver_id, recommendation_id, recommendation_assignment_status, title, description, img_path,
+                                       img_blur_hash, url, rating, creation_date, category_type, creator_id, creator_user_name,
+                                       creator_display_name, creator_img_path, creator_img_blur_hash, tag_groups)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<InboxEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        final List<Object[]> rows = entries.stream()
+                .map(entry -> new Object[]{
+                        entry.getReceiverId(),
+                        entry.getRecommendationId(),
+                        entry.getRecommendationAssignmentStatus().name(),
+                        entry.getTitle(),
+                        entry.getDescription(),
+                        entry.getImgPath(),
+                        entry.getImgBlurHash(),
+                        entry.getUrl(),
+                        entry.getRating(),
+                        entry.getCreationDate(),
+                        entry.getCategoryType().name(),
+                        entry.getCreatorId(),
+                        entry.getCreatorUserName(),
+                        entry.getCreatorDisplayName(),
+                        entry.getCreatorImgPath(),
+                        entry.getCreatorImgBlurHash(),
+                        entry.getTagGroups()})
+                .toList();
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+}
@@ -0,0 +1,127 @@
+package com.spaghetticodegang.trylater.recommendation.inbox;
+
+import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for accessing and managing {@link InboxEntry} entities.
+ */
+public interface InboxEntryRepository extends JpaRepository<InboxEntry, Long>, InboxEntryBatchRepository {
+
+    /**
+     * Finds the inbox entries of a receiver with a specific status, ordered by recommendation.
+     *
+     * @param receiverId                     the ID of the receiver
+     * @param recommendationAssignmentStatus the assignment status
+     * @return a list of inbox entries or an empty list
+     */
+    @Query("""
+            SELECT e FROM InboxEntry e
+            WHERE e.receiverId = :receiverId AND e.recommendationAssignmentStatus = :recommendationAssignmentStatus
+            ORDER BY e.recommendationId
+            """)
+    List<InboxEntry> findAllByReceiverIdAndStatus(Long receiverId, RecommendationAssignmentStatus recommendationAssignmentStatus);
+
+    /**
+     * Sets the status of the inbox entries of a receiver.
+     *
+     * @param receiverId                     the ID of the receiver
+     * @param recommendationIds              the IDs of the recommendations
+     * @param recommendationAssignmentStatus the new assignment status
+     * @return the number of updated entries
+     */
+    @Modifying
+    @Query("""
+            UPDATE InboxEntry e SET e.recommendationAssignmentStatus = :recommendationAssignmentStatus
+            WHERE e.receiverId = :receiverId AND e.recommendationId IN :recommendationIds
+            """)
+    int updateStatus(Long receiverId, Collection<Long> recommendationIds, RecommendationAssignmentStatus recommendationAssignmentStatus);
+
+    /**
+     * Copies the profile fields of a creator into all inbox entries of the creator's recommendations.
+     *
+     * @param creatorId   the ID of the creator
+     * @param userName    the user name of the creator
+     * @param displayName the display name of the creator
+     * @param imgPath     the profile image of the creator
+     * @param imgBlurHash the placeholder of the profile image
+     * @return the number of updated entries
+     */
+    @Modifying
+    @Query("""
+            UPDATE InboxEntry e SET e.creatorUserName = :userName, e.creatorDisplayName = :displayName, e.creatorImgPath = :imgPath,
+                                    e.creatorImgBlurHash = :imgBlurHash
+            WHERE e.creatorId = :creatorId
+            """)
+    int updateCreator(Long creatorId, String userName, String displayName, String imgPath, String imgBlurHash);
+
+    /**
+     * Removes the creator from all inbox entries of the creator's recommendations.
+     *
+     * @param creatorId the ID of the creator
+     * @return the number of updated entries
+     */
+    @Modifying
+    @Query("""
+            UPDATE InboxEntry e SET e.creatorId = null, e.creatorUserName = null, e.creatorDisplayName = null, e.creatorImgPath = null,
+                                    e.creatorImgBlurHash = null
+            WHERE e.creatorId = :creatorId
+            """)
+    int clearCreator(Long creatorId);
+
+    /**
+     * Deletes the inbox entry of a receiver for a recommendation.
+     *
+     * @param receiverId       the ID of the receiver
+     * @param recommendationId the ID of the recommendation
+     * @return the number of deleted entries
+     */
+    @Modifying
+    @Query("""
+            DELETE FROM InboxEntry e WHERE e.receiverId = :receiverId AND e.recommendationId = :recommendationId
+            """)
+    int deleteByReceiverIdAndRecommendationId(Long receiverId, Long recommendationId);
+
+    /**
+     * Deletes all inbox entries of a receiver.
+     *
+     * @param receiverId the ID of the receiver
+     * @return the number of deleted entries
+     */
+    @Modifying
+    @Query("""
+            DELETE FROM InboxEntry e WHERE e.receiverId = :receiverId
+            """)
+    int deleteAllByReceiverId(Long receiverId);
+
+    /**
+     * Deletes all inbox entries of the given recommendations.
+     *
+     * @param recommendationIds the IDs of the recommendations
+     * @return the number of deleted entries
+     */
+    @Modifying
+    @Query("""
+            DELETE FROM InboxEntry e WHERE e.recommendationId IN :recommendationIds
+            """)
+    int deleteAllByRecommendationIds(Collection<Long> recommendationIds);
+
+    /**
+     * Deletes all inbox entries without a matching recommendation assignment.
+     *
+     * @return the number of deleted entries
+     */
+    @Modifying
+    @Query("""
+            DELETE FROM InboxEntry e WHERE NOT EXISTS (
+                SELECT 1 FROM RecommendationAssignment a
+                WHERE a.recommendation.id = e.recommendationId AND a.receiver.id = e.receiverId
+            )
+            """)
+    int deleteStaleEntries();
+}
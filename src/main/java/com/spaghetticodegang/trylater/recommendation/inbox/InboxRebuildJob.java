@@ -0,0 +1,48 @@
+package com.spaghetticodegang.trylater.recommendation.inbox;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Regenerates the inbox table from the recommendation assignments.
+ * The recommendations are processed in batches of their IDs, each batch in its own transaction,
+ * so a rebuild does not hold locks on the whole table. Afterwards entries without an assignment are removed.
+ */
+@Component
+public class InboxRebuildJob {
+
+    private final InboxService inboxService;
+    private final int batchSize;
+    private final boolean rebuildOnStartup;
+
+    public InboxRebuildJob(InboxService inboxService,
+                           @Value("${recommendation.inbox.rebuild-batch-size}") int batchSize,
+                           @Value("${recommendation.inbox.rebuild-on-startup}") boolean rebuildOnStartup) {
+        this.inboxService = inboxService;
+        this.batchSize = batchSize;
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    /**
+     * Rebuilds the inbox table on startup if configured or if it has not been generated yet.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (rebuildOnStartup || inboxService.isRebuildRequired()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Regenerates all inbox entries from scratch.
+     */
+    public void rebuild() {
+        Long lastId = 0L;
+        while (lastId != null) {
+            lastId = inboxService.rebuildBatch(lastId, batchSize);
+        }
+        inboxService.removeStaleEntries();
+    }
+}
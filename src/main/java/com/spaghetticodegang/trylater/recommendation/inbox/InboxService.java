@@ -0,0 +1,359 @@
+package com.spaghetticodegang.trylater.recommendation.inbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.spaghetticodegang.trylater.recommendation.Recommendation;
+import com.spaghetticodegang.trylater.recommendation.RecommendationRepository;
+import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignment;
+import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentRepository;
+import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentStatus;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationListItemDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationNormalizedListResponseDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationResponseDto;
+import com.spaghetticodegang.trylater.recommendation.fragment.RecommendationFragmentCache;
+import com.spaghetticodegang.trylater.recommendation.tag.TagService;
+import com.spaghetticodegang.trylater.recommendation.tag.dto.TagGroupResponseDto;
+import com.spaghetticodegang.trylater.user.User;
+import com.spaghetticodegang.trylater.user.dto.UserResponseDto;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service class for maintaining and reading the denormalized inbox of each receiver.
+ * All write methods are meant to run in the transaction of the write path that changes the source data.
+ */
+@Service
+@RequiredArgsConstructor
+public class InboxService {
+
+    private static final TypeReference<List<TagGroupResponseDto>> TAG_GROUPS_TYPE = new TypeReference<>() {
+    };
+
+    private final InboxEntryRepository inboxEntryRepository;
+    private final RecommendationRepository recommendationRepository;
+    private final RecommendationAssignmentRepository recommendationAssignmentRepository;
+    private final RecommendationFragmentCache recommendationFragmentCache;
+    private final TagService tagService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Returns the inbox of a receiver as serialized JSON fragments.
+     * The entries are read from the inbox table alone and serialized once per recommendation
+     * through the {@link RecommendationFragmentCache}.
+     *
+     * @param receiverId                     the ID of the receiver
+     * @param recommendationAssignmentStatus the assignment status
+     * @return one serialized recommendation response DTO per inbox entry
+     */
+    public List<byte[]> getInbox(Long receiverId, RecommendationAssignmentStatus recommendationAssignmentStatus) {
+        return inboxEntryRepository.findAllByReceiverIdAndStatus(receiverId, recommendationAssignmentStatus).stream()
+                .map(entry -> recommendationFragmentCache.getOrCreate(entry.getRecommendationId(), entry.getCreatorId(), () -> createFragment(entry)))
+                .toList();
+    }
+
+    /**
+     * Returns the inbox of a receiver in the normalized list shape.
+     * Creators and tag groups are side-loaded once per ID instead of being embedded in every item.
+     *
+     * @param receiverId                     the ID of the receiver
+     * @param recommendationAssignmentStatus the assignment status
+     * @return a response DTO containing the items and the side-loaded users and tag groups
+     */
+    public RecommendationNormalizedListResponseDto getNormalizedInbox(Long receiverId, RecommendationAssignmentStatus recommendationAssignmentStatus) {
+        final List<RecommendationListItemDto> items = new ArrayList<>();
+        final Map<Long, UserResponseDto> users = new LinkedHashMap<>();
+        final Map<Long, TagGroupResponseDto> tagGroups = new LinkedHashMap<>();
+        final Set<Long> sideLoadedTagIds = new HashSet<>();
+
+        for (InboxEntry entry : inboxEntryRepository.findAllByReceiverIdAndStatus(receiverId, recommendationAssignmentStatus)) {
+            if (entry.getCreatorId() != null) {
+                users.computeIfAbsent(entry.getCreatorId(), creatorId -> createCreatorResponseDto(entry));
+            }
+
+            final List<Long> tagIds = new ArrayList<>();
+            for (TagGroupResponseDto tagGroup : readTagGroups(entry.getTagGroups())) {
+                final TagGroupResponseDto sideLoadedTagGroup = tagGroups.computeIfAbsent(tagGroup.getTagGroupId(), id -> TagGroupResponseDto.builder()
+                        .tagGroupId(id)
+                        .tagGroupName(tagGroup.getTagGroupName())
+                        .tags(new ArrayList<>())
+                        .build());
+                tagGroup.getTags().forEach(tag -> {
+                    tagIds.add(tag.getId());
+                    if (sideLoadedTagIds.add(tag.getId())) {
+                        sideLoadedTagGroup.getTags().add(tag);
+                    }
+                });
+            }
+
+            items.add(RecommendationListItemDto.builder()
+                    .id(entry.getRecommendationId())
+                    .title(entry.getTitle())
+                    .description(entry.getDescription())
+                    .imgPath(entry.getImgPath())
+                    .imgBlurHash(entry.getImgBlurHash())
+                    .url(entry.getUrl())
+                    .rating(entry.getRating())
+                    .creatorId(entry.getCreatorId())
+                    .creationDate(entry.getCreationDate())
+                    .category(entry.getCategoryType())
+                    .tagIds(tagIds)
+                    .build());
+        }
+
+        return RecommendationNormalizedListResponseDto.builder()
+                .items(items)
+                .users(users)
+                .tagGroups(tagGroups)
+                .build();
+    }
+
+    /**
+     * Adds a recommendation to the inbox of the given receivers.
+     *
+     * @param recommendation       the recommendation including creator, category and tags
+     * @param statusesByReceiverId the assignment status per receiver ID
+     */
+    public void addEntries(Recommendation recommendation, Map<Long, RecommendationAssignmentStatus> statusesByReceiverId) {
+        if (statusesByReceiverId.isEmpty()) {
+            return;
+        }
+        final InboxEntry template = createTemplate(recommendation);
+        inboxEntryRepository.insertAll(statusesByReceiverId.entrySet().stream()
+                .map(entry -> template.toBuilder()
+                        .receiverId(entry.getKey())
+                        .recommendationAssignmentStatus(entry.getValue())
+                        .build())
+                .toList());
+    }
+
+    /**
+     * Adds several recommendations to the inbox of a single receiver.
+     *
+     * @param receiverId                     the ID of the receiver
+     * @param recommendations                the recommendations including creator, category and tags
+     * @param recommendationAssignmentStatus the assignment status of all entries
+     */
+    public void addEntries(Long receiverId, List<Recommendation> recommendations, RecommendationAssignmentStatus recommendationAssignmentStatus) {
+        if (recommendations.isEmpty()) {
+            return;
+        }
+        inboxEntryRepository.insertAll(recommendations.stream()
+                .map(recommendation -> createTemplate(recommendation).toBuilder()
+                        .receiverId(receiverId)
+                        .recommendationAssignmentStatus(recommendationAssignmentStatus)
+                        .build())
+                .toList());
+    }
+
+    /**
+     * Sets the status of recommendations in the inbox of a receiver.
+     *
+     * @param receiverId                     the ID of the receiver
+     * @param recommendationIds              the IDs of the recommendations
+     * @param recommendationAssignmentStatus the new assignment status
+     */
+    public void updateStatus(Long receiverId, Collection<Long> recommendationIds, RecommendationAssignmentStatus recommendationAssignmentStatus) {
+        if (!recommendationIds.isEmpty()) {
+            inboxEntryRepository.updateStatus(receiverId, recommendationIds, recommendationAssignmentStatus);
+        }
+    }
+
+    /**
+     * Removes a recommendation from the inbox of a receiver.
+     *
+     * @param receiverId       the ID of the receiver
+     * @param recommendationId the ID of the recommendation
+     */
+    public void removeEntry(Long receiverId, Long recommendationId) {
+        inboxEntryRepository.deleteByReceiverIdAndRecommendationId(receiverId, recommendationId);
+    }
+
+    /**
+     * Removes the whole inbox of a receiver.
+     *
+     * @param receiverId the ID of the receiver
+     */
+    public void removeEntriesByReceiverId(Long receiverId) {
+        inboxEntryRepository.deleteAllByReceiverId(receiverId);
+    }
+
+    /**
+     * Copies the current profile of a creator into the inbox entries of the creator's recommendations.
+     *
+     * @param creator the creator with the updated profile
+     */
+    public void updateCreator(User creator) {
+        inboxEntryRepository.updateCreator(creator.getId(), creator.getUserName(), creator.getDisplayName(), creator.getImgPath(), creator.getImgBlurHash());
+        recommendationFragmentCache.evictByCreatorId(creator.getId());
+    }
+
+    /**
+     * Removes a deleted creator from the inbox entries of the creator's recommendations.
+     *
+     * @param creatorId the ID of the deleted creator
+     */
+    public void clearCreator(Long creatorId) {
+        inboxEntryRepository.clearCreator(creatorId);
+        recommendationFragmentCache.evictByCreatorId(creatorId);
+    }
+
+    /**
+     * Checks whether the inbox table has to be generated, because it is empty while assignments exist.
+     *
+     * @return TRUE or FALSE
+     */
+    public boolean isRebuildRequired() {
+        return inboxEntryRepository.count() == 0 && recommendationAssignmentRepository.count() > 0;
+    }
+
+    /**
+     * Regenerates the inbox entries of the recommendations following the given ID from their assignments.
+     *
+     * @param lastId    the ID of the last recommendation already rebuilt
+     * @param batchSize the maximum number of recommendations to rebuild
+     * @return the ID of the last rebuilt recommendation or {@code null} if there are no more recommendations
+     */
+    @Transactional
+    public Long rebuildBatch(Long lastId, int batchSize) {
+        final List<Long> recommendationIds = recommendationRepository.findIdsAfter(lastId, Limit.of(batchSize));
+        if (recommendationIds.isEmpty()) {
+            return null;
+        }
+
+        final Map<Long, Recommendation> recommendations = recommendationRepository.findAllWithDetailsByIds(recommendationIds).stream()
+                .collect(Collectors.toMap(Recommendation::getId, Function.identity()));
+        final Map<Long, Map<Long, RecommendationAssignmentStatus>> statuses = recommendationAssignmentRepository.findAllByRecommendationIds(recommendationIds).stream()
+                .collect(Collectors.groupingBy(assignment -> assignment.getRecommendation().getId(),
+                        Collectors.toMap(assignment -> assignment.getReceiver().getId(), RecommendationAssignment::getRecommendationAssignmentStatus)));
+
+        inboxEntryRepository.deleteAllByRecommendationIds(recommendationIds);
+        statuses.forEach((recommendationId, statusesByReceiverId) -> addEntries(recommendations.get(recommendationId), statusesByReceiverId));
+        recommendationIds.forEach(recommendationFragmentCache::evict);
+
+        return recommendationIds.getLast();
+    }
+
+    /**
+     * Deletes the inbox entries that no longer have a matching assignment.
+     */
+    @Transactional
+    public void removeStaleEntries() {
+        inboxEntryRepository.deleteStaleEntries();
+    }
+
+    /**
+     * Creates an inbox entry holding the display fields of a recommendation, without receiver and status.
+     *
+     * @param recommendation the recommendation including creator, category and tags
+     * @return the {@link InboxEntry} template
+     */
+    private InboxEntry createTemplate(Recommendation recommendation) {
+        final User creator = recommendation.getCreator();
+        return InboxEntry.builder()
+                .recommendationId(recommendation.getId())
+                .title(recommendation.getTitle())
+                .description(recommendation.getDescription())
+                .imgPath(recommendation.getImgPath())
+                .imgBlurHash(recommendation.getImgBlurHash())
+                .url(recommendation.getUrl())
+                .rating(recommendation.getRating())
+                .creationDate(recommendation.getCreationDate())
+                .categoryType(recommendation.getCategory().getCategoryType())
+                .creatorId(creator != null ? creator.getId() : null)
+                .creatorUserName(creator != null ? creator.getUserName() : null)
+                .creatorDisplayName(creator != null ? creator.getDisplayName() : null)
+                .creatorImgPath(creator != null ? creator.getImgPath() : null)
+                .creatorImgBlurHash(creator != null ? creator.getImgBlurHash() : null)
+                .tagGroups(writeJson(tagService.createTagGroupResponseDtoFromTags(recommendation.getTags())))
+                .build();
+    }
+
+    /**
+     * Creates the JSON tree of the recommendation response DTO of an inbox entry.
+     * The pre-rendered tag groups are inserted as they are.
+     *
+     * @param entry the inbox entry
+     * @return the JSON tree
+     */
+    private ObjectNode createFragment(InboxEntry entry) {
+        final RecommendationResponseDto dto = RecommendationResponseDto.builder()
+                .id(entry.getRecommendationId())
+                .title(entry.getTitle())
+                .description(entry.getDescription())
+                .imgPath(entry.getImgPath())
+                .imgBlurHash(entry.getImgBlurHash())
+                .url(entry.getUrl())
+                .rating(entry.getRating())
+                .creator(entry.getCreatorId() == null ? null : createCreatorResponseDto(entry))
+                .creationDate(entry.getCreationDate())
+                .category(entry.getCategoryType())
+                .build();
+
+        final ObjectNode fragment = objectMapper.valueToTree(dto);
+        try {
+            fragment.set("tagGroups", objectMapper.readTree(entry.getTagGroups()));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        return fragment;
+    }
+
+    /**
+     * Creates the public user DTO of the creator copied into an inbox entry.
+     *
+     * @param entry the inbox entry
+     * @return the user response DTO of the creator
+     */
+    private UserResponseDto createCreatorResponseDto(InboxEntry entry) {
+        return UserResponseDto.builder()
+                .id(entry.getCreatorId())
+                .userName(entry.getCreatorUserName())
+                .displayName(entry.getCreatorDisplayName())
+                .imgPath(entry.getCreatorImgPath())
+                .imgBlurHash(entry.getCreatorImgBlurHash())
+                .build();
+    }
+
+    /**
+     * Reads the pre-rendered tag groups of an inbox entry.
+     *
+     * @param tagGroups the tag groups as JSON array
+     * @return the tag group response DTOs
+     */
+    private List<TagGroupResponseDto> readTagGroups(String tagGroups) {
+        try {
+            return objectMapper.readValue(tagGroups, TAG_GROUPS_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Serializes a value with the application's JSON settings.
+     *
+     * @param value the value
+     * @return the JSON string
+     */
+    private String writeJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.spaghetticodegang.trylater.recommendation.search;
+
+import com.spaghetticodegang.trylater.recommendation.Recommendation;
+import com.spaghetticodegang.trylater.recommendation.RecommendationRepository;
+import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentService;
+import com.spaghetticodegang.trylater.recommendation.tag.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index used when no PostgreSQL database is available (H2 / development).
+ * Every query term has to match, the last one also as prefix. Hits are ranked by the weighted
+ * term frequency (title over tags over description) multiplied with the inverse document frequency.
+ */
+@Component
+@Profile("!prod")
+@RequiredArgsConstructor
+public class InMemoryRecommendationSearchIndex implements RecommendationSearchIndex {
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int TAG_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final RecommendationRepository recommendationRepository;
+    private final RecommendationAssignmentService recommendationAssignmentService;
+
+    private final NavigableMap<String, Map<Long, Integer>> postings = new ConcurrentSkipListMap<>();
+    private final Map<Long, Set<String>> documentTerms = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Builds the index from all stored recommendations once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        recommendationRepository.findAllWithTags().forEach(this::index);
+    }
+
+    @Override
+    public void index(Recommendation recommendation) {
+        final Map<String, Integer> termWeights = new HashMap<>();
+        addTerms(termWeights, recommendation.getTitle(), TITLE_WEIGHT);
+        recommendation.getTags().stream()
+                .map(Tag::getTagName)
+                .forEach(tagName -> addTerms(termWeights, tagName, TAG_WEIGHT));
+        addTerms(termWeights, recommendation.getDescription(), DESCRIPTION_WEIGHT);
+
+        lock.writeLock().lock();
+        try {
+            removeDocument(recommendation.getId());
+            termWeights.forEach((term, weight) -> postings.computeIfAbsent(term, key -> new HashMap<>()).put(recommendation.getId(), weight));
+            documentTerms.put(recommendation.getId(), termWeights.keySet());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long recommendationId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(recommendationId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public RecommendationSearchHits search(Long userId, String query, int page, int size) {
+        final List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty()) {
+            return new RecommendationSearchHits(List.of(), 0);
+        }
+
+        final Set<Long> assignedRecommendationIds = new HashSet<>(recommendationAssignmentService.getRecommendationIdsByUserId(userId));
+        Map<Long, Double> scores = null;
+
+        lock.readLock().lock();
+        try {
+            final int documentCount = documentTerms.size();
+            for (int i = 0; i < queryTerms.size(); i++) {
+                final String term = queryTerms.get(i);
+                final Map<String, Map<Long, Integer>> matchingPostings = i == queryTerms.size() - 1
+                        ? postings.subMap(term, true, term + Character.MAX_VALUE, false)
+                        : postings.containsKey(term) ? Map.of(term, postings.get(term)) : Map.of();
+
+                final Map<Long, Double> termScores = new HashMap<>();
+                matchingPostings.values().forEach(documents -> {
+                    final double idf = Math.log(1.0 + (double) documentCount / documents.size());
+                    documents.forEach((recommendationId, weight) -> {
+                        if (assignedRecommendationIds.contains(recommendationId)) {
+                            termScores.merge(recommendationId, weight * idf, Math::max);
+                        }
+                    });
+                });
+
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((recommendationId, score) -> score + termScores.get(recommendationId));
+                }
+                if (scores.isEmpty()) {
+                    return new RecommendationSearchHits(List.of(), 0);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        final List<Long> rankedIds = scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed()))
+                .map(Map.Entry::getKey)
+                .toList();
+
+        final int fromIndex = (int) Math.min((long) page * size, rankedIds.size());
+        final int toIndex = Math.min(fromIndex + size, rankedIds.size());
+        return new RecommendationSearchHits(rankedIds.subList(fromIndex, toIndex), rankedIds.size());
+    }
+
+    /**
+     * Splits a text into lower case terms consisting of letters and digits.
+     *
+     * @param text the text to split, may be {@code null}
+     * @return the terms in order of appearance
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(term -> !term.isEmpty())
+                .toList();
+    }
+
+    private void addTerms(Map<String, Integer> termWeights, String text, int weight) {
+        tokenize(text).forEach(term -> termWeights.merge(term, weight, Integer::sum));
+    }
+
+    private void removeDocument(Long recommendationId) {
+        final Set<String> terms = documentTerms.remove(recommendationId);
+        if (terms == null) {
+            return;
+        }
+        terms.forEach(term -> postings.computeIfPresent(term, (key, documents) -> {
+            documents.remove(recommendationId);
+            return documents.isEmpty() ? null : documents;
+        }));
+    }
+}
@@ -0,0 +1,92 @@
+package com.spaghetticodegang.trylater.recommendation.search;
+
+import com.spaghetticodegang.trylater.recommendation.Recommendation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Search index backed by a {@code tsvector} column with a GIN index on the recommendations table.
+ * The column is not mapped by JPA, it is created on startup and maintained by this class.
+ */
+@Component
+@Profile("prod")
+@RequiredArgsConstructor
+public class PostgresRecommendationSearchIndex implements RecommendationSearchIndex {
+
+    private static final String UPDATE_SEARCH_VECTOR = """
+            UPDATE recommendations r SET search_vector =
+                setweight(to_tsvector(CAST(? AS regconfig), coalesce(r.title, '')), 'A') ||
+                setweight(to_tsvector(CAST(? AS regconfig), coalesce((
+                    SELECT string_agg(t.tag_name, ' ')
+                    FROM recommendation_tags rt JOIN tags t ON t.id = rt.tag_id
+                    WHERE rt.recommendation_id = r.id), '')), 'B') ||
+                setweight(to_tsvector(CAST(? AS regconfig), coalesce(r.description, '')), 'C')
+            """;
+
+    private static final String SEARCH = """
+            SELECT r.id FROM recommendations r
+            JOIN recommendation_assignments ra ON ra.recommendation_id = r.id
+            CROSS JOIN websearch_to_tsquery(CAST(? AS regconfig), ?) q
+            WHERE ra.receiver_id = ? AND r.search_vector @@ q
+            ORDER BY ts_rank(r.search_vector, q) DESC, r.id DESC
+            LIMIT ? OFFSET ?
+            """;
+
+    private static final String COUNT = """
+            SELECT count(*) FROM recommendations r
+            JOIN recommendation_assignments ra ON ra.recommendation_id = r.id
+            WHERE ra.receiver_id = ? AND r.search_vector @@ websearch_to_tsquery(CAST(? AS regconfig), ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${recommendation.search.text-search-config}")
+    private String textSearchConfig;
+
+    /**
+     * Creates the search column and its GIN index if missing and fills the column for rows
+     * that have not been indexed yet, e.g. rows created before the column existed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        jdbcTemplate.execute("ALTER TABLE recommendations ADD COLUMN IF NOT EXISTS search_vector tsvector");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_recommendations_search_vector ON recommendations USING GIN (search_vector)");
+        jdbcTemplate.update(UPDATE_SEARCH_VECTOR + " WHERE r.search_vector IS NULL", textSearchConfig, textSearchConfig, textSearchConfig);
+    }
+
+    @Override
+    public void index(Recommendation recommendation) {
+        jdbcTemplate.update(UPDATE_SEARCH_VECTOR + " WHERE r.id = ?", textSearchConfig, textSearchConfig, textSearchConfig, recommendation.getId());
+    }
+
+    @Override
+    public void indexAll(Collection<Recommendation> recommendations) {
+        jdbcTemplate.batchUpdate(UPDATE_SEARCH_VECTOR + " WHERE r.id = ?", recommendations.stream()
+                .map(recommendation -> new Object[]{textSearchConfig, textSearchConfig, textSearchConfig, recommendation.getId()})
+                .toList());
+    }
+
+    @Override
+    public void remove(Long recommendationId) {
+        // the search vector is stored on the recommendation row and is deleted together with it
+    }
+
+    @Override
+    public RecommendationSearchHits search(Long userId, String query, int page, int size) {
+        final Long totalHits = jdbcTemplate.queryForObject(COUNT, Long.class, userId, textSearchConfig, query);
+        if (totalHits == null || totalHits == 0) {
+            return new RecommendationSearchHits(List.of(), 0);
+        }
+
+        final List<Long> recommendationIds = jdbcTemplate.queryForList(SEARCH, Long.class, textSearchConfig, query, userId, size, (long) page * size);
+        return new RecommendationSearchHits(recommendationIds, totalHits);
+    }
+}
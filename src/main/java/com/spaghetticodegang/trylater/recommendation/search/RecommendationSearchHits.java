@@ -0,0 +1,12 @@
+package com.spaghetticodegang.trylater.recommendation.search;
+
+import java.util.List;
+
+/**
+ * One page of search hits, ordered by descending relevance.
+ *
+ * @param recommendationIds the IDs of the matching recommendations on the requested page
+ * @param totalHits         the total number of matching recommendations
+ */
+public record RecommendationSearchHits(List<Long> recommendationIds, long totalHits) {
+}
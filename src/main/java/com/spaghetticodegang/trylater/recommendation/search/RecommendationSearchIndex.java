@@ -0,0 +1,46 @@
+package com.spaghetticodegang.trylater.recommendation.search;
+
+import com.spaghetticodegang.trylater.recommendation.Recommendation;
+
+import java.util.Collection;
+
+/**
+ * Full-text index over the title, description and tag names of recommendations.
+ * Implementations are selected by the active profile.
+ */
+public interface RecommendationSearchIndex {
+
+    /**
+     * Adds a recommendation to the index or replaces its previous entry.
+     *
+     * @param recommendation the saved recommendation including its tags
+     */
+    void index(Recommendation recommendation);
+
+    /**
+     * Adds several recommendations to the index, e.g. after a bulk import.
+     *
+     * @param recommendations the saved recommendations including their tags
+     */
+    default void indexAll(Collection<Recommendation> recommendations) {
+        recommendations.forEach(this::index);
+    }
+
+    /**
+     * Removes a recommendation from the index.
+     *
+     * @param recommendationId the ID of the deleted recommendation
+     */
+    void remove(Long recommendationId);
+
+    /**
+     * Searches the recommendations assigned to the given user.
+     *
+     * @param userId the ID of the user whose assignments are searched
+     * @param query  the search query
+     * @param page   the zero-based page number
+     * @param size   the page size
+     * @return the ranked hits of the requested page
+     */
+    RecommendationSearchHits search(Long userId, String query, int page, int size);
+}
@@ -2,6 +2,9 @@ package com.spaghetticodegang.trylater.recommendation.tag;
 
 import com.spaghetticodegang.trylater.recommendation.tag.group.TagGroup;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 /**
  * Repository interface for accessing and managing tag entities in the database.
@@ -16,4 +19,14 @@ public interface TagRepository extends JpaRepository<Tag, Long> {
      * @return {@code true} if a tag with the given tagName in a given tagGroup exists, {@code false} otherwise
      */
     boolean existsByTagNameAndTagGroup(String tagName, TagGroup tagGroup);
+
+    /**
+     * Finds all tags and fetches their tag groups and categories.
+     *
+     * @return a list of all {@link Tag} entities ordered by ID or an empty list
+     */
+    @Query("""
+            SELECT t FROM Tag t JOIN FETCH t.tagGroup tg JOIN FETCH tg.category ORDER BY t.id
+            """)
+    List<Tag> findAllWithTagGroupAndCategory();
 }
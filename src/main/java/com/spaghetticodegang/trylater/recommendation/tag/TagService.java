@@ -12,6 +12,7 @@ import com.spaghetticodegang.trylater.shared.util.MessageUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -72,6 +73,9 @@ public class TagService {
      * @return a list of response DTOs representing the tag groups including tags
      */
     public List<TagGroupResponseDto> createTagGroupResponseDtoFromTags(List<Tag> tags) {
+        Map<String, Long> tagGroupIds = new HashMap<>();
+        tags.forEach(tag -> tagGroupIds.putIfAbsent(tag.getTagGroup().getTagGroupName(), tag.getTagGroup().getId()));
+
         Map<String, List<TagResponseDto>> groupedTags = tags.stream()
                 .collect(Collectors.groupingBy(
                         tag -> tag.getTagGroup().getTagGroupName(),
@@ -86,6 +90,7 @@ public class TagService {
 
         return groupedTags.entrySet().stream()
                 .map(entry -> TagGroupResponseDto.builder()
+                        .tagGroupId(tagGroupIds.get(entry.getKey()))
                         .tagGroupName(entry.getKey())
                         .tags(entry.getValue())
                         .build())
@@ -3,12 +3,14 @@ package com.spaghetticodegang.trylater.recommendation.tag.dto;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
+import lombok.extern.jackson.Jacksonized;
 
 import java.util.List;
 
 @Getter
 @Setter
 @Builder
+@Jacksonized
 public class TagGroupResponseDto {
 
     private Long tagGroupId;
@@ -3,10 +3,12 @@ package com.spaghetticodegang.trylater.recommendation.tag.dto;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
+import lombok.extern.jackson.Jacksonized;
 
 @Getter
 @Setter
 @Builder
+@Jacksonized
 public class TagResponseDto {
 
     private Long id;
@@ -1,6 +1,7 @@
 package com.spaghetticodegang.trylater.security;
 
 import com.spaghetticodegang.trylater.auth.AuthCookieService;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -77,6 +78,8 @@ public class SecurityConfig {
 
                     // Authorization rules
                     .authorizeHttpRequests(auth -> auth
+                            // Async dispatches of already authorized streams (e.g. server-sent events)
+                            .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                             .requestMatchers(HttpMethod.GET,
                                     "/",
                                     "/index.html",
@@ -93,6 +96,12 @@ public class SecurityConfig {
                             .requestMatchers(HttpMethod.POST, "/api/user").permitAll()
                             .requestMatchers(HttpMethod.POST, "/api/auth/login").permitAll()
                             .requestMatchers("/h2-console/**").permitAll()
+                            // Operational statistics
+                            .requestMatchers(HttpMethod.GET,
+                                    "/api/recommendation/fragment-cache",
+                                    "/api/image/serving-stats",
+                                    "/api/image/garbage-collection")
+                            .hasRole("ADMIN")
                             .anyRequest().authenticated()
                     )
 
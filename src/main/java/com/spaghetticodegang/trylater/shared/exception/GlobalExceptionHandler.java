@@ -118,6 +118,19 @@ public class GlobalExceptionHandler {
         ));
     }
 
+    /**
+     * Handles requests for non-existent images.
+     *
+     * @param ex the exception thrown when the image is not found
+     * @return a 404 Not Found response with a user-friendly error message
+     */
+    @ExceptionHandler(ImageNotFoundException.class)
+    public ResponseEntity<Object> handleImageNotFound(ImageNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                "message", messageUtil.get(ex.getMessage())
+        ));
+    }
+
     /**
      * Handles authentication failures caused by incorrect password.
      *
@@ -0,0 +1,14 @@
+package com.spaghetticodegang.trylater.shared.exception;
+
+/**
+ * Thrown when an image with the specified path is not found.
+ */
+public class ImageNotFoundException extends RuntimeException {
+
+    /**
+     * Constructs a new {@code ImageNotFoundException} with the given message key.
+     */
+    public ImageNotFoundException(String msg) {
+        super(msg);
+    }
+}
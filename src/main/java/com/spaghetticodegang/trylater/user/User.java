@@ -2,7 +2,9 @@ package com.spaghetticodegang.trylater.user;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.time.LocalDateTime;
@@ -40,15 +42,28 @@ public class User implements UserDetails {
 
     private String imgPath;
 
+    /**
+     * The placeholder of the profile image, copied from the image when it is set.
+     */
+    private String imgBlurHash;
+
     @Column(nullable = false)
     private LocalDateTime registrationDate;
 
     /**
-     * Returns an empty list of authorities. This application does not use roles yet.
+     * Whether the user may access the operational endpoints, e.g. cache and image statistics.
+     * There is no endpoint to grant it; it is set directly in the database.
+     */
+    @ColumnDefault("false")
+    @Column(nullable = false)
+    private boolean admin;
+
+    /**
+     * Returns the role {@code ADMIN} for administrators and no authorities for all other users.
      */
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return List.of();
+        return admin ? List.of(new SimpleGrantedAuthority("ROLE_ADMIN")) : List.of();
     }
 
     @Override public boolean isAccountNonExpired() { return true; }
@@ -1,12 +1,18 @@
 package com.spaghetticodegang.trylater.user;
 
 import com.spaghetticodegang.trylater.user.dto.*;
+import com.spaghetticodegang.trylater.user.export.UserExportFormat;
+import com.spaghetticodegang.trylater.user.export.UserExportService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * REST controller providing endpoints for user management.
@@ -17,6 +23,7 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
 
     private final UserService userService;
+    private final UserExportService userExportService;
 
     /**
      * Returns the public profile information of the currently authenticated user.
@@ -67,6 +74,26 @@ public class UserController {
         return ResponseEntity.ok(userMeResponseDto);
     }
 
+    /**
+     * Streams an export of all data of the currently authenticated user by delegating to the service layer.
+     *
+     * @param me     the currently authenticated user (injected by Spring Security)
+     * @param format the export format, {@code ndjson} (default) or {@code csv}
+     * @param gzip   whether the export is gzip-compressed
+     * @return the export as file download
+     */
+    @GetMapping("/me/export")
+    public ResponseEntity<StreamingResponseBody> exportUser(@AuthenticationPrincipal User me, @RequestParam(name = "format", required = false) String format, @RequestParam(name = "gzip", defaultValue = "false") boolean gzip) {
+        final UserExportFormat exportFormat = userExportService.getFormat(format);
+        final Long userId = me.getId();
+        final String fileName = "trylater-export." + exportFormat.getFileExtension() + (gzip ? ".gz" : "");
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(outputStream -> userExportService.export(userId, exportFormat, gzip, outputStream));
+    }
+
     @DeleteMapping("/me")
     public ResponseEntity<Void> deleteUser(@AuthenticationPrincipal User me, @RequestBody @Valid UserMeDeleteDto userMeDeleteDto) {
         userService.deleteUserProfile(me, userMeDeleteDto);
@@ -1,7 +1,11 @@
 package com.spaghetticodegang.trylater.user;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -33,4 +37,27 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return {@code true} if a user with the given username exists, {@code false} otherwise
      */
     boolean existsByUserName(String userName);
+
+    /**
+     * Returns the distinct image paths used by users following the given path in ascending order.
+     *
+     * @param lastImgPath the last path already processed
+     * @param limit       the maximum number of paths to return
+     * @return a list of image paths or an empty list
+     */
+    @Query("""
+                SELECT DISTINCT u.imgPath FROM User u WHERE u.imgPath > :lastImgPath ORDER BY u.imgPath
+            """)
+    List<String> findImgPathsAfter(String lastImgPath, Limit limit);
+
+    /**
+     * Returns those of the given image paths that are used by users.
+     *
+     * @param imgPaths the image paths to check
+     * @return the used image paths
+     */
+    @Query("""
+                SELECT DISTINCT u.imgPath FROM User u WHERE u.imgPath IN :imgPaths
+            """)
+    List<String> findImgPathsIn(Collection<String> imgPaths);
 }
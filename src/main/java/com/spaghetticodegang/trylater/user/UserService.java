@@ -2,13 +2,21 @@ package com.spaghetticodegang.trylater.user;
 
 import com.spaghetticodegang.trylater.contact.ContactRepository;
 import com.spaghetticodegang.trylater.image.ImageService;
+import com.spaghetticodegang.trylater.recommendation.Recommendation;
 import com.spaghetticodegang.trylater.recommendation.RecommendationRepository;
-import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignment;
 import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentRepository;
+import com.spaghetticodegang.trylater.recommendation.assignment.change.RecommendationAssignmentChange;
+import com.spaghetticodegang.trylater.recommendation.assignment.change.RecommendationAssignmentChangeRepository;
+import com.spaghetticodegang.trylater.recommendation.assignment.change.RecommendationAssignmentChangeType;
+import com.spaghetticodegang.trylater.recommendation.facet.RecommendationFacetService;
+import com.spaghetticodegang.trylater.recommendation.fragment.RecommendationFragmentCache;
+import com.spaghetticodegang.trylater.recommendation.inbox.InboxService;
+import com.spaghetticodegang.trylater.recommendation.search.RecommendationSearchIndex;
 import com.spaghetticodegang.trylater.shared.exception.PasswordErrorException;
 import com.spaghetticodegang.trylater.shared.exception.ValidationException;
 import com.spaghetticodegang.trylater.shared.util.MessageUtil;
 import com.spaghetticodegang.trylater.user.dto.*;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -35,6 +43,11 @@ public class UserService implements UserDetailsService {
     private final ContactRepository contactRepository;
     private final RecommendationAssignmentRepository recommendationAssignmentRepository;
     private final RecommendationRepository recommendationRepository;
+    private final RecommendationFacetService recommendationFacetService;
+    private final RecommendationSearchIndex recommendationSearchIndex;
+    private final RecommendationAssignmentChangeRepository recommendationAssignmentChangeRepository;
+    private final RecommendationFragmentCache recommendationFragmentCache;
+    private final InboxService inboxService;
 
     /**
      * Loads a user by username or email for authentication.
@@ -75,6 +88,7 @@ public class UserService implements UserDetailsService {
                 .userName(user.getUserName())
                 .displayName(user.getDisplayName())
                 .imgPath(user.getImgPath())
+                .imgBlurHash(user.getImgBlurHash())
                 .build();
     }
 
@@ -92,6 +106,7 @@ public class UserService implements UserDetailsService {
                 .userName(user.getUserName())
                 .displayName(user.getDisplayName())
                 .imgPath(user.getImgPath())
+                .imgBlurHash(user.getImgBlurHash())
                 .email(user.getEmail())
                 .build();
     }
@@ -155,6 +170,7 @@ public class UserService implements UserDetailsService {
      * @throws PasswordErrorException if password input for authentication is incorrect
      * @throws ValidationException    if username or email already exists
      */
+    @Transactional
     public UserMeResponseDto updateUserProfile(User me, UserMeUpdateDto userMeUpdateDto) {
         final Map<String, String> errors = new HashMap<>();
 
@@ -201,47 +217,74 @@ public class UserService implements UserDetailsService {
 
         if (userMeUpdateDto.getImgPath() != null) {
             String currentImagePath = findUserById(me.getId()).getImgPath();
+            imageService.addImageReference(userMeUpdateDto.getImgPath());
             if (currentImagePath != null) {
-                imageService.deleteImageByImgPath(currentImagePath);
+                imageService.releaseImageReference(currentImagePath);
             }
             me.setImgPath(userMeUpdateDto.getImgPath());
+            me.setImgBlurHash(imageService.getBlurHash(userMeUpdateDto.getImgPath()));
         }
 
         userRepository.save(me);
+        inboxService.updateCreator(me);
 
         return createUserMeResponseDto(me);
     }
 
     /**
      * Deletes a user profile and manages the handling for deleting the contacts and assignments for that user.
-     * Additional handles the deleting of not assigned recommendations
+     * Additional handles the deleting of the recommendations that were only assigned to that user:
+     * they are locked while their images, search entries and cached fragments are released, so exactly these are deleted.
+     * Finally notifies the receivers of the user's recommendations about the removed creator via the delta sync.
      *
      * @param me              user that should delete
      * @param userMeDeleteDto the dto for the request
      */
+    @Transactional
     public void deleteUserProfile(User me, UserMeDeleteDto userMeDeleteDto) {
         if (!passwordEncoder.matches(userMeDeleteDto.getPassword(), me.getPassword())) {
             throw new PasswordErrorException("auth.invalid.password");
         }
         if (me.getImgPath() != null) {
-            imageService.deleteImageByImgPath(me.getImgPath());
+            imageService.releaseImageReference(me.getImgPath());
         }
 
         contactRepository.deleteContactsByUserId(me.getId());
-        final List<RecommendationAssignment> allAssignments = recommendationAssignmentRepository.findAllRecommendationAssignmentByUserId(me.getId());
 
+        final List<Long> assignedRecommendationIds = recommendationAssignmentRepository.findRecommendationIdsByUserId(me.getId());
+        recommendationRepository.decrementReceiverCountsByReceiverId(me.getId());
         recommendationAssignmentRepository.deleteRecommendationAssignmentsByUserId(me.getId());
-        allAssignments.forEach(assignment -> {
-            Long recommendationId = assignment.getRecommendation().getId();
-            if (!recommendationAssignmentRepository.existsRecommendationAssignmentByRecommendationId(recommendationId)) {
-                if (assignment.getRecommendation().getImgPath() != null) {
-                    imageService.deleteImageByImgPath(assignment.getRecommendation().getImgPath());
+        inboxService.removeEntriesByReceiverId(me.getId());
+
+        final List<Recommendation> orphans = assignedRecommendationIds.isEmpty()
+                ? List.of()
+                : recommendationRepository.findOrphansByIdIn(assignedRecommendationIds);
+        if (!orphans.isEmpty()) {
+            orphans.forEach(recommendation -> {
+                if (recommendation.getImgPath() != null) {
+                    imageService.releaseImageReference(recommendation.getImgPath());
                 }
-                recommendationRepository.deleteById(recommendationId);
-            }
-        });
+                recommendationSearchIndex.remove(recommendation.getId());
+                recommendationFragmentCache.evict(recommendation.getId());
+            });
+            recommendationRepository.deleteOrphansByIdIn(orphans.stream().map(Recommendation::getId).toList());
+        }
+
+        final LocalDateTime now = LocalDateTime.now();
+        final List<RecommendationAssignmentChange> creatorChanges = recommendationAssignmentRepository.findAllReceivedFromCreatorId(me.getId()).stream()
+                .map(assignment -> RecommendationAssignmentChange.builder()
+                        .receiverId(assignment.getReceiver().getId())
+                        .recommendationId(assignment.getRecommendation().getId())
+                        .changeType(RecommendationAssignmentChangeType.UPDATED)
+                        .changedAt(now)
+                        .build())
+                .toList();
 
         recommendationRepository.updateCreatorToNull(me.getId());
+        inboxService.clearCreator(me.getId());
+        recommendationAssignmentChangeRepository.saveAll(creatorChanges);
+        recommendationAssignmentChangeRepository.deleteChangesByReceiverId(me.getId());
+        recommendationFacetService.evict(me.getId());
         userRepository.delete(me);
     }
 }
@@ -14,5 +14,6 @@ public class UserMeResponseDto {
     private String displayName;
     private String email;
     private String imgPath;
+    private String imgBlurHash;
 
 }
\ No newline at end of file
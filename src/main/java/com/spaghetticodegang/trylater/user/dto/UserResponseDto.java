@@ -13,5 +13,6 @@ public class UserResponseDto {
     private String userName;
     private String displayName;
     private String imgPath;
+    private String imgBlurHash;
 
 }
@@ -0,0 +1,62 @@
+package com.spaghetticodegang.trylater.user.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes a user data export as CSV. Every section starts with its own header row,
+ * and the first column of every row contains the record type.
+ */
+class CsvUserExportWriter implements UserExportWriter {
+
+    private final Writer writer;
+
+    CsvUserExportWriter(OutputStream outputStream) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void startSection(String type, List<String> columns) throws IOException {
+        writer.write("type");
+        for (String column : columns) {
+            writer.write(',');
+            writer.write(escape(column));
+        }
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void writeRow(String type, List<String> columns, Object[] values) throws IOException {
+        writer.write(escape(type));
+        for (Object value : values) {
+            writer.write(',');
+            if (value != null) {
+                writer.write(escape(UserExportService.format(value)));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writer.flush();
+    }
+
+    /**
+     * Quotes a CSV field if it contains a separator, a quote or a line break.
+     *
+     * @param value the field value
+     * @return the escaped field
+     */
+    private String escape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,60 @@
+package com.spaghetticodegang.trylater.user.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Writes a user data export as newline-delimited JSON, one object per row with its record type.
+ */
+class NdjsonUserExportWriter implements UserExportWriter {
+
+    private final JsonGenerator generator;
+
+    NdjsonUserExportWriter(ObjectMapper objectMapper, OutputStream outputStream) throws IOException {
+        this.generator = objectMapper.getFactory().createGenerator(outputStream)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .setPrettyPrinter(new MinimalPrettyPrinter(""));
+    }
+
+    @Override
+    public void startSection(String type, List<String> columns) {
+    }
+
+    @Override
+    public void writeRow(String type, List<String> columns, Object[] values) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("type", type);
+        for (int i = 0; i < columns.size(); i++) {
+            generator.writeFieldName(columns.get(i));
+            writeValue(values[i]);
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void finish() throws IOException {
+        generator.flush();
+    }
+
+    /**
+     * Writes a column value as JSON number, boolean, string or null.
+     *
+     * @param value the column value
+     * @throws IOException if writing fails
+     */
+    private void writeValue(Object value) throws IOException {
+        switch (value) {
+            case null -> generator.writeNull();
+            case Long number -> generator.writeNumber(number);
+            case Integer number -> generator.writeNumber(number);
+            case Boolean bool -> generator.writeBoolean(bool);
+            default -> generator.writeString(UserExportService.format(value));
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.spaghetticodegang.trylater.user.export;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Enum representing the file formats of a user data export.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum UserExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String fileExtension;
+}
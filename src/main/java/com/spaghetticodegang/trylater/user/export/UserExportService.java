@@ -0,0 +1,192 @@
+package com.spaghetticodegang.trylater.user.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spaghetticodegang.trylater.shared.exception.ValidationException;
+import com.spaghetticodegang.trylater.shared.util.MessageUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Service class for exporting all data of a user for account portability.
+ * The rows are read with JDBC cursors and written to the output stream one by one,
+ * so neither the rows nor any entities are kept in memory and the memory usage does not depend on the account size.
+ */
+@Service
+public class UserExportService {
+
+    private static final List<Section> SECTIONS = List.of(
+            new Section("profile", """
+                    SELECT u.id, u.user_name, u.display_name, u.email, u.img_path, u.registration_date
+                    FROM users u
+                    WHERE u.id = :userId
+                    """),
+            new Section("contact", """
+                    SELECT c.id, u.id AS contact_user_id, u.user_name AS contact_user_name, u.display_name AS contact_display_name,
+                           CASE WHEN c.requester_id = :userId THEN 'OUTGOING' ELSE 'INCOMING' END AS direction,
+                           c.contact_status, c.request_date, c.accept_date
+                    FROM contacts c
+                    JOIN users u ON u.id = CASE WHEN c.requester_id = :userId THEN c.receiver_id ELSE c.requester_id END
+                    WHERE c.requester_id = :userId OR c.receiver_id = :userId
+                    ORDER BY c.id
+                    """),
+            new Section("recommendation", """
+                    SELECT r.id, r.title, r.description, r.url, r.img_path, r.rating, c.category_type, r.creation_date
+                    FROM recommendations r
+                    JOIN categories c ON c.id = r.category_id
+                    WHERE r.creator_id = :userId
+                    ORDER BY r.id
+                    """),
+            new Section("recommendation_tag", """
+                    SELECT rt.recommendation_id, tg.tag_group_name, t.tag_name
+                    FROM recommendation_tags rt
+                    JOIN recommendations r ON r.id = rt.recommendation_id
+                    JOIN tags t ON t.id = rt.tag_id
+                    JOIN tag_groups tg ON tg.id = t.tag_group_id
+                    WHERE r.creator_id = :userId
+                    ORDER BY rt.recommendation_id, t.id
+                    """),
+            new Section("assignment", """
+                    SELECT a.recommendation_id, r.title, u.user_name AS creator_user_name,
+                           a.recommendation_assignment_status, a.sent_at, a.accepted_at
+                    FROM recommendation_assignments a
+                    JOIN recommendations r ON r.id = a.recommendation_id
+                    LEFT JOIN users u ON u.id = r.creator_id
+                    WHERE a.receiver_id = :userId
+                    ORDER BY a.id
+                    """)
+    );
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MessageUtil messageUtil;
+
+    public UserExportService(DataSource dataSource,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             MessageUtil messageUtil,
+                             @Value("${user.export.fetch-size}") int fetchSize) {
+        final JdbcTemplate cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        cursorJdbcTemplate.setFetchSize(fetchSize);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(cursorJdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.messageUtil = messageUtil;
+    }
+
+    /**
+     * Resolves the requested export format.
+     *
+     * @param format the format name, {@code null} for NDJSON
+     * @return the export format
+     * @throws ValidationException if the format is unknown
+     */
+    public UserExportFormat getFormat(String format) {
+        if (format == null) {
+            return UserExportFormat.NDJSON;
+        }
+        try {
+            return UserExportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(Map.of("format", messageUtil.get("user.export.format.invalid")));
+        }
+    }
+
+    /**
+     * Writes the profile, contacts, created recommendations with their tags and received assignments of a user.
+     * All sections are read in a single read-only transaction, so the export is a consistent snapshot.
+     *
+     * @param userId       the ID of the user
+     * @param format       the export format
+     * @param gzip         whether the export is gzip-compressed
+     * @param outputStream the stream to write to, it is not closed
+     * @throws IOException if writing fails
+     */
+    public void export(Long userId, UserExportFormat format, boolean gzip, OutputStream outputStream) throws IOException {
+        final GZIPOutputStream gzipOutputStream = gzip ? new GZIPOutputStream(outputStream, 8192) : null;
+        final OutputStream target = gzip ? gzipOutputStream : outputStream;
+        final UserExportWriter writer = format == UserExportFormat.CSV
+                ? new CsvUserExportWriter(target)
+                : new NdjsonUserExportWriter(objectMapper, target);
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> SECTIONS.forEach(section -> writeSection(userId, section, writer)));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.finish();
+        if (gzipOutputStream != null) {
+            gzipOutputStream.finish();
+        }
+    }
+
+    /**
+     * Streams the rows of a section from a JDBC cursor into the writer.
+     *
+     * @param userId  the ID of the user
+     * @param section the section to write
+     * @param writer  the export writer
+     */
+    private void writeSection(Long userId, Section section, UserExportWriter writer) {
+        jdbcTemplate.query(section.query(), Map.of("userId", userId), resultSet -> {
+            final int columnCount = resultSet.getMetaData().getColumnCount();
+            final List<String> columns = new ArrayList<>(columnCount);
+            for (int i = 1; i <= columnCount; i++) {
+                columns.add(resultSet.getMetaData().getColumnLabel(i).toLowerCase(Locale.ROOT));
+            }
+
+            try {
+                writer.startSection(section.type(), columns);
+                final Object[] values = new Object[columnCount];
+                while (resultSet.next()) {
+                    for (int i = 0; i < columnCount; i++) {
+                        values[i] = resultSet.getObject(i + 1);
+                    }
+                    writer.writeRow(section.type(), columns, values);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Formats a column value that is not written as a JSON number or boolean.
+     *
+     * @param value the column value
+     * @return the value as text, dates in ISO-8601 format
+     */
+    static String format(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toString();
+        }
+        return value.toString();
+    }
+
+    /**
+     * A section of the export.
+     *
+     * @param type  the record type of the rows
+     * @param query the query selecting the rows of the user, with {@code :userId} as parameter
+     */
+    private record Section(String type, String query) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.spaghetticodegang.trylater.user.export;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes the rows of a user data export one by one without buffering them.
+ */
+interface UserExportWriter {
+
+    /**
+     * Starts a new section of rows of the same type.
+     *
+     * @param type    the record type of the section
+     * @param columns the column names of the section
+     * @throws IOException if writing fails
+     */
+    void startSection(String type, List<String> columns) throws IOException;
+
+    /**
+     * Writes a single row of the current section.
+     *
+     * @param type    the record type of the section
+     * @param columns the column names of the section
+     * @param values  the values in column order
+     * @throws IOException if writing fails
+     */
+    void writeRow(String type, List<String> columns, Object[] values) throws IOException;
+
+    /**
+     * Flushes all buffered output without closing the underlying stream.
+     *
+     * @throws IOException if writing fails
+     */
+    void finish() throws IOException;
+}
@@ -9,6 +9,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 
 import java.time.LocalDateTime;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -146,5 +147,47 @@ class ContactRepositoryTest {
         assertThat(result.getFirst().getBlockedBy()).isEqualTo(requester);
     }
 
+    @Test
+    void shouldAcceptContact_onlyForReceiverAndAllowedStatus() {
+        Contact contact = contactRepository.save(Contact.builder()
+                .requester(requester)
+                .receiver(receiver)
+                .contactStatus(ContactStatus.PENDING)
+                .requestDate(LocalDateTime.now())
+                .build());
 
+        assertThat(contactRepository.acceptContact(contact.getId(), requester.getId(), LocalDateTime.now(), Set.of(ContactStatus.PENDING))).isZero();
+        assertThat(contactRepository.acceptContact(contact.getId(), receiver.getId(), LocalDateTime.now(), Set.of(ContactStatus.PENDING))).isEqualTo(1);
+        assertThat(contactRepository.acceptContact(contact.getId(), receiver.getId(), LocalDateTime.now(), Set.of(ContactStatus.PENDING))).isZero();
+
+        Contact updated = contactRepository.findWithUsersById(contact.getId()).orElseThrow();
+        assertThat(updated.getContactStatus()).isEqualTo(ContactStatus.ACCEPTED);
+        assertThat(updated.getAcceptDate()).isNotNull();
+    }
+
+    @Test
+    void shouldBlockContact_onlyOnceAndOnlyByParticipant() {
+        User stranger = userRepository.save(User.builder()
+                .userName("stranger")
+                .displayName("Stranger")
+                .email("stranger@example.com")
+                .password("secure123")
+                .registrationDate(LocalDateTime.now())
+                .build());
+        Contact contact = contactRepository.save(Contact.builder()
+                .requester(requester)
+                .receiver(receiver)
+                .contactStatus(ContactStatus.ACCEPTED)
+                .requestDate(LocalDateTime.now())
+                .build());
+        Set<ContactStatus> allowedFrom = Set.of(ContactStatus.PENDING, ContactStatus.ACCEPTED);
+
+        assertThat(contactRepository.blockContact(contact.getId(), stranger, allowedFrom)).isZero();
+        assertThat(contactRepository.blockContact(contact.getId(), requester, allowedFrom)).isEqualTo(1);
+        assertThat(contactRepository.blockContact(contact.getId(), receiver, allowedFrom)).isZero();
+
+        Contact updated = contactRepository.findById(contact.getId()).orElseThrow();
+        assertThat(updated.getContactStatus()).isEqualTo(ContactStatus.BLOCKED);
+        assertThat(updated.getBlockedBy().getId()).isEqualTo(requester.getId());
+    }
 }
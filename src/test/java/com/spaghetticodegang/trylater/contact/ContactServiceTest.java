@@ -5,6 +5,7 @@ import com.spaghetticodegang.trylater.contact.dto.ContactResponseDto;
 import com.spaghetticodegang.trylater.contact.dto.ContactStatusRequestDto;
 import com.spaghetticodegang.trylater.contact.enums.ContactRole;
 import com.spaghetticodegang.trylater.contact.enums.ContactStatus;
+import com.spaghetticodegang.trylater.notification.event.ContactRequestedEvent;
 import com.spaghetticodegang.trylater.shared.exception.ValidationException;
 import com.spaghetticodegang.trylater.shared.util.MessageUtil;
 import com.spaghetticodegang.trylater.user.User;
@@ -15,10 +16,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -36,6 +39,9 @@ class ContactServiceTest {
     @Mock
     private MessageUtil messageUtil;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ContactService contactService;
 
@@ -126,6 +132,7 @@ class ContactServiceTest {
         assertNotNull(result);
         assertEquals(contactPartnerDto, result.getContactPartner());
         assertEquals(ContactStatus.PENDING, result.getContactStatus());
+        verify(eventPublisher).publishEvent(any(ContactRequestedEvent.class));
     }
 
     @Test
@@ -133,11 +140,12 @@ class ContactServiceTest {
         User requester = createUser(1L);
         User receiver = createUser(2L);
         Contact contact = createContact(requester, receiver);
+        contact.setContactStatus(ContactStatus.ACCEPTED);
         ContactStatusRequestDto requestDto = createContactStatusRequest(ContactStatus.ACCEPTED);
         UserResponseDto contactPartnerDto = createUserResponse(requester);
 
-        when(contactRepository.findById(99L)).thenReturn(java.util.Optional.of(contact));
-        when(contactRepository.save(any(Contact.class))).thenReturn(contact);
+        when(contactRepository.acceptContact(eq(99L), eq(2L), any(LocalDateTime.class), eq(Set.of(ContactStatus.PENDING)))).thenReturn(1);
+        when(contactRepository.findWithUsersById(99L)).thenReturn(Optional.of(contact));
         when(userService.createUserResponseDto(requester)).thenReturn(contactPartnerDto);
 
         ContactResponseDto result = contactService.updateContactStatus(receiver, 99L, requestDto);
@@ -146,9 +154,74 @@ class ContactServiceTest {
         assertEquals(ContactStatus.ACCEPTED, result.getContactStatus());
         assertEquals(99L, result.getContactId());
         assertEquals(contactPartnerDto, result.getContactPartner());
-        assertNotNull(contact.getAcceptDate());
+        verify(contactRepository, never()).findById(any());
+    }
+
+    @Test
+    void shouldThrowValidationException_whenRequesterAcceptsOwnRequest() {
+        User requester = createUser(1L);
+        User receiver = createUser(2L);
+        Contact contact = createContact(requester, receiver);
+
+        when(contactRepository.acceptContact(eq(99L), eq(1L), any(LocalDateTime.class), any())).thenReturn(0);
+        when(contactRepository.findById(99L)).thenReturn(Optional.of(contact));
+        when(messageUtil.get("contact.error.self.update.status")).thenReturn("Du darfst den Status deiner eigenen Kontaktanfrage nicht ändern.");
+
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> contactService.updateContactStatus(requester, 99L, createContactStatusRequest(ContactStatus.ACCEPTED)));
+
+        assertEquals("Du darfst den Status deiner eigenen Kontaktanfrage nicht ändern.", exception.getErrors().get("contactStatus"));
     }
 
+    @Test
+    void shouldBlockContact_whenUserIsPartOfContact() {
+        User requester = createUser(1L);
+        User receiver = createUser(2L);
+        Contact contact = createContact(requester, receiver);
+        contact.setContactStatus(ContactStatus.BLOCKED);
+        contact.setBlockedBy(requester);
+
+        when(contactRepository.blockContact(99L, requester, Set.of(ContactStatus.PENDING, ContactStatus.ACCEPTED))).thenReturn(1);
+        when(contactRepository.findWithUsersById(99L)).thenReturn(Optional.of(contact));
+
+        ContactResponseDto result = contactService.updateContactStatus(requester, 99L, createContactStatusRequest(ContactStatus.BLOCKED));
+
+        assertEquals(ContactStatus.BLOCKED, result.getContactStatus());
+    }
+
+    @Test
+    void shouldReturnContact_whenContactIsAlreadyBlockedBySameUser() {
+        User requester = createUser(1L);
+        User receiver = createUser(2L);
+        Contact contact = createContact(requester, receiver);
+        contact.setContactStatus(ContactStatus.BLOCKED);
+        contact.setBlockedBy(receiver);
+
+        when(contactRepository.blockContact(eq(99L), eq(receiver), any())).thenReturn(0);
+        when(contactRepository.findById(99L)).thenReturn(Optional.of(contact));
+        when(contactRepository.findWithUsersById(99L)).thenReturn(Optional.of(contact));
+
+        ContactResponseDto result = contactService.updateContactStatus(receiver, 99L, createContactStatusRequest(ContactStatus.BLOCKED));
+
+        assertEquals(ContactStatus.BLOCKED, result.getContactStatus());
+    }
+
+    @Test
+    void shouldThrowValidationException_whenAcceptingContactBlockedByPartner() {
+        User requester = createUser(1L);
+        User receiver = createUser(2L);
+        Contact contact = createContact(requester, receiver);
+        contact.setContactStatus(ContactStatus.BLOCKED);
+        contact.setBlockedBy(requester);
+
+        when(contactRepository.acceptContact(eq(99L), eq(2L), any(LocalDateTime.class), any())).thenReturn(0);
+        when(contactRepository.findById(99L)).thenReturn(Optional.of(contact));
+        when(messageUtil.get("contact.error.status.transition.invalid")).thenReturn("Diese Statusänderung ist für den Kontakt nicht zulässig.");
+
+        assertThrows(ValidationException.class,
+                () -> contactService.updateContactStatus(receiver, 99L, createContactStatusRequest(ContactStatus.ACCEPTED)));
+        verify(contactRepository, never()).findWithUsersById(any());
+    }
 
     @Test
     void shouldCreateContactResponseDtoWithCorrectPartner() {
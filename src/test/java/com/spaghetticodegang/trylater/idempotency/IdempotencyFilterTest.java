@@ -0,0 +1,197 @@
+package com.spaghetticodegang.trylater.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spaghetticodegang.trylater.shared.util.MessageUtil;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyFilterTest {
+
+    @Mock
+    private MessageUtil messageUtil;
+
+    private IdempotencyFilter filter;
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        filter = createFilter(100);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("tester", null, List.of()));
+        lenient().when(messageUtil.get("idempotency.key.reused")).thenReturn("reused");
+        lenient().when(messageUtil.get("idempotency.key.invalid")).thenReturn("invalid");
+        lenient().when(messageUtil.get("idempotency.store.full")).thenReturn("full");
+    }
+
+    private IdempotencyFilter createFilter(int maxEntries) {
+        return new IdempotencyFilter(List.of("/api/recommendation", "/api/image"), Duration.ofHours(1), maxEntries, 50,
+                Duration.ofSeconds(5), Duration.ofSeconds(60), new ObjectMapper(), messageUtil);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private MockHttpServletRequest createRequest(String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/recommendation");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key);
+        }
+        return request;
+    }
+
+    private FilterChain creatingChain(int status) {
+        return (request, response) -> {
+            String body = new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            HttpServletResponse httpResponse = (HttpServletResponse) response;
+            httpResponse.setStatus(status);
+            httpResponse.setContentType("application/json");
+            httpResponse.setHeader("Location", "/api/recommendation/" + executions.incrementAndGet());
+            httpResponse.getWriter().write("{\"echo\":" + body + "}");
+        };
+    }
+
+    @Test
+    void shouldReplayStoredResponse_whenRetriedWithSameKey() throws Exception {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        MockHttpServletResponse retry = new MockHttpServletResponse();
+
+        filter.doFilter(createRequest("key-1", "{\"title\":\"a\"}"), first, creatingChain(201));
+        filter.doFilter(createRequest("key-1", "{\"title\":\"a\"}"), retry, creatingChain(201));
+
+        assertEquals(1, executions.get());
+        assertEquals(201, retry.getStatus());
+        assertEquals("/api/recommendation/1", retry.getHeader("Location"));
+        assertEquals("true", retry.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED_HEADER));
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("{\"echo\":{\"title\":\"a\"}}", retry.getContentAsString());
+    }
+
+    @Test
+    void shouldExecuteEveryRequest_withoutKey() throws Exception {
+        filter.doFilter(createRequest(null, "{}"), new MockHttpServletResponse(), creatingChain(201));
+        filter.doFilter(createRequest(null, "{}"), new MockHttpServletResponse(), creatingChain(201));
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void shouldReturn422_whenKeyIsReusedForDifferentRequest() throws Exception {
+        MockHttpServletResponse retry = new MockHttpServletResponse();
+
+        filter.doFilter(createRequest("key-1", "{\"title\":\"a\"}"), new MockHttpServletResponse(), creatingChain(201));
+        filter.doFilter(createRequest("key-1", "{\"title\":\"b\"}"), retry, creatingChain(201));
+
+        assertEquals(1, executions.get());
+        assertEquals(422, retry.getStatus());
+        assertTrue(retry.getContentAsString().contains("reused"));
+    }
+
+    @Test
+    void shouldReturn400_whenKeyIsBlank() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(createRequest(" ", "{}"), response, creatingChain(201));
+
+        assertEquals(0, executions.get());
+        assertEquals(400, response.getStatus());
+    }
+
+    @Test
+    void shouldReturn503WithRetryAfter_whenStoreIsFull() throws Exception {
+        IdempotencyFilter limited = createFilter(2);
+        limited.doFilter(createRequest("key-1", "{}"), new MockHttpServletResponse(), creatingChain(201));
+        limited.doFilter(createRequest("key-2", "{}"), new MockHttpServletResponse(), creatingChain(201));
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        MockHttpServletResponse retry = new MockHttpServletResponse();
+
+        limited.doFilter(createRequest("key-3", "{}"), rejected, creatingChain(201));
+        limited.doFilter(createRequest("key-1", "{}"), retry, creatingChain(201));
+
+        assertEquals(2, executions.get());
+        assertEquals(503, rejected.getStatus());
+        assertEquals("60", rejected.getHeader("Retry-After"));
+        assertTrue(rejected.getContentAsString().contains("full"));
+        assertEquals("true", retry.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED_HEADER));
+    }
+
+    @Test
+    void shouldExecuteAgain_whenFirstRequestFailedWithServerError() throws Exception {
+        MockHttpServletResponse retry = new MockHttpServletResponse();
+
+        filter.doFilter(createRequest("key-1", "{}"), new MockHttpServletResponse(), creatingChain(500));
+        filter.doFilter(createRequest("key-1", "{}"), retry, creatingChain(201));
+
+        assertEquals(2, executions.get());
+        assertEquals(201, retry.getStatus());
+        assertNull(retry.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED_HEADER));
+    }
+
+    @Test
+    void shouldExecuteOnce_whenDuplicatesArriveConcurrently() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain blockingChain = (request, response) -> {
+            started.countDown();
+            try {
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            creatingChain(201).doFilter(request, response);
+        };
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        MockHttpServletResponse duplicate = new MockHttpServletResponse();
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        CompletableFuture<Void> firstRequest = CompletableFuture.runAsync(() -> {
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+            try {
+                filter.doFilter(createRequest("key-1", "{}"), first, blockingChain);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Void> duplicateRequest = CompletableFuture.runAsync(() -> {
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+            try {
+                filter.doFilter(createRequest("key-1", "{}"), duplicate, blockingChain);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        release.countDown();
+        CompletableFuture.allOf(firstRequest, duplicateRequest).get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, executions.get());
+        assertEquals(201, duplicate.getStatus());
+        assertEquals(first.getContentAsString(), duplicate.getContentAsString());
+    }
+}
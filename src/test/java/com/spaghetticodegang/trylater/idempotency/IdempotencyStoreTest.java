@@ -0,0 +1,114 @@
+package com.spaghetticodegang.trylater.idempotency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreTest {
+
+    private static final String USER = "tester";
+    private static final byte[] FINGERPRINT = {1, 2, 3};
+    private static final IdempotentResponse RESPONSE = new IdempotentResponse(201, "application/json", null, new byte[0]);
+
+    private final Instant start = Instant.parse("2025-01-01T00:00:00Z");
+    private MutableClock clock;
+    private IdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(start);
+        store = new IdempotencyStore(Duration.ofMinutes(1), 2, 2, clock);
+    }
+
+    @Test
+    void claim_firstCallerOwnsKey_laterCallersShareEntry() {
+        IdempotencyStore.Claim first = store.claim(USER, "key", FINGERPRINT);
+        IdempotencyStore.Claim second = store.claim(USER, "key", FINGERPRINT);
+
+        assertTrue(first.owner());
+        assertFalse(second.owner());
+        assertSame(first.entry(), second.entry());
+        assertTrue(second.entry().matches(FINGERPRINT));
+        assertFalse(second.entry().matches(new byte[]{4}));
+    }
+
+    @Test
+    void claim_afterTtl_keyCanBeClaimedAgain() {
+        store.complete(store.claim(USER, "key", FINGERPRINT).entry(), RESPONSE);
+
+        assertFalse(store.claim(USER, "key", FINGERPRINT).owner());
+
+        clock.instant = start.plus(Duration.ofMinutes(2));
+
+        assertTrue(store.claim(USER, "key", FINGERPRINT).owner());
+    }
+
+    @Test
+    void abandon_releasesKeyAndWaitingRequests() {
+        IdempotencyStore.Claim claim = store.claim(USER, "key", FINGERPRINT);
+
+        store.abandon("key", claim.entry());
+
+        assertNull(claim.entry().getResponse().join());
+        assertTrue(store.claim(USER, "key", FINGERPRINT).owner());
+    }
+
+    @Test
+    void claim_storeFull_purgesExpiredEntriesOrRefuses() {
+        store.complete(store.claim(USER, "first", FINGERPRINT).entry(), RESPONSE);
+        store.claim("other", "second", FINGERPRINT);
+
+        assertNull(store.claim(USER, "third", FINGERPRINT));
+        assertFalse(store.claim(USER, "first", FINGERPRINT).owner());
+
+        clock.instant = start.plus(Duration.ofMinutes(2));
+
+        assertTrue(store.claim(USER, "third", FINGERPRINT).owner());
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void claim_userLimitReached_refusesOnlyThatUser() {
+        IdempotencyStore shared = new IdempotencyStore(Duration.ofMinutes(1), 10, 2, clock);
+        shared.claim(USER, "first", FINGERPRINT);
+        IdempotencyStore.Claim second = shared.claim(USER, "second", FINGERPRINT);
+
+        assertNull(shared.claim(USER, "third", FINGERPRINT));
+        assertTrue(shared.claim("other", "other-key", FINGERPRINT).owner());
+
+        shared.abandon("second", second.entry());
+
+        assertTrue(shared.claim(USER, "third", FINGERPRINT).owner());
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
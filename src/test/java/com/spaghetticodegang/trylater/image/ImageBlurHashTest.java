@@ -0,0 +1,43 @@
+package com.spaghetticodegang.trylater.image;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageBlurHashTest {
+
+    private static BufferedImage filled(Color color) {
+        BufferedImage image = new BufferedImage(32, 24, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(color);
+        graphics.fillRect(0, 0, 32, 24);
+        graphics.dispose();
+        return image;
+    }
+
+    @Test
+    void encode_solidColor_encodesColorAsDcComponent() {
+        assertEquals("L00000fQfQfQfQfQfQfQfQfQfQfQ", ImageBlurHash.encode(filled(Color.BLACK)));
+        assertEquals("TSUA", ImageBlurHash.encode(filled(Color.WHITE)).substring(2, 6));
+    }
+
+    @Test
+    void encode_halfBlackHalfWhite_encodesHorizontalComponent() {
+        BufferedImage image = filled(Color.WHITE);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.BLACK);
+        graphics.fillRect(0, 0, 16, 24);
+        graphics.dispose();
+
+        String hash = ImageBlurHash.encode(image);
+        String white = ImageBlurHash.encode(filled(Color.WHITE));
+
+        assertEquals(28, hash.length());
+        assertEquals('L', hash.charAt(0));
+        assertNotEquals(white.substring(6, 8), hash.substring(6, 8));
+    }
+}
@@ -1,5 +1,7 @@
 package com.spaghetticodegang.trylater.image;
 
+import com.spaghetticodegang.trylater.image.dto.ImageGarbageCollectionReportDto;
+import com.spaghetticodegang.trylater.image.dto.ImageServingStatsDto;
 import com.spaghetticodegang.trylater.image.dto.ImageUploadRequestDto;
 import com.spaghetticodegang.trylater.image.dto.ImageUploadResponseDto;
 import org.junit.jupiter.api.Test;
@@ -49,22 +51,53 @@ public class ImageControllerTest {
     @Test
     void deleteImage_success() {
         String imgPathToDelete = "existingImgPath";
-        when(imageService.deleteImageByImgPath(imgPathToDelete)).thenReturn(true);
+        when(imageService.deleteUnreferencedImage(imgPathToDelete)).thenReturn(true);
 
         ResponseEntity<Void> response = imageController.deleteImage(imgPathToDelete);
 
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
-        verify(imageService, times(1)).deleteImageByImgPath(imgPathToDelete);
+        verify(imageService, times(1)).deleteUnreferencedImage(imgPathToDelete);
     }
 
     @Test
     void deleteImage_notFound() {
         String nonExistingImgPath = "nonExistingId";
-        when(imageService.deleteImageByImgPath(nonExistingImgPath)).thenReturn(false);
+        when(imageService.deleteUnreferencedImage(nonExistingImgPath)).thenReturn(false);
 
         ResponseEntity<Void> response = imageController.deleteImage(nonExistingImgPath);
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        verify(imageService, times(1)).deleteImageByImgPath(nonExistingImgPath);
+        verify(imageService, times(1)).deleteUnreferencedImage(nonExistingImgPath);
+    }
+
+    @Test
+    void getImageServingStats_success() {
+        ImageServingStatsDto stats = ImageServingStatsDto.builder()
+                .requests(4)
+                .notModified(1)
+                .bytesServed(1024)
+                .notModifiedRate(0.25)
+                .build();
+        when(imageService.getImageServingStats()).thenReturn(stats);
+
+        ResponseEntity<ImageServingStatsDto> response = imageController.getImageServingStats();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(stats, response.getBody());
+    }
+
+    @Test
+    void getLastGarbageCollection_returnsReportOrNoContent() {
+        ImageGarbageCollectionReportDto report = ImageGarbageCollectionReportDto.builder()
+                .deletedImages(2)
+                .reclaimedBytes(4096)
+                .build();
+        when(imageService.getLastGarbageCollection()).thenReturn(null, report);
+
+        assertEquals(HttpStatus.NO_CONTENT, imageController.getLastGarbageCollection().getStatusCode());
+        ResponseEntity<ImageGarbageCollectionReportDto> response = imageController.getLastGarbageCollection();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(report, response.getBody());
     }
 }
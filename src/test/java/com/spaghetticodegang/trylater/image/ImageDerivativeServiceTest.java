@@ -0,0 +1,129 @@
+package com.spaghetticodegang.trylater.image;
+
+import com.spaghetticodegang.trylater.image.storage.LocalImageStorage;
+import com.spaghetticodegang.trylater.shared.util.MessageUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageDerivativeServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    @Mock
+    private ImageRepository imageRepository;
+
+    @Mock
+    private MessageUtil messageUtil;
+
+    private LocalImageStorage storage;
+    private ImageDerivativeService service;
+
+    @BeforeEach
+    void setUp() {
+        storage = new LocalImageStorage(uploadDir.toString());
+        service = new ImageDerivativeService(imageRepository, storage, budget(DataSize.ofMegabytes(64)), 1, 1);
+    }
+
+    private ImageMemoryBudget budget(DataSize size) {
+        return new ImageMemoryBudget(size, Duration.ofMillis(50), messageUtil);
+    }
+
+    private void store(String imgPath, BufferedImage image, String format) throws IOException {
+        Path file = Files.createTempFile(uploadDir, "image-", ".tmp");
+        ImageIO.write(image, format, file.toFile());
+        storage.store(imgPath, file);
+    }
+
+    private BufferedImage read(String imgPath) throws IOException {
+        try (InputStream inputStream = storage.open(imgPath)) {
+            return ImageIO.read(inputStream);
+        }
+    }
+
+    @Test
+    void createDerivatives_scalesLongerSideAndRecordsPaths() throws IOException {
+        store("photo.png", new BufferedImage(3000, 1500, BufferedImage.TYPE_INT_RGB), "png");
+        when(imageRepository.insertDerivativesIfPresent(eq("photo.png"), any())).thenReturn(true);
+
+        service.createDerivatives("photo.png");
+
+        verify(imageRepository).insertDerivativesIfPresent("photo.png", Map.of(
+                ImageSize.THUMB, "photo_thumb.jpg",
+                ImageSize.MEDIUM, "photo_medium.jpg",
+                ImageSize.LARGE, "photo_large.jpg"));
+        assertEquals(160, read("photo_thumb.jpg").getWidth());
+        assertEquals(640, read("photo_medium.jpg").getWidth());
+        assertEquals(1024, read("photo_large.jpg").getHeight());
+        verify(imageRepository, never()).save(any());
+    }
+
+    @Test
+    void createDerivatives_transparentSmallImage_keepsSizeAsPng() throws IOException {
+        store("icon.png", new BufferedImage(100, 50, BufferedImage.TYPE_INT_ARGB), "png");
+        when(imageRepository.insertDerivativesIfPresent(eq("icon.png"), any())).thenReturn(true);
+
+        service.createDerivatives("icon.png");
+
+        BufferedImage thumb = read("icon_thumb.png");
+        assertEquals(100, thumb.getWidth());
+        assertTrue(thumb.getColorModel().hasAlpha());
+    }
+
+    @Test
+    void createDerivatives_imageDeletedMeanwhile_removesFiles() throws IOException {
+        store("gone.jpg", new BufferedImage(200, 200, BufferedImage.TYPE_INT_RGB), "jpg");
+        when(imageRepository.insertDerivativesIfPresent(eq("gone.jpg"), any())).thenReturn(false);
+
+        service.createDerivatives("gone.jpg");
+
+        assertFalse(storage.exists("gone_thumb.jpg"));
+        assertTrue(storage.exists("gone.jpg"));
+        verify(imageRepository, never()).save(any());
+    }
+
+    @Test
+    void createDerivatives_undecodableFile_createsNothing() throws IOException {
+        Path file = Files.writeString(uploadDir.resolve("broken.tmp"), "no image");
+        storage.store("broken.png", file);
+
+        service.createDerivatives("broken.png");
+
+        verifyNoInteractions(imageRepository);
+        assertTrue(storage.exists("broken.png"));
+        assertFalse(storage.exists("broken_thumb.jpg"));
+        assertFalse(storage.exists("broken_thumb.png"));
+    }
+
+    @Test
+    void createDerivatives_imageExceedsMemoryBudget_createsNothing() throws IOException {
+        when(messageUtil.get("image.processing.too.large")).thenReturn("Too large.");
+        ImageDerivativeService limited = new ImageDerivativeService(imageRepository, storage, budget(DataSize.ofMegabytes(1)), 1, 1);
+        store("large.png", new BufferedImage(1000, 1000, BufferedImage.TYPE_INT_RGB), "png");
+
+        limited.createDerivatives("large.png");
+
+        verifyNoInteractions(imageRepository);
+        assertFalse(storage.exists("large_thumb.jpg"));
+    }
+}
@@ -0,0 +1,140 @@
+package com.spaghetticodegang.trylater.image;
+
+import com.spaghetticodegang.trylater.image.deletion.ImageFileDeletionService;
+import com.spaghetticodegang.trylater.image.dto.ImageGarbageCollectionReportDto;
+import com.spaghetticodegang.trylater.image.storage.ImageStorage;
+import com.spaghetticodegang.trylater.recommendation.RecommendationRepository;
+import com.spaghetticodegang.trylater.user.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ImageGarbageCollectorTest {
+
+    @Mock
+    private ImageRepository imageRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RecommendationRepository recommendationRepository;
+
+    @Mock
+    private ImageFileDeletionService imageFileDeletionService;
+
+    @Mock
+    private ImageStorage imageStorage;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ImageGarbageCollector collector;
+
+    @BeforeEach
+    void setUp() {
+        collector = new ImageGarbageCollector(imageRepository, userRepository, recommendationRepository,
+                imageFileDeletionService, imageStorage, transactionManager, true, Duration.ofHours(24), 2, Duration.ZERO);
+        when(userRepository.findImgPathsAfter(anyString(), any(Limit.class))).thenReturn(List.of());
+        when(recommendationRepository.findImgPathsAfter(anyString(), any(Limit.class))).thenReturn(List.of());
+        when(imageRepository.findUploadedBeforeAfter(anyString(), any(LocalDateTime.class), any(Limit.class))).thenReturn(List.of());
+        when(imageStorage.getResource(anyString())).thenAnswer(invocation -> new ByteArrayResource(new byte[10]));
+    }
+
+    @Test
+    void collect_deletesUnreferencedImagesAndReportsReclaimedBytes() throws Exception {
+        Image orphan = Image.builder().imgPath("orphan.png").build();
+        orphan.getDerivatives().put(ImageSize.THUMB, "orphan_thumb.jpg");
+        Image used = Image.builder().imgPath("used.png").refCount(1).build();
+        when(userRepository.findImgPathsAfter(eq(""), any(Limit.class))).thenReturn(List.of("used.png"));
+        when(imageRepository.findUploadedBeforeAfter(eq(""), any(LocalDateTime.class), any(Limit.class))).thenReturn(List.of(orphan, used));
+        when(imageRepository.deleteIfUnchanged(eq("orphan.png"), eq(0), any(LocalDateTime.class))).thenReturn(1);
+
+        ImageGarbageCollectionReportDto report = collector.collect();
+
+        assertEquals(2, report.getScannedImages());
+        assertEquals(1, report.getDeletedImages());
+        assertEquals(20, report.getReclaimedBytes());
+        assertSame(report, collector.getLastReport());
+        InOrder inOrder = inOrder(transactionManager, imageRepository, imageFileDeletionService);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(imageRepository).deleteIfUnchanged(eq("orphan.png"), eq(0), any(LocalDateTime.class));
+        inOrder.verify(imageFileDeletionService).requestDeletion("orphan.png", List.of("orphan_thumb.jpg", "orphan.png"));
+        inOrder.verify(transactionManager).commit(any());
+        verify(imageRepository, never()).deleteIfUnchanged(eq("used.png"), anyInt(), any());
+        verify(imageStorage, never()).delete(anyString());
+    }
+
+    @Test
+    void collect_readsReferencesAndImagesInBatches() {
+        when(userRepository.findImgPathsAfter(eq(""), any(Limit.class))).thenReturn(List.of("a.png", "b.png"));
+        when(userRepository.findImgPathsAfter(eq("b.png"), any(Limit.class))).thenReturn(List.of("c.png"));
+        when(imageRepository.findUploadedBeforeAfter(eq(""), any(LocalDateTime.class), any(Limit.class)))
+                .thenReturn(List.of(Image.builder().imgPath("a.png").build(), Image.builder().imgPath("b.png").build()));
+        when(imageRepository.findUploadedBeforeAfter(eq("b.png"), any(LocalDateTime.class), any(Limit.class)))
+                .thenReturn(List.of(Image.builder().imgPath("c.png").build()));
+
+        ImageGarbageCollectionReportDto report = collector.collect();
+
+        assertEquals(3, report.getReferencedImages());
+        assertEquals(3, report.getScannedImages());
+        assertEquals(0, report.getDeletedImages());
+        verify(userRepository, never()).findImgPathsAfter(eq("c.png"), any());
+        verify(imageRepository, never()).deleteIfUnchanged(anyString(), anyInt(), any());
+    }
+
+    @Test
+    void collect_referencedDuringRun_keepsImage() {
+        Image image = Image.builder().imgPath("late.png").build();
+        when(imageRepository.findUploadedBeforeAfter(eq(""), any(LocalDateTime.class), any(Limit.class))).thenReturn(List.of(image));
+        when(recommendationRepository.findImgPathsIn(List.of("late.png"))).thenReturn(List.of("late.png"));
+
+        ImageGarbageCollectionReportDto report = collector.collect();
+
+        assertEquals(0, report.getDeletedImages());
+        verify(imageRepository, never()).deleteIfUnchanged(anyString(), anyInt(), any());
+        verifyNoInteractions(imageFileDeletionService);
+    }
+
+    @Test
+    void collect_imageChangedBeforeDeletion_keepsFiles() {
+        Image image = Image.builder().imgPath("reuploaded.png").build();
+        when(imageRepository.findUploadedBeforeAfter(eq(""), any(LocalDateTime.class), any(Limit.class))).thenReturn(List.of(image));
+        when(imageRepository.deleteIfUnchanged(eq("reuploaded.png"), eq(0), any(LocalDateTime.class))).thenReturn(0);
+
+        ImageGarbageCollectionReportDto report = collector.collect();
+
+        assertEquals(0, report.getDeletedImages());
+        assertEquals(0, report.getReclaimedBytes());
+        verifyNoInteractions(imageFileDeletionService);
+    }
+
+    @Test
+    void collectPeriodically_disabled_doesNothing() {
+        ImageGarbageCollector disabled = new ImageGarbageCollector(imageRepository, userRepository, recommendationRepository,
+                imageFileDeletionService, imageStorage, transactionManager, false, Duration.ofHours(24), 2, Duration.ZERO);
+
+        disabled.collectPeriodically();
+
+        assertNull(disabled.getLastReport());
+        verifyNoInteractions(imageRepository, userRepository, recommendationRepository);
+    }
+}
@@ -0,0 +1,83 @@
+package com.spaghetticodegang.trylater.image;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageHeaderTest {
+
+    private static byte[] encode(int width, int height, String format) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), format, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private static ByteBuffer webp(String chunk) {
+        ByteBuffer buffer = ByteBuffer.allocate(30).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put("RIFF".getBytes(StandardCharsets.US_ASCII)).putInt(22)
+                .put("WEBP".getBytes(StandardCharsets.US_ASCII))
+                .put(chunk.getBytes(StandardCharsets.US_ASCII)).putInt(10);
+        return buffer;
+    }
+
+    @Test
+    void read_pngAndJpeg_returnsFormatAndDimensions() throws IOException {
+        ImageHeader png = ImageHeader.read(encode(40, 30, "png"));
+        ImageHeader jpeg = ImageHeader.read(encode(16, 8, "jpeg"));
+
+        assertEquals(new ImageHeader(ImageType.PNG, 40, 30), png);
+        assertEquals(new ImageHeader(ImageType.JPEG, 16, 8), jpeg);
+        assertEquals(128, jpeg.getPixels());
+    }
+
+    @Test
+    void read_hugePngHeader_readsDimensionsWithoutDecoding() throws IOException {
+        ByteBuffer ihdr = ByteBuffer.allocate(17).put("IHDR".getBytes(StandardCharsets.US_ASCII))
+                .putInt(100_000).putInt(100_000).put(new byte[]{8, 2, 0, 0, 0});
+        CRC32 crc = new CRC32();
+        crc.update(ihdr.array());
+        ByteBuffer png = ByteBuffer.allocate(33)
+                .put(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'})
+                .putInt(13).put(ihdr.array()).putInt((int) crc.getValue());
+
+        ImageHeader header = ImageHeader.read(png.array());
+
+        assertEquals(10_000_000_000L, header.getPixels());
+    }
+
+    @Test
+    void read_webpChunks_returnsDimensions() throws IOException {
+        ByteBuffer extended = webp("VP8X").putInt(0);
+        extended.put((byte) 0x1F).put((byte) 0x03).put((byte) 0).put((byte) 0x57).put((byte) 0x02).put((byte) 0);
+        ByteBuffer lossless = webp("VP8L").put((byte) 0x2F).putInt((299 << 14) | 399);
+        ByteBuffer lossy = webp("VP8 ").put(new byte[]{0, 0, 0, (byte) 0x9D, 0x01, 0x2A}).putShort((short) 640).putShort((short) 480);
+
+        assertEquals(new ImageHeader(ImageType.WEBP, 800, 600), ImageHeader.read(extended.array()));
+        assertEquals(new ImageHeader(ImageType.WEBP, 400, 300), ImageHeader.read(lossless.array()));
+        assertEquals(new ImageHeader(ImageType.WEBP, 640, 480), ImageHeader.read(lossy.array()));
+    }
+
+    @Test
+    void read_unknownFormat_returnsNull() throws IOException {
+        assertNull(ImageHeader.read("GIF89a".getBytes(StandardCharsets.US_ASCII)));
+        assertNull(ImageHeader.read(new byte[0]));
+    }
+
+    @Test
+    void read_truncatedHeader_throwsIOException() throws IOException {
+        byte[] png = encode(40, 30, "png");
+
+        assertThrows(IOException.class, () -> ImageHeader.read(Arrays.copyOf(png, 12)));
+        assertThrows(IOException.class, () -> ImageHeader.read(Arrays.copyOf(webp("VP8X").array(), 20)));
+    }
+}
@@ -0,0 +1,106 @@
+package com.spaghetticodegang.trylater.image;
+
+import com.spaghetticodegang.trylater.shared.exception.ImageHandleException;
+import com.spaghetticodegang.trylater.shared.util.MessageUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ImageMemoryBudgetTest {
+
+    @Mock
+    private MessageUtil messageUtil;
+
+    private ImageMemoryBudget budget;
+
+    @BeforeEach
+    void setUp() {
+        when(messageUtil.get("image.processing.too.large")).thenReturn("Too large.");
+        when(messageUtil.get("image.processing.busy")).thenReturn("Busy.");
+        budget = new ImageMemoryBudget(DataSize.ofMegabytes(1), Duration.ofMillis(100), messageUtil);
+    }
+
+    @Test
+    void reserve_estimatesFourBytesPerPixelAndReleasesOnClose() {
+        try (ImageMemoryBudget.Reservation reservation = budget.reserve(256, 256)) {
+            assertEquals(DataSize.ofKilobytes(768).toBytes(), budget.getAvailableBytes());
+        }
+
+        assertEquals(DataSize.ofMegabytes(1).toBytes(), budget.getAvailableBytes());
+    }
+
+    @Test
+    void reserve_largerThanBudget_rejectsAtOnce() {
+        ImageHandleException exception = assertThrows(ImageHandleException.class, () -> budget.reserve(1024, 1024));
+
+        assertEquals("Too large.", exception.getErrors().get("image"));
+    }
+
+    @Test
+    void reserve_budgetExhausted_rejectsAfterTimeout() {
+        try (ImageMemoryBudget.Reservation reservation = budget.reserve(512, 300)) {
+            ImageHandleException exception = assertThrows(ImageHandleException.class, () -> budget.reserve(512, 300));
+
+            assertEquals("Busy.", exception.getErrors().get("image"));
+        }
+    }
+
+    @Test
+    void reserve_budgetExhausted_waitsForRelease() throws Exception {
+        ImageMemoryBudget patient = new ImageMemoryBudget(DataSize.ofMegabytes(1), Duration.ofSeconds(5), messageUtil);
+        ImageMemoryBudget.Reservation first = patient.reserve(512, 300);
+
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Future<ImageMemoryBudget.Reservation> second = executor.submit(() -> patient.reserve(512, 300));
+            Thread.sleep(100);
+            assertFalse(second.isDone());
+
+            first.close();
+            second.get(5, TimeUnit.SECONDS).close();
+        }
+        assertEquals(DataSize.ofMegabytes(1).toBytes(), patient.getAvailableBytes());
+    }
+
+    @Test
+    void process_decodesWithinReservation() throws IOException {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(100, 50, BufferedImage.TYPE_INT_RGB), "png", encoded);
+        AtomicLong availableDuringTask = new AtomicLong();
+
+        boolean decoded = budget.process(new ByteArrayInputStream(encoded.toByteArray()), image -> {
+            assertEquals(100, image.getWidth());
+            availableDuringTask.set(budget.getAvailableBytes());
+        });
+
+        assertTrue(decoded);
+        assertEquals(DataSize.ofMegabytes(1).toBytes() - 20_480, availableDuringTask.get());
+        assertEquals(DataSize.ofMegabytes(1).toBytes(), budget.getAvailableBytes());
+    }
+
+    @Test
+    void process_undecodableInput_returnsFalse() throws IOException {
+        assertFalse(budget.process(new ByteArrayInputStream("no image".getBytes()), image -> fail()));
+    }
+}
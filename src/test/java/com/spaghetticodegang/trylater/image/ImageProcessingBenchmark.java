@@ -0,0 +1,101 @@
+package com.spaghetticodegang.trylater.image;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of decoding, scaling and encoding images per source size and format.
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec}; the GC profiler reports the allocation per image
+ * as {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageProcessingBenchmark {
+
+    private static final int TARGET_SIZE = ImageSize.THUMB.getMaxDimension();
+
+    @Param({"640x480", "1920x1080", "4000x3000"})
+    public String size;
+
+    @Param({"JPEG", "PNG"})
+    public ImageFormat format;
+
+    private byte[] encoded;
+    private BufferedImage decoded;
+    private BufferedImage scaled;
+    private ImageMemoryBudget budget;
+    private Path target;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final String[] dimensions = size.split("x");
+        final BufferedImage source = createPhoto(Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1]));
+        target = Files.createTempFile("benchmark-", "." + format.getFileExtension());
+        ImageScaler.write(source, format, target);
+        encoded = Files.readAllBytes(target);
+        decoded = ImageIO.read(new ByteArrayInputStream(encoded));
+        scaled = ImageScaler.scale(decoded, TARGET_SIZE, TARGET_SIZE);
+        budget = new ImageMemoryBudget(DataSize.ofGigabytes(1), Duration.ofSeconds(1), null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(target);
+    }
+
+    @Benchmark
+    public BufferedImage decode() throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(encoded));
+    }
+
+    @Benchmark
+    public BufferedImage resize() {
+        return ImageScaler.scale(decoded, TARGET_SIZE, TARGET_SIZE);
+    }
+
+    @Benchmark
+    public void encode() throws IOException {
+        ImageScaler.write(scaled, format, target);
+    }
+
+    @Benchmark
+    public boolean decodeResizeEncodeWithinBudget() throws IOException {
+        return budget.process(new ByteArrayInputStream(encoded), image -> ImageScaler.write(
+                ImageScaler.scale(image, TARGET_SIZE, TARGET_SIZE), format, target));
+    }
+
+    /**
+     * Creates a gradient with noise, which compresses roughly like a photo.
+     *
+     * @param width  the width in pixels
+     * @param height the height in pixels
+     * @return the image
+     */
+    private static BufferedImage createPhoto(int width, int height) {
+        final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        final Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                final int red = (x * 255 / width + random.nextInt(16)) & 0xFF;
+                final int green = (y * 255 / height + random.nextInt(16)) & 0xFF;
+                final int blue = ((x + y) * 127 / (width + height) + random.nextInt(16)) & 0xFF;
+                image.setRGB(x, y, red << 16 | green << 8 | blue);
+            }
+        }
+        return image;
+    }
+}
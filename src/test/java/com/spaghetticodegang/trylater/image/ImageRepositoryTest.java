@@ -1,11 +1,16 @@
 package com.spaghetticodegang.trylater.image;
 
+import com.spaghetticodegang.trylater.user.User;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -75,4 +80,180 @@ public class ImageRepositoryTest {
 
         assertTrue(deletedImage.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testIncrementAndDecrementRefCount() {
+        Image image = Image.builder()
+                .imgPath("shared-image")
+                .build();
+        entityManager.persist(image);
+        entityManager.flush();
+
+        assertEquals(1, imageRepository.incrementRefCount("shared-image"));
+        assertEquals(1, imageRepository.incrementRefCount("shared-image"));
+        assertEquals(1, imageRepository.decrementRefCount("shared-image"));
+        assertEquals(0, imageRepository.incrementRefCount("unknown-image"));
+        entityManager.clear();
+
+        assertEquals(1, imageRepository.findById("shared-image").orElseThrow().getRefCount());
+    }
+
+    @Test
+    void testDecrementRefCount_neverBelowZero() {
+        Image image = Image.builder()
+                .imgPath("unused-image")
+                .build();
+        entityManager.persist(image);
+        entityManager.flush();
+
+        assertEquals(0, imageRepository.decrementRefCount("unused-image"));
+        entityManager.clear();
+
+        assertEquals(0, imageRepository.findById("unused-image").orElseThrow().getRefCount());
+    }
+
+    @Test
+    void testDeleteIfUnreferenced() {
+        Image referenced = Image.builder()
+                .imgPath("referenced-image")
+                .refCount(1)
+                .build();
+        Image unreferenced = Image.builder()
+                .imgPath("unreferenced-image")
+                .build();
+        unreferenced.getDerivatives().put(ImageSize.THUMB, "unreferenced-image_thumb.jpg");
+        entityManager.persist(referenced);
+        entityManager.persist(unreferenced);
+        entityManager.flush();
+
+        assertEquals(0, imageRepository.deleteIfUnreferenced("referenced-image", LocalDateTime.now()));
+        assertEquals(1, imageRepository.deleteIfUnreferenced("unreferenced-image", LocalDateTime.now()));
+        entityManager.clear();
+
+        assertTrue(imageRepository.existsById("referenced-image"));
+        assertFalse(imageRepository.existsById("unreferenced-image"));
+    }
+
+    @Test
+    void testDeleteIfUnreferenced_uploadedAgainWithinGracePeriod_keepsImage() {
+        LocalDateTime now = LocalDateTime.now();
+        entityManager.persist(Image.builder()
+                .imgPath("shared-image")
+                .refCount(1)
+                .uploadedAt(now.minusDays(2))
+                .build());
+        entityManager.flush();
+
+        // another user uploads the same content, then the last reference of the first user is released
+        imageRepository.updateUploadedAt("shared-image", now);
+        imageRepository.decrementRefCount("shared-image");
+
+        assertEquals(0, imageRepository.deleteIfUnreferenced("shared-image", now.minusDays(1)));
+        entityManager.clear();
+
+        assertTrue(imageRepository.existsById("shared-image"));
+        assertEquals(0, imageRepository.findById("shared-image").orElseThrow().getRefCount());
+    }
+
+    @Test
+    void testFindUploadedBeforeAfter() {
+        LocalDateTime now = LocalDateTime.now();
+        entityManager.persist(Image.builder().imgPath("a-old").uploadedAt(now.minusDays(2)).build());
+        entityManager.persist(Image.builder().imgPath("b-legacy").build());
+        entityManager.persist(Image.builder().imgPath("c-new").uploadedAt(now).build());
+        entityManager.persist(Image.builder().imgPath("d-old").uploadedAt(now.minusDays(3)).build());
+        entityManager.flush();
+
+        List<Image> first = imageRepository.findUploadedBeforeAfter("", now.minusDays(1), Limit.of(2));
+        List<Image> second = imageRepository.findUploadedBeforeAfter("b-legacy", now.minusDays(1), Limit.of(2));
+
+        assertEquals(List.of("a-old", "b-legacy"), first.stream().map(Image::getImgPath).toList());
+        assertEquals(List.of("d-old"), second.stream().map(Image::getImgPath).toList());
+    }
+
+    @Test
+    void testDeleteIfUnchanged() {
+        LocalDateTime now = LocalDateTime.now();
+        entityManager.persist(Image.builder().imgPath("orphan").refCount(1).uploadedAt(now.minusDays(2)).build());
+        entityManager.persist(Image.builder().imgPath("uploaded-again").uploadedAt(now).build());
+        entityManager.flush();
+
+        assertEquals(0, imageRepository.deleteIfUnchanged("orphan", 0, now.minusDays(1)));
+        assertEquals(0, imageRepository.deleteIfUnchanged("uploaded-again", 0, now.minusDays(1)));
+        assertEquals(1, imageRepository.deleteIfUnchanged("orphan", 1, now.minusDays(1)));
+        entityManager.clear();
+
+        assertFalse(imageRepository.existsById("orphan"));
+        assertTrue(imageRepository.existsById("uploaded-again"));
+    }
+
+    @Test
+    void testInsertIfAbsent_keepsExistingRow() {
+        LocalDateTime now = LocalDateTime.now();
+        Image image = Image.builder().imgPath("content.png").uploadedAt(now).blurHash("hash").build();
+
+        assertTrue(imageRepository.insertIfAbsent(image));
+        assertEquals(1, imageRepository.incrementRefCount("content.png"));
+        assertFalse(imageRepository.insertIfAbsent(image));
+        entityManager.clear();
+
+        Image stored = imageRepository.findById("content.png").orElseThrow();
+        assertEquals(1, stored.getRefCount());
+        assertEquals("hash", stored.getBlurHash());
+    }
+
+    @Test
+    void testInsertDerivativesIfPresent() {
+        entityManager.persist(Image.builder().imgPath("scaled.png").build());
+        entityManager.flush();
+
+        assertTrue(imageRepository.insertDerivativesIfPresent("scaled.png", Map.of(ImageSize.THUMB, "scaled_thumb.jpg")));
+        assertTrue(imageRepository.insertDerivativesIfPresent("scaled.png", Map.of(
+                ImageSize.THUMB, "scaled_thumb.png",
+                ImageSize.LARGE, "scaled_large.png")));
+        assertFalse(imageRepository.insertDerivativesIfPresent("deleted.png", Map.of(ImageSize.THUMB, "deleted_thumb.jpg")));
+        entityManager.clear();
+
+        assertEquals(Map.of(ImageSize.THUMB, "scaled_thumb.png", ImageSize.LARGE, "scaled_large.png"),
+                imageRepository.findById("scaled.png").orElseThrow().getDerivatives());
+        assertFalse(imageRepository.existsById("deleted.png"));
+    }
+
+    @Test
+    void testSave_doesNotResetRefCount() {
+        entityManager.persist(Image.builder().imgPath("stale.png").build());
+        entityManager.flush();
+        entityManager.clear();
+        Image stale = imageRepository.findById("stale.png").orElseThrow();
+        imageRepository.incrementRefCount("stale.png");
+
+        stale.getDerivatives().put(ImageSize.THUMB, "stale_thumb.jpg");
+        imageRepository.saveAndFlush(stale);
+        entityManager.clear();
+
+        assertEquals(1, imageRepository.findById("stale.png").orElseThrow().getRefCount());
+    }
+
+    @Test
+    void testReconcileRefCounts() {
+        entityManager.persist(Image.builder().imgPath("profile.png").build());
+        entityManager.persist(Image.builder().imgPath("unused.png").refCount(2).build());
+        entityManager.persist(User.builder()
+                .userName("user")
+                .displayName("User")
+                .email("user@example.com")
+                .password("password")
+                .imgPath("profile.png")
+                .registrationDate(LocalDateTime.now())
+                .build());
+        entityManager.flush();
+
+        assertTrue(imageRepository.existsUncountedReferences());
+        assertEquals(2, imageRepository.reconcileRefCounts());
+        assertFalse(imageRepository.existsUncountedReferences());
+        entityManager.clear();
+
+        assertEquals(1, imageRepository.findById("profile.png").orElseThrow().getRefCount());
+        assertEquals(0, imageRepository.findById("unused.png").orElseThrow().getRefCount());
+    }
+}
@@ -1,7 +1,11 @@
 package com.spaghetticodegang.trylater.image;
 
+import com.spaghetticodegang.trylater.image.deletion.ImageFileDeletionService;
 import com.spaghetticodegang.trylater.image.dto.ImageUploadResponseDto;
+import com.spaghetticodegang.trylater.image.storage.ImageStorage;
 import com.spaghetticodegang.trylater.shared.exception.ImageHandleException;
+import com.spaghetticodegang.trylater.shared.exception.ImageNotFoundException;
+import com.spaghetticodegang.trylater.shared.exception.ValidationException;
 import com.spaghetticodegang.trylater.shared.util.MessageUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,14 +16,26 @@ import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Objects;
-import java.util.UUID;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -35,60 +51,117 @@ class ImageServiceTest {
     @Mock
     private ImageRepository imageRepository;
 
+    @Mock
+    private ImageDerivativeService imageDerivativeService;
+
+    @Mock
+    private ImageVariantCache imageVariantCache;
+
+    @Mock
+    private ImageStorage imageStorage;
+
+    @Mock
+    private ImageMemoryBudget imageMemoryBudget;
+
+    @Mock
+    private ImageFileDeletionService imageFileDeletionService;
+
     @Mock
     private MessageUtil messageUtil;
 
-    private final String TEST_UPLOAD_DIR = "test-upload/";
     private final String TEST_IMAGE_NAME = "test-image.png";
-    private final byte[] TEST_IMAGE_DATA = "some image data".getBytes();
-
-    private Path testUploadDirPath;
+    private final byte[] TEST_IMAGE_DATA = createPng(4, 3);
 
     @BeforeEach
-    void setUp() throws IOException {
-        ReflectionTestUtils.setField(imageService, "uploadDir", TEST_UPLOAD_DIR);
-        testUploadDirPath = Paths.get(TEST_UPLOAD_DIR);
-        if (!Files.exists(testUploadDirPath)) {
-            Files.createDirectories(testUploadDirPath);
+    void setUp() {
+        ReflectionTestUtils.setField(imageService, "maxResizeDimension", 2048);
+        ReflectionTestUtils.setField(imageService, "maxPixels", 100L);
+        ReflectionTestUtils.setField(imageService, "headerLimit", DataSize.ofKilobytes(64));
+        ReflectionTestUtils.setField(imageService, "gracePeriod", Duration.ofHours(24));
+    }
+
+    private static byte[] createPng(int width, int height) {
+        try {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", outputStream);
+            return outputStream.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
-    private String getimgPathFromUpload(MultipartFile file) {
-        String originalFilename = Objects.requireNonNull(file.getOriginalFilename());
-        String imageType = originalFilename.substring(originalFilename.lastIndexOf(".") + 1).toLowerCase();
-        return UUID.randomUUID() + "." + imageType;
+    private String getImgPathFromContent(byte[] content, String imageType) throws NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)) + "." + imageType;
     }
 
     @Test
-    void uploadImage_success() throws IOException {
+    void uploadImage_success() throws Exception {
         MultipartFile mockImageFile = new MockMultipartFile("image", TEST_IMAGE_NAME, "image/png", TEST_IMAGE_DATA);
-        String fixedUuid = "a1b2c3d4-e5f6-7890-1234-567890abcdef";
-        String expectedImageName = fixedUuid + ".png";
-        String expectedImagePath = TEST_UPLOAD_DIR + expectedImageName;
+        String expectedImageName = getImgPathFromContent(TEST_IMAGE_DATA, "png");
         ArgumentCaptor<Image> imageCaptor = ArgumentCaptor.forClass(Image.class);
-        UUID fixedUuidObject = UUID.fromString(fixedUuid);
+        ArgumentCaptor<Path> fileCaptor = ArgumentCaptor.forClass(Path.class);
+        List<byte[]> storedContent = new ArrayList<>();
+        when(imageRepository.findById(expectedImageName)).thenReturn(Optional.empty());
+        when(imageRepository.insertIfAbsent(any(Image.class))).thenReturn(true);
+        doAnswer(invocation -> storedContent.add(Files.readAllBytes(invocation.getArgument(1))))
+                .when(imageStorage).store(eq(expectedImageName), any(Path.class));
 
-        try (var mockStatic = mockStatic(UUID.class)) {
-            mockStatic.when(UUID::randomUUID).thenReturn(fixedUuidObject);
+        ImageUploadResponseDto responseDto = imageService.uploadImage(mockImageFile);
 
-            ImageUploadResponseDto responseDto = imageService.uploadImage(mockImageFile);
+        assertNotNull(responseDto);
+        assertEquals(expectedImageName, responseDto.getImgPath());
 
-            assertNotNull(responseDto);
-            assertEquals(expectedImageName, responseDto.getImgPath());
+        verify(imageRepository, times(1)).insertIfAbsent(imageCaptor.capture());
+        assertEquals(expectedImageName, imageCaptor.getValue().getImgPath());
+        assertEquals(0, imageCaptor.getValue().getRefCount());
+        assertNotNull(imageCaptor.getValue().getUploadedAt());
+        assertEquals(28, imageCaptor.getValue().getBlurHash().length());
+        assertEquals(imageCaptor.getValue().getBlurHash(), responseDto.getBlurHash());
+        verify(imageDerivativeService).submit(expectedImageName);
 
-            verify(imageRepository, times(1)).save(imageCaptor.capture());
-            assertEquals(expectedImageName, imageCaptor.getValue().getImgPath());
+        verify(messageUtil, never()).get(anyString());
+        InOrder inOrder = inOrder(imageFileDeletionService, imageStorage);
+        inOrder.verify(imageFileDeletionService).cancelDeletion(expectedImageName);
+        inOrder.verify(imageStorage).store(eq(expectedImageName), fileCaptor.capture());
+        assertArrayEquals(TEST_IMAGE_DATA, storedContent.getFirst());
+        assertFalse(Files.exists(fileCaptor.getValue()));
+    }
 
-            verify(messageUtil, never()).get(anyString());
-            Path path = Paths.get(expectedImagePath);
-            assertTrue(Files.exists(path));
-            Files.deleteIfExists(path);
-        }
+    @Test
+    void uploadImage_sameContent_returnsExistingImage() throws Exception {
+        MultipartFile mockImageFile = new MockMultipartFile("image", "copy.png", "image/png", TEST_IMAGE_DATA);
+        String expectedImageName = getImgPathFromContent(TEST_IMAGE_DATA, "png");
+        when(imageRepository.findById(expectedImageName)).thenReturn(Optional.of(Image.builder().imgPath(expectedImageName).refCount(3).build()));
+        when(imageRepository.updateUploadedAt(eq(expectedImageName), any(LocalDateTime.class))).thenReturn(1);
+
+        ImageUploadResponseDto responseDto = imageService.uploadImage(mockImageFile);
+
+        assertEquals(expectedImageName, responseDto.getImgPath());
+        verify(imageRepository, never()).insertIfAbsent(any());
+        verify(imageRepository, never()).save(any());
+        verifyNoInteractions(imageDerivativeService, imageStorage);
+    }
+
+    @Test
+    void uploadImage_concurrentUploadInsertedFirst_keepsExistingImage() throws Exception {
+        MultipartFile mockImageFile = new MockMultipartFile("image", TEST_IMAGE_NAME, "image/png", TEST_IMAGE_DATA);
+        String expectedImageName = getImgPathFromContent(TEST_IMAGE_DATA, "png");
+        Image concurrentImage = Image.builder().imgPath(expectedImageName).refCount(1).blurHash("L00000fQfQfQfQfQfQfQfQfQfQfQ").build();
+        when(imageRepository.findById(expectedImageName)).thenReturn(Optional.empty(), Optional.of(concurrentImage));
+        when(imageRepository.insertIfAbsent(any(Image.class))).thenReturn(false);
+
+        ImageUploadResponseDto responseDto = imageService.uploadImage(mockImageFile);
+
+        assertEquals(expectedImageName, responseDto.getImgPath());
+        assertEquals("L00000fQfQfQfQfQfQfQfQfQfQfQ", responseDto.getBlurHash());
+        verify(imageRepository).updateUploadedAt(eq(expectedImageName), any(LocalDateTime.class));
+        verify(imageRepository, never()).save(any());
+        verifyNoInteractions(imageDerivativeService);
     }
 
     @Test
     void uploadImage_wrongType_throwsImageHandleException() {
-        MultipartFile mockImageFile = new MockMultipartFile("image", "test-image.gif", "image/gif", TEST_IMAGE_DATA);
+        MultipartFile mockImageFile = new MockMultipartFile("image", "test-image.png", "image/png", "GIF89a some image data".getBytes());
         when(messageUtil.get("image.wrong.type")).thenReturn("Image type is not allowed.");
 
         ImageHandleException exception = assertThrows(ImageHandleException.class, () -> imageService.uploadImage(mockImageFile));
@@ -96,63 +169,203 @@ class ImageServiceTest {
 
         verify(imageRepository, never()).save(any());
         verify(messageUtil, times(1)).get("image.wrong.type");
-        assertFalse(Files.exists(testUploadDirPath.resolve(getimgPathFromUpload(mockImageFile))));
+        verifyNoInteractions(imageStorage);
+    }
+
+    @Test
+    void uploadImage_misleadingExtension_storesDetectedFormat() throws Exception {
+        MultipartFile mockImageFile = new MockMultipartFile("image", "photo.jpg", "image/jpeg", TEST_IMAGE_DATA);
+        String expectedImageName = getImgPathFromContent(TEST_IMAGE_DATA, "png");
+
+        ImageUploadResponseDto responseDto = imageService.uploadImage(mockImageFile);
+
+        assertEquals(expectedImageName, responseDto.getImgPath());
+        verify(imageStorage).store(eq(expectedImageName), any(Path.class));
     }
 
     @Test
-    void uploadImage_transferToFails_throwsImageHandleException() throws IOException {
+    void uploadImage_tooManyPixels_rejectsBeforeWriting() throws Exception {
+        MultipartFile mockImageFile = new MockMultipartFile("image", TEST_IMAGE_NAME, "image/png", createPng(20, 10));
+        when(messageUtil.get("image.upload.exceed.max.pixels", 100L)).thenReturn("Too many pixels.");
+
+        ImageHandleException exception = assertThrows(ImageHandleException.class, () -> imageService.uploadImage(mockImageFile));
+        assertEquals("Too many pixels.", exception.getErrors().get("image"));
+
+        verify(imageRepository, never()).save(any());
+        verifyNoInteractions(imageStorage);
+    }
+
+    @Test
+    void uploadImage_truncatedHeader_throwsImageHandleException() {
+        MultipartFile mockImageFile = new MockMultipartFile("image", TEST_IMAGE_NAME, "image/png", Arrays.copyOf(TEST_IMAGE_DATA, 12));
+        when(messageUtil.get("image.upload.read.error")).thenReturn("Unreadable.");
+
+        ImageHandleException exception = assertThrows(ImageHandleException.class, () -> imageService.uploadImage(mockImageFile));
+        assertEquals("Unreadable.", exception.getErrors().get("image"));
+        verifyNoInteractions(imageStorage);
+    }
+
+    @Test
+    void uploadImage_readFails_throwsImageHandleException() throws Exception {
         MultipartFile mockImageFile = spy(new MockMultipartFile("image", TEST_IMAGE_NAME, "image/png", TEST_IMAGE_DATA));
         when(messageUtil.get("image.upload.error")).thenReturn("Failed to transfer file.");
         doThrow(new IOException("Failed to transfer file."))
-                .when(mockImageFile).transferTo(any(Path.class));
+                .when(mockImageFile).getInputStream();
 
         ImageHandleException exception = assertThrows(ImageHandleException.class, () -> imageService.uploadImage(mockImageFile));
         assertEquals("Failed to transfer file.: Failed to transfer file.", exception.getErrors().get("image"));
 
         verify(imageRepository, never()).save(any());
         verify(messageUtil, times(1)).get("image.upload.error");
-        verify(mockImageFile, times(1)).transferTo(any(Path.class));
-        assertFalse(Files.exists(testUploadDirPath.resolve(getimgPathFromUpload(mockImageFile))));
+        verifyNoInteractions(imageStorage);
     }
 
     @Test
-    void deleteImageById_fileDeletesSuccessfully() throws IOException {
+    void uploadImage_storeFails_throwsImageHandleException() throws Exception {
+        MultipartFile mockImageFile = new MockMultipartFile("image", TEST_IMAGE_NAME, "image/png", TEST_IMAGE_DATA);
+        ArgumentCaptor<Path> fileCaptor = ArgumentCaptor.forClass(Path.class);
+        when(messageUtil.get("image.upload.error")).thenReturn("Failed to transfer file.");
+        doThrow(new IOException("Bucket not found.")).when(imageStorage).store(anyString(), fileCaptor.capture());
+
+        assertThrows(ImageHandleException.class, () -> imageService.uploadImage(mockImageFile));
+
+        verify(imageRepository, never()).save(any());
+        assertFalse(Files.exists(fileCaptor.getValue()));
+    }
+
+    @Test
+    void addImageReference_incrementsRefCount() {
+        imageService.addImageReference("image.png");
+
+        verify(imageRepository).incrementRefCount("image.png");
+    }
+
+    @Test
+    void releaseImageReference_lastReference_requestsFileDeletion() {
         String testUuid = "test-uuid.png";
-        Path filePath = Paths.get(TEST_UPLOAD_DIR, testUuid);
-        Files.createFile(filePath);
-        when(messageUtil.get("image.delete.error")).thenReturn("Failed to delete image.");
-        boolean result = imageService.deleteImageByImgPath(testUuid);
+        Image image = Image.builder().imgPath(testUuid).build();
+        image.getDerivatives().put(ImageSize.THUMB, "test-uuid_thumb.jpg");
+        when(imageRepository.existsById(testUuid)).thenReturn(true);
+        when(imageRepository.findById(testUuid)).thenReturn(Optional.of(image));
+        when(imageRepository.deleteIfUnreferenced(eq(testUuid), any(LocalDateTime.class))).thenReturn(1);
+        boolean result = imageService.releaseImageReference(testUuid);
 
         assertTrue(result);
-        assertFalse(Files.exists(filePath));
+        verify(imageRepository).decrementRefCount(testUuid);
+        verify(imageFileDeletionService).requestDeletion(testUuid, List.of("test-uuid_thumb.jpg", testUuid));
+        verifyNoInteractions(imageStorage, imageVariantCache);
     }
 
     @Test
-    void deleteImageById_fileDoesNotExist() {
+    void releaseImageReference_stillReferenced_keepsFile() {
+        String imgPath = "shared.png";
+        when(imageRepository.existsById(imgPath)).thenReturn(true);
+        when(imageRepository.findById(imgPath)).thenReturn(Optional.of(Image.builder().imgPath(imgPath).refCount(1).build()));
+        when(imageRepository.deleteIfUnreferenced(eq(imgPath), any(LocalDateTime.class))).thenReturn(0);
+
+        boolean result = imageService.releaseImageReference(imgPath);
+
+        assertTrue(result);
+        verify(imageRepository).decrementRefCount(imgPath);
+        verifyNoInteractions(imageFileDeletionService, imageStorage);
+    }
+
+    @Test
+    void deleteUnreferencedImage_unused_requestsFileDeletionWithoutTouchingRefCount() {
+        String imgPath = "draft.png";
+        when(imageRepository.findById(imgPath)).thenReturn(Optional.of(Image.builder().imgPath(imgPath).build()));
+        when(imageRepository.deleteIfUnreferenced(eq(imgPath), any(LocalDateTime.class))).thenReturn(1);
+
+        assertTrue(imageService.deleteUnreferencedImage(imgPath));
+
+        ArgumentCaptor<LocalDateTime> graceLimitCaptor = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(imageRepository).deleteIfUnreferenced(eq(imgPath), graceLimitCaptor.capture());
+        assertTrue(graceLimitCaptor.getValue().isBefore(LocalDateTime.now().minusHours(23)));
+        verify(imageFileDeletionService).requestDeletion(imgPath, List.of(imgPath));
+        verify(imageRepository, never()).decrementRefCount(any());
+    }
+
+    @Test
+    void deleteUnreferencedImage_inUse_keepsImage() {
+        String imgPath = "shared.png";
+        when(imageRepository.findById(imgPath)).thenReturn(Optional.of(Image.builder().imgPath(imgPath).refCount(2).build()));
+        when(imageRepository.deleteIfUnreferenced(eq(imgPath), any(LocalDateTime.class))).thenReturn(0);
+
+        assertFalse(imageService.deleteUnreferencedImage(imgPath));
+        assertFalse(imageService.deleteUnreferencedImage("unknown.png"));
+
+        verify(imageRepository, never()).decrementRefCount(any());
+        verifyNoInteractions(imageFileDeletionService);
+    }
+
+    @Test
+    void releaseImageReference_imageDoesNotExist() {
         String nonExistingUuid = "non-existing-uuid.png";
-        Path filePath = Paths.get(TEST_UPLOAD_DIR, nonExistingUuid);
-        when(messageUtil.get("image.delete.error")).thenReturn("Failed to delete image.");
-        boolean result = imageService.deleteImageByImgPath(nonExistingUuid);
+        when(imageRepository.existsById(nonExistingUuid)).thenReturn(false);
+        boolean result = imageService.releaseImageReference(nonExistingUuid);
 
         assertFalse(result);
-        assertFalse(Files.exists(filePath));
+        verify(imageRepository, never()).decrementRefCount(any());
+        verifyNoInteractions(imageFileDeletionService, imageStorage);
     }
 
     @Test
-    void deleteImageById_shouldThrowException_whenIOExceptionOccurs(){
-        String imgPath = "test-image.jpg";
-        Path filePath = Paths.get(TEST_UPLOAD_DIR, imgPath);
+    void getBlurHash_returnsHashOfStoredImage() {
+        when(imageRepository.findById("image.png")).thenReturn(Optional.of(Image.builder().imgPath("image.png").blurHash("L00000fQfQfQfQfQfQfQfQfQfQfQ").build()));
 
-        when(messageUtil.get("image.delete.error")).thenReturn("Failed to delete image.");
+        assertEquals("L00000fQfQfQfQfQfQfQfQfQfQfQ", imageService.getBlurHash("image.png"));
+        assertNull(imageService.getBlurHash("missing.png"));
+        assertNull(imageService.getBlurHash(null));
+    }
 
-        try (MockedStatic<Files> filesMockedStatic = mockStatic(Files.class)) {
-            filesMockedStatic.when(() -> Files.exists(filePath)).thenReturn(true);
-            filesMockedStatic.when(() -> Files.deleteIfExists(filePath))
-                    .thenThrow(new IOException("Access denied."));
+    @Test
+    void getImagePath_withSize_returnsDerivative() {
+        Image image = Image.builder().imgPath("image.png").build();
+        image.getDerivatives().put(ImageSize.THUMB, "image_thumb.jpg");
+        when(imageRepository.findById("image.png")).thenReturn(Optional.of(image));
 
-            assertThrows(ImageHandleException.class, () -> {
-                imageService.deleteImageByImgPath(imgPath);
-            });
-        }
+        assertEquals("image_thumb.jpg", imageService.getImagePath("image.png", "thumb"));
+        assertEquals("image.png", imageService.getImagePath("image.png", "medium"));
+    }
+
+    @Test
+    void getImagePath_withoutOrUnknownSize_returnsOriginal() {
+        assertEquals("image.png", imageService.getImagePath("image.png", null));
+        assertEquals("image.png", imageService.getImagePath("image.png", "huge"));
+        verifyNoInteractions(imageRepository);
+    }
+
+    @Test
+    void resizeImage_success_usesVariantOfRequestedBounds() {
+        Path cached = Paths.get("cache", "image.png@300x2048.png");
+        when(imageRepository.existsById("image.png")).thenReturn(true);
+        when(imageVariantCache.get(eq("image.png"), eq("300x2048.png"), any())).thenReturn(cached);
+
+        assertEquals(cached, imageService.resizeImage("image.png", 300, null, ImageFormat.PNG));
+    }
+
+    @Test
+    void resizeImage_invalidDimensions_throwsValidationException() {
+        when(messageUtil.get("image.resize.dimension.invalid", 2048)).thenReturn("Invalid dimension.");
+        assertThrows(ValidationException.class, () -> imageService.resizeImage("image.png", null, null, ImageFormat.JPEG));
+        assertThrows(ValidationException.class, () -> imageService.resizeImage("image.png", 0, 100, ImageFormat.JPEG));
+        assertThrows(ValidationException.class, () -> imageService.resizeImage("image.png", 100, 4096, ImageFormat.JPEG));
+        verifyNoInteractions(imageVariantCache);
+    }
+
+    @Test
+    void resizeImage_unknownImage_throwsImageNotFoundException() {
+        when(imageRepository.existsById("missing.png")).thenReturn(false);
+
+        assertThrows(ImageNotFoundException.class, () -> imageService.resizeImage("missing.png", 100, 100, ImageFormat.JPEG));
+        verifyNoInteractions(imageVariantCache);
+    }
+
+    @Test
+    void getImageFormat_resolvesNameOrDefault() {
+        when(messageUtil.get("image.resize.format.invalid")).thenReturn("Invalid format.");
+        assertEquals(ImageFormat.JPEG, imageService.getImageFormat(null));
+        assertEquals(ImageFormat.PNG, imageService.getImageFormat("png"));
+        assertThrows(ValidationException.class, () -> imageService.getImageFormat("webp"));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,56 @@
+package com.spaghetticodegang.trylater.image;
+
+import com.spaghetticodegang.trylater.image.dto.ImageServingStatsDto;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageServingMetricsFilterTest {
+
+    private ImageServingMetricsFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new ImageServingMetricsFilter();
+    }
+
+    private void serve(String path, int status, int bytes) throws Exception {
+        FilterChain chain = (request, response) -> {
+            ((HttpServletResponse) response).setStatus(status);
+            response.getOutputStream().write(new byte[bytes]);
+        };
+        filter.doFilter(new MockHttpServletRequest("GET", path), new MockHttpServletResponse(), chain);
+    }
+
+    @Test
+    void doFilter_countsBytesAndNotModifiedResponses() throws Exception {
+        serve("/api/images/abc.png", HttpServletResponse.SC_OK, 100);
+        serve("/api/images/abc.png", HttpServletResponse.SC_PARTIAL_CONTENT, 10);
+        serve("/api/images/abc.png", HttpServletResponse.SC_NOT_MODIFIED, 0);
+        serve("/api/images/abc.png", HttpServletResponse.SC_NOT_MODIFIED, 0);
+
+        ImageServingStatsDto stats = filter.getStats();
+
+        assertEquals(4, stats.getRequests());
+        assertEquals(2, stats.getNotModified());
+        assertEquals(1, stats.getPartialContent());
+        assertEquals(110, stats.getBytesServed());
+        assertEquals(0.5, stats.getNotModifiedRate());
+    }
+
+    @Test
+    void doFilter_ignoresOtherPaths() throws Exception {
+        serve("/api/image/serving-stats", HttpServletResponse.SC_OK, 50);
+
+        ImageServingStatsDto stats = filter.getStats();
+
+        assertEquals(0, stats.getRequests());
+        assertEquals(0, stats.getBytesServed());
+        assertEquals(0, stats.getNotModifiedRate());
+    }
+}
@@ -2,6 +2,9 @@ package com.spaghetticodegang.trylater.image;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDateTime;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class ImageTest {
@@ -32,10 +35,17 @@ public class ImageTest {
     void testAllArgsConstructor() {
         String imgPath = "fullArgsConstructorId";
 
-        Image image = new Image(imgPath);
+        Map<ImageSize, String> derivatives = Map.of(ImageSize.THUMB, "fullArgsConstructorId_thumb.jpg");
+
+        LocalDateTime uploadedAt = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+        Image image = new Image(imgPath, 2, uploadedAt, null, derivatives);
 
         assertNotNull(image);
         assertEquals(imgPath, image.getImgPath());
+        assertEquals(2, image.getRefCount());
+        assertEquals(uploadedAt, image.getUploadedAt());
+        assertEquals(derivatives, image.getDerivatives());
     }
 
     @Test
@@ -44,5 +54,7 @@ public class ImageTest {
 
         assertNotNull(image);
         assertNull(image.getImgPath());
+        assertEquals(0, image.getRefCount());
+        assertTrue(image.getDerivatives().isEmpty());
     }
 }
\ No newline at end of file
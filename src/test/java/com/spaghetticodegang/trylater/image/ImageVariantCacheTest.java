@@ -0,0 +1,153 @@
+package com.spaghetticodegang.trylater.image;
+
+import com.spaghetticodegang.trylater.shared.exception.ImageHandleException;
+import com.spaghetticodegang.trylater.shared.util.MessageUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ImageVariantCacheTest {
+
+    @TempDir
+    Path cacheDir;
+
+    @Mock
+    private MessageUtil messageUtil;
+
+    private ImageVariantCache cache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        cache = new ImageVariantCache(cacheDir.toString(), DataSize.ofBytes(25), 2, messageUtil);
+        cache.initialize();
+    }
+
+    private static ImageVariantCache.VariantWriter bytes(int count) {
+        return target -> Files.write(target, new byte[count]);
+    }
+
+    @Test
+    void get_createsVariantOnceAndServesItFromCache() {
+        AtomicInteger writes = new AtomicInteger();
+        ImageVariantCache.VariantWriter writer = target -> {
+            writes.incrementAndGet();
+            Files.write(target, new byte[10]);
+        };
+
+        Path first = cache.get("photo.png", "100x100.jpg", writer);
+        Path second = cache.get("photo.png", "100x100.jpg", writer);
+
+        assertEquals(first, second);
+        assertTrue(Files.exists(first));
+        assertEquals(1, writes.get());
+        assertEquals(10, cache.getUsedBytes());
+    }
+
+    @Test
+    void get_concurrentRequests_shareOneWrite() throws Exception {
+        AtomicInteger writes = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ImageVariantCache.VariantWriter writer = target -> {
+            writes.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Files.write(target, new byte[10]);
+        };
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            Future<Path> first = executor.submit(() -> cache.get("photo.png", "100x100.jpg", writer));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<Path> second = executor.submit(() -> cache.get("photo.png", "100x100.jpg", writer));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertEquals(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    void get_beyondSizeLimit_evictsLeastRecentlyUsed() {
+        Path a = cache.get("a.png", "1.jpg", bytes(10));
+        Path b = cache.get("b.png", "1.jpg", bytes(10));
+        cache.get("a.png", "1.jpg", bytes(10));
+
+        Path c = cache.get("c.png", "1.jpg", bytes(10));
+
+        assertTrue(Files.exists(a));
+        assertFalse(Files.exists(b));
+        assertTrue(Files.exists(c));
+        assertEquals(20, cache.getUsedBytes());
+    }
+
+    @Test
+    void get_tooManyVariantsOfOneImage_throwsImageHandleException() {
+        when(messageUtil.get("image.resize.variants.exceeded")).thenReturn("Too many variants.");
+        cache.get("photo.png", "1.jpg", bytes(1));
+        cache.get("photo.png", "2.jpg", bytes(1));
+
+        assertThrows(ImageHandleException.class, () -> cache.get("photo.png", "3.jpg", bytes(1)));
+        assertDoesNotThrow(() -> cache.get("photo.png", "1.jpg", bytes(1)));
+    }
+
+    @Test
+    void get_writerFails_releasesVariantSlot() {
+        when(messageUtil.get("image.resize.error")).thenReturn("Resize failed.");
+        assertThrows(ImageHandleException.class, () -> cache.get("photo.png", "1.jpg", target -> {
+            throw new IOException("broken");
+        }));
+
+        cache.get("photo.png", "2.jpg", bytes(1));
+        cache.get("photo.png", "3.jpg", bytes(1));
+        assertEquals(2, cache.getUsedBytes());
+    }
+
+    @Test
+    void evict_deletesAllVariantsOfImage() {
+        Path small = cache.get("photo.png", "1.jpg", bytes(5));
+        Path large = cache.get("photo.png", "2.jpg", bytes(5));
+        Path other = cache.get("other.png", "1.jpg", bytes(5));
+
+        cache.evict("photo.png");
+
+        assertFalse(Files.exists(small));
+        assertFalse(Files.exists(large));
+        assertTrue(Files.exists(other));
+        assertEquals(5, cache.getUsedBytes());
+    }
+
+    @Test
+    void initialize_indexesExistingVariantsAndRemovesLeftovers() throws IOException {
+        cache.get("photo.png", "1.jpg", bytes(7));
+        Files.write(cacheDir.resolve("photo.png@2.jpg.tmp"), new byte[3]);
+
+        ImageVariantCache restarted = new ImageVariantCache(cacheDir.toString(), DataSize.ofBytes(25), 2, messageUtil);
+        restarted.initialize();
+
+        assertEquals(7, restarted.getUsedBytes());
+        assertFalse(Files.exists(cacheDir.resolve("photo.png@2.jpg.tmp")));
+    }
+}
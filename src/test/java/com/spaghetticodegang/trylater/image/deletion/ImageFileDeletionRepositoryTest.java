@@ -0,0 +1,62 @@
+package com.spaghetticodegang.trylater.image.deletion;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class ImageFileDeletionRepositoryTest {
+
+    @Autowired
+    private ImageFileDeletionRepository repository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private ImageFileDeletion persist(String filePath, LocalDateTime nextAttemptAt) {
+        return persist("photo.png", filePath, nextAttemptAt);
+    }
+
+    private ImageFileDeletion persist(String imgPath, String filePath, LocalDateTime nextAttemptAt) {
+        return entityManager.persist(ImageFileDeletion.builder()
+                .imgPath(imgPath)
+                .filePath(filePath)
+                .nextAttemptAt(nextAttemptAt)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    @Test
+    void shouldFindDueDeletionsOldestFirst() {
+        LocalDateTime now = LocalDateTime.now();
+        ImageFileDeletion first = persist("photo.png", now.minusMinutes(1));
+        ImageFileDeletion later = persist("photo_thumb.jpg", now.plusMinutes(5));
+        persist("photo_large.jpg", now.minusSeconds(1));
+        entityManager.flush();
+
+        List<ImageFileDeletion> due = repository.findDue(now, Limit.of(10));
+
+        assertThat(due).extracting(ImageFileDeletion::getFilePath).containsExactly("photo.png", "photo_large.jpg");
+        assertThat(repository.findDueForUpdateById(first.getId(), now)).contains(first);
+        assertThat(repository.findDueForUpdateById(later.getId(), now)).isEmpty();
+    }
+
+    @Test
+    void shouldDeleteAllDeletionsOfAnImage() {
+        LocalDateTime now = LocalDateTime.now();
+        persist("photo.png", now);
+        persist("photo_thumb.jpg", now);
+        persist("other.png", "other.png", now);
+        entityManager.flush();
+
+        assertThat(repository.deleteAllByImgPath("photo.png")).isEqualTo(2);
+        assertThat(repository.findAll()).extracting(ImageFileDeletion::getImgPath).containsExactly("other.png");
+    }
+}
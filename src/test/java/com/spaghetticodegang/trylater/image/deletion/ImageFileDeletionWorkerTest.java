@@ -0,0 +1,135 @@
+package com.spaghetticodegang.trylater.image.deletion;
+
+import com.spaghetticodegang.trylater.image.ImageRepository;
+import com.spaghetticodegang.trylater.image.ImageVariantCache;
+import com.spaghetticodegang.trylater.image.storage.ImageStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageFileDeletionWorkerTest {
+
+    @Mock
+    private ImageFileDeletionRepository imageFileDeletionRepository;
+
+    @Mock
+    private ImageRepository imageRepository;
+
+    @Mock
+    private ImageStorage imageStorage;
+
+    @Mock
+    private ImageVariantCache imageVariantCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ImageFileDeletionWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        worker = new ImageFileDeletionWorker(imageFileDeletionRepository, imageRepository, imageStorage, imageVariantCache,
+                transactionManager, 2, Duration.ofSeconds(30), Duration.ofMinutes(5));
+    }
+
+    private static ImageFileDeletion deletion(long id, String imgPath, String filePath) {
+        return ImageFileDeletion.builder()
+                .id(id)
+                .imgPath(imgPath)
+                .filePath(filePath)
+                .nextAttemptAt(LocalDateTime.now())
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private void due(ImageFileDeletion... deletions) {
+        when(imageFileDeletionRepository.findDue(any(LocalDateTime.class), eq(Limit.of(2)))).thenReturn(List.of(deletions));
+        for (ImageFileDeletion deletion : deletions) {
+            when(imageFileDeletionRepository.findDueForUpdateById(eq(deletion.getId()), any(LocalDateTime.class)))
+                    .thenReturn(Optional.of(deletion));
+        }
+    }
+
+    @Test
+    void deleteNextBatch_deletesFilesAndRemovesEntries() throws IOException {
+        ImageFileDeletion thumb = deletion(1L, "photo.png", "photo_thumb.jpg");
+        ImageFileDeletion original = deletion(2L, "photo.png", "photo.png");
+        due(thumb, original);
+
+        boolean pending = worker.deleteNextBatch();
+
+        assertTrue(pending);
+        verify(imageStorage).delete("photo_thumb.jpg");
+        verify(imageStorage).delete("photo.png");
+        verify(imageVariantCache).evict("photo.png");
+        verify(imageFileDeletionRepository).delete(thumb);
+        verify(imageFileDeletionRepository).delete(original);
+        verify(imageFileDeletionRepository, never()).save(any());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void deleteNextBatch_imageUploadedAgain_keepsFile() throws IOException {
+        ImageFileDeletion deletion = deletion(1L, "photo.png", "photo.png");
+        due(deletion);
+        when(imageRepository.existsById("photo.png")).thenReturn(true);
+
+        boolean pending = worker.deleteNextBatch();
+
+        assertFalse(pending);
+        verify(imageStorage, never()).delete(any());
+        verify(imageFileDeletionRepository).delete(deletion);
+    }
+
+    @Test
+    void deleteNextBatch_cancelledInTheMeantime_keepsFile() throws IOException {
+        when(imageFileDeletionRepository.findDue(any(LocalDateTime.class), eq(Limit.of(2))))
+                .thenReturn(List.of(deletion(1L, "photo.png", "photo.png")));
+        when(imageFileDeletionRepository.findDueForUpdateById(anyLong(), any(LocalDateTime.class))).thenReturn(Optional.empty());
+
+        worker.deleteNextBatch();
+
+        verifyNoInteractions(imageRepository, imageStorage, imageVariantCache);
+        verify(imageFileDeletionRepository, never()).delete(any());
+    }
+
+    @Test
+    void deleteNextBatch_deletionFails_schedulesRetry() throws IOException {
+        ImageFileDeletion deletion = deletion(1L, "photo.png", "photo.png");
+        deletion.setAttempts(1);
+        due(deletion);
+        doThrow(new IOException("Bucket not reachable.")).when(imageStorage).delete("photo.png");
+
+        worker.deleteNextBatch();
+
+        assertEquals(2, deletion.getAttempts());
+        assertTrue(deletion.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(50)));
+        verify(imageFileDeletionRepository).save(deletion);
+        verify(imageFileDeletionRepository, never()).delete(any());
+        verifyNoInteractions(imageVariantCache);
+    }
+
+    @Test
+    void getRetryDelay_doublesUpToMaximum() {
+        assertEquals(Duration.ofSeconds(30), worker.getRetryDelay(1));
+        assertEquals(Duration.ofSeconds(120), worker.getRetryDelay(3));
+        assertEquals(Duration.ofMinutes(5), worker.getRetryDelay(10));
+        assertEquals(Duration.ofMinutes(5), worker.getRetryDelay(100));
+    }
+}
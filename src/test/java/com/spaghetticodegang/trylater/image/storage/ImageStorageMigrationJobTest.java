@@ -0,0 +1,40 @@
+package com.spaghetticodegang.trylater.image.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageStorageMigrationJobTest {
+
+    @TempDir
+    Path uploadDir;
+
+    @Test
+    void migrate_movesFlatFilesIntoShardsOnce() throws IOException {
+        LocalImageStorage storage = new LocalImageStorage(uploadDir.toString());
+        Files.write(uploadDir.resolve("first.png"), new byte[]{1});
+        Files.write(uploadDir.resolve("second_thumb.jpg"), new byte[]{2});
+        Files.write(uploadDir.resolve("upload-1.tmp"), new byte[]{3});
+        ImageStorageMigrationJob job = new ImageStorageMigrationJob(storage, uploadDir.toString(), true);
+
+        assertEquals(2, job.migrate());
+        assertEquals(0, job.migrate());
+
+        assertTrue(storage.exists("first.png"));
+        assertTrue(storage.exists("second_thumb.jpg"));
+        assertFalse(Files.exists(uploadDir.resolve("first.png")));
+        assertTrue(Files.exists(uploadDir.resolve("upload-1.tmp")));
+    }
+
+    @Test
+    void migrate_missingUploadDir_migratesNothing() {
+        ImageStorageMigrationJob job = new ImageStorageMigrationJob(new LocalImageStorage(uploadDir.toString()), uploadDir.resolve("missing").toString(), true);
+
+        assertEquals(0, job.migrate());
+    }
+}
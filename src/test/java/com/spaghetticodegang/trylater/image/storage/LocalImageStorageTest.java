@@ -0,0 +1,66 @@
+package com.spaghetticodegang.trylater.image.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalImageStorageTest {
+
+    @TempDir
+    Path rootDir;
+
+    @TempDir
+    Path otherDir;
+
+    private LocalImageStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new LocalImageStorage(rootDir.toString());
+    }
+
+    @Test
+    void store_movesFileIntoTwoLevelShard() throws IOException {
+        Path file = Files.write(otherDir.resolve("upload.tmp"), new byte[]{1, 2, 3});
+
+        storage.store("abc.png", file);
+
+        Path stored = storage.resolve("abc.png");
+        assertEquals(rootDir, stored.getParent().getParent().getParent());
+        assertEquals(2, stored.getParent().getFileName().toString().length());
+        assertArrayEquals(new byte[]{1, 2, 3}, Files.readAllBytes(stored));
+        assertFalse(Files.exists(file));
+        assertTrue(storage.exists("abc.png"));
+        try (InputStream inputStream = storage.open("abc.png")) {
+            assertArrayEquals(new byte[]{1, 2, 3}, inputStream.readAllBytes());
+        }
+        assertEquals(3, storage.getResource("abc.png").contentLength());
+    }
+
+    @Test
+    void delete_removesFile() throws IOException {
+        storage.store("abc.png", Files.write(otherDir.resolve("upload.tmp"), new byte[]{1}));
+
+        storage.delete("abc.png");
+        storage.delete("abc.png");
+
+        assertFalse(storage.exists("abc.png"));
+        assertThrows(NoSuchFileException.class, () -> storage.open("abc.png"));
+    }
+
+    @Test
+    void invalidPaths_areRejected() {
+        assertFalse(storage.exists("../secret.png"));
+        assertFalse(storage.exists("shard/abc.png"));
+        assertThrows(IllegalArgumentException.class, () -> storage.open("../secret.png"));
+        assertThrows(IllegalArgumentException.class, () -> storage.getResource(".hidden"));
+    }
+}
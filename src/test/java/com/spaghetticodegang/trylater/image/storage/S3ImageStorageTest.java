@@ -0,0 +1,161 @@
+package com.spaghetticodegang.trylater.image.storage;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class S3ImageStorageTest {
+
+    private static final String ACCESS_KEY = "test-access";
+    private static final String SECRET_KEY = "test-secret";
+    private static final String REGION = "eu-central-1";
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer server;
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private S3ImageStorage storage;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+        storage = new S3ImageStorage("http://localhost:" + server.getAddress().getPort(), "images", REGION, ACCESS_KEY, SECRET_KEY);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    /**
+     * In-process stand-in for the object store that keeps objects in memory and rejects requests with an invalid signature.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            final byte[] body = exchange.getRequestBody().readAllBytes();
+            if (!isSignatureValid(exchange, body)) {
+                exchange.sendResponseHeaders(403, -1);
+                return;
+            }
+            final String key = exchange.getRequestURI().getPath();
+            final byte[] object = objects.get(key);
+            switch (exchange.getRequestMethod()) {
+                case "PUT" -> {
+                    objects.put(key, body);
+                    exchange.sendResponseHeaders(200, -1);
+                }
+                case "DELETE" -> {
+                    objects.remove(key);
+                    exchange.sendResponseHeaders(204, -1);
+                }
+                case "HEAD" -> {
+                    if (object == null) {
+                        exchange.sendResponseHeaders(404, -1);
+                        return;
+                    }
+                    exchange.getResponseHeaders().set("Content-Length", String.valueOf(object.length));
+                    exchange.getResponseHeaders().set("Last-Modified", "Fri, 24 May 2013 00:00:00 GMT");
+                    exchange.sendResponseHeaders(200, -1);
+                }
+                case "GET" -> {
+                    if (object == null) {
+                        exchange.sendResponseHeaders(404, -1);
+                        return;
+                    }
+                    exchange.sendResponseHeaders(200, object.length);
+                    try (OutputStream outputStream = exchange.getResponseBody()) {
+                        outputStream.write(object);
+                    }
+                }
+                default -> exchange.sendResponseHeaders(405, -1);
+            }
+        }
+    }
+
+    private boolean isSignatureValid(HttpExchange exchange, byte[] body) {
+        final String payloadHash = exchange.getRequestHeaders().getFirst(S3RequestSigner.CONTENT_SHA256_HEADER);
+        if (payloadHash == null || !payloadHash.equals(S3RequestSigner.sha256Hex(body))) {
+            return false;
+        }
+        final SortedMap<String, String> headers = new TreeMap<>();
+        headers.put("host", exchange.getRequestHeaders().getFirst("Host"));
+        headers.put(S3RequestSigner.CONTENT_SHA256_HEADER, payloadHash);
+        headers.put(S3RequestSigner.AMZ_DATE_HEADER, exchange.getRequestHeaders().getFirst(S3RequestSigner.AMZ_DATE_HEADER));
+        final String expected = new S3RequestSigner(ACCESS_KEY, SECRET_KEY, REGION)
+                .authorization(exchange.getRequestMethod(), URI.create(exchange.getRequestURI().toString()), headers);
+        return expected.equals(exchange.getRequestHeaders().getFirst("Authorization"));
+    }
+
+    @Test
+    void store_uploadsObjectAndRemovesLocalFile() throws IOException {
+        Path file = Files.write(tempDir.resolve("upload.tmp"), new byte[]{1, 2, 3});
+
+        storage.store("abc.png", file);
+
+        assertArrayEquals(new byte[]{1, 2, 3}, objects.get("/images/abc.png"));
+        assertFalse(Files.exists(file));
+        assertTrue(storage.exists("abc.png"));
+        try (InputStream inputStream = storage.open("abc.png")) {
+            assertArrayEquals(new byte[]{1, 2, 3}, inputStream.readAllBytes());
+        }
+    }
+
+    @Test
+    void getResource_readsMetadataAndContent() throws IOException {
+        objects.put("/images/abc.png", new byte[]{4, 5});
+
+        Resource resource = storage.getResource("abc.png");
+
+        assertTrue(resource.exists());
+        assertEquals(2, resource.contentLength());
+        assertEquals(1369353600000L, resource.lastModified());
+        assertEquals("abc.png", resource.getFilename());
+        try (InputStream inputStream = resource.getInputStream()) {
+            assertArrayEquals(new byte[]{4, 5}, inputStream.readAllBytes());
+        }
+        assertFalse(storage.getResource("missing.png").exists());
+    }
+
+    @Test
+    void delete_removesObject() throws IOException {
+        objects.put("/images/abc.png", new byte[]{1});
+
+        storage.delete("abc.png");
+
+        assertFalse(storage.exists("abc.png"));
+        assertThrows(NoSuchFileException.class, () -> storage.open("abc.png"));
+    }
+
+    @Test
+    void wrongCredentials_areReportedAsIOException() throws IOException {
+        S3ImageStorage unauthorized = new S3ImageStorage("http://localhost:" + server.getAddress().getPort(), "images", REGION, ACCESS_KEY, "wrong");
+        Path file = Files.write(tempDir.resolve("upload.tmp"), new byte[]{1});
+
+        assertThrows(IOException.class, () -> unauthorized.store("abc.png", file));
+        assertTrue(Files.exists(file));
+        assertTrue(objects.isEmpty());
+    }
+}
@@ -0,0 +1,74 @@
+package com.spaghetticodegang.trylater.notification;
+
+import com.spaghetticodegang.trylater.notification.event.RecommendationReceivedEvent;
+import com.spaghetticodegang.trylater.user.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationServiceTest {
+
+    private NotificationService notificationService;
+
+    @BeforeEach
+    void setUp() {
+        notificationService = new NotificationService();
+        ReflectionTestUtils.setField(notificationService, "timeout", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(notificationService, "bufferSize", 4);
+        ReflectionTestUtils.setField(notificationService, "maxConnectionsPerUser", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        notificationService.shutdown();
+    }
+
+    private User createUser(Long id) {
+        return User.builder().id(id).userName("user" + id).build();
+    }
+
+    @Test
+    void shouldRegisterConnection_whenUserSubscribes() {
+        SseEmitter emitter = notificationService.subscribe(createUser(1L));
+
+        assertNotNull(emitter);
+        assertEquals(1, notificationService.getConnectionCount());
+    }
+
+    @Test
+    void shouldCloseOldestConnection_whenMaxConnectionsPerUserExceeded() {
+        User user = createUser(1L);
+
+        notificationService.subscribe(user);
+        notificationService.subscribe(user);
+        notificationService.subscribe(user);
+
+        assertEquals(2, notificationService.getConnectionCount());
+    }
+
+    @Test
+    void shouldIgnoreEvent_whenReceiverIsNotConnected() {
+        notificationService.subscribe(createUser(1L));
+
+        assertDoesNotThrow(() -> notificationService.onRecommendationReceived(new RecommendationReceivedEvent(2L, 10L)));
+        assertEquals(1, notificationService.getConnectionCount());
+    }
+
+    @Test
+    void shouldCloseConnection_whenBufferOverflows() {
+        Executor stalledExecutor = command -> { };
+        NotificationConnection connection = new NotificationConnection(new SseEmitter(), 2, stalledExecutor);
+
+        assertTrue(connection.offer(SseEmitter.event().comment("1")));
+        assertTrue(connection.offer(SseEmitter.event().comment("2")));
+        assertFalse(connection.offer(SseEmitter.event().comment("3")));
+        assertTrue(connection.isClosed());
+    }
+}
@@ -2,9 +2,27 @@ package com.spaghetticodegang.trylater.recommendation;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentStatus;
+import com.spaghetticodegang.trylater.recommendation.assignment.dto.RecommendationAssignmentBulkStatusRequestDto;
+import com.spaghetticodegang.trylater.recommendation.assignment.dto.RecommendationAssignmentBulkStatusResult;
+import com.spaghetticodegang.trylater.recommendation.assignment.dto.RecommendationAssignmentBulkStatusResultDto;
 import com.spaghetticodegang.trylater.recommendation.assignment.dto.RecommendationAssignmentStatusRequestDto;
+import com.spaghetticodegang.trylater.recommendation.bulkimport.RecommendationImportFormat;
+import com.spaghetticodegang.trylater.recommendation.bulkimport.RecommendationImportStatus;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationFacetResponseDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationFanOutResponseDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationForwardRequestDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationForwardResponseDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationFragmentCacheStatsDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationImportRequestDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationImportResponseDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationListItemDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationNormalizedListResponseDto;
+import com.spaghetticodegang.trylater.recommendation.fanout.RecommendationFanOutStatus;
 import com.spaghetticodegang.trylater.recommendation.dto.RecommendationRequestDto;
 import com.spaghetticodegang.trylater.recommendation.dto.RecommendationResponseDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationSearchResponseDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationSyncItemDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationSyncResponseDto;
 import com.spaghetticodegang.trylater.recommendation.tag.dto.TagGroupResponseDto;
 import com.spaghetticodegang.trylater.recommendation.category.CategoryType;
 import com.spaghetticodegang.trylater.recommendation.tag.dto.TagResponseDto;
@@ -17,20 +35,24 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 
 import static org.mockito.Mockito.doNothing;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.mockito.Mockito.when;
@@ -155,15 +177,120 @@ class RecommendationControllerTest {
                 .andExpect(jsonPath("$.tagGroups[0].tags[0].tagName").value("Action"));
     }
 
+    @Test
+    void shouldReturn202_whenCreatingRecommendationWithManyReceivers() throws Exception {
+        RecommendationRequestDto requestDto = RecommendationRequestDto.builder()
+                .title("recommendation")
+                .rating(2)
+                .category(CategoryType.MEDIA)
+                .receiverIds(List.of(2L, 3L))
+                .tagIds(List.of())
+                .build();
+
+        when(recommendationService.isFanOutRequired(any(RecommendationRequestDto.class))).thenReturn(true);
+        when(recommendationService.createRecommendationWithFanOut(any(User.class), any(RecommendationRequestDto.class)))
+                .thenReturn(RecommendationFanOutResponseDto.builder()
+                        .id(5L)
+                        .recommendationId(1L)
+                        .status(RecommendationFanOutStatus.PENDING)
+                        .totalReceivers(2)
+                        .build());
+
+        mockMvc.perform(post("/api/recommendation")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/recommendation/fan-out/5"))
+                .andExpect(jsonPath("$.recommendationId").value(1L))
+                .andExpect(jsonPath("$.status").value("PENDING"))
+                .andExpect(jsonPath("$.totalReceivers").value(2));
+    }
+
+    @Test
+    void shouldReturn200_whenForwardingRecommendation() throws Exception {
+        RecommendationForwardRequestDto requestDto = new RecommendationForwardRequestDto();
+        requestDto.setReceiverIds(List.of(2L, 3L));
+
+        when(recommendationService.isFanOutRequired(any(RecommendationForwardRequestDto.class))).thenReturn(false);
+        when(recommendationService.forwardRecommendation(any(User.class), eq(1L), any(RecommendationForwardRequestDto.class)))
+                .thenReturn(RecommendationForwardResponseDto.builder().recommendationId(1L).receiverIds(List.of(2L)).build());
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/recommendation/1/forward")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.recommendationId").value(1L))
+                .andExpect(jsonPath("$.receiverIds[0]").value(2L));
+    }
+
+    @Test
+    void shouldReturn200_whenGettingRecommendationFanOut() throws Exception {
+        when(recommendationService.getRecommendationFanOut(any(User.class), eq(5L)))
+                .thenReturn(RecommendationFanOutResponseDto.builder()
+                        .id(5L)
+                        .status(RecommendationFanOutStatus.COMPLETED)
+                        .totalReceivers(2)
+                        .deliveredReceivers(2)
+                        .build());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/recommendation/fan-out/5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.deliveredReceivers").value(2));
+    }
+
+    @Test
+    void shouldReturn202_whenImportingRecommendations() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "export.csv", "text/csv", "title,rating,category\nFilm,1,MEDIA\n".getBytes());
+        when(recommendationService.importRecommendations(any(User.class), any(RecommendationImportRequestDto.class)))
+                .thenReturn(RecommendationImportResponseDto.builder()
+                        .id(4L)
+                        .format(RecommendationImportFormat.CSV)
+                        .status(RecommendationImportStatus.RUNNING)
+                        .errors(List.of())
+                        .build());
+
+        mockMvc.perform(MockMvcRequestBuilders.multipart("/api/recommendation/import").file(file))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/recommendation/import/4"))
+                .andExpect(jsonPath("$.format").value("CSV"))
+                .andExpect(jsonPath("$.status").value("RUNNING"));
+    }
+
+    @Test
+    void shouldReturn200_whenUpdatingRecommendationAssignmentStatusesInBulk() throws Exception {
+        RecommendationAssignmentBulkStatusRequestDto requestDto = new RecommendationAssignmentBulkStatusRequestDto();
+        requestDto.setRecommendationIds(List.of(1L, 2L));
+        requestDto.setRecommendationAssignmentStatus(RecommendationAssignmentStatus.ACCEPTED);
+
+        when(recommendationService.updateRecommendationAssignmentStatuses(any(User.class), any(RecommendationAssignmentBulkStatusRequestDto.class)))
+                .thenReturn(List.of(
+                        RecommendationAssignmentBulkStatusResultDto.builder().recommendationId(1L).result(RecommendationAssignmentBulkStatusResult.UPDATED).build(),
+                        RecommendationAssignmentBulkStatusResultDto.builder().recommendationId(2L).result(RecommendationAssignmentBulkStatusResult.NOT_FOUND).build()));
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/recommendation")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(2))
+                .andExpect(jsonPath("$[0].recommendationId").value(1L))
+                .andExpect(jsonPath("$[0].result").value("UPDATED"))
+                .andExpect(jsonPath("$[1].result").value("NOT_FOUND"));
+    }
+
     @Test
     void shouldReturn200_whenGettingAllRecommendations() throws Exception {
-        List<RecommendationResponseDto> mockRecommendations = List.of(createRecommendationResponse());
+        List<byte[]> fragments = List.of(objectMapper.writeValueAsBytes(createRecommendationResponse()));
 
-        when(recommendationService.getAllRecommendationsByUserAndRecommendationStatus(any(User.class), any()))
-                .thenReturn(mockRecommendations);
+        when(recommendationService.getAllRecommendationFragmentsByUserAndRecommendationStatus(any(User.class), any()))
+                .thenReturn(fragments);
 
-        mockMvc.perform(MockMvcRequestBuilders.get("/api/recommendation")
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/recommendation")
                         .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.size()").value(1))
@@ -177,19 +304,142 @@ class RecommendationControllerTest {
 
     @Test
     void shouldReturn200_whenGettingAllRecommendationsWithStatusFilter() throws Exception {
-        List<RecommendationResponseDto> mockRecommendations = List.of(createRecommendationResponse());
+        List<byte[]> fragments = List.of(
+                objectMapper.writeValueAsBytes(createRecommendationResponse()),
+                objectMapper.writeValueAsBytes(createRecommendationResponse()));
 
-        when(recommendationService.getAllRecommendationsByUserAndRecommendationStatus(any(User.class), eq(RecommendationAssignmentStatus.ACCEPTED)))
-                .thenReturn(mockRecommendations);
+        when(recommendationService.getAllRecommendationFragmentsByUserAndRecommendationStatus(any(User.class), eq(RecommendationAssignmentStatus.ACCEPTED)))
+                .thenReturn(fragments);
 
-        mockMvc.perform(MockMvcRequestBuilders.get("/api/recommendation")
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/recommendation")
                         .param("status", "ACCEPTED")
                         .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.size()").value(1))
-                .andExpect(jsonPath("$[0].title").value("recommendation"));
+                .andExpect(jsonPath("$.size()").value(2))
+                .andExpect(jsonPath("$[1].title").value("recommendation"));
+    }
+
+    @Test
+    void shouldReturn200_whenGettingAllRecommendationsNormalized() throws Exception {
+        RecommendationNormalizedListResponseDto response = RecommendationNormalizedListResponseDto.builder()
+                .items(List.of(RecommendationListItemDto.builder()
+                        .id(1L)
+                        .title("recommendation")
+                        .creatorId(2L)
+                        .tagIds(List.of(3L))
+                        .build()))
+                .users(Map.of(2L, UserResponseDto.builder().id(2L).userName("tester").build()))
+                .tagGroups(Map.of(4L, TagGroupResponseDto.builder()
+                        .tagGroupId(4L)
+                        .tagGroupName("Genre")
+                        .tags(List.of(TagResponseDto.builder().id(3L).tagName("Action").build()))
+                        .build()))
+                .build();
+
+        when(recommendationService.getNormalizedRecommendationsByUserAndRecommendationStatus(any(User.class), eq(RecommendationAssignmentStatus.SENT)))
+                .thenReturn(response);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/recommendation")
+                        .param("status", "SENT")
+                        .param("shape", "normalized"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].creatorId").value(2L))
+                .andExpect(jsonPath("$.items[0].tagIds[0]").value(3L))
+                .andExpect(jsonPath("$.users['2'].userName").value("tester"))
+                .andExpect(jsonPath("$.tagGroups['4'].tags[0].tagName").value("Action"));
+    }
+
+    @Test
+    void shouldReturn200_whenGettingFragmentCacheStats() throws Exception {
+        when(recommendationService.getRecommendationFragmentCacheStats()).thenReturn(RecommendationFragmentCacheStatsDto.builder()
+                .entries(2)
+                .usedBytes(512)
+                .maxBytes(1024)
+                .hits(3)
+                .misses(1)
+                .hitRate(0.75)
+                .build());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/recommendation/fragment-cache"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.usedBytes").value(512))
+                .andExpect(jsonPath("$.hitRate").value(0.75));
     }
     
+    @Test
+    void shouldReturn200_whenSyncingRecommendations() throws Exception {
+        RecommendationSyncResponseDto syncResponse = RecommendationSyncResponseDto.builder()
+                .changed(List.of(RecommendationSyncItemDto.builder()
+                        .recommendation(createRecommendationResponse())
+                        .recommendationAssignmentStatus(RecommendationAssignmentStatus.SENT)
+                        .build()))
+                .deletedRecommendationIds(List.of(7L))
+                .watermark("NDI")
+                .hasMore(false)
+                .build();
+
+        when(recommendationService.syncRecommendations(any(User.class), eq("MTA")))
+                .thenReturn(syncResponse);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/recommendation/sync")
+                        .param("watermark", "MTA"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changed[0].recommendation.id").value(1L))
+                .andExpect(jsonPath("$.changed[0].recommendationAssignmentStatus").value("SENT"))
+                .andExpect(jsonPath("$.deletedRecommendationIds[0]").value(7L))
+                .andExpect(jsonPath("$.watermark").value("NDI"))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    void shouldReturn200_whenGettingRecommendationFacets() throws Exception {
+        RecommendationFacetResponseDto facetResponse = RecommendationFacetResponseDto.builder()
+                .categories(Map.of(CategoryType.MEDIA, 2))
+                .tags(Map.of(10L, 1))
+                .statuses(Map.of(RecommendationAssignmentStatus.SENT, 1))
+                .totalCount(1)
+                .recommendationIds(List.of(1L))
+                .build();
+
+        when(recommendationService.getRecommendationFacets(any(User.class), eq(CategoryType.MEDIA), eq(List.of(10L, 11L)), eq(null)))
+                .thenReturn(facetResponse);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/recommendation/facets")
+                        .param("category", "MEDIA")
+                        .param("tagIds", "10", "11"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.categories.MEDIA").value(2))
+                .andExpect(jsonPath("$.tags.10").value(1))
+                .andExpect(jsonPath("$.statuses.SENT").value(1))
+                .andExpect(jsonPath("$.totalCount").value(1))
+                .andExpect(jsonPath("$.recommendationIds[0]").value(1L));
+    }
+
+    @Test
+    void shouldReturn200_whenSearchingRecommendations() throws Exception {
+        RecommendationSearchResponseDto searchResponse = RecommendationSearchResponseDto.builder()
+                .results(List.of(createRecommendationResponse()))
+                .totalResults(1)
+                .page(0)
+                .size(20)
+                .build();
+
+        when(recommendationService.searchRecommendations(any(User.class), eq("recommendation"), eq(0), eq(20)))
+                .thenReturn(searchResponse);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/recommendation/search")
+                        .param("q", "recommendation"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].id").value(1L))
+                .andExpect(jsonPath("$.totalResults").value(1))
+                .andExpect(jsonPath("$.page").value(0))
+                .andExpect(jsonPath("$.size").value(20));
+    }
+
     @Test  
     void shouldReturn204_whenRecommendationAssignmentDeletedSuccessfully() throws Exception {
         Long recommendationId = 1L;
@@ -0,0 +1,191 @@
+package com.spaghetticodegang.trylater.recommendation;
+
+import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignment;
+import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentStatus;
+import com.spaghetticodegang.trylater.recommendation.category.Category;
+import com.spaghetticodegang.trylater.recommendation.category.CategoryType;
+import com.spaghetticodegang.trylater.recommendation.fanout.RecommendationFanOut;
+import com.spaghetticodegang.trylater.recommendation.fanout.RecommendationFanOutStatus;
+import com.spaghetticodegang.trylater.recommendation.tag.Tag;
+import com.spaghetticodegang.trylater.recommendation.tag.group.TagGroup;
+import com.spaghetticodegang.trylater.user.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import jakarta.persistence.EntityManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+class RecommendationRepositoryTest {
+
+    @Autowired
+    private RecommendationRepository repository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Category persistCategory() {
+        Category category = new Category();
+        category.setCategoryType(CategoryType.MEDIA);
+        entityManager.persist(category);
+        return category;
+    }
+
+    private Recommendation persistRecommendation(String title, Category category, List<Tag> tags) {
+        Recommendation recommendation = Recommendation.builder()
+                .title(title)
+                .rating(1)
+                .category(category)
+                .creationDate(LocalDateTime.now())
+                .tags(tags)
+                .build();
+        entityManager.persist(recommendation);
+        entityManager.flush();
+        entityManager.clear();
+        return recommendation;
+    }
+
+    @Test
+    void shouldIncrementAndDecrementReceiverCount() {
+        Recommendation recommendation = persistRecommendation("Title", persistCategory(), List.of());
+
+        repository.incrementReceiverCount(recommendation.getId());
+        repository.incrementReceiverCount(recommendation.getId());
+        repository.decrementReceiverCount(recommendation.getId());
+
+        assertThat(repository.findReceiverCountById(recommendation.getId())).contains(1);
+    }
+
+    @Test
+    void shouldNotDecrementReceiverCountBelowZero() {
+        Recommendation recommendation = persistRecommendation("Title", persistCategory(), List.of());
+
+        assertThat(repository.decrementReceiverCount(recommendation.getId())).isZero();
+        assertThat(repository.findReceiverCountById(recommendation.getId())).contains(0);
+    }
+
+    @Test
+    void shouldDeleteOnlyOrphansIncludingTheirTagLinks() {
+        Category category = persistCategory();
+        TagGroup tagGroup = TagGroup.builder().tagGroupName("Genre").category(category).build();
+        entityManager.persist(tagGroup);
+        Tag tag = Tag.builder().tagName("Action").tagGroup(tagGroup).build();
+        entityManager.persist(tag);
+
+        Recommendation orphan = persistRecommendation("Orphan", category, List.of(tag));
+        Recommendation assigned = persistRecommendation("Assigned", category, List.of(tag));
+        repository.incrementReceiverCount(assigned.getId());
+
+        assertThat(repository.deleteOrphansByIdIn(List.of(orphan.getId(), assigned.getId()))).isEqualTo(1);
+        entityManager.clear();
+
+        assertThat(repository.findById(orphan.getId())).isEmpty();
+        assertThat(repository.findAllWithTags())
+                .singleElement()
+                .satisfies(recommendation -> assertThat(recommendation.getTags()).hasSize(1));
+    }
+
+    @Test
+    void shouldInsertAllWithGeneratedIdsAndTags() {
+        Category category = persistCategory();
+        TagGroup tagGroup = TagGroup.builder().tagGroupName("Genre").category(category).build();
+        entityManager.persist(tagGroup);
+        Tag tag = Tag.builder().tagName("Action").tagGroup(tagGroup).build();
+        entityManager.persist(tag);
+        entityManager.flush();
+
+        List<Recommendation> recommendations = List.of(
+                Recommendation.builder().title("First").rating(1).category(category).creationDate(LocalDateTime.now()).tags(List.of(tag)).build(),
+                Recommendation.builder().title("Second").rating(2).category(category).creationDate(LocalDateTime.now()).tags(List.of()).build());
+
+        repository.insertAll(recommendations);
+        repository.addToReceiverCounts(recommendations.stream().map(Recommendation::getId).toList(), 1);
+        entityManager.clear();
+
+        assertThat(recommendations).allSatisfy(recommendation -> assertThat(recommendation.getId()).isNotNull());
+        assertThat(repository.findAllWithTags())
+                .extracting(Recommendation::getTitle, recommendation -> recommendation.getTags().size(), Recommendation::getReceiverCount)
+                .containsExactlyInAnyOrder(
+                        tuple("First", 1, 1),
+                        tuple("Second", 0, 1));
+    }
+
+    @Test
+    void shouldFindAndDeleteOnlyGivenOrphans() {
+        Category category = persistCategory();
+        Recommendation orphan = persistRecommendation("Orphan", category, List.of());
+        Recommendation otherOrphan = persistRecommendation("Other orphan", category, List.of());
+        Recommendation assigned = persistRecommendation("Assigned", category, List.of());
+        repository.incrementReceiverCount(assigned.getId());
+
+        List<Long> recommendationIds = List.of(orphan.getId(), assigned.getId());
+        assertThat(repository.findOrphansByIdIn(recommendationIds))
+                .extracting(Recommendation::getId)
+                .containsExactly(orphan.getId());
+        assertThat(repository.deleteOrphansByIdIn(recommendationIds)).isEqualTo(1);
+        entityManager.clear();
+
+        assertThat(repository.findById(orphan.getId())).isEmpty();
+        assertThat(repository.findById(otherOrphan.getId())).isPresent();
+        assertThat(repository.findById(assigned.getId())).isPresent();
+    }
+
+    @Test
+    void shouldNotTreatRecommendationsWithPendingFanOutAsOrphans() {
+        Recommendation recommendation = persistRecommendation("Title", persistCategory(), List.of());
+        entityManager.persist(RecommendationFanOut.builder()
+                .recommendationId(recommendation.getId())
+                .creatorId(1L)
+                .receiverIds(new ArrayList<>(List.of(2L, 3L)))
+                .totalReceivers(2)
+                .status(RecommendationFanOutStatus.PENDING)
+                .createdAt(LocalDateTime.now())
+                .build());
+        entityManager.flush();
+
+        assertThat(repository.findOrphansByIdIn(List.of(recommendation.getId()))).isEmpty();
+        assertThat(repository.deleteOrphansByIdIn(List.of(recommendation.getId()))).isZero();
+    }
+
+    @Test
+    void shouldDetectAssignmentsNotCountedAsReceivers() {
+        Recommendation recommendation = persistRecommendation("Title", persistCategory(), List.of());
+        assertThat(repository.existsUncountedAssignments()).isFalse();
+
+        User receiver = User.builder()
+                .userName("receiver")
+                .displayName("Receiver")
+                .email("receiver@example.com")
+                .password("password")
+                .registrationDate(LocalDateTime.now())
+                .build();
+        entityManager.persist(receiver);
+        entityManager.persist(RecommendationAssignment.builder()
+                .recommendation(entityManager.getReference(Recommendation.class, recommendation.getId()))
+                .receiver(receiver)
+                .recommendationAssignmentStatus(RecommendationAssignmentStatus.SENT)
+                .sentAt(LocalDateTime.now())
+                .build());
+        entityManager.flush();
+
+        assertThat(repository.existsUncountedAssignments()).isTrue();
+        assertThat(repository.reconcileReceiverCounts()).isEqualTo(1);
+        assertThat(repository.existsUncountedAssignments()).isFalse();
+    }
+
+    @Test
+    void shouldReconcileReceiverCountsWithAssignments() {
+        Recommendation recommendation = persistRecommendation("Title", persistCategory(), List.of());
+        repository.incrementReceiverCount(recommendation.getId());
+
+        assertThat(repository.reconcileReceiverCounts()).isEqualTo(1);
+        assertThat(repository.findReceiverCountById(recommendation.getId())).contains(0);
+    }
+}
@@ -2,14 +2,30 @@ package com.spaghetticodegang.trylater.recommendation;
 
 import com.spaghetticodegang.trylater.contact.ContactService;
 import com.spaghetticodegang.trylater.image.ImageService;
+import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignment;
 import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentService;
+import com.spaghetticodegang.trylater.recommendation.assignment.change.RecommendationAssignmentChange;
+import com.spaghetticodegang.trylater.recommendation.assignment.change.RecommendationAssignmentChangeType;
 import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentStatus;
 import com.spaghetticodegang.trylater.recommendation.assignment.dto.RecommendationAssignmentStatusRequestDto;
+import com.spaghetticodegang.trylater.recommendation.bulkimport.RecommendationImportService;
 import com.spaghetticodegang.trylater.recommendation.category.Category;
 import com.spaghetticodegang.trylater.recommendation.category.CategoryRepository;
 import com.spaghetticodegang.trylater.recommendation.category.CategoryType;
 import com.spaghetticodegang.trylater.recommendation.dto.RecommendationRequestDto;
 import com.spaghetticodegang.trylater.recommendation.dto.RecommendationResponseDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationSearchResponseDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationSyncResponseDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationFacetResponseDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationFanOutResponseDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationForwardRequestDto;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationForwardResponseDto;
+import com.spaghetticodegang.trylater.recommendation.facet.RecommendationFacetService;
+import com.spaghetticodegang.trylater.recommendation.fanout.RecommendationFanOutService;
+import com.spaghetticodegang.trylater.recommendation.fragment.RecommendationFragmentCache;
+import com.spaghetticodegang.trylater.recommendation.inbox.InboxService;
+import com.spaghetticodegang.trylater.recommendation.search.RecommendationSearchHits;
+import com.spaghetticodegang.trylater.recommendation.search.RecommendationSearchIndex;
 import com.spaghetticodegang.trylater.recommendation.tag.Tag;
 import com.spaghetticodegang.trylater.recommendation.tag.group.TagGroup;
 import com.spaghetticodegang.trylater.recommendation.tag.TagService;
@@ -26,9 +42,16 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -57,6 +80,24 @@ class RecommendationServiceTest {
     @Mock
     private ImageService imageService;
 
+    @Mock
+    private RecommendationSearchIndex recommendationSearchIndex;
+
+    @Mock
+    private RecommendationFacetService recommendationFacetService;
+
+    @Mock
+    private RecommendationFanOutService recommendationFanOutService;
+
+    @Mock
+    private RecommendationFragmentCache recommendationFragmentCache;
+
+    @Mock
+    private InboxService inboxService;
+
+    @Mock
+    private RecommendationImportService recommendationImportService;
+
     @Mock
     private MessageUtil messageUtil;
 
@@ -115,6 +156,7 @@ class RecommendationServiceTest {
         when(userService.findUserById(receiver.getId())).thenReturn(receiver);
         when(userService.createUserResponseDto(creator)).thenReturn(UserResponseDto.builder().id(1L).build());
         when(tagService.createTagGroupResponseDtoFromTags(anyList())).thenReturn(List.of());
+        when(imageService.getBlurHash("./assets/img.png")).thenReturn("L00000fQfQfQfQfQfQfQfQfQfQfQ");
 
         RecommendationResponseDto result = recommendationService.createRecommendation(creator, request);
 
@@ -122,9 +164,12 @@ class RecommendationServiceTest {
         assertEquals("recommendation", result.getTitle());
         assertEquals("description", result.getDescription());
         assertEquals("./assets/img.png", result.getImgPath());
+        assertEquals("L00000fQfQfQfQfQfQfQfQfQfQfQ", result.getImgBlurHash());
         assertEquals(2L, result.getRating());
         assertEquals(CategoryType.MEDIA, result.getCategory());
         verify(recommendationRepository).save(any(Recommendation.class));
+        verify(recommendationSearchIndex).index(any(Recommendation.class));
+        verify(imageService).addImageReference("./assets/img.png");
         verify(recommendationAssignmentService).createRecommendationAssignment(any(Recommendation.class), eq(receiver));
     }
 
@@ -212,6 +257,93 @@ class RecommendationServiceTest {
         assertEquals("Der angegebene Empfänger ist kein gültiger Kontakt.", ex.getErrors().get("receiver"));
     }
 
+    @Test
+    void shouldCreateRecommendationWithFanOut_withDistinctReceiverIds() {
+        User creator = createUser(1L);
+        Category category = createCategory(CategoryType.MEDIA);
+        RecommendationRequestDto request = createRequestDto(CategoryType.MEDIA, List.of(), List.of(2L, 3L, 2L, 1L));
+        RecommendationFanOutResponseDto fanOut = RecommendationFanOutResponseDto.builder().id(5L).build();
+
+        when(categoryRepository.findByCategoryType(CategoryType.MEDIA)).thenReturn(Optional.of(category));
+        when(contactService.getContactUserIds(creator.getId())).thenReturn(Set.of(2L, 3L));
+        when(recommendationFanOutService.createFanOut(eq(creator), any(Recommendation.class), eq(List.of(2L, 3L, 1L)))).thenReturn(fanOut);
+
+        RecommendationFanOutResponseDto result = recommendationService.createRecommendationWithFanOut(creator, request);
+
+        assertEquals(5L, result.getId());
+        verify(recommendationRepository).save(any(Recommendation.class));
+        verify(recommendationSearchIndex).index(any(Recommendation.class));
+        verifyNoInteractions(recommendationAssignmentService, userService);
+    }
+
+    @Test
+    void shouldForwardRecommendation_toDistinctContactsWithoutSender() {
+        User sender = createUser(2L);
+        Recommendation recommendation = Recommendation.builder().id(recommendationId).creator(createUser(1L)).build();
+        RecommendationForwardRequestDto request = new RecommendationForwardRequestDto();
+        request.setReceiverIds(List.of(3L, 2L, 3L, 1L));
+
+        when(recommendationAssignmentService.getRecommendationAssignmentByUserIdAndRecommendationId(2L, recommendationId))
+                .thenReturn(new RecommendationAssignment());
+        when(recommendationRepository.findById(recommendationId)).thenReturn(Optional.of(recommendation));
+        when(contactService.getContactUserIds(2L)).thenReturn(Set.of(1L, 3L));
+        when(recommendationAssignmentService.createRecommendationAssignments(recommendation, List.of(3L, 1L))).thenReturn(List.of(3L));
+
+        RecommendationForwardResponseDto result = recommendationService.forwardRecommendation(sender, recommendationId, request);
+
+        assertEquals(recommendationId, result.getRecommendationId());
+        assertEquals(List.of(3L), result.getReceiverIds());
+        verify(recommendationRepository, never()).save(any(Recommendation.class));
+        verifyNoInteractions(imageService, recommendationSearchIndex);
+    }
+
+    @Test
+    void shouldThrowNotFound_whenForwardingRecommendationWithoutAssignment() {
+        RecommendationForwardRequestDto request = new RecommendationForwardRequestDto();
+        request.setReceiverIds(List.of(3L));
+
+        when(recommendationAssignmentService.getRecommendationAssignmentByUserIdAndRecommendationId(2L, recommendationId)).thenReturn(null);
+
+        assertThrows(RecommendationNotFoundException.class, () ->
+                recommendationService.forwardRecommendation(createUser(2L), recommendationId, request));
+        verify(recommendationAssignmentService, never()).createRecommendationAssignments(any(), any());
+    }
+
+    @Test
+    void shouldForwardRecommendationWithFanOut_startedBySender() {
+        User sender = createUser(2L);
+        Recommendation recommendation = Recommendation.builder().id(recommendationId).creator(createUser(1L)).build();
+        RecommendationForwardRequestDto request = new RecommendationForwardRequestDto();
+        request.setReceiverIds(List.of(3L, 4L));
+        RecommendationFanOutResponseDto fanOut = RecommendationFanOutResponseDto.builder().id(5L).build();
+
+        when(recommendationAssignmentService.getRecommendationAssignmentByUserIdAndRecommendationId(2L, recommendationId))
+                .thenReturn(new RecommendationAssignment());
+        when(recommendationRepository.findById(recommendationId)).thenReturn(Optional.of(recommendation));
+        when(contactService.getContactUserIds(2L)).thenReturn(Set.of(3L, 4L));
+        when(recommendationFanOutService.createFanOut(sender, recommendation, List.of(3L, 4L))).thenReturn(fanOut);
+
+        assertEquals(5L, recommendationService.forwardRecommendationWithFanOut(sender, recommendationId, request).getId());
+    }
+
+    @Test
+    void shouldThrowValidationException_whenFanOutReceiverIsNotContact() {
+        User creator = createUser(1L);
+        Category category = createCategory(CategoryType.MEDIA);
+        RecommendationRequestDto request = createRequestDto(CategoryType.MEDIA, List.of(), List.of(2L, 4L));
+
+        when(categoryRepository.findByCategoryType(CategoryType.MEDIA)).thenReturn(Optional.of(category));
+        when(contactService.getContactUserIds(creator.getId())).thenReturn(Set.of(2L));
+        when(messageUtil.get("recommendation.receiver.not.valid")).thenReturn("Der angegebene Empfänger ist kein gültiger Kontakt.");
+
+        ValidationException ex = assertThrows(ValidationException.class, () ->
+                recommendationService.createRecommendationWithFanOut(creator, request));
+
+        assertTrue(ex.getErrors().containsKey("receiver"));
+        verify(recommendationRepository, never()).save(any());
+        verifyNoInteractions(recommendationFanOutService);
+    }
+
     @Test
     void testUpdateRecommendationAssignmentStatus_recommendationNotFound() {
         User me = new User();
@@ -221,7 +353,7 @@ class RecommendationServiceTest {
         Mockito.doNothing().when(recommendationAssignmentService)
                 .updateRecommendationAssignmentStatus(me, recommendationId, requestDto);
 
-        Mockito.when(recommendationRepository.findById(recommendationId))
+        Mockito.when(recommendationRepository.findWithDetailsById(recommendationId))
                 .thenReturn(Optional.empty());
 
         Assertions.assertThrows(RecommendationNotFoundException.class, () -> {
@@ -247,7 +379,7 @@ class RecommendationServiceTest {
                 .build();
 
         doNothing().when(recommendationAssignmentService).updateRecommendationAssignmentStatus(user, recommendationId, requestDto);
-        when(recommendationRepository.findById(recommendationId))
+        when(recommendationRepository.findWithDetailsById(recommendationId))
                 .thenReturn(Optional.of(recommendation));
 
         RecommendationResponseDto response = recommendationService.updateRecommendationAssignmentStatus(user, recommendationId, requestDto);
@@ -261,55 +393,48 @@ class RecommendationServiceTest {
         assertEquals(recommendation.getCategory().getCategoryType(), response.getCategory());
 
         verify(recommendationAssignmentService).updateRecommendationAssignmentStatus(user, recommendationId, requestDto);
-        verify(recommendationRepository).findById(recommendationId);
+        verify(recommendationRepository).findWithDetailsById(recommendationId);
     }
 
     @Test
     void shouldReturnRecommendationsFilteredByStatus() {
         User user = createUser(1L);
         RecommendationAssignmentStatus status = RecommendationAssignmentStatus.ACCEPTED;
+        List<byte[]> inbox = List.of("{}".getBytes(StandardCharsets.UTF_8));
 
-        Recommendation recommendation = Recommendation.builder()
-                .id(1L)
-                .title("Test Recommendation")
-                .description("Some description")
-                .rating(4)
-                .imgPath("/img/test.png")
-                .category(createCategory(CategoryType.MEDIA))
-                .build();
-
-        List<Recommendation> mockRecommendations = List.of(recommendation);
-
-        when(recommendationAssignmentService.getAllRecommendationsByUserAndAssignmentStatus(user, status))
-                .thenReturn(mockRecommendations);
+        when(inboxService.getInbox(user.getId(), status)).thenReturn(inbox);
 
-        List<RecommendationResponseDto> responseList =
-                recommendationService.getAllRecommendationsByUserAndRecommendationStatus(user, status);
+        List<byte[]> fragments =
+                recommendationService.getAllRecommendationFragmentsByUserAndRecommendationStatus(user, status);
 
-        assertNotNull(responseList);
-        assertEquals(1, responseList.size());
-        RecommendationResponseDto responseDto = responseList.get(0);
-        assertEquals(recommendation.getId(), responseDto.getId());
-        assertEquals(recommendation.getTitle(), responseDto.getTitle());
-        assertEquals(recommendation.getDescription(), responseDto.getDescription());
-        assertEquals(recommendation.getRating(), responseDto.getRating());
-        assertEquals(recommendation.getImgPath(), responseDto.getImgPath());
-        assertEquals(recommendation.getCategory().getCategoryType(), responseDto.getCategory());
+        assertEquals(inbox, fragments);
+        verify(inboxService).getInbox(user.getId(), status);
+    }
 
-        verify(recommendationAssignmentService).getAllRecommendationsByUserAndAssignmentStatus(user, status);
+    @Test
+    void validateListShape_shouldAcceptKnownShapesAndRejectOthers() {
+        when(messageUtil.get("recommendation.list.shape.invalid")).thenReturn("Unbekanntes Antwortformat.");
+
+        assertDoesNotThrow(() -> recommendationService.validateListShape(null));
+        assertDoesNotThrow(() -> recommendationService.validateListShape("embedded"));
+        assertDoesNotThrow(() -> recommendationService.validateListShape("normalized"));
+        ValidationException ex = assertThrows(ValidationException.class, () -> recommendationService.validateListShape("flat"));
+        assertTrue(ex.getErrors().containsKey("shape"));
     }
 
     @Test
     void deleteRecommendationAssignment_recommendationStillExists_doesNotDeleteRecommendation() {
         User user = createUser(1L);
-        when(recommendationAssignmentService.existsRecommendationInRecommendationAssignment(recommendationId))
-                .thenReturn(true);
+        when(recommendationRepository.findOrphansByIdIn(List.of(recommendationId)))
+                .thenReturn(List.of());
 
         recommendationService.deleteRecommendationAssignment(user, recommendationId);
 
         verify(recommendationAssignmentService).deleteRecommendationAssignmentByRecommendationId(user.getId(), recommendationId);
-        verify(recommendationAssignmentService).existsRecommendationInRecommendationAssignment(recommendationId);
-        verify(recommendationRepository, never()).deleteById(any());
+        verify(recommendationRepository).findOrphansByIdIn(List.of(recommendationId));
+        verify(recommendationRepository, never()).deleteOrphansByIdIn(any());
+        verify(imageService, never()).releaseImageReference(any());
+        verify(recommendationSearchIndex, never()).remove(any());
     }
 
     @Test
@@ -321,20 +446,69 @@ class RecommendationServiceTest {
         recommendation.setId(recommendationId);
         recommendation.setImgPath("some/image/path.jpg");
 
-        when(recommendationAssignmentService.existsRecommendationInRecommendationAssignment(recommendationId))
-                .thenReturn(false);
-        when(recommendationRepository.findById(recommendationId))
-                .thenReturn(Optional.of(recommendation));
+        when(recommendationRepository.findOrphansByIdIn(List.of(recommendationId)))
+                .thenReturn(List.of(recommendation));
 
         recommendationService.deleteRecommendationAssignment(user, recommendationId);
 
         verify(recommendationAssignmentService)
                 .deleteRecommendationAssignmentByRecommendationId(user.getId(), recommendationId);
-        verify(recommendationAssignmentService)
-                .existsRecommendationInRecommendationAssignment(recommendationId);
-        verify(recommendationRepository).findById(recommendationId);
-        verify(recommendationRepository).deleteById(recommendationId);
-        verify(imageService).deleteImageByImgPath("some/image/path.jpg");
+        verify(recommendationRepository).findOrphansByIdIn(List.of(recommendationId));
+        verify(recommendationRepository).deleteOrphansByIdIn(List.of(recommendationId));
+        verify(recommendationSearchIndex).remove(recommendationId);
+        verify(imageService).releaseImageReference("some/image/path.jpg");
+    }
+
+    @Test
+    void searchRecommendations_returnsResultsInRankedOrder() {
+        User user = createUser(1L);
+        Category category = createCategory(CategoryType.MEDIA);
+
+        Recommendation first = new Recommendation();
+        first.setId(7L);
+        first.setTitle("first");
+        first.setCategory(category);
+        Recommendation second = new Recommendation();
+        second.setId(3L);
+        second.setTitle("second");
+        second.setCategory(category);
+
+        when(recommendationSearchIndex.search(user.getId(), "pizza", 0, 20))
+                .thenReturn(new RecommendationSearchHits(List.of(7L, 3L), 12));
+        when(recommendationRepository.findAllById(List.of(7L, 3L))).thenReturn(List.of(second, first));
+
+        RecommendationSearchResponseDto result = recommendationService.searchRecommendations(user, " pizza ", 0, 20);
+
+        assertEquals(12, result.getTotalResults());
+        assertEquals(List.of(7L, 3L), result.getResults().stream().map(RecommendationResponseDto::getId).toList());
+    }
+
+    @Test
+    void getRecommendationFacets_withoutTagFilter_delegatesWithEmptyTagList() {
+        User user = createUser(1L);
+        RecommendationFacetResponseDto facets = RecommendationFacetResponseDto.builder().totalCount(0).build();
+
+        when(recommendationFacetService.getFacets(user.getId(), CategoryType.MEDIA, List.of(), null)).thenReturn(facets);
+
+        assertSame(facets, recommendationService.getRecommendationFacets(user, CategoryType.MEDIA, null, null));
+    }
+
+    @Test
+    void searchRecommendations_blankQuery_throwsValidationException() {
+        User user = createUser(1L);
+        when(messageUtil.get("recommendation.search.query.empty")).thenReturn("Der Suchbegriff darf nicht leer sein.");
+
+        assertThrows(ValidationException.class, () -> recommendationService.searchRecommendations(user, "  ", 0, 20));
+        verifyNoInteractions(recommendationSearchIndex);
+    }
+
+    @Test
+    void searchRecommendations_pageSizeTooLarge_throwsValidationException() {
+        User user = createUser(1L);
+        when(messageUtil.get("recommendation.search.page.invalid")).thenReturn("Ungültige Seitenangabe.");
+
+        assertThrows(ValidationException.class, () -> recommendationService.searchRecommendations(user, "pizza", 0, 1000));
+        verifyNoInteractions(recommendationSearchIndex);
     }
 
     @Test
@@ -346,18 +520,151 @@ class RecommendationServiceTest {
         recommendation.setId(recommendationId);
         recommendation.setImgPath(null);
 
-        when(recommendationAssignmentService.existsRecommendationInRecommendationAssignment(recommendationId))
-                .thenReturn(false);
-        when(recommendationRepository.findById(recommendationId))
-                .thenReturn(Optional.of(recommendation));
+        when(recommendationRepository.findOrphansByIdIn(List.of(recommendationId)))
+                .thenReturn(List.of(recommendation));
 
         recommendationService.deleteRecommendationAssignment(user, recommendationId);
 
         verify(recommendationAssignmentService)
                 .deleteRecommendationAssignmentByRecommendationId(user.getId(), recommendationId);
-        verify(recommendationAssignmentService)
-                .existsRecommendationInRecommendationAssignment(recommendationId);
-        verify(recommendationRepository).findById(recommendationId);
-        verify(recommendationRepository).deleteById(recommendationId);
+        verify(recommendationRepository).findOrphansByIdIn(List.of(recommendationId));
+        verify(recommendationRepository).deleteOrphansByIdIn(List.of(recommendationId));
+    }
+
+    private String watermark(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String watermark(long sequence, LocalDateTime readAt) {
+        return watermark(sequence + ":" + readAt.toEpochSecond(ZoneOffset.UTC));
+    }
+
+    private String[] decodeWatermark(String watermark) {
+        return new String(Base64.getUrlDecoder().decode(watermark), StandardCharsets.UTF_8).split(":");
+    }
+
+    private RecommendationAssignmentChange createChange(Long id, Long recommendationId, RecommendationAssignmentChangeType changeType) {
+        return RecommendationAssignmentChange.builder()
+                .id(id)
+                .receiverId(1L)
+                .recommendationId(recommendationId)
+                .changeType(changeType)
+                .build();
+    }
+
+    @Test
+    void syncRecommendations_withoutWatermark_returnsAllAssignmentsAndCurrentWatermark() {
+        User user = createUser(1L);
+        Recommendation recommendation = Recommendation.builder()
+                .id(5L)
+                .title("Title")
+                .category(createCategory(CategoryType.MEDIA))
+                .build();
+        RecommendationAssignment assignment = RecommendationAssignment.builder()
+                .recommendation(recommendation)
+                .recommendationAssignmentStatus(RecommendationAssignmentStatus.SENT)
+                .build();
+
+        when(recommendationAssignmentService.getCurrentChangeSequence()).thenReturn(42L);
+        when(recommendationAssignmentService.getAllRecommendationAssignmentsByUserId(1L)).thenReturn(List.of(assignment));
+
+        RecommendationSyncResponseDto result = recommendationService.syncRecommendations(user, null);
+
+        assertEquals(1, result.getChanged().size());
+        assertEquals(5L, result.getChanged().getFirst().getRecommendation().getId());
+        assertEquals(RecommendationAssignmentStatus.SENT, result.getChanged().getFirst().getRecommendationAssignmentStatus());
+        assertTrue(result.getDeletedRecommendationIds().isEmpty());
+        assertEquals("42", decodeWatermark(result.getWatermark())[0]);
+        assertFalse(result.isHasMore());
+    }
+
+    @Test
+    void syncRecommendations_withWatermark_returnsChangedAndDeletedRecommendations() {
+        ReflectionTestUtils.setField(recommendationService, "syncSafetyWindow", Duration.ofMinutes(5));
+        User user = createUser(1L);
+        Recommendation recommendation = Recommendation.builder()
+                .id(5L)
+                .title("Title")
+                .category(createCategory(CategoryType.MEDIA))
+                .build();
+        RecommendationAssignment assignment = RecommendationAssignment.builder()
+                .recommendation(recommendation)
+                .recommendationAssignmentStatus(RecommendationAssignmentStatus.ACCEPTED)
+                .build();
+
+        LocalDateTime previousReadAt = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+        when(recommendationAssignmentService.getRecommendationIdsChangedUpTo(1L, 10L, previousReadAt.minusMinutes(5))).thenReturn(List.of());
+        when(recommendationAssignmentService.getChangesSince(1L, 10L, 501)).thenReturn(List.of(
+                createChange(11L, 5L, RecommendationAssignmentChangeType.CREATED),
+                createChange(12L, 6L, RecommendationAssignmentChangeType.DELETED),
+                createChange(13L, 5L, RecommendationAssignmentChangeType.UPDATED)
+        ));
+        when(recommendationAssignmentService.getRecommendationAssignmentsByUserIdAndRecommendationIds(1L, List.of(5L, 6L)))
+                .thenReturn(List.of(assignment));
+
+        RecommendationSyncResponseDto result = recommendationService.syncRecommendations(user, watermark(10L, previousReadAt));
+
+        assertEquals(1, result.getChanged().size());
+        assertEquals(RecommendationAssignmentStatus.ACCEPTED, result.getChanged().getFirst().getRecommendationAssignmentStatus());
+        assertEquals(List.of(6L), result.getDeletedRecommendationIds());
+        assertEquals("13", decodeWatermark(result.getWatermark())[0]);
+        assertFalse(result.isHasMore());
+    }
+
+    @Test
+    void syncRecommendations_withLateCommittedChangeBelowWatermark_returnsItAgain() {
+        ReflectionTestUtils.setField(recommendationService, "syncSafetyWindow", Duration.ofMinutes(5));
+        User user = createUser(1L);
+        Recommendation recommendation = Recommendation.builder()
+                .id(7L)
+                .title("Title")
+                .category(createCategory(CategoryType.MEDIA))
+                .build();
+        RecommendationAssignment assignment = RecommendationAssignment.builder()
+                .recommendation(recommendation)
+                .recommendationAssignmentStatus(RecommendationAssignmentStatus.SENT)
+                .build();
+        LocalDateTime previousReadAt = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+        when(recommendationAssignmentService.getRecommendationIdsChangedUpTo(1L, 10L, previousReadAt.minusMinutes(5))).thenReturn(List.of(7L));
+        when(recommendationAssignmentService.getChangesSince(1L, 10L, 501)).thenReturn(List.of());
+        when(recommendationAssignmentService.getRecommendationAssignmentsByUserIdAndRecommendationIds(1L, List.of(7L)))
+                .thenReturn(List.of(assignment));
+
+        RecommendationSyncResponseDto result = recommendationService.syncRecommendations(user, watermark(10L, previousReadAt));
+
+        assertEquals(1, result.getChanged().size());
+        assertEquals(7L, result.getChanged().getFirst().getRecommendation().getId());
+        assertTrue(result.getDeletedRecommendationIds().isEmpty());
+        assertEquals("10", decodeWatermark(result.getWatermark())[0]);
+    }
+
+    @Test
+    void syncRecommendations_withoutNewChanges_keepsSequence() {
+        ReflectionTestUtils.setField(recommendationService, "syncSafetyWindow", Duration.ofMinutes(5));
+        User user = createUser(1L);
+        String watermark = watermark("10");
+
+        when(recommendationAssignmentService.getRecommendationIdsChangedUpTo(eq(1L), eq(10L), any())).thenReturn(List.of());
+        when(recommendationAssignmentService.getChangesSince(1L, 10L, 501)).thenReturn(List.of());
+
+        RecommendationSyncResponseDto result = recommendationService.syncRecommendations(user, watermark);
+
+        assertTrue(result.getChanged().isEmpty());
+        assertTrue(result.getDeletedRecommendationIds().isEmpty());
+        assertEquals("10", decodeWatermark(result.getWatermark())[0]);
+        verify(recommendationAssignmentService, never()).getRecommendationAssignmentsByUserIdAndRecommendationIds(any(), any());
+    }
+
+    @Test
+    void syncRecommendations_withInvalidWatermark_throwsValidationException() {
+        User user = createUser(1L);
+        when(messageUtil.get("recommendation.sync.watermark.invalid")).thenReturn("Der Synchronisationsstand ist ungültig.");
+
+        ValidationException ex = assertThrows(ValidationException.class, () ->
+                recommendationService.syncRecommendations(user, "not-a-watermark"));
+
+        assertEquals("Der Synchronisationsstand ist ungültig.", ex.getErrors().get("watermark"));
     }
 }
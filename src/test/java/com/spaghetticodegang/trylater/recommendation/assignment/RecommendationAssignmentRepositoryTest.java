@@ -13,6 +13,8 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import jakarta.persistence.EntityManager;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -98,6 +100,94 @@ class RecommendationAssignmentRepositoryTest {
         assertThat(exists).isTrue();
     }
 
+    @Test
+    void shouldAcceptOnlySentAssignmentsOfReceiver_whenAcceptingInBulk() {
+        User receiver = createUser("receiver");
+        User other = createUser("other");
+        entityManager.persist(receiver);
+        entityManager.persist(other);
+
+        Category category = new Category();
+        category.setCategoryType(CategoryType.MEDIA);
+        entityManager.persist(category);
+
+        Recommendation sent = createRecommendation("sent", category, other);
+        Recommendation accepted = createRecommendation("accepted", category, other);
+        Recommendation foreign = createRecommendation("foreign", category, other);
+        entityManager.persist(sent);
+        entityManager.persist(accepted);
+        entityManager.persist(foreign);
+
+        entityManager.persist(createAssignment(receiver, sent, RecommendationAssignmentStatus.SENT));
+        entityManager.persist(createAssignment(receiver, accepted, RecommendationAssignmentStatus.ACCEPTED));
+        entityManager.persist(createAssignment(other, foreign, RecommendationAssignmentStatus.SENT));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Long> recommendationIds = List.of(sent.getId(), accepted.getId(), foreign.getId());
+
+        assertThat(repository.findAllForUpdateByUserIdAndRecommendationIds(receiver.getId(), recommendationIds))
+                .extracting(assignment -> assignment.getRecommendation().getId())
+                .containsExactlyInAnyOrder(sent.getId(), accepted.getId());
+
+        int updated = repository.acceptRecommendationAssignments(receiver.getId(), recommendationIds, LocalDateTime.now(), Set.of(RecommendationAssignmentStatus.SENT));
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(repository.findRecommendationAssignmentByUserIdAndRecommendationId(receiver.getId(), sent.getId()).getRecommendationAssignmentStatus())
+                .isEqualTo(RecommendationAssignmentStatus.ACCEPTED);
+        assertThat(repository.findRecommendationAssignmentByUserIdAndRecommendationId(other.getId(), foreign.getId()).getRecommendationAssignmentStatus())
+                .isEqualTo(RecommendationAssignmentStatus.SENT);
+    }
+
+    @Test
+    void shouldInsertAssignmentsInBatch_forUnassignedReceiversOnly() {
+        User creator = createUser("creator");
+        User assigned = createUser("assigned");
+        User unassigned = createUser("unassigned");
+        entityManager.persist(creator);
+        entityManager.persist(assigned);
+        entityManager.persist(unassigned);
+
+        Category category = new Category();
+        category.setCategoryType(CategoryType.MEDIA);
+        entityManager.persist(category);
+
+        Recommendation recommendation = createRecommendation("Title", category, creator);
+        entityManager.persist(recommendation);
+        entityManager.persist(createAssignment(assigned, recommendation, RecommendationAssignmentStatus.SENT));
+        entityManager.flush();
+
+        List<Long> unassignedIds = repository.findUnassignedReceiverIds(recommendation.getId(), List.of(assigned.getId(), unassigned.getId(), -1L));
+
+        assertThat(unassignedIds).containsExactly(unassigned.getId());
+
+        repository.insertAll(recommendation.getId(), unassignedIds, RecommendationAssignmentStatus.SENT, LocalDateTime.now(), null);
+
+        RecommendationAssignment inserted = repository.findRecommendationAssignmentByUserIdAndRecommendationId(unassigned.getId(), recommendation.getId());
+        assertThat(inserted).isNotNull();
+        assertThat(inserted.getRecommendationAssignmentStatus()).isEqualTo(RecommendationAssignmentStatus.SENT);
+        assertThat(repository.findUnassignedReceiverIds(recommendation.getId(), unassignedIds)).isEmpty();
+    }
+
+    private Recommendation createRecommendation(String title, Category category, User creator) {
+        return Recommendation.builder()
+                .title(title)
+                .rating(1)
+                .category(category)
+                .creator(creator)
+                .creationDate(LocalDateTime.now())
+                .build();
+    }
+
+    private RecommendationAssignment createAssignment(User receiver, Recommendation recommendation, RecommendationAssignmentStatus status) {
+        return RecommendationAssignment.builder()
+                .receiver(receiver)
+                .recommendation(recommendation)
+                .recommendationAssignmentStatus(status)
+                .sentAt(LocalDateTime.now())
+                .build();
+    }
+
     private User createUser(String name) {
         User user = new User();
         user.setUserName(name);
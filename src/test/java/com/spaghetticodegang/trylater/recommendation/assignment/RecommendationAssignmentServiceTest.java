@@ -1,6 +1,15 @@
 package com.spaghetticodegang.trylater.recommendation.assignment;
 
+import com.spaghetticodegang.trylater.recommendation.inbox.InboxService;
+import com.spaghetticodegang.trylater.notification.event.RecommendationReceivedEvent;
 import com.spaghetticodegang.trylater.recommendation.Recommendation;
+import com.spaghetticodegang.trylater.recommendation.RecommendationRepository;
+import com.spaghetticodegang.trylater.recommendation.assignment.change.RecommendationAssignmentChangeRepository;
+import com.spaghetticodegang.trylater.recommendation.assignment.change.RecommendationAssignmentChangedEvent;
+import com.spaghetticodegang.trylater.recommendation.assignment.change.RecommendationAssignmentChangeType;
+import com.spaghetticodegang.trylater.recommendation.assignment.dto.RecommendationAssignmentBulkStatusRequestDto;
+import com.spaghetticodegang.trylater.recommendation.assignment.dto.RecommendationAssignmentBulkStatusResult;
+import com.spaghetticodegang.trylater.recommendation.assignment.dto.RecommendationAssignmentBulkStatusResultDto;
 import com.spaghetticodegang.trylater.recommendation.assignment.dto.RecommendationAssignmentStatusRequestDto;
 import com.spaghetticodegang.trylater.shared.exception.RecommendationAssignmentNotFoundException;
 import com.spaghetticodegang.trylater.shared.exception.ValidationException;
@@ -13,6 +22,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -20,6 +30,7 @@ import static org.mockito.Mockito.*;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @ExtendWith(MockitoExtension.class)
 class RecommendationAssignmentServiceTest {
@@ -27,12 +38,24 @@ class RecommendationAssignmentServiceTest {
     @Mock
     private RecommendationAssignmentRepository recommendationAssignmentRepository;
 
+    @Mock
+    private RecommendationAssignmentChangeRepository recommendationAssignmentChangeRepository;
+
+    @Mock
+    private RecommendationRepository recommendationRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private RecommendationAssignmentService recommendationAssignmentService;
 
     @Mock
     private MessageUtil messageUtil;
 
+    @Mock
+    private InboxService inboxService;
+
     private final Long recommendationAssignmentId = 123L;
     private final Long recommendationId = 436L;
     private final Long userId = 456L;
@@ -81,6 +104,14 @@ class RecommendationAssignmentServiceTest {
                         assignment.getRecommendationAssignmentStatus() == RecommendationAssignmentStatus.SENT &&
                         assignment.getSentAt() != null && assignment.getSentAt().isBefore(LocalDateTime.now().plusSeconds(1))
         ));
+        verify(recommendationAssignmentChangeRepository).save(argThat(change ->
+                change.getReceiverId().equals(receiver.getId()) &&
+                        change.getRecommendationId().equals(recommendation.getId()) &&
+                        change.getChangeType() == RecommendationAssignmentChangeType.CREATED
+        ));
+        verify(recommendationRepository).incrementReceiverCount(recommendation.getId());
+        verify(eventPublisher).publishEvent(new RecommendationReceivedEvent(receiver.getId(), recommendation.getId()));
+        verify(eventPublisher).publishEvent(new RecommendationAssignmentChangedEvent(receiver.getId(), recommendation.getId(), RecommendationAssignmentChangeType.CREATED));
     }
 
     @Test
@@ -95,31 +126,86 @@ class RecommendationAssignmentServiceTest {
                         assignment.getRecommendationAssignmentStatus() == RecommendationAssignmentStatus.ACCEPTED &&
                         assignment.getSentAt() != null && assignment.getSentAt().isBefore(LocalDateTime.now().plusSeconds(1))
         ));
+        verify(eventPublisher, never()).publishEvent(any(RecommendationReceivedEvent.class));
     }
 
     @Test
-    void updateRecommendationAssignmentStatus_userNotAllowedToUpdate() {
-        User differentUser = new User();
-        differentUser.setId(999L);
-        existingAssignment.setReceiver(differentUser);
+    void createRecommendationAssignments_insertsUnassignedReceiversInBatch() {
+        Recommendation recommendation = createRecommendation();
+
+        when(recommendationAssignmentRepository.findUnassignedReceiverIds(1L, List.of(2L, 3L, userId, 4L)))
+                .thenReturn(List.of(2L, userId, 4L));
+
+        List<Long> created = recommendationAssignmentService.createRecommendationAssignments(recommendation, List.of(2L, 3L, userId, 4L));
+
+        assertEquals(List.of(2L, userId, 4L), created);
+        verify(recommendationAssignmentRepository).insertAll(eq(1L), eq(List.of(2L, 4L)), eq(RecommendationAssignmentStatus.SENT), any(LocalDateTime.class), isNull());
+        verify(recommendationAssignmentRepository).insertAll(eq(1L), eq(List.of(userId)), eq(RecommendationAssignmentStatus.ACCEPTED), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(recommendationRepository).addToReceiverCount(1L, 3);
+        verify(recommendationAssignmentChangeRepository).insertAll(argThat(changes -> changes.size() == 3 &&
+                changes.stream().allMatch(change -> change.getChangeType() == RecommendationAssignmentChangeType.CREATED)));
+        verify(eventPublisher).publishEvent(new RecommendationReceivedEvent(2L, 1L));
+        verify(eventPublisher).publishEvent(new RecommendationReceivedEvent(4L, 1L));
+        verify(eventPublisher, never()).publishEvent(new RecommendationReceivedEvent(userId, 1L));
+    }
+
+    @Test
+    void createRecommendationAssignments_allReceiversAssigned_doesNothing() {
+        Recommendation recommendation = createRecommendation();
+
+        when(recommendationAssignmentRepository.findUnassignedReceiverIds(1L, List.of(2L))).thenReturn(List.of());
+
+        assertTrue(recommendationAssignmentService.createRecommendationAssignments(recommendation, List.of(2L)).isEmpty());
+        verify(recommendationAssignmentRepository, never()).insertAll(any(), any(), any(), any(), any());
+        verifyNoInteractions(recommendationRepository, recommendationAssignmentChangeRepository, eventPublisher);
+    }
+
+    @Test
+    void createCreatorRecommendationAssignments_insertsAcceptedAssignmentsWithoutEvents() {
+        Recommendation first = createRecommendation();
+        Recommendation second = Recommendation.builder().id(2L).title("second").creator(authenticatedUser).build();
+
+        recommendationAssignmentService.createCreatorRecommendationAssignments(authenticatedUser, List.of(first, second));
+
+        verify(recommendationAssignmentRepository).insertAllForReceiver(eq(userId), eq(List.of(1L, 2L)), eq(RecommendationAssignmentStatus.ACCEPTED), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(recommendationRepository).addToReceiverCounts(List.of(1L, 2L), 1);
+        verify(inboxService).addEntries(userId, List.of(first, second), RecommendationAssignmentStatus.ACCEPTED);
+        verify(recommendationAssignmentChangeRepository).insertAll(argThat(changes -> changes.size() == 2 &&
+                changes.stream().allMatch(change -> change.getReceiverId().equals(userId))));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void updateRecommendationAssignmentStatus_assignmentNotFound_throwsException() {
         requestDto.setRecommendationAssignmentStatus(RecommendationAssignmentStatus.ACCEPTED);
 
-        when(recommendationAssignmentRepository.findRecommendationAssignmentByUserIdAndRecommendationId(authenticatedUser.getId(), recommendationId)).thenReturn(existingAssignment);
-        when(messageUtil.get("recommendation.assignment.error.user.not.allowed")).thenReturn("User not allowed to update this assignment.");
+        when(recommendationAssignmentRepository.acceptRecommendationAssignment(eq(userId), eq(recommendationId), any(LocalDateTime.class), eq(Set.of(RecommendationAssignmentStatus.SENT))))
+                .thenReturn(0);
+        when(recommendationAssignmentRepository.findRecommendationAssignmentByUserIdAndRecommendationId(userId, recommendationId)).thenReturn(null);
 
-        ValidationException exception = assertThrows(ValidationException.class, () ->
+        assertThrows(RecommendationAssignmentNotFoundException.class, () ->
                 recommendationAssignmentService.updateRecommendationAssignmentStatus(authenticatedUser, recommendationId, requestDto)
         );
+        verifyNoInteractions(recommendationAssignmentChangeRepository);
+    }
+
+    @Test
+    void updateRecommendationAssignmentStatus_alreadyAccepted_doesNothing() {
+        existingAssignment.setRecommendationAssignmentStatus(RecommendationAssignmentStatus.ACCEPTED);
+        requestDto.setRecommendationAssignmentStatus(RecommendationAssignmentStatus.ACCEPTED);
+
+        when(recommendationAssignmentRepository.acceptRecommendationAssignment(eq(userId), eq(recommendationId), any(LocalDateTime.class), any()))
+                .thenReturn(0);
+        when(recommendationAssignmentRepository.findRecommendationAssignmentByUserIdAndRecommendationId(userId, recommendationId)).thenReturn(existingAssignment);
 
-        assertEquals("User not allowed to update this assignment.", exception.getErrors().get("recommendationAssignment"));
-        verify(recommendationAssignmentRepository, never()).save(any());
+        assertDoesNotThrow(() -> recommendationAssignmentService.updateRecommendationAssignmentStatus(authenticatedUser, recommendationId, requestDto));
+        verifyNoInteractions(recommendationAssignmentChangeRepository);
     }
 
     @Test
     void updateRecommendationAssignmentStatus_cannotRevertToSentStatus() {
         requestDto.setRecommendationAssignmentStatus(RecommendationAssignmentStatus.SENT);
 
-        when(recommendationAssignmentRepository.findRecommendationAssignmentByUserIdAndRecommendationId(authenticatedUser.getId(), recommendationId)).thenReturn(existingAssignment);
         when(messageUtil.get("recommendation.assignment.error.status.revert.to.sent")).thenReturn("Cannot revert status to SENT.");
 
         ValidationException exception = assertThrows(ValidationException.class, () ->
@@ -127,7 +213,66 @@ class RecommendationAssignmentServiceTest {
         );
 
         assertEquals("Cannot revert status to SENT.", exception.getErrors().get("recommendationAssignmentStatus"));
-        verify(recommendationAssignmentRepository, never()).save(any());
+        verify(recommendationAssignmentRepository, never()).acceptRecommendationAssignment(any(), any(), any(), any());
+    }
+
+    @Test
+    void updateRecommendationAssignmentStatuses_returnsResultPerRecommendation() {
+        Recommendation sent = Recommendation.builder().id(1L).build();
+        Recommendation accepted = Recommendation.builder().id(2L).build();
+        RecommendationAssignment sentAssignment = RecommendationAssignment.builder()
+                .recommendation(sent)
+                .recommendationAssignmentStatus(RecommendationAssignmentStatus.SENT)
+                .build();
+        RecommendationAssignment acceptedAssignment = RecommendationAssignment.builder()
+                .recommendation(accepted)
+                .recommendationAssignmentStatus(RecommendationAssignmentStatus.ACCEPTED)
+                .build();
+
+        RecommendationAssignmentBulkStatusRequestDto request = new RecommendationAssignmentBulkStatusRequestDto();
+        request.setRecommendationIds(List.of(1L, 2L, 3L, 1L));
+        request.setRecommendationAssignmentStatus(RecommendationAssignmentStatus.ACCEPTED);
+
+        when(recommendationAssignmentRepository.findAllForUpdateByUserIdAndRecommendationIds(userId, List.of(1L, 2L, 3L)))
+                .thenReturn(List.of(sentAssignment, acceptedAssignment));
+
+        List<RecommendationAssignmentBulkStatusResultDto> results = recommendationAssignmentService.updateRecommendationAssignmentStatuses(authenticatedUser, request);
+
+        assertEquals(List.of(1L, 2L, 3L), results.stream().map(RecommendationAssignmentBulkStatusResultDto::getRecommendationId).toList());
+        assertEquals(List.of(RecommendationAssignmentBulkStatusResult.UPDATED, RecommendationAssignmentBulkStatusResult.UNCHANGED, RecommendationAssignmentBulkStatusResult.NOT_FOUND),
+                results.stream().map(RecommendationAssignmentBulkStatusResultDto::getResult).toList());
+        verify(recommendationAssignmentRepository).acceptRecommendationAssignments(eq(userId), eq(List.of(1L)), any(LocalDateTime.class), eq(Set.of(RecommendationAssignmentStatus.SENT)));
+        verify(recommendationAssignmentChangeRepository).insertAll(argThat(changes -> changes.size() == 1 && changes.getFirst().getRecommendationId().equals(1L)));
+        verify(eventPublisher).publishEvent(new RecommendationAssignmentChangedEvent(userId, 1L, RecommendationAssignmentChangeType.UPDATED));
+    }
+
+    @Test
+    void updateRecommendationAssignmentStatuses_nothingToAccept_doesNotUpdate() {
+        RecommendationAssignmentBulkStatusRequestDto request = new RecommendationAssignmentBulkStatusRequestDto();
+        request.setRecommendationIds(List.of(5L));
+        request.setRecommendationAssignmentStatus(RecommendationAssignmentStatus.ACCEPTED);
+
+        when(recommendationAssignmentRepository.findAllForUpdateByUserIdAndRecommendationIds(userId, List.of(5L))).thenReturn(List.of());
+
+        List<RecommendationAssignmentBulkStatusResultDto> results = recommendationAssignmentService.updateRecommendationAssignmentStatuses(authenticatedUser, request);
+
+        assertEquals(RecommendationAssignmentBulkStatusResult.NOT_FOUND, results.getFirst().getResult());
+        verify(recommendationAssignmentRepository, never()).acceptRecommendationAssignments(any(), any(), any(), any());
+        verifyNoInteractions(recommendationAssignmentChangeRepository);
+    }
+
+    @Test
+    void updateRecommendationAssignmentStatuses_cannotRevertToSentStatus() {
+        RecommendationAssignmentBulkStatusRequestDto request = new RecommendationAssignmentBulkStatusRequestDto();
+        request.setRecommendationIds(List.of(1L));
+        request.setRecommendationAssignmentStatus(RecommendationAssignmentStatus.SENT);
+
+        when(messageUtil.get("recommendation.assignment.error.status.revert.to.sent")).thenReturn("Cannot revert status to SENT.");
+
+        assertThrows(ValidationException.class, () ->
+                recommendationAssignmentService.updateRecommendationAssignmentStatuses(authenticatedUser, request)
+        );
+        verifyNoInteractions(recommendationAssignmentRepository);
     }
 
     @Test
@@ -153,39 +298,24 @@ class RecommendationAssignmentServiceTest {
 
     @Test
     void updateRecommendationAssignmentStatus_shouldSetAcceptedAtWhenStatusIsAccepted() {
-        User authenticatedUser = User.builder().id(1L).build();
-        Long recommendationId = 100L;
-
-        Recommendation recommendation = Recommendation.builder().id(recommendationId).build();
-
-        RecommendationAssignment existingAssignment = RecommendationAssignment.builder()
-                .id(42L)
-                .receiver(authenticatedUser)
-                .recommendationAssignmentStatus(RecommendationAssignmentStatus.SENT)
-                .recommendation(recommendation)
-                .build();
-
-        RecommendationAssignmentStatusRequestDto requestDto = new RecommendationAssignmentStatusRequestDto();
         requestDto.setRecommendationAssignmentStatus(RecommendationAssignmentStatus.ACCEPTED);
 
-        when(recommendationAssignmentService.getRecommendationAssignmentByUserIdAndRecommendationId(authenticatedUser.getId(), recommendationId))
-                .thenReturn(existingAssignment);
-        when(recommendationAssignmentRepository.save(any())).thenReturn(existingAssignment);
+        when(recommendationAssignmentRepository.acceptRecommendationAssignment(eq(userId), eq(recommendationId), any(LocalDateTime.class), eq(Set.of(RecommendationAssignmentStatus.SENT))))
+                .thenReturn(1);
 
         recommendationAssignmentService.updateRecommendationAssignmentStatus(authenticatedUser, recommendationId, requestDto);
 
-        assertEquals(RecommendationAssignmentStatus.ACCEPTED, existingAssignment.getRecommendationAssignmentStatus());
-        assertNotNull(existingAssignment.getAcceptedAt());
-
-        ArgumentCaptor<RecommendationAssignment> argumentCaptor = ArgumentCaptor.forClass(RecommendationAssignment.class);
-        verify(recommendationAssignmentRepository).save(argumentCaptor.capture());
-
-        RecommendationAssignment savedAssignment = argumentCaptor.getValue();
-        assertEquals(RecommendationAssignmentStatus.ACCEPTED, savedAssignment.getRecommendationAssignmentStatus());
-        assertNotNull(savedAssignment.getAcceptedAt());
+        ArgumentCaptor<LocalDateTime> acceptedAtCaptor = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(recommendationAssignmentRepository).acceptRecommendationAssignment(eq(userId), eq(recommendationId), acceptedAtCaptor.capture(), any());
+        assertFalse(acceptedAtCaptor.getValue().isAfter(LocalDateTime.now()));
+        verify(recommendationAssignmentRepository, never()).findRecommendationAssignmentByUserIdAndRecommendationId(any(), any());
+        verify(recommendationAssignmentChangeRepository).save(argThat(change ->
+                change.getReceiverId().equals(userId) &&
+                        change.getRecommendationId().equals(recommendationId) &&
+                        change.getChangeType() == RecommendationAssignmentChangeType.UPDATED
+        ));
     }
 
-
     @Test
     void shouldReturnRecommendationsByUserAndStatus() {
         User user = User.builder().id(1L).build();
@@ -262,6 +392,12 @@ class RecommendationAssignmentServiceTest {
         recommendationAssignmentService.deleteRecommendationAssignmentByRecommendationId(userId, recommendationAssignmentId);
 
         verify(recommendationAssignmentRepository, times(1)).deleteById(existingAssignment.getId());
+        verify(recommendationRepository).decrementReceiverCount(recommendationAssignmentId);
+        verify(recommendationAssignmentChangeRepository).save(argThat(change ->
+                change.getReceiverId().equals(userId) &&
+                        change.getRecommendationId().equals(recommendationAssignmentId) &&
+                        change.getChangeType() == RecommendationAssignmentChangeType.DELETED
+        ));
     }
 
     @Test
@@ -0,0 +1,75 @@
+package com.spaghetticodegang.trylater.recommendation.assignment.change;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ExtendWith(SpringExtension.class)
+class RecommendationAssignmentChangeRepositoryTest {
+
+    @Autowired
+    private RecommendationAssignmentChangeRepository repository;
+
+    private RecommendationAssignmentChange createChange(Long receiverId, Long recommendationId, RecommendationAssignmentChangeType changeType) {
+        return repository.save(RecommendationAssignmentChange.builder()
+                .receiverId(receiverId)
+                .recommendationId(recommendationId)
+                .changeType(changeType)
+                .changedAt(LocalDateTime.now())
+                .build());
+    }
+
+    @Test
+    void shouldFindChangesOfReceiverAfterSequenceInOrder() {
+        RecommendationAssignmentChange first = createChange(1L, 10L, RecommendationAssignmentChangeType.CREATED);
+        createChange(2L, 10L, RecommendationAssignmentChangeType.CREATED);
+        RecommendationAssignmentChange second = createChange(1L, 11L, RecommendationAssignmentChangeType.CREATED);
+        RecommendationAssignmentChange third = createChange(1L, 10L, RecommendationAssignmentChangeType.DELETED);
+
+        List<RecommendationAssignmentChange> changes = repository.findByReceiverIdAndIdGreaterThanOrderByIdAsc(1L, first.getId(), Limit.of(10));
+
+        assertThat(changes).extracting(RecommendationAssignmentChange::getId)
+                .containsExactly(second.getId(), third.getId());
+    }
+
+    @Test
+    void shouldFindRecentlyRecordedRecommendationsUpToSequence() {
+        repository.save(RecommendationAssignmentChange.builder()
+                .receiverId(1L)
+                .recommendationId(9L)
+                .changeType(RecommendationAssignmentChangeType.CREATED)
+                .changedAt(LocalDateTime.now().minusHours(1))
+                .build());
+        createChange(1L, 10L, RecommendationAssignmentChangeType.CREATED);
+        createChange(2L, 11L, RecommendationAssignmentChangeType.CREATED);
+        RecommendationAssignmentChange last = createChange(1L, 10L, RecommendationAssignmentChangeType.UPDATED);
+        createChange(1L, 12L, RecommendationAssignmentChangeType.CREATED);
+
+        List<Long> recommendationIds = repository.findRecommendationIdsChangedUpTo(1L, last.getId(), LocalDateTime.now().minusMinutes(5));
+
+        assertThat(recommendationIds).containsExactly(10L);
+    }
+
+    @Test
+    void shouldReturnCurrentSequenceAndDeleteChangesOfReceiver() {
+        assertThat(repository.findCurrentSequence()).isZero();
+
+        createChange(1L, 10L, RecommendationAssignmentChangeType.CREATED);
+        RecommendationAssignmentChange last = createChange(2L, 10L, RecommendationAssignmentChangeType.CREATED);
+
+        assertThat(repository.findCurrentSequence()).isEqualTo(last.getId());
+
+        repository.deleteChangesByReceiverId(1L);
+
+        assertThat(repository.findAll()).extracting(RecommendationAssignmentChange::getReceiverId).containsOnly(2L);
+    }
+}
@@ -0,0 +1,136 @@
+package com.spaghetticodegang.trylater.recommendation.bulkimport;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spaghetticodegang.trylater.recommendation.Recommendation;
+import com.spaghetticodegang.trylater.recommendation.category.Category;
+import com.spaghetticodegang.trylater.recommendation.category.CategoryRepository;
+import com.spaghetticodegang.trylater.recommendation.category.CategoryType;
+import com.spaghetticodegang.trylater.recommendation.facet.RecommendationFacetService;
+import com.spaghetticodegang.trylater.recommendation.tag.Tag;
+import com.spaghetticodegang.trylater.recommendation.tag.TagRepository;
+import com.spaghetticodegang.trylater.recommendation.tag.group.TagGroup;
+import com.spaghetticodegang.trylater.shared.exception.RecommendationNotFoundException;
+import com.spaghetticodegang.trylater.shared.exception.ValidationException;
+import com.spaghetticodegang.trylater.shared.util.MessageUtil;
+import com.spaghetticodegang.trylater.user.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecommendationImportServiceTest {
+
+    @Mock
+    private RecommendationImportRepository recommendationImportRepository;
+
+    @Mock
+    private RecommendationImportWorker recommendationImportWorker;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private TagRepository tagRepository;
+
+    @Mock
+    private RecommendationFacetService recommendationFacetService;
+
+    @Mock
+    private MessageUtil messageUtil;
+
+    private RecommendationImportService service;
+    private User creator;
+    private Tag tag;
+
+    @BeforeEach
+    void setUp() {
+        service = new RecommendationImportService(recommendationImportRepository, recommendationImportWorker, categoryRepository,
+                tagRepository, recommendationFacetService, new ObjectMapper(), messageUtil, 2);
+        creator = User.builder().id(3L).build();
+
+        Category category = new Category();
+        category.setId(1L);
+        category.setCategoryType(CategoryType.MEDIA);
+        TagGroup tagGroup = TagGroup.builder().id(2L).tagGroupName("Genre").category(category).build();
+        tag = Tag.builder().id(5L).tagName("Action").tagGroup(tagGroup).build();
+
+        lenient().when(categoryRepository.findAll()).thenReturn(List.of(category));
+        lenient().when(tagRepository.findAllWithTagGroupAndCategory()).thenReturn(List.of(tag));
+        lenient().when(messageUtil.get(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void runImport_csv_writesBatchesAndReportsInvalidRows() throws IOException {
+        Path file = Files.createTempFile("import-test-", ".csv");
+        Files.writeString(file, """
+                title,description,url,rating,category,tags
+                "Film, one","multi
+                line",https://example.com,2,media,action
+                ,Description,,1,MEDIA,
+                Book,,,3,MEDIA,Unknown
+                """);
+
+        service.runImport(1L, creator, RecommendationImportFormat.CSV, file);
+
+        ArgumentCaptor<List<Recommendation>> recommendations = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<RecommendationImportError>> errors = ArgumentCaptor.forClass(List.class);
+        verify(recommendationImportWorker, times(2)).writeBatch(eq(1L), eq(creator), recommendations.capture(), anyInt(), errors.capture());
+
+        Recommendation recommendation = recommendations.getAllValues().getFirst().getFirst();
+        assertEquals("Film, one", recommendation.getTitle());
+        assertEquals("multi\nline", recommendation.getDescription());
+        assertEquals(2, recommendation.getRating());
+        assertEquals(List.of(tag), recommendation.getTags());
+        assertTrue(recommendations.getAllValues().get(1).isEmpty());
+
+        assertEquals(2, errors.getAllValues().getFirst().getFirst().getRowNumber());
+        assertEquals("recommendation.title.notblank", errors.getAllValues().getFirst().getFirst().getMessage());
+        assertEquals("recommendation.tags.invalid.for.category", errors.getAllValues().get(1).getFirst().getMessage());
+
+        verify(recommendationFacetService, times(1)).evict(3L);
+        verify(recommendationImportWorker).finish(1L, RecommendationImportStatus.COMPLETED);
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void runImport_malformedJson_failsImport() throws IOException {
+        Path file = Files.createTempFile("import-test-", ".json");
+        Files.writeString(file, "[{\"title\": \"Film\", \"rating\": 1, \"category\": \"MEDIA\"}, {\"title\": ");
+
+        service.runImport(1L, creator, RecommendationImportFormat.JSON, file);
+
+        verify(recommendationImportWorker).fail(eq(1L), argThat(error -> error.getRowNumber() == 2
+                && error.getMessage().equals("recommendation.import.file.invalid")));
+        verify(recommendationImportWorker, never()).finish(anyLong(), any());
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void getFormat_withoutFormat_usesFileName() {
+        assertEquals(RecommendationImportFormat.JSON, service.getFormat(null, "export.JSON"));
+        assertEquals(RecommendationImportFormat.CSV, service.getFormat(null, null));
+        assertEquals(RecommendationImportFormat.JSON, service.getFormat("json", "export.csv"));
+        assertThrows(ValidationException.class, () -> service.getFormat("xml", null));
+    }
+
+    @Test
+    void getImport_ofOtherUser_throwsNotFound() {
+        when(recommendationImportRepository.findByIdAndCreatorId(1L, 3L)).thenReturn(Optional.empty());
+
+        assertThrows(RecommendationNotFoundException.class, () -> service.getImport(creator, 1L));
+    }
+}
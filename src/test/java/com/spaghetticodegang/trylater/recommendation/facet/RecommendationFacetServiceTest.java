@@ -0,0 +1,112 @@
+package com.spaghetticodegang.trylater.recommendation.facet;
+
+import com.spaghetticodegang.trylater.recommendation.Recommendation;
+import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignment;
+import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentRepository;
+import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentStatus;
+import com.spaghetticodegang.trylater.recommendation.assignment.change.RecommendationAssignmentChangeType;
+import com.spaghetticodegang.trylater.recommendation.assignment.change.RecommendationAssignmentChangedEvent;
+import com.spaghetticodegang.trylater.recommendation.category.Category;
+import com.spaghetticodegang.trylater.recommendation.category.CategoryType;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationFacetResponseDto;
+import com.spaghetticodegang.trylater.recommendation.tag.Tag;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecommendationFacetServiceTest {
+
+    @Mock
+    private RecommendationAssignmentRepository recommendationAssignmentRepository;
+
+    private RecommendationFacetService recommendationFacetService;
+
+    private final Long userId = 1L;
+
+    @BeforeEach
+    void setUp() {
+        recommendationFacetService = new RecommendationFacetService(recommendationAssignmentRepository, 10);
+    }
+
+    private RecommendationAssignment createAssignment(Long recommendationId, CategoryType categoryType, RecommendationAssignmentStatus status, Long... tagIds) {
+        Recommendation recommendation = Recommendation.builder()
+                .id(recommendationId)
+                .category(Category.builder().categoryType(categoryType).build())
+                .tags(Arrays.stream(tagIds).map(tagId -> Tag.builder().id(tagId).build()).toList())
+                .build();
+        return RecommendationAssignment.builder()
+                .recommendation(recommendation)
+                .recommendationAssignmentStatus(status)
+                .build();
+    }
+
+    @Test
+    void shouldBuildIndexOnce_andServeFollowingRequestsFromCache() {
+        when(recommendationAssignmentRepository.findAllWithRecommendationAndTagsByUserId(userId))
+                .thenReturn(List.of(createAssignment(1L, CategoryType.MEDIA, RecommendationAssignmentStatus.SENT, 10L)));
+
+        recommendationFacetService.getFacets(userId, null, List.of(), null);
+        RecommendationFacetResponseDto result = recommendationFacetService.getFacets(userId, CategoryType.MEDIA, List.of(10L), null);
+
+        assertEquals(1, result.getTotalCount());
+        assertEquals(Map.of(CategoryType.MEDIA, 1), result.getCategories());
+        verify(recommendationAssignmentRepository, times(1)).findAllWithRecommendationAndTagsByUserId(userId);
+    }
+
+    @Test
+    void shouldApplyCommittedChangeToCachedIndex() {
+        when(recommendationAssignmentRepository.findAllWithRecommendationAndTagsByUserId(userId))
+                .thenReturn(List.of(createAssignment(1L, CategoryType.MEDIA, RecommendationAssignmentStatus.SENT, 10L)));
+        when(recommendationAssignmentRepository.findWithRecommendationAndTagsByUserIdAndRecommendationId(userId, 2L))
+                .thenReturn(Optional.of(createAssignment(2L, CategoryType.RECIPE, RecommendationAssignmentStatus.SENT, 20L)));
+        recommendationFacetService.getFacets(userId, null, List.of(), null);
+
+        recommendationFacetService.onRecommendationAssignmentChanged(new RecommendationAssignmentChangedEvent(userId, 2L, RecommendationAssignmentChangeType.CREATED));
+        RecommendationFacetResponseDto result = recommendationFacetService.getFacets(userId, null, List.of(), null);
+
+        assertEquals(List.of(2L, 1L), result.getRecommendationIds());
+        assertEquals(Map.of(CategoryType.MEDIA, 1, CategoryType.RECIPE, 1), result.getCategories());
+    }
+
+    @Test
+    void shouldRemoveDeletedAssignmentFromCachedIndex() {
+        when(recommendationAssignmentRepository.findAllWithRecommendationAndTagsByUserId(userId))
+                .thenReturn(List.of(createAssignment(1L, CategoryType.MEDIA, RecommendationAssignmentStatus.SENT, 10L)));
+        when(recommendationAssignmentRepository.findWithRecommendationAndTagsByUserIdAndRecommendationId(userId, 1L))
+                .thenReturn(Optional.empty());
+        recommendationFacetService.getFacets(userId, null, List.of(), null);
+
+        recommendationFacetService.onRecommendationAssignmentChanged(new RecommendationAssignmentChangedEvent(userId, 1L, RecommendationAssignmentChangeType.DELETED));
+
+        assertEquals(0, recommendationFacetService.getFacets(userId, null, List.of(), null).getTotalCount());
+    }
+
+    @Test
+    void shouldIgnoreChange_whenUserHasNoCachedIndex() {
+        recommendationFacetService.onRecommendationAssignmentChanged(new RecommendationAssignmentChangedEvent(userId, 1L, RecommendationAssignmentChangeType.CREATED));
+
+        verifyNoInteractions(recommendationAssignmentRepository);
+    }
+
+    @Test
+    void shouldRebuildIndex_afterEviction() {
+        when(recommendationAssignmentRepository.findAllWithRecommendationAndTagsByUserId(userId)).thenReturn(List.of());
+
+        recommendationFacetService.getFacets(userId, null, List.of(), null);
+        recommendationFacetService.evict(userId);
+        recommendationFacetService.getFacets(userId, null, List.of(), null);
+
+        verify(recommendationAssignmentRepository, times(2)).findAllWithRecommendationAndTagsByUserId(userId);
+    }
+}
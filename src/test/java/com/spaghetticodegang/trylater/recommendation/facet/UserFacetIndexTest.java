@@ -0,0 +1,72 @@
+package com.spaghetticodegang.trylater.recommendation.facet;
+
+import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentStatus;
+import com.spaghetticodegang.trylater.recommendation.category.CategoryType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserFacetIndexTest {
+
+    private UserFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new UserFacetIndex();
+        index.put(1L, CategoryType.MEDIA, List.of(10L, 11L), RecommendationAssignmentStatus.SENT);
+        index.put(2L, CategoryType.MEDIA, List.of(10L), RecommendationAssignmentStatus.ACCEPTED);
+        index.put(3L, CategoryType.RECIPE, List.of(20L), RecommendationAssignmentStatus.ACCEPTED);
+    }
+
+    @Test
+    void shouldCountAllAssignments_whenNoFilterIsSet() {
+        UserFacetResult result = index.query(null, List.of(), null);
+
+        assertEquals(Map.of(CategoryType.MEDIA, 2, CategoryType.RECIPE, 1), result.categoryCounts());
+        assertEquals(Map.of(10L, 2, 11L, 1, 20L, 1), result.tagCounts());
+        assertEquals(Map.of(RecommendationAssignmentStatus.SENT, 1, RecommendationAssignmentStatus.ACCEPTED, 2), result.statusCounts());
+        assertEquals(List.of(3L, 2L, 1L), result.recommendationIds());
+    }
+
+    @Test
+    void shouldRequireAllTags_andCountCategoriesWithoutOwnFilter() {
+        UserFacetResult result = index.query(CategoryType.MEDIA, List.of(10L, 11L), null);
+
+        assertEquals(List.of(1L), result.recommendationIds());
+        assertEquals(Map.of(CategoryType.MEDIA, 1), result.categoryCounts());
+        assertEquals(Map.of(10L, 1, 11L, 1), result.tagCounts());
+    }
+
+    @Test
+    void shouldCountStatusesWithoutOwnFilter() {
+        UserFacetResult result = index.query(CategoryType.MEDIA, List.of(), RecommendationAssignmentStatus.ACCEPTED);
+
+        assertEquals(List.of(2L), result.recommendationIds());
+        assertEquals(Map.of(RecommendationAssignmentStatus.SENT, 1, RecommendationAssignmentStatus.ACCEPTED, 1), result.statusCounts());
+        assertEquals(Map.of(CategoryType.MEDIA, 1, CategoryType.RECIPE, 1), result.categoryCounts());
+    }
+
+    @Test
+    void shouldReplaceStatus_whenAssignmentIsPutAgain() {
+        index.put(1L, CategoryType.MEDIA, List.of(10L, 11L), RecommendationAssignmentStatus.ACCEPTED);
+
+        UserFacetResult result = index.query(null, List.of(), RecommendationAssignmentStatus.ACCEPTED);
+
+        assertEquals(3, result.recommendationIds().size());
+        assertEquals(Map.of(RecommendationAssignmentStatus.ACCEPTED, 3), result.statusCounts());
+    }
+
+    @Test
+    void shouldNotReturnRemovedAssignment() {
+        index.remove(3L);
+
+        UserFacetResult result = index.query(null, List.of(20L), null);
+
+        assertTrue(result.recommendationIds().isEmpty());
+        assertFalse(result.categoryCounts().containsKey(CategoryType.RECIPE));
+    }
+}
@@ -0,0 +1,46 @@
+package com.spaghetticodegang.trylater.recommendation.fanout;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import jakarta.persistence.EntityManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class RecommendationFanOutRepositoryTest {
+
+    @Autowired
+    private RecommendationFanOutRepository repository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void shouldFindReceiverIdsInRequestOrderStartingAtOffset() {
+        RecommendationFanOut fanOut = RecommendationFanOut.builder()
+                .recommendationId(1L)
+                .creatorId(1L)
+                .receiverIds(new ArrayList<>(List.of(30L, 10L, 50L, 20L, 40L)))
+                .totalReceivers(5)
+                .status(RecommendationFanOutStatus.PENDING)
+                .createdAt(LocalDateTime.now())
+                .build();
+        entityManager.persist(fanOut);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(repository.findReceiverIds(fanOut.getId(), 0, Limit.of(2))).containsExactly(30L, 10L);
+        assertThat(repository.findReceiverIds(fanOut.getId(), 2, Limit.of(2))).containsExactly(50L, 20L);
+        assertThat(repository.findReceiverIds(fanOut.getId(), 4, Limit.of(2))).containsExactly(40L);
+        assertThat(repository.findReceiverIds(fanOut.getId(), 5, Limit.of(2))).isEmpty();
+        assertThat(repository.findIdsByStatus(RecommendationFanOutStatus.PENDING)).containsExactly(fanOut.getId());
+        assertThat(repository.findByIdAndCreatorId(fanOut.getId(), 2L)).isEmpty();
+    }
+}
@@ -0,0 +1,102 @@
+package com.spaghetticodegang.trylater.recommendation.fanout;
+
+import com.spaghetticodegang.trylater.recommendation.Recommendation;
+import com.spaghetticodegang.trylater.recommendation.RecommendationRepository;
+import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecommendationFanOutWorkerTest {
+
+    @Mock
+    private RecommendationFanOutRepository recommendationFanOutRepository;
+
+    @Mock
+    private RecommendationRepository recommendationRepository;
+
+    @Mock
+    private RecommendationAssignmentService recommendationAssignmentService;
+
+    private RecommendationFanOutWorker worker;
+    private RecommendationFanOut fanOut;
+    private Recommendation recommendation;
+
+    @BeforeEach
+    void setUp() {
+        worker = new RecommendationFanOutWorker(recommendationFanOutRepository, recommendationRepository, recommendationAssignmentService, 2);
+        recommendation = Recommendation.builder().id(7L).build();
+        fanOut = RecommendationFanOut.builder()
+                .id(1L)
+                .recommendationId(7L)
+                .creatorId(3L)
+                .receiverIds(new ArrayList<>(List.of(10L, 11L, 12L)))
+                .totalReceivers(3)
+                .deliveredReceivers(0)
+                .status(RecommendationFanOutStatus.PENDING)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    void deliverNextBatch_deliversBatchAndAdvancesCursor() {
+        when(recommendationFanOutRepository.findForUpdateById(1L)).thenReturn(Optional.of(fanOut));
+        when(recommendationRepository.findById(7L)).thenReturn(Optional.of(recommendation));
+        when(recommendationFanOutRepository.findReceiverIds(1L, 0, Limit.of(2))).thenReturn(List.of(10L, 11L));
+
+        assertTrue(worker.deliverNextBatch(1L));
+
+        verify(recommendationAssignmentService).createRecommendationAssignments(recommendation, List.of(10L, 11L));
+        assertEquals(2, fanOut.getDeliveredReceivers());
+        assertEquals(RecommendationFanOutStatus.PENDING, fanOut.getStatus());
+    }
+
+    @Test
+    void deliverNextBatch_lastBatch_completesFanOut() {
+        fanOut.setDeliveredReceivers(2);
+        when(recommendationFanOutRepository.findForUpdateById(1L)).thenReturn(Optional.of(fanOut));
+        when(recommendationRepository.findById(7L)).thenReturn(Optional.of(recommendation));
+        when(recommendationFanOutRepository.findReceiverIds(1L, 2, Limit.of(2))).thenReturn(List.of(12L));
+
+        assertFalse(worker.deliverNextBatch(1L));
+
+        verify(recommendationAssignmentService).createRecommendationAssignments(recommendation, List.of(12L));
+        assertEquals(3, fanOut.getDeliveredReceivers());
+        assertEquals(RecommendationFanOutStatus.COMPLETED, fanOut.getStatus());
+        assertNotNull(fanOut.getCompletedAt());
+        assertTrue(fanOut.getReceiverIds().isEmpty());
+    }
+
+    @Test
+    void deliverNextBatch_recommendationDeleted_cancelsFanOut() {
+        when(recommendationFanOutRepository.findForUpdateById(1L)).thenReturn(Optional.of(fanOut));
+        when(recommendationRepository.findById(7L)).thenReturn(Optional.empty());
+
+        assertFalse(worker.deliverNextBatch(1L));
+
+        assertEquals(RecommendationFanOutStatus.CANCELLED, fanOut.getStatus());
+        verifyNoInteractions(recommendationAssignmentService);
+    }
+
+    @Test
+    void deliverNextBatch_alreadyCompleted_doesNothing() {
+        fanOut.setStatus(RecommendationFanOutStatus.COMPLETED);
+        when(recommendationFanOutRepository.findForUpdateById(1L)).thenReturn(Optional.of(fanOut));
+
+        assertFalse(worker.deliverNextBatch(1L));
+
+        verifyNoInteractions(recommendationRepository, recommendationAssignmentService);
+    }
+}
@@ -0,0 +1,118 @@
+package com.spaghetticodegang.trylater.recommendation.fragment;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationFragmentCacheStatsDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecommendationFragmentCacheTest {
+
+    private final AtomicInteger serializations = new AtomicInteger();
+
+    private RecommendationFragmentCache createCache(long maxBytes) {
+        return new RecommendationFragmentCache(new ObjectMapper(), DataSize.ofBytes(maxBytes));
+    }
+
+    private byte[] getOrCreate(RecommendationFragmentCache cache, Long recommendationId, Long creatorId) {
+        return cache.getOrCreate(recommendationId, creatorId, () -> {
+            serializations.incrementAndGet();
+            return Map.of("id", recommendationId);
+        });
+    }
+
+    @Test
+    void getOrCreate_secondRequest_returnsCachedFragment() {
+        RecommendationFragmentCache cache = createCache(1024);
+
+        byte[] first = getOrCreate(cache, 1L, 10L);
+        byte[] second = getOrCreate(cache, 1L, 10L);
+
+        assertSame(first, second);
+        assertEquals("{\"id\":1}", new String(second, StandardCharsets.UTF_8));
+        assertEquals(1, serializations.get());
+
+        RecommendationFragmentCacheStatsDto stats = cache.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0.5, stats.getHitRate());
+        assertEquals(first.length, stats.getUsedBytes());
+    }
+
+    @Test
+    void getOrCreate_sizeExceeded_evictsLeastRecentlyUsedFragment() {
+        RecommendationFragmentCache cache = createCache(16);
+
+        getOrCreate(cache, 1L, 10L);
+        getOrCreate(cache, 2L, 10L);
+        getOrCreate(cache, 1L, 10L);
+        getOrCreate(cache, 3L, 10L);
+
+        assertEquals(2, cache.getStats().getEntries());
+        assertTrue(cache.getStats().getUsedBytes() <= 16);
+
+        getOrCreate(cache, 1L, 10L);
+        assertEquals(3, serializations.get());
+        getOrCreate(cache, 2L, 10L);
+        assertEquals(4, serializations.get());
+    }
+
+    @Test
+    void evictByCreatorId_removesOnlyFragmentsOfCreator() {
+        RecommendationFragmentCache cache = createCache(1024);
+        getOrCreate(cache, 1L, 10L);
+        getOrCreate(cache, 2L, 10L);
+        getOrCreate(cache, 3L, 20L);
+
+        cache.evictByCreatorId(10L);
+
+        assertEquals(1, cache.getStats().getEntries());
+        getOrCreate(cache, 3L, 20L);
+        assertEquals(3, serializations.get());
+    }
+
+    @Test
+    void getOrCreate_evictedWhileSerializing_doesNotCacheFragment() {
+        RecommendationFragmentCache cache = createCache(1024);
+
+        cache.getOrCreate(1L, 10L, () -> {
+            cache.evictByCreatorId(10L);
+            return Map.of("id", 1L);
+        });
+
+        assertEquals(0, cache.getStats().getEntries());
+        assertEquals(0, cache.getStats().getUsedBytes());
+    }
+
+    @Test
+    void getOrCreate_otherRecommendationEvictedWhileSerializing_cachesFragment() {
+        RecommendationFragmentCache cache = createCache(1024);
+
+        cache.getOrCreate(1L, 10L, () -> {
+            cache.evict(2L);
+            cache.evictByCreatorId(20L);
+            return Map.of("id", 1L);
+        });
+
+        assertEquals(1, cache.getStats().getEntries());
+    }
+
+    @Test
+    void getOrCreate_sameRecommendationEvictedWhileSerializing_doesNotCacheFragment() {
+        RecommendationFragmentCache cache = createCache(1024);
+
+        cache.getOrCreate(1L, 10L, () -> {
+            cache.evict(1L);
+            return Map.of("id", 1L);
+        });
+        assertEquals(0, cache.getStats().getEntries());
+
+        getOrCreate(cache, 1L, 10L);
+        assertEquals(1, cache.getStats().getEntries());
+    }
+}
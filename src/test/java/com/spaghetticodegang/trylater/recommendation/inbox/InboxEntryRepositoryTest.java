@@ -0,0 +1,65 @@
+package com.spaghetticodegang.trylater.recommendation.inbox;
+
+import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentStatus;
+import com.spaghetticodegang.trylater.recommendation.category.CategoryType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import jakarta.persistence.EntityManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class InboxEntryRepositoryTest {
+
+    @Autowired
+    private InboxEntryRepository repository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private InboxEntry createEntry(Long receiverId, Long recommendationId, RecommendationAssignmentStatus status) {
+        return InboxEntry.builder()
+                .receiverId(receiverId)
+                .recommendationId(recommendationId)
+                .recommendationAssignmentStatus(status)
+                .title("title " + recommendationId)
+                .rating(2)
+                .creationDate(LocalDateTime.now())
+                .categoryType(CategoryType.MEDIA)
+                .creatorId(7L)
+                .creatorUserName("creator")
+                .tagGroups("[]")
+                .build();
+    }
+
+    @Test
+    void shouldInsertEntriesAndUpdateThemInPlace() {
+        repository.insertAll(List.of(
+                createEntry(1L, 20L, RecommendationAssignmentStatus.SENT),
+                createEntry(1L, 10L, RecommendationAssignmentStatus.SENT),
+                createEntry(2L, 10L, RecommendationAssignmentStatus.SENT)));
+
+        assertThat(repository.findAllByReceiverIdAndStatus(1L, RecommendationAssignmentStatus.SENT))
+                .extracting(InboxEntry::getRecommendationId)
+                .containsExactly(10L, 20L);
+
+        assertThat(repository.updateStatus(1L, List.of(10L), RecommendationAssignmentStatus.ACCEPTED)).isEqualTo(1);
+        assertThat(repository.updateCreator(7L, "renamed", "Renamed", "/img.webp", "LEHV6nWB2yk8pyo0adR*.7kCMdnj")).isEqualTo(3);
+        entityManager.clear();
+
+        List<InboxEntry> accepted = repository.findAllByReceiverIdAndStatus(1L, RecommendationAssignmentStatus.ACCEPTED);
+        assertThat(accepted).hasSize(1);
+        assertThat(accepted.getFirst().getCreatorUserName()).isEqualTo("renamed");
+        assertThat(accepted.getFirst().getCreatorImgBlurHash()).isEqualTo("LEHV6nWB2yk8pyo0adR*.7kCMdnj");
+        assertThat(accepted.getFirst().getTagGroups()).isEqualTo("[]");
+
+        assertThat(repository.clearCreator(7L)).isEqualTo(3);
+        assertThat(repository.deleteAllByReceiverId(1L)).isEqualTo(2);
+        assertThat(repository.deleteStaleEntries()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,183 @@
+package com.spaghetticodegang.trylater.recommendation.inbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.spaghetticodegang.trylater.recommendation.Recommendation;
+import com.spaghetticodegang.trylater.recommendation.RecommendationRepository;
+import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignment;
+import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentRepository;
+import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentStatus;
+import com.spaghetticodegang.trylater.recommendation.category.Category;
+import com.spaghetticodegang.trylater.recommendation.category.CategoryType;
+import com.spaghetticodegang.trylater.recommendation.dto.RecommendationNormalizedListResponseDto;
+import com.spaghetticodegang.trylater.recommendation.fragment.RecommendationFragmentCache;
+import com.spaghetticodegang.trylater.recommendation.tag.TagService;
+import com.spaghetticodegang.trylater.recommendation.tag.dto.TagGroupResponseDto;
+import com.spaghetticodegang.trylater.recommendation.tag.dto.TagResponseDto;
+import com.spaghetticodegang.trylater.user.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InboxServiceTest {
+
+    @Mock
+    private InboxEntryRepository inboxEntryRepository;
+
+    @Mock
+    private RecommendationRepository recommendationRepository;
+
+    @Mock
+    private RecommendationAssignmentRepository recommendationAssignmentRepository;
+
+    @Mock
+    private RecommendationFragmentCache recommendationFragmentCache;
+
+    @Mock
+    private TagService tagService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @InjectMocks
+    private InboxService inboxService;
+
+    private Recommendation createRecommendation(Long id, User creator) {
+        return Recommendation.builder()
+                .id(id)
+                .title("title")
+                .rating(3)
+                .creator(creator)
+                .creationDate(LocalDateTime.now())
+                .category(Category.builder().categoryType(CategoryType.MEDIA).build())
+                .tags(new ArrayList<>())
+                .build();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void addEntries_shouldCopyDisplayFieldsForEveryReceiver() {
+        User creator = User.builder().id(1L).userName("creator").displayName("Creator").build();
+        Recommendation recommendation = createRecommendation(5L, creator);
+        when(tagService.createTagGroupResponseDtoFromTags(recommendation.getTags())).thenReturn(List.of(TagGroupResponseDto.builder()
+                .tagGroupName("Genre")
+                .tags(List.of(TagResponseDto.builder().id(3L).tagName("Action").build()))
+                .build()));
+
+        inboxService.addEntries(recommendation, Map.of(1L, RecommendationAssignmentStatus.ACCEPTED, 2L, RecommendationAssignmentStatus.SENT));
+
+        ArgumentCaptor<List<InboxEntry>> captor = ArgumentCaptor.forClass(List.class);
+        verify(inboxEntryRepository).insertAll(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        InboxEntry entry = captor.getValue().stream().filter(e -> e.getReceiverId() == 2L).findFirst().orElseThrow();
+        assertEquals(5L, entry.getRecommendationId());
+        assertEquals(RecommendationAssignmentStatus.SENT, entry.getRecommendationAssignmentStatus());
+        assertEquals("Creator", entry.getCreatorDisplayName());
+        assertEquals(CategoryType.MEDIA, entry.getCategoryType());
+        assertEquals("[{\"tagGroupId\":null,\"tagGroupName\":\"Genre\",\"tags\":[{\"id\":3,\"tagName\":\"Action\"}]}]", entry.getTagGroups());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getInbox_shouldRenderEntriesWithPreRenderedTagGroups() throws Exception {
+        InboxEntry entry = InboxEntry.builder()
+                .receiverId(2L)
+                .recommendationId(5L)
+                .recommendationAssignmentStatus(RecommendationAssignmentStatus.SENT)
+                .title("title")
+                .rating(3)
+                .creationDate(LocalDateTime.of(2025, 1, 1, 12, 0))
+                .categoryType(CategoryType.MEDIA)
+                .creatorId(1L)
+                .creatorUserName("creator")
+                .tagGroups("[{\"tagGroupName\":\"Genre\",\"tags\":[]}]")
+                .build();
+        when(inboxEntryRepository.findAllByReceiverIdAndStatus(2L, RecommendationAssignmentStatus.SENT)).thenReturn(List.of(entry));
+        ArgumentCaptor<Supplier<?>> factory = ArgumentCaptor.forClass(Supplier.class);
+        when(recommendationFragmentCache.getOrCreate(eq(5L), eq(1L), factory.capture())).thenReturn(new byte[]{'{', '}'});
+
+        List<byte[]> inbox = inboxService.getInbox(2L, RecommendationAssignmentStatus.SENT);
+
+        assertEquals(1, inbox.size());
+        ObjectNode fragment = (ObjectNode) factory.getValue().get();
+        assertEquals(5L, fragment.get("id").asLong());
+        assertEquals("creator", fragment.get("creator").get("userName").asText());
+        assertEquals("MEDIA", fragment.get("category").asText());
+        assertEquals("Genre", fragment.get("tagGroups").get(0).get("tagGroupName").asText());
+    }
+
+    @Test
+    void getNormalizedInbox_shouldSideLoadCreatorsAndTagGroupsOnce() {
+        String tagGroups = "[{\"tagGroupId\":4,\"tagGroupName\":\"Genre\",\"tags\":[{\"id\":3,\"tagName\":\"Action\"}]}]";
+        InboxEntry first = InboxEntry.builder()
+                .recommendationId(5L)
+                .title("first")
+                .categoryType(CategoryType.MEDIA)
+                .creatorId(1L)
+                .creatorUserName("creator")
+                .tagGroups(tagGroups)
+                .build();
+        InboxEntry second = first.toBuilder()
+                .recommendationId(6L)
+                .title("second")
+                .build();
+        when(inboxEntryRepository.findAllByReceiverIdAndStatus(2L, RecommendationAssignmentStatus.SENT)).thenReturn(List.of(first, second));
+
+        RecommendationNormalizedListResponseDto response = inboxService.getNormalizedInbox(2L, RecommendationAssignmentStatus.SENT);
+
+        assertEquals(2, response.getItems().size());
+        assertEquals(1L, response.getItems().get(1).getCreatorId());
+        assertEquals(List.of(3L), response.getItems().get(1).getTagIds());
+        assertEquals(1, response.getUsers().size());
+        assertEquals("creator", response.getUsers().get(1L).getUserName());
+        assertEquals(1, response.getTagGroups().size());
+        assertEquals("Genre", response.getTagGroups().get(4L).getTagGroupName());
+        assertEquals(1, response.getTagGroups().get(4L).getTags().size());
+    }
+
+    @Test
+    void rebuildBatch_shouldReplaceEntriesOfRecommendationsFromAssignments() {
+        User creator = User.builder().id(1L).build();
+        User receiver = User.builder().id(2L).build();
+        Recommendation recommendation = createRecommendation(5L, creator);
+        when(recommendationRepository.findIdsAfter(eq(0L), any(Limit.class))).thenReturn(List.of(5L));
+        when(recommendationRepository.findAllWithDetailsByIds(List.of(5L))).thenReturn(List.of(recommendation));
+        when(recommendationAssignmentRepository.findAllByRecommendationIds(List.of(5L))).thenReturn(List.of(RecommendationAssignment.builder()
+                .recommendation(recommendation)
+                .receiver(receiver)
+                .recommendationAssignmentStatus(RecommendationAssignmentStatus.SENT)
+                .build()));
+
+        Long lastId = inboxService.rebuildBatch(0L, 100);
+
+        assertEquals(5L, lastId);
+        verify(inboxEntryRepository).deleteAllByRecommendationIds(List.of(5L));
+        verify(inboxEntryRepository).insertAll(argThat(entries -> entries.size() == 1 && entries.getFirst().getReceiverId() == 2L));
+        verify(recommendationFragmentCache).evict(5L);
+    }
+
+    @Test
+    void rebuildBatch_noMoreRecommendations_returnsNull() {
+        when(recommendationRepository.findIdsAfter(eq(5L), any(Limit.class))).thenReturn(List.of());
+
+        assertNull(inboxService.rebuildBatch(5L, 100));
+        verifyNoInteractions(inboxEntryRepository);
+    }
+}
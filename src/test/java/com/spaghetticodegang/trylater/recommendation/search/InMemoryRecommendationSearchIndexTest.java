@@ -0,0 +1,106 @@
+package com.spaghetticodegang.trylater.recommendation.search;
+
+import com.spaghetticodegang.trylater.recommendation.Recommendation;
+import com.spaghetticodegang.trylater.recommendation.RecommendationRepository;
+import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentService;
+import com.spaghetticodegang.trylater.recommendation.tag.Tag;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryRecommendationSearchIndexTest {
+
+    @Mock
+    private RecommendationRepository recommendationRepository;
+
+    @Mock
+    private RecommendationAssignmentService recommendationAssignmentService;
+
+    @InjectMocks
+    private InMemoryRecommendationSearchIndex searchIndex;
+
+    private final Long userId = 1L;
+
+    private Recommendation createRecommendation(Long id, String title, String description, String... tagNames) {
+        return Recommendation.builder()
+                .id(id)
+                .title(title)
+                .description(description)
+                .tags(Arrays.stream(tagNames).map(tagName -> Tag.builder().tagName(tagName).build()).toList())
+                .build();
+    }
+
+    @BeforeEach
+    void setUp() {
+        searchIndex.index(createRecommendation(1L, "Pizza Margherita", "Klassiker aus Neapel", "Italienisch"));
+        searchIndex.index(createRecommendation(2L, "Pasta", "Mit Pizza-Teig Resten", "Italienisch"));
+        searchIndex.index(createRecommendation(3L, "Sushi", "Frisch", "Japanisch"));
+    }
+
+    @Test
+    void shouldRankTitleMatchesAboveDescriptionMatches() {
+        when(recommendationAssignmentService.getRecommendationIdsByUserId(userId)).thenReturn(List.of(1L, 2L, 3L));
+
+        RecommendationSearchHits hits = searchIndex.search(userId, "pizza", 0, 10);
+
+        assertEquals(List.of(1L, 2L), hits.recommendationIds());
+        assertEquals(2, hits.totalHits());
+    }
+
+    @Test
+    void shouldOnlyReturnRecommendationsAssignedToUser() {
+        when(recommendationAssignmentService.getRecommendationIdsByUserId(userId)).thenReturn(List.of(2L));
+
+        RecommendationSearchHits hits = searchIndex.search(userId, "pizza", 0, 10);
+
+        assertEquals(List.of(2L), hits.recommendationIds());
+    }
+
+    @Test
+    void shouldRequireAllTermsAndMatchLastTermAsPrefix() {
+        when(recommendationAssignmentService.getRecommendationIdsByUserId(userId)).thenReturn(List.of(1L, 2L, 3L));
+
+        RecommendationSearchHits hits = searchIndex.search(userId, "italienisch marg", 0, 10);
+
+        assertEquals(List.of(1L), hits.recommendationIds());
+    }
+
+    @Test
+    void shouldPaginateHits() {
+        when(recommendationAssignmentService.getRecommendationIdsByUserId(userId)).thenReturn(List.of(1L, 2L, 3L));
+
+        RecommendationSearchHits hits = searchIndex.search(userId, "italienisch", 1, 1);
+
+        assertEquals(1, hits.recommendationIds().size());
+        assertEquals(2, hits.totalHits());
+    }
+
+    @Test
+    void shouldNotFindRemovedRecommendation() {
+        when(recommendationAssignmentService.getRecommendationIdsByUserId(userId)).thenReturn(List.of(1L, 2L, 3L));
+
+        searchIndex.remove(3L);
+
+        assertEquals(0, searchIndex.search(userId, "sushi", 0, 10).totalHits());
+    }
+
+    @Test
+    void shouldReplaceEntry_whenRecommendationIsIndexedAgain() {
+        when(recommendationAssignmentService.getRecommendationIdsByUserId(userId)).thenReturn(List.of(1L, 2L, 3L));
+
+        searchIndex.index(createRecommendation(3L, "Ramen", "Frisch", "Japanisch"));
+
+        assertEquals(0, searchIndex.search(userId, "sushi", 0, 10).totalHits());
+        assertEquals(List.of(3L), searchIndex.search(userId, "ramen", 0, 10).recommendationIds());
+    }
+}
@@ -0,0 +1,43 @@
+package com.spaghetticodegang.trylater.security;
+
+import com.spaghetticodegang.trylater.user.User;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class SecurityConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private static User createUser(boolean admin) {
+        return User.builder()
+                .id(1L)
+                .userName("tester")
+                .displayName("tester")
+                .email("tester@example.com")
+                .password("password")
+                .admin(admin)
+                .build();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/api/recommendation/fragment-cache", "/api/image/serving-stats", "/api/image/garbage-collection"})
+    void operationalEndpoints_requireAdminRole(String path) throws Exception {
+        mockMvc.perform(get(path))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get(path).with(user(createUser(false))))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get(path).with(user(createUser(true))))
+                .andExpect(status().is2xxSuccessful());
+    }
+}
@@ -3,6 +3,8 @@ package com.spaghetticodegang.trylater.user;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.spaghetticodegang.trylater.shared.util.MessageUtil;
 import com.spaghetticodegang.trylater.user.dto.*;
+import com.spaghetticodegang.trylater.user.export.UserExportFormat;
+import com.spaghetticodegang.trylater.user.export.UserExportService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,11 +16,15 @@ import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -34,6 +40,9 @@ class UserControllerTest {
     @MockitoBean
     private UserService userService;
 
+    @MockitoBean
+    private UserExportService userExportService;
+
     @MockitoBean
     private MessageUtil messageUtil;
 
@@ -165,4 +174,23 @@ class UserControllerTest {
                 .andExpect(status().isNoContent());
     }
 
-}
\ No newline at end of file
+
+    @Test
+    void shouldStreamExport_whenExportingUser() throws Exception {
+        when(userExportService.getFormat("csv")).thenReturn(UserExportFormat.CSV);
+        doAnswer(invocation -> {
+            invocation.getArgument(3, OutputStream.class).write("type,id\r\nprofile,1\r\n".getBytes());
+            return null;
+        }).when(userExportService).export(eq(1L), eq(UserExportFormat.CSV), eq(false), any());
+
+        MvcResult result = mockMvc.perform(get("/api/user/me/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"trylater-export.csv\""))
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(content().string("type,id\r\nprofile,1\r\n"));
+    }
+}
@@ -1,11 +1,15 @@
 package com.spaghetticodegang.trylater.user;
 
+import com.spaghetticodegang.trylater.recommendation.inbox.InboxService;
 import com.spaghetticodegang.trylater.contact.ContactRepository;
 import com.spaghetticodegang.trylater.image.ImageService;
 import com.spaghetticodegang.trylater.recommendation.Recommendation;
 import com.spaghetticodegang.trylater.recommendation.RecommendationRepository;
-import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignment;
 import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentRepository;
+import com.spaghetticodegang.trylater.recommendation.assignment.change.RecommendationAssignmentChangeRepository;
+import com.spaghetticodegang.trylater.recommendation.facet.RecommendationFacetService;
+import com.spaghetticodegang.trylater.recommendation.fragment.RecommendationFragmentCache;
+import com.spaghetticodegang.trylater.recommendation.search.RecommendationSearchIndex;
 import com.spaghetticodegang.trylater.shared.exception.PasswordErrorException;
 import com.spaghetticodegang.trylater.shared.exception.ValidationException;
 import com.spaghetticodegang.trylater.shared.util.MessageUtil;
@@ -16,6 +20,7 @@ import com.spaghetticodegang.trylater.user.dto.UserMeUpdateDto;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -56,6 +61,21 @@ class UserServiceTest {
     @Mock
     private RecommendationRepository recommendationRepository;
 
+    @Mock
+    private RecommendationAssignmentChangeRepository recommendationAssignmentChangeRepository;
+
+    @Mock
+    private RecommendationFacetService recommendationFacetService;
+
+    @Mock
+    private RecommendationSearchIndex recommendationSearchIndex;
+
+    @Mock
+    private RecommendationFragmentCache recommendationFragmentCache;
+
+    @Mock
+    private InboxService inboxService;
+
     @Test
     void shouldLoadUserByUsernameOrEmail() {
         User user = User.builder()
@@ -378,14 +398,19 @@ class UserServiceTest {
         when(userRepository.findById(69L)).thenReturn(Optional.of(user));
         when(userRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
 
-        when(imageService.deleteImageByImgPath("/assets/old.webp")).thenReturn(true);
+        when(imageService.releaseImageReference("/assets/old.webp")).thenReturn(true);
+        when(imageService.getBlurHash("/assets/cool.webp")).thenReturn("L00000fQfQfQfQfQfQfQfQfQfQfQ");
 
         UserMeResponseDto response = userService.updateUserProfile(user, dto);
 
         assertEquals("/assets/cool.webp", user.getImgPath());
         assertEquals("/assets/cool.webp", response.getImgPath());
+        assertEquals("L00000fQfQfQfQfQfQfQfQfQfQfQ", user.getImgBlurHash());
+        assertEquals("L00000fQfQfQfQfQfQfQfQfQfQfQ", response.getImgBlurHash());
 
-        verify(imageService).deleteImageByImgPath("/assets/old.webp");
+        InOrder inOrder = inOrder(imageService);
+        inOrder.verify(imageService).addImageReference("/assets/cool.webp");
+        inOrder.verify(imageService).releaseImageReference("/assets/old.webp");
     }
 
     @Test
@@ -408,7 +433,7 @@ class UserServiceTest {
         assertEquals("/assets/cool.webp", user.getImgPath());
         assertEquals("/assets/cool.webp", response.getImgPath());
 
-        verify(imageService, never()).deleteImageByImgPath(anyString());
+        verify(imageService, never()).releaseImageReference(anyString());
     }
 
     @Test
@@ -424,25 +449,27 @@ class UserServiceTest {
 
         when(passwordEncoder.matches("correctPassword", "encodedPass")).thenReturn(true);
 
-        RecommendationAssignment assignment = mock(RecommendationAssignment.class);
-        Recommendation recommendation = mock(Recommendation.class);
-
-        when(assignment.getRecommendation()).thenReturn(recommendation);
-        when(recommendation.getId()).thenReturn(10L);
+        Recommendation orphan = Recommendation.builder()
+                .id(10L)
+                .imgPath("/assets/recommendation.jpg")
+                .build();
 
-        when(recommendationAssignmentRepository.findAllRecommendationAssignmentByUserId(1L))
-                .thenReturn(List.of(assignment));
-        when(recommendationAssignmentRepository.existsRecommendationAssignmentByRecommendationId(10L))
-                .thenReturn(false);
+        when(recommendationAssignmentRepository.findRecommendationIdsByUserId(1L)).thenReturn(List.of(10L, 11L));
+        when(recommendationRepository.findOrphansByIdIn(List.of(10L, 11L))).thenReturn(List.of(orphan));
 
         userService.deleteUserProfile(user, deleteDto);
 
         verify(passwordEncoder).matches("correctPassword", "encodedPass");
-        verify(imageService).deleteImageByImgPath("/assets/image.jpg");
+        verify(imageService).releaseImageReference("/assets/image.jpg");
         verify(contactRepository).deleteContactsByUserId(1L);
+        verify(recommendationRepository).decrementReceiverCountsByReceiverId(1L);
         verify(recommendationAssignmentRepository).deleteRecommendationAssignmentsByUserId(1L);
-        verify(recommendationRepository).deleteById(10L);
+        verify(imageService).releaseImageReference("/assets/recommendation.jpg");
+        verify(recommendationSearchIndex).remove(10L);
+        verify(recommendationRepository).deleteOrphansByIdIn(List.of(10L));
         verify(recommendationRepository).updateCreatorToNull(1L);
+        verify(recommendationAssignmentChangeRepository).deleteChangesByReceiverId(1L);
+        verify(recommendationFacetService).evict(1L);
         verify(userRepository).delete(user);
     }
 
@@ -459,24 +486,18 @@ class UserServiceTest {
 
         when(passwordEncoder.matches("correctPassword", "encodedPass")).thenReturn(true);
 
-        RecommendationAssignment assignment = mock(RecommendationAssignment.class);
-        Recommendation recommendation = mock(Recommendation.class);
-
-        when(assignment.getRecommendation()).thenReturn(recommendation);
-        when(recommendation.getId()).thenReturn(10L);
-
-        when(recommendationAssignmentRepository.findAllRecommendationAssignmentByUserId(1L))
-                .thenReturn(List.of(assignment));
-        when(recommendationAssignmentRepository.existsRecommendationAssignmentByRecommendationId(10L))
-                .thenReturn(true);
+        when(recommendationAssignmentRepository.findRecommendationIdsByUserId(1L)).thenReturn(List.of(10L));
+        when(recommendationRepository.findOrphansByIdIn(List.of(10L))).thenReturn(List.of());
 
         userService.deleteUserProfile(user, deleteDto);
 
         verify(passwordEncoder).matches("correctPassword", "encodedPass");
-        verify(imageService, never()).deleteImageByImgPath(null);
+        verify(imageService, never()).releaseImageReference(any());
         verify(contactRepository).deleteContactsByUserId(1L);
+        verify(recommendationRepository).decrementReceiverCountsByReceiverId(1L);
         verify(recommendationAssignmentRepository).deleteRecommendationAssignmentsByUserId(1L);
-        verify(recommendationRepository, never()).deleteById(10L);
+        verify(recommendationSearchIndex, never()).remove(any());
+        verify(recommendationRepository, never()).deleteOrphansByIdIn(any());
         verify(recommendationRepository).updateCreatorToNull(1L);
         verify(userRepository).delete(user);
     }
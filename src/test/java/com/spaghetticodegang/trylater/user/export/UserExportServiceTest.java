@@ -0,0 +1,150 @@
+package com.spaghetticodegang.trylater.user.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spaghetticodegang.trylater.contact.Contact;
+import com.spaghetticodegang.trylater.contact.enums.ContactStatus;
+import com.spaghetticodegang.trylater.recommendation.Recommendation;
+import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignment;
+import com.spaghetticodegang.trylater.recommendation.assignment.RecommendationAssignmentStatus;
+import com.spaghetticodegang.trylater.recommendation.category.Category;
+import com.spaghetticodegang.trylater.recommendation.category.CategoryType;
+import com.spaghetticodegang.trylater.shared.exception.ValidationException;
+import com.spaghetticodegang.trylater.shared.util.MessageUtil;
+import com.spaghetticodegang.trylater.user.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+class UserExportServiceTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MessageUtil messageUtil = mock(MessageUtil.class);
+    private UserExportService userExportService;
+    private User creator;
+
+    @BeforeEach
+    void setup() {
+        userExportService = new UserExportService(dataSource, transactionManager, objectMapper, messageUtil, 2);
+
+        creator = createUser("creator");
+        User friend = createUser("friend");
+        entityManager.persist(creator);
+        entityManager.persist(friend);
+        entityManager.persist(Contact.builder()
+                .requester(friend)
+                .receiver(creator)
+                .requestDate(LocalDateTime.now())
+                .contactStatus(ContactStatus.ACCEPTED)
+                .build());
+
+        Category category = new Category();
+        category.setCategoryType(CategoryType.MEDIA);
+        entityManager.persist(category);
+
+        Recommendation recommendation = Recommendation.builder()
+                .title("Dune, Part \"Two\"")
+                .rating(3)
+                .category(category)
+                .creator(creator)
+                .creationDate(LocalDateTime.now())
+                .build();
+        entityManager.persist(recommendation);
+        entityManager.persist(RecommendationAssignment.builder()
+                .receiver(creator)
+                .recommendation(recommendation)
+                .recommendationAssignmentStatus(RecommendationAssignmentStatus.ACCEPTED)
+                .sentAt(LocalDateTime.now())
+                .acceptedAt(LocalDateTime.now())
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void export_ndjson_writesOneObjectPerRow() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        userExportService.export(creator.getId(), UserExportFormat.NDJSON, false, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize(4);
+        List<JsonNode> rows = lines.stream().map(this::readTree).toList();
+        assertThat(rows).extracting(row -> row.get("type").asText())
+                .containsExactly("profile", "contact", "recommendation", "assignment");
+        assertThat(rows.get(0).get("user_name").asText()).isEqualTo("creator");
+        assertThat(rows.get(1).get("direction").asText()).isEqualTo("INCOMING");
+        assertThat(rows.get(1).get("contact_user_name").asText()).isEqualTo("friend");
+        assertThat(rows.get(2).get("title").asText()).isEqualTo("Dune, Part \"Two\"");
+        assertThat(rows.get(3).get("recommendation_assignment_status").asText()).isEqualTo("ACCEPTED");
+    }
+
+    @Test
+    void export_csvGzip_writesSectionsWithHeadersAndEscapedFields() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        userExportService.export(creator.getId(), UserExportFormat.CSV, true, out);
+
+        String csv;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        List<String> lines = csv.lines().toList();
+        assertThat(lines.get(0)).startsWith("type,id,user_name,");
+        assertThat(lines).anySatisfy(line -> assertThat(line).startsWith("recommendation,").contains(",\"Dune, Part \"\"Two\"\"\","));
+        assertThat(lines).filteredOn(line -> line.startsWith("type,")).hasSize(5);
+    }
+
+    @Test
+    void getFormat_unknownFormat_throwsValidationException() {
+        when(messageUtil.get("user.export.format.invalid")).thenReturn("Unbekanntes Exportformat.");
+
+        assertThat(userExportService.getFormat(null)).isEqualTo(UserExportFormat.NDJSON);
+        assertThat(userExportService.getFormat("csv")).isEqualTo(UserExportFormat.CSV);
+        assertThatThrownBy(() -> userExportService.getFormat("xml")).isInstanceOf(ValidationException.class);
+    }
+
+    private JsonNode readTree(String line) {
+        try {
+            return objectMapper.readTree(line);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private User createUser(String name) {
+        User user = new User();
+        user.setUserName(name);
+        user.setEmail(name + "@example.com");
+        user.setDisplayName(name);
+        user.setPassword("password");
+        user.setRegistrationDate(LocalDateTime.now());
+        return user;
+    }
+}